@@ -0,0 +1,78 @@
+package mvc;
+
+/**
+ * The Downsampler class picks the points of a long series that best keep its shape when it is
+ * drawn with fewer points, using Largest-Triangle-Three-Buckets (LTTB). The first and last
+ * points are always kept; in between, the series is split into equal buckets and from each
+ * bucket the point forming the largest triangle with the previously kept point and the average
+ * of the next bucket is kept, so peaks and troughs survive where fixed-step sampling skips them.
+ */
+public final class Downsampler {
+
+  private Downsampler() {
+  }
+
+  /**
+   * The lttb method returns the indexes of the points to draw of a series of evenly spaced
+   * values (i.e. one value per day).
+   *
+   * @param values the values
+   * @param points the number of points to keep
+   * @return the indexes of the kept points, in increasing order; every index if the series
+   *         has no more than the given number of points
+   * @throws IllegalArgumentException if fewer than two points are requested
+   */
+  public static int[] lttb(double[] values, int points) throws IllegalArgumentException {
+    if (points < 2) {
+      throw new IllegalArgumentException("** AT LEAST TWO POINTS ARE NEEDED TO PLOT **");
+    }
+    int n = values.length;
+    if (n <= points) {
+      int[] all = new int[n];
+      for (int i = 0; i < n; i++) {
+        all[i] = i;
+      }
+      return all;
+    }
+
+    int[] output = new int[points];
+    // the first and last points are kept, the rest are split into points - 2 buckets
+    double bucketSize = (double) (n - 2) / (points - 2);
+    int kept = 0;
+    for (int b = 0; b < points - 2; b++) {
+      int from = (int) (b * bucketSize) + 1;
+      // the last bucket ends at the last point whatever the rounding
+      int to = b == points - 3 ? n - 1 : (int) ((b + 1) * bucketSize) + 1;
+
+      // the average of the next bucket (the last point once the buckets run out)
+      int nextFrom = to;
+      int nextTo = b == points - 3 ? n : Math.min((int) ((b + 2) * bucketSize) + 1, n);
+      double averageX = 0.0;
+      double averageY = 0.0;
+      for (int i = nextFrom; i < nextTo; i++) {
+        averageX += i;
+        averageY += values[i];
+      }
+      averageX /= nextTo - nextFrom;
+      averageY /= nextTo - nextFrom;
+
+      double keptY = values[kept];
+      double largest = -1.0;
+      int choice = from;
+      for (int i = from; i < to; i++) {
+        // twice the triangle's area; the factor does not change which is largest
+        double area = Math.abs((kept - averageX) * (values[i] - keptY)
+                - (kept - i) * (averageY - keptY));
+        if (area > largest) {
+          largest = area;
+          choice = i;
+        }
+      }
+      output[b + 1] = choice;
+      kept = choice;
+    }
+    output[points - 1] = n - 1;
+    return output;
+  }
+
+}
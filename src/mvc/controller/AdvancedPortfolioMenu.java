@@ -62,6 +62,14 @@ class AdvancedPortfolioMenu extends SimplePortfolioMenu {
         case "plot":
           updatePlotPortfolio();
           break;
+        case "c":
+        case "correlation":
+          updateCorrelationPortfolio();
+          break;
+        case "d":
+        case "journal":
+          updateJournalPortfolio();
+          break;
         default:
           super.apply(input);
       }
@@ -149,6 +157,19 @@ class AdvancedPortfolioMenu extends SimplePortfolioMenu {
     this.view.writeMessage(name + " SAVED TO 'portfolios' DIRECTORY" + System.lineSeparator());
   }
 
+  private void updateJournalPortfolio() {
+    String name;
+
+    this.view.writeMessage("ACTIVE PORTFOLIOS (" + model.listPortfolios() + ")"
+            + System.lineSeparator());
+    this.view.writeMessage("ENTER A PORTFOLIO NAME:" + System.lineSeparator());
+    name = sc.next();
+
+    this.model.journalPortfolio(name);
+    this.view.writeMessage(name + " NOW JOURNALED TO 'portfolios' DIRECTORY"
+            + System.lineSeparator());
+  }
+
   private void updateLoadPortfolio() {
     String name;
 
@@ -203,15 +224,35 @@ class AdvancedPortfolioMenu extends SimplePortfolioMenu {
   }
 
   private void updatePlotPortfolio() {
-    LocalDate custom = LocalDate.of(2024, 6, 13);
     String name;
-    String range;
     DateRange appliedRange;
 
     this.view.writeMessage("ACTIVE PORTFOLIOS (" + model.listPortfolios() + ")"
             + System.lineSeparator());
     this.view.writeMessage("ENTER A PORTFOLIO NAME:" + System.lineSeparator());
     name = sc.next();
+    appliedRange = promptDateRange();
+    this.view.writeMessage(this.model.plotPortfolio(name, appliedRange) + System.lineSeparator());
+  }
+
+  private void updateCorrelationPortfolio() {
+    String name;
+    DateRange appliedRange;
+
+    this.view.writeMessage("ACTIVE PORTFOLIOS (" + model.listPortfolios() + ")"
+            + System.lineSeparator());
+    this.view.writeMessage("ENTER A PORTFOLIO NAME:" + System.lineSeparator());
+    name = sc.next();
+    appliedRange = promptDateRange();
+    this.view.writeMessage(this.model.portfolioCorrelation(name, appliedRange)
+            + System.lineSeparator());
+  }
+
+  private DateRange promptDateRange() {
+    LocalDate custom = LocalDate.of(2024, 6, 13);
+    String range;
+    DateRange appliedRange;
+
     this.view.writeMessage("ENTER DATE RANGE ('w' = WEEK, 'm' = MONTH, 'y' = YEAR, " +
             "'5y' = FIVE YEARS, '10y' = TEN YEARS):" + System.lineSeparator());
     range = sc.next();
@@ -257,7 +298,7 @@ class AdvancedPortfolioMenu extends SimplePortfolioMenu {
       default:
         throw new IllegalArgumentException("** ENTER A VALID DATE RANGE (i.e. w, m, y, 5y) **");
     }
-    this.view.writeMessage(this.model.plotPortfolio(name, appliedRange) + System.lineSeparator());
+    return appliedRange;
   }
 
 }
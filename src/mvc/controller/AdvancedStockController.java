@@ -8,8 +8,9 @@ import mvc.view.TextStockView;
 /**
  * The AdvancedStockController class is the new controller that supports upgraded functionality
  * over the SimpleStockController. This new controller now supports operations like plotting,
- * re-balancing, save/load, etc... The AdvancedStockController extends the SimpleStockController
- * and adds support for the new features while calling the super class to handle unchanged inputs.
+ * re-balancing, save/load, technical indicators, etc... The AdvancedStockController extends the
+ * SimpleStockController and adds support for the new features while calling the super class to
+ * handle unchanged inputs.
  */
 public class AdvancedStockController extends SimpleStockController {
   //store and process the data
@@ -63,7 +64,7 @@ public class AdvancedStockController extends SimpleStockController {
             this.view.printMenu();
             userInstruction = sc.next();
           } else {
-            new SimpleStockMenu(model, view, sc).apply(func);
+            new AdvancedStockMenu(model, view, sc).apply(func);
           }
           break;
         case "2":
@@ -0,0 +1,120 @@
+package mvc.controller;
+
+import java.time.LocalDate;
+import java.util.Scanner;
+
+import mvc.model.BetterStockManager;
+import mvc.view.TextStockView;
+import stocks.IndicatorEngine;
+
+/**
+ * The AdvancedStockMenu class extends the functionality of the SimpleStockMenu class to add
+ * support for the inputs that are needed for technical indicators (EMA, RSI, MACD and
+ * Bollinger bands) and for screening every local stock for crossovers.
+ */
+class AdvancedStockMenu extends SimpleStockMenu {
+  //Store the data of the program with the advanced model
+  protected BetterStockManager model;
+
+  /**
+   * Controller will pass its parameters to the menu to help cut down on long switch
+   * statements in the controllerGo method.
+   *
+   * @param model the model of the program
+   * @param view  the view
+   * @param sc    the input scanner
+   */
+  protected AdvancedStockMenu(BetterStockManager model, TextStockView view, Scanner sc) {
+    super(model, view, sc);
+    this.model = model;
+  }
+
+  @Override
+  public void apply(String input) {
+    try {
+      switch (input) {
+        case "4":
+        case "indicators":
+          updateIndicator();
+          break;
+        case "5":
+        case "screen":
+          updateScreen();
+          break;
+        default:
+          super.apply(input);
+      }
+    } catch (RuntimeException e) {
+      this.view.writeMessage(e.getMessage() + System.lineSeparator());
+    }
+  }
+
+  private void updateIndicator() {
+    LocalDate start;
+    LocalDate end;
+    String formattedTicker;
+    IndicatorEngine.Indicator indicator;
+    double[] params;
+
+    this.view.writeMessage("ENTER STOCK TICKER (i.e. 'GOOG'):" + System.lineSeparator());
+    formattedTicker = sc.next().toUpperCase();
+
+    this.view.writeMessage("ENTER INDICATOR (EMA, RSI, MACD, BOLLINGER):"
+            + System.lineSeparator());
+    indicator = IndicatorEngine.Indicator.parse(sc.next());
+
+    this.view.writeMessage("ENTER PARAMETERS SEPARATED BY COMMAS, OR 'd' FOR DEFAULTS (i.e. "
+            + defaults(indicator) + "):" + System.lineSeparator());
+    params = indicator.parseParams(sc.next());
+
+    start = promptDate("START");
+
+    end = promptDate("END");
+
+    String output = model.getIndicator(formattedTicker, indicator, params, start, end);
+    this.view.writeMessage(indicator + "(" + format(params) + ") OF " + formattedTicker
+            + " DURING THE PERIOD " + start + " — " + end + ": " + System.lineSeparator());
+    this.view.writeMessage(output);
+  }
+
+  private void updateScreen() {
+    LocalDate date = promptDate("");
+
+    this.view.writeMessage("ENTER X VALUE:" + System.lineSeparator());
+    if (!sc.hasNextInt()) {
+      sc.next();
+      throw new IllegalArgumentException("** INVALID INPUT: PLEASE ENTER A VALID INTEGER **");
+    }
+    int days = sc.nextInt();
+
+    this.view.writeMessage("STOCKS THAT CLOSED ABOVE THEIR " + days + "-DAY MOVING AVERAGE ON "
+            + date + ":" + System.lineSeparator());
+    // matches arrive from the screener's threads while the scan is still running
+    String summary = model.screenCrossovers(date, days, match -> {
+      synchronized (this.view) {
+        this.view.writeMessage(match);
+      }
+    });
+    this.view.writeMessage(summary);
+  }
+
+  private static String defaults(IndicatorEngine.Indicator indicator) {
+    return format(indicator.getDefaultParams());
+  }
+
+  private static String format(double[] params) {
+    StringBuilder output = new StringBuilder();
+    for (int i = 0; i < params.length; i++) {
+      if (i > 0) {
+        output.append(',');
+      }
+      if (params[i] == Math.rint(params[i])) {
+        output.append((long) params[i]);
+      } else {
+        output.append(params[i]);
+      }
+    }
+    return output.toString();
+  }
+
+}
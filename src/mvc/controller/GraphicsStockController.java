@@ -4,8 +4,10 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.LocalDate;
 
+import mvc.DateRange;
 import mvc.model.BetterStockManager;
 import mvc.view.GraphicsStockView;
+import stocks.IndicatorEngine;
 
 /**
  * The GraphicsStockController class is an implementation on the StockController
@@ -52,9 +54,21 @@ public class GraphicsStockController implements StockController, ActionListener
         case "Save Portfolio":
           updateSavePortfolio();
           break;
+        case "Journal Portfolio":
+          updateJournalPortfolio();
+          break;
         case "Load Portfolio":
           updateLoadPortfolio();
           break;
+        case "Show Indicator":
+          updateIndicator();
+          break;
+        case "Show Correlation":
+          updateCorrelation();
+          break;
+        case "Plot Performance":
+          updatePlot();
+          break;
         default:
           break;
       }
@@ -118,6 +132,58 @@ public class GraphicsStockController implements StockController, ActionListener
     view.displayMessage("Value of portfolio " + name + " on " + date + ": " + value);
   }
 
+  /**
+   * Tell the model to compute a technical indicator over a date range.
+   */
+  private void updateIndicator() {
+    String ticker = view.getIndicatorTickerCommand();
+    String name = view.getIndicatorCommand();
+    LocalDate start = view.getIndicatorStartDateCommand();
+    LocalDate end = view.getIndicatorEndDateCommand();
+
+    if (ticker == null || ticker.isEmpty() || name == null || start == null || end == null) {
+      throw new IllegalArgumentException("** MISSING ARGUMENTS **");
+    }
+
+    IndicatorEngine.Indicator indicator = IndicatorEngine.Indicator.parse(name);
+    double[] params = indicator.parseParams(view.getIndicatorParamsCommand());
+    String values = model.getIndicator(ticker.toUpperCase(), indicator, params, start, end);
+    view.displayMessage(indicator + " of " + ticker.toUpperCase() + " from " + start + " to "
+            + end + ":");
+    view.displayMessage(values);
+  }
+
+  /**
+   * Tell the model to correlate the daily returns of a portfolio's stocks.
+   */
+  private void updateCorrelation() {
+    String name = view.getCorrelationPortfolioCommand();
+    DateRange range = view.getCorrelationRangeCommand();
+
+    if (name == null || name.isEmpty() || range == null) {
+      throw new IllegalArgumentException("** MISSING ARGUMENTS **");
+    }
+
+    view.displayMessage(model.portfolioCorrelation(name, range));
+  }
+
+  /**
+   * Tell the model to value a portfolio on every day of a range, and the view to draw it.
+   */
+  private void updatePlot() {
+    String name = view.getPlotPortfolioCommand();
+    DateRange range = view.getPlotRangeCommand();
+
+    if (name == null || name.isEmpty() || range == null) {
+      throw new IllegalArgumentException("** MISSING ARGUMENTS **");
+    }
+
+    double[] values = model.getPortfolioValues(name, range.getStartDate(), range.getEndDate());
+    view.showPerformance(range.getStartDate(), values);
+    view.displayMessage("Performance of portfolio " + name + " from " + range.getStartDate()
+            + " to " + range.getEndDate() + " plotted.");
+  }
+
   /**
    * Tell the model to save a portfolio.
    */
@@ -132,6 +198,20 @@ public class GraphicsStockController implements StockController, ActionListener
     view.displayMessage("Portfolio " + name + " saved successfully.");
   }
 
+  /**
+   * Tell the model to journal a portfolio, using the portfolio chosen to save.
+   */
+  private void updateJournalPortfolio() {
+    String name = view.getSavePortfolioCommand();
+
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException("** MISSING ARGUMENTS **");
+    }
+
+    model.journalPortfolio(name);
+    view.displayMessage("Portfolio " + name + " is now journaled.");
+  }
+
   /**
    * Tell the model to load a portfolio.
    */
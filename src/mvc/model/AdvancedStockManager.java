@@ -4,18 +4,26 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import mvc.DateRange;
 import portfolios.AdvancedStockPortfolio;
 import portfolios.BetterStockPortfolio;
-import stocks.BetterStock;
+import portfolios.PortfolioFile;
+import portfolios.PortfolioJournal;
+import stocks.IndicatorEngine;
+import stocks.IndicatorSeries;
+import stocks.LocalCSVDataSource;
+import stocks.PriceSeries;
+import stocks.UniverseScreener;
 
 /**
  * The AdvancedStockManager is the updated model that extends the SimpleStockManager with
@@ -25,14 +33,15 @@ import stocks.BetterStock;
  * to work with Better... objects
  */
 public class AdvancedStockManager extends SimpleStockManager implements BetterStockManager {
-  private List<BetterStockPortfolio> portfolios;
+  // keyed by exact portfolio name, iterated in the order the portfolios were added
+  private Map<String, BetterStockPortfolio> portfolios;
 
   /**
    * Constructs a new Advanced model.
    */
   public AdvancedStockManager() {
     super();
-    portfolios = new ArrayList<>();
+    portfolios = new LinkedHashMap<>();
   }
 
   @Override
@@ -57,12 +66,14 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
 
     BetterStockPortfolio newPortfolio = new AdvancedStockPortfolio();
     newPortfolio.setName(name);
-    portfolios.add(newPortfolio);
+    portfolios.put(name, newPortfolio);
   }
 
   @Override
   public void removePortfolio(String name) throws IllegalArgumentException {
-    portfolios.remove(find(name));
+    BetterStockPortfolio portfolio = find(name);
+    portfolio.setJournal(null);
+    portfolios.remove(portfolio.getName());
   }
 
   @Override
@@ -79,36 +90,91 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
 
   @Override
   public void portfolioRebalance(String portfolioName, LocalDate date, double[] distributions) {
-    for (double ratio : distributions) {
-      if (Math.abs(ratio - Math.floor(ratio)) > 1e-9) {
-        throw new IllegalArgumentException("** DISTRIBUTIONS MUST BE WHOLE NUMBERS **");
+    find(portfolioName).rebalance(date, distributions);
+  }
+
+  @Override
+  public String previewRebalance(String name, LocalDate date, double[] distributions) {
+    return find(name).planRebalance(date, distributions).toString();
+  }
+
+  @Override
+  public String plotPortfolio(String name, DateRange range) {
+    BetterStockPortfolio portfolio = find(name);
+    return portfolio.plot(range);
+  }
+
+  @Override
+  public double[] getPortfolioValues(String name, LocalDate start, LocalDate end) {
+    BetterStockPortfolio portfolio = find(name);
+    return portfolio.getDailyValues(start, end);
+  }
+
+  @Override
+  public String portfolioCorrelation(String name, DateRange range) {
+    BetterStockPortfolio portfolio = find(name);
+    return portfolio.correlation(range).toString();
+  }
+
+  @Override
+  public String getIndicator(String ticker, IndicatorEngine.Indicator indicator, double[] params,
+                             LocalDate start, LocalDate end) {
+
+    timeCheck(start, end);
+
+    IndicatorSeries values = indicatorSeries(ticker, indicator, params, start);
+    PriceSeries data = values.getSeries();
+    String[] names = indicator.getLineNames();
+    StringBuilder output = new StringBuilder();
+    // most recent day first, matching the order of crossovers
+    for (int i = data.indexOnOrBefore(end); i >= data.indexOnOrAfter(start); i--) {
+      output.append(data.getDate(i)).append(": ");
+      for (int l = 0; l < names.length; l++) {
+        double value = values.getValue(l, i);
+        output.append(l > 0 ? ", " : "").append(names[l]).append(' ')
+                .append(Double.isNaN(value) ? "N/A" : String.format("%.2f", value));
       }
+      output.append(System.lineSeparator());
     }
+    return output.toString();
+  }
 
-    BetterStockPortfolio portfolio = find(portfolioName);
-    double totalDistribution = 0;
-    for (double ratio : distributions) {
-      totalDistribution += ratio;
-    }
-    String input = this.getComposition(portfolioName, date);
-    String[] stocks = input.split(", ");
-    if (stocks.length == 1 && distributions.length > 1) {
-      throw new IllegalArgumentException("** TOO MANY DISTRIBUTIONS FOR ONE STOCK **");
-    }
-    final double originalValue = find(portfolioName).getValue(date);
-    for (int i = 0; i < stocks.length; i++) {
-      String realStockName = stocks[i].substring(0,stocks[i].indexOf(":"));
-      find(portfolioName).rebalanceStock( originalValue
-                      * (distributions[i] / totalDistribution),
-              date , realStockName);
+  @Override
+  public double[] getIndicatorOnDay(String ticker, IndicatorEngine.Indicator indicator,
+                                    double[] params, LocalDate date) {
+    if (date.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **");
     }
+    IndicatorSeries values = indicatorSeries(ticker, indicator, params, date);
+    return values.getValues(values.getSeries().indexOnOrBefore(date));
+  }
 
+  /**
+   * The indicatorSeries method returns the given indicator over the whole history of a stock,
+   * memoized by the shared {@link IndicatorEngine}.
+   *
+   * @param ticker the stock ticker
+   * @param indicator the indicator
+   * @param params the indicator's parameters, or null for its defaults
+   * @param start the earliest date accessed
+   * @return the indicator values
+   */
+  private IndicatorSeries indicatorSeries(String ticker, IndicatorEngine.Indicator indicator,
+                                          double[] params, LocalDate start) {
+    PriceSeries data = PriceSeries.of(getData(ticker, start, 0));
+    return IndicatorEngine.getInstance().get(ticker, data, indicator,
+            params == null ? indicator.getDefaultParams() : params);
   }
 
   @Override
-  public String plotPortfolio(String name, DateRange range) {
-    BetterStockPortfolio portfolio = find(name);
-    return portfolio.plot(range);
+  public String screenCrossovers(LocalDate date, int days, Consumer<String> matches) {
+    if (date.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **");
+    }
+    UniverseScreener screener = new UniverseScreener(new LocalCSVDataSource());
+    UniverseScreener.Report report = screener.screen(date, UniverseScreener.crossover(days),
+        match -> matches.accept(match.toString() + System.lineSeparator()));
+    return report.toString();
   }
 
   @Override
@@ -117,11 +183,18 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
     portfolio.savePortfolioToFile();
   }
 
+  @Override
+  public void journalPortfolio(String name) {
+    BetterStockPortfolio portfolio = find(name);
+    portfolio.setJournal(new PortfolioJournal(new File("portfolios"), name));
+  }
+
   @Override
   public void loadPortfolio(String name) {
     String directoryPath = "portfolios";
-    String fileName = name + ".csv";
     File directory = new File(directoryPath);
+    boolean journaled = PortfolioJournal.exists(directory, name);
+    String fileName = name + (journaled ? PortfolioJournal.SNAPSHOT_SUFFIX : ".csv");
     File fileToLoad = new File(directory, fileName);
 
     if (containsPortfolio(name)) {
@@ -142,6 +215,23 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
               + "CASE-SENSITIVE NAME **");
     }
 
+    if (journaled) {
+      loadJournaledPortfolio(name, directory);
+      return;
+    }
+
+    // the binary copy written with the CSV file is used while the CSV file is unchanged
+    Path binary = new File(directory, name + PortfolioFile.EXTENSION).toPath();
+    PortfolioFile decoded = PortfolioFile.read(binary, fileToLoad.toPath());
+    if (decoded != null) {
+      try {
+        prefetchHistories(decoded.getTickers());
+        portfolios.put(name, decoded.build(name));
+        return;
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("** ERROR READING THE PORTFOLIO FILE **", e);
+      }
+    }
 
     try (BufferedReader reader = new BufferedReader(new FileReader(fileToLoad))) {
       // Skip the header line
@@ -149,32 +239,70 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
 
       // Read the stock data
       String line;
-      BetterStockPortfolio output = new AdvancedStockPortfolio();
-      Map<String, BetterStock> stockMap = new HashMap<>();
+      AdvancedStockPortfolio output = new AdvancedStockPortfolio();
+      List<String> tickers = new ArrayList<>();
+      List<Double> shares = new ArrayList<>();
+      List<LocalDate> dates = new ArrayList<>();
 
       while ((line = reader.readLine()) != null) {
-        System.out.println("Reading line: " + line);
         String[] fields = line.split(",");
 
         if (fields.length != 5) {
           throw new IllegalArgumentException("** PORTFOLIO FILE IS NOT PROPERLY FORMATTED **");
         }
 
-        String ticker = fields[0].trim();
-        double shares = Double.parseDouble(fields[2].trim());
-        LocalDate date = LocalDate.parse(fields[4].trim());
+        tickers.add(fields[0].trim());
+        shares.add(Double.parseDouble(fields[2].trim()));
+        dates.add(LocalDate.parse(fields[4].trim()));
+      }
 
-        output.adjustStockOnDay(ticker, shares, date);
+      // Load every history in parallel before replaying the transactions in order
+      prefetchHistories(tickers);
+      for (int i = 0; i < tickers.size(); i++) {
+        output.adjustStockOnDay(tickers.get(i), shares.get(i), dates.get(i));
       }
 
       output.setName(name);
-      portfolios.add(output);
+      portfolios.put(name, output);
+      PortfolioFile.write(binary, fileToLoad.toPath(), output);
     } catch (IOException | RuntimeException e) {
       throw new IllegalArgumentException("** ERROR READING THE PORTFOLIO FILE **", e);
     }
   }
 
 
+  /**
+   * The loadJournaledPortfolio method loads a portfolio from its snapshot and the journal tail
+   * after it, and keeps journaling its transactions.
+   *
+   * @param name the portfolio name
+   * @param directory the directory of the snapshot and journal
+   */
+  private void loadJournaledPortfolio(String name, File directory) {
+    PortfolioJournal journal = new PortfolioJournal(directory, name);
+    try {
+      List<PortfolioJournal.Entry> entries = journal.read();
+      List<String> tickers = new ArrayList<>();
+      for (PortfolioJournal.Entry entry : entries) {
+        tickers.add(entry.getTicker());
+      }
+
+      // Load every history in parallel before replaying the transactions in order
+      prefetchHistories(tickers);
+      BetterStockPortfolio output = new AdvancedStockPortfolio();
+      for (PortfolioJournal.Entry entry : entries) {
+        output.adjustStockOnDay(entry.getTicker(), entry.getShares(), entry.getDate());
+      }
+
+      output.setName(name);
+      output.setJournal(journal);
+      portfolios.put(name, output);
+    } catch (RuntimeException e) {
+      journal.close();
+      throw new IllegalArgumentException("** ERROR READING THE PORTFOLIO FILE **", e);
+    }
+  }
+
   /**
    * The portfolioListToString method converts a list of StockPortfolio objects to
    * a corresponding string list.
@@ -184,7 +312,7 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
   @Override
   protected String portfolioListToString() {
     StringBuilder output = new StringBuilder();
-    for (BetterStockPortfolio p : portfolios) {
+    for (BetterStockPortfolio p : portfolios.values()) {
       String format = p.getName() + ", ";
       output.append(format);
     }
@@ -193,26 +321,19 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
 
   /**
    * The containsPortfolio private method return a boolean value based on whether
-   * a given list of portfolios contains a portfolio of a given name.
+   * this manager holds a portfolio of a given name.
    *
    * @param name       the given name
    * @return the boolean value
    */
   @Override
   protected boolean containsPortfolio(String name) {
-    boolean found = false;
-    for (BetterStockPortfolio p : portfolios) {
-      if (p.getName().equals(name)) {
-        found = true;
-        break;
-      }
-    }
-    return found;
+    return portfolios.containsKey(name);
   }
 
   /**
-   * The find method searches this list of portfolios and return the StockPortfolio
-   * object of the given name. If no matching portfolio is found, an exception is thrown.
+   * The find method looks up the StockPortfolio object of the given name. If no
+   * matching portfolio is found, an exception is thrown.
    *
    * @param name the name of portfolio to find
    * @return the matching portfolio object
@@ -221,13 +342,7 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
   @Override
   protected BetterStockPortfolio find(String name)
           throws IllegalArgumentException {
-    BetterStockPortfolio output = null;
-    for (BetterStockPortfolio p : portfolios) {
-      if (p.getName().equals(name)) {
-        output = p;
-        break;
-      }
-    }
+    BetterStockPortfolio output = portfolios.get(name);
     if (output == null) {
       throw new IllegalArgumentException("** NO SUCH PORTFOLIO FOUND **");
     }
@@ -246,7 +361,15 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
       for (File file : files) {
         if (file.isFile() && file.getName().toLowerCase().endsWith(".csv")) {
           String portfolioName = file.getName().replace(".csv", "").trim();
-          portfolioNames.add(portfolioName);
+          if (!portfolioNames.contains(portfolioName)) {
+            portfolioNames.add(portfolioName);
+          }
+        } else if (file.isFile() && file.getName().endsWith(PortfolioJournal.SNAPSHOT_SUFFIX)) {
+          String portfolioName = file.getName().substring(0,
+                  file.getName().length() - PortfolioJournal.SNAPSHOT_SUFFIX.length());
+          if (!portfolioNames.contains(portfolioName)) {
+            portfolioNames.add(portfolioName);
+          }
         }
       }
     }
@@ -257,7 +380,7 @@ public class AdvancedStockManager extends SimpleStockManager implements BetterSt
   @Override
   public ArrayList<String> getPortfolioNames() {
     ArrayList<String> output = new ArrayList<>();
-    for (BetterStockPortfolio p : portfolios) {
+    for (BetterStockPortfolio p : portfolios.values()) {
       output.add(p.getName());
     }
     return output;
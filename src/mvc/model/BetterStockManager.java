@@ -2,8 +2,10 @@ package mvc.model;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 import mvc.DateRange;
+import stocks.IndicatorEngine;
 
 /**
  * The BetterStockManager interface extends the original model interface and adds additional
@@ -62,6 +64,17 @@ public interface BetterStockManager extends StockManager {
    */
   void portfolioRebalance(String name, LocalDate date, double[] distributions);
 
+  /**
+   * The previewRebalance method returns, as a string, the trades that portfolioRebalance would
+   * make with the same arguments, without making them.
+   *
+   * @param name the portfolio to rebalance
+   * @param date the date on which to rebalance
+   * @param distributions the desired weights
+   * @return the planned trades
+   */
+  String previewRebalance(String name, LocalDate date, double[] distributions);
+
   /**
    * The plot method returns a visual representation of a portfolio's performance over a time range
    * of WEEK, MONTH, YEAR, FIVE_YEARS, or TEN_YEARS.
@@ -73,22 +86,98 @@ public interface BetterStockManager extends StockManager {
   /**
    * The savePortfolio method searches this list of portfolios and saves the corresponding
    * portfolio with the given name to a directory call portfolios. The saves portfolio is a
-   * CSV data file name 'portfolio-name'.csv.
+   * CSV data file name 'portfolio-name'.csv. If the portfolio is journaled, its journal is also
+   * synced to disk, and the CSV file is an export of it.
    *
    * @param name the name of the portfolio to save
    */
   void savePortfolio(String name);
 
+  /**
+   * The journalPortfolio method switches the portfolio with the given name to journaled saves:
+   * a snapshot is written to the 'portfolios' directory and from then on every transaction is
+   * appended to 'portfolio-name'.journal, so a save no longer rewrites the whole portfolio.
+   * Loading a journaled portfolio keeps it journaled.
+   *
+   * @param name the name of the portfolio to journal
+   */
+  void journalPortfolio(String name);
+
   /**
    * The loadPortfolio method loads a portfolio file that is a CSV file, is formatted correctly,
    * and is in the 'portfolios' directory. One will be automatically created the first
    * time you save a portfolio but if you are starting by loading one in, you must create your
    * own and it must be named "portfolios". The loaded portfolio is added to the models list of
-   * portfolios and supports all operations.
+   * portfolios and supports all operations. A journaled portfolio is loaded from its snapshot
+   * and journal instead.
    * @param name name of portfolio to search
    */
   void loadPortfolio(String name);
 
+  /**
+   * The getPortfolioValues method returns the value of a portfolio on every day from the
+   * start date to the end date (inclusive), for charting or export.
+   *
+   * @param name  the name of the portfolio
+   * @param start the start date, whose value is at index 0
+   * @param end   the end date
+   * @return the values, one per calendar day
+   */
+  double[] getPortfolioValues(String name, LocalDate start, LocalDate end);
+
+  /**
+   * The portfolioCorrelation method returns, as a string, the correlation and covariance
+   * matrices of the daily returns of every stock in a portfolio over a time range.
+   *
+   * @param name  the name of the portfolio
+   * @param range the DateRange enum object range
+   * @return the matrices
+   */
+  String portfolioCorrelation(String name, DateRange range);
+
+  /**
+   * The getIndicator method returns, as a string, the values of a technical indicator (EMA,
+   * RSI, MACD or Bollinger bands) of a stock on every market day of a date range, most recent
+   * day first. Indicators are computed over the stock's whole history, so the first day of
+   * the range has a value whenever enough history precedes it.
+   *
+   * @param ticker    the stock ticker
+   * @param indicator the indicator
+   * @param params    the indicator's parameters, or null for its defaults
+   * @param start     the start date
+   * @param end       the end date
+   * @return the indicator values, one line per market day
+   */
+  String getIndicator(String ticker, IndicatorEngine.Indicator indicator, double[] params,
+                      LocalDate start, LocalDate end);
+
+  /**
+   * The getIndicatorOnDay method returns the values of a technical indicator of a stock on a
+   * given date (the latest market day on or before it), one per line of the indicator
+   * (see {@link IndicatorEngine.Indicator#getLineNames()}).
+   *
+   * @param ticker    the stock ticker
+   * @param indicator the indicator
+   * @param params    the indicator's parameters, or null for its defaults
+   * @param date      the date
+   * @return the indicator values, NaN where the history is too short
+   */
+  double[] getIndicatorOnDay(String ticker, IndicatorEngine.Indicator indicator, double[] params,
+                             LocalDate date);
+
+  /**
+   * The screenCrossovers method scans every stock with a CSV file in the data directory for
+   * the ones that closed above their x-day moving average on the given market day. The scan
+   * runs in parallel over the local files only, and each match is passed to the consumer as
+   * soon as it is found.
+   *
+   * @param date    the market day
+   * @param days    the number of days (x-value)
+   * @param matches receives a line for each match, possibly from several threads at once
+   * @return a summary of the scan, with the time spent on the slowest stocks
+   */
+  String screenCrossovers(LocalDate date, int days, Consumer<String> matches);
+
   ArrayList<String> getPortfolioNamesInDirectory();
 
   ArrayList<String> getPortfolioNames();
@@ -1,15 +1,19 @@
 package mvc.model;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import portfolios.SimpleStockPortfolio;
 import portfolios.StockPortfolio;
-import stocks.AlphaVantageDataSource;
-import stocks.LocalCSVDataSource;
+import stocks.CrossoverEngine;
+import stocks.HistoryPrefetcher;
+import stocks.PriceSeries;
 import stocks.StockData;
 import stocks.StockDataSource;
+import stocks.TieredStockDataSource;
 
 /**
  * The {@code mvc.model.SimpleStockManager} class is the model in the MVC architecture
@@ -18,11 +22,12 @@ import stocks.StockDataSource;
  */
 public class SimpleStockManager implements StockManager {
   private StockDataSource source;
-  private List<StockPortfolio> portfolios;
+  // keyed by exact portfolio name, iterated in the order the portfolios were added
+  private Map<String, StockPortfolio> portfolios;
 
   public SimpleStockManager() {
-    source = new AlphaVantageDataSource();
-    portfolios = new ArrayList<>();
+    source = TieredStockDataSource.getInstance();
+    portfolios = new LinkedHashMap<>();
   }
 
   @Override
@@ -30,7 +35,7 @@ public class SimpleStockManager implements StockManager {
 
     timeCheck(start, end);
 
-    List<StockData> data = getData(ticker, start, 0);
+    PriceSeries data = PriceSeries.of(getData(ticker, start, 0));
 
     double startPrice = getClosingPrice(data, start);
     double endPrice = getClosingPrice(data, end);
@@ -44,43 +49,45 @@ public class SimpleStockManager implements StockManager {
     if (date.isAfter(LocalDate.now())) {
       throw new IllegalArgumentException("** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **");
     }
-    List<StockData> data = getData(ticker, date, days);
-    double sum = 0.0;
-    int acc = 0;
-
-    for (StockData stockData : data) {
-      if (!stockData.getDate().isAfter(date) && acc < days) {
-        sum += stockData.getClose();
-        acc++;
-      }
-    }
-    if (acc == 0) {
+    PriceSeries data = PriceSeries.of(getData(ticker, date, days));
+    int index = data.indexOnOrBefore(date);
+    if (index < 0 || days <= 0) {
       throw new IllegalArgumentException("** ENTER A POSITIVE X-VALUE **");
     }
 
-    return sum / acc;
+    return data.movingAverage(index, days);
   }
 
   @Override
-  public List<LocalDate> getCrossovers(String ticker, LocalDate start, LocalDate end, int days) {
+  public double[] getMovingAvgs(String ticker, LocalDate start, LocalDate end, int days) {
 
     timeCheck(start, end);
 
-    List<StockData> data = getData(ticker, start, days);
-    List<LocalDate> crossovers = new ArrayList<>();
+    PriceSeries data = PriceSeries.of(getData(ticker, start, days));
+    return data.movingAverages(start, end, days);
+  }
 
+  @Override
+  public List<LocalDate> getCrossovers(String ticker, LocalDate start, LocalDate end, int days) {
 
-    data = trim(data, start, end);
+    timeCheck(start, end);
 
-    for (StockData d : data) {
-      LocalDate currentDate = d.getDate();
-      double movingAverage = getMovingAvg(ticker, currentDate, days);
+    PriceSeries data = PriceSeries.of(getData(ticker, start, days));
+    return CrossoverEngine.crossovers(data, start, end, days);
+  }
 
-      if (d.getClose() > movingAverage) {
-        crossovers.add(currentDate);
-      }
+  @Override
+  public Map<Integer, List<LocalDate>> getCrossovers(String ticker, LocalDate start,
+                                                     LocalDate end, int[] windows) {
+
+    timeCheck(start, end);
+
+    int maxWindow = 0;
+    for (int window : windows) {
+      maxWindow = Math.max(maxWindow, window);
     }
-    return crossovers;
+    PriceSeries data = PriceSeries.of(getData(ticker, start, maxWindow));
+    return CrossoverEngine.crossovers(data, start, end, windows);
   }
 
   @Override
@@ -90,12 +97,12 @@ public class SimpleStockManager implements StockManager {
     }
     StockPortfolio newPortfolio = new SimpleStockPortfolio();
     newPortfolio.setName(name);
-    portfolios.add(newPortfolio);
+    portfolios.put(name, newPortfolio);
   }
 
   @Override
   public void removePortfolio(String name) throws IllegalArgumentException {
-    portfolios.remove(find(name));
+    portfolios.remove(find(name).getName());
   }
 
   @Override
@@ -129,7 +136,7 @@ public class SimpleStockManager implements StockManager {
    */
   protected String portfolioListToString() {
     StringBuilder output = new StringBuilder();
-    for (StockPortfolio p : portfolios) {
+    for (StockPortfolio p : portfolios.values()) {
       String format = p.getName() + ", ";
       output.append(format);
     }
@@ -138,25 +145,18 @@ public class SimpleStockManager implements StockManager {
 
   /**
    * The containsPortfolio private method return a boolean value based on whether
-   * a given list of portfolios contains a portfolio of a given name.
+   * this manager holds a portfolio of a given name.
    *
    * @param name       the given name
    * @return the boolean value
    */
   protected boolean containsPortfolio(String name) {
-    boolean found = false;
-    for (StockPortfolio p : portfolios) {
-      if (p.getName().equals(name)) {
-        found = true;
-        break;
-      }
-    }
-    return found;
+    return portfolios.containsKey(name);
   }
 
   /**
-   * The find method searches this list of portfolios and return the StockPortfolio
-   * object of the given name. If no matching portfolio is found, an exception is thrown.
+   * The find method looks up the StockPortfolio object of the given name. If no
+   * matching portfolio is found, an exception is thrown.
    *
    * @param name the name of portfolio to find
    * @return the matching portfolio object
@@ -164,13 +164,7 @@ public class SimpleStockManager implements StockManager {
    */
   protected StockPortfolio find(String name)
           throws IllegalArgumentException {
-    StockPortfolio output = null;
-    for (StockPortfolio p : portfolios) {
-      if (p.getName().equals(name)) {
-        output = p;
-        break;
-      }
-    }
+    StockPortfolio output = portfolios.get(name);
     if (output == null) {
       throw new IllegalArgumentException("** NO SUCH PORTFOLIO FOUND **");
     }
@@ -182,10 +176,13 @@ public class SimpleStockManager implements StockManager {
    * The getData method get the history data from a local CSV file by default.
    * If a CSV corresponding to the given ticker is not found, the method will attempt to
    * download a new file from the API. Alternatively if the CSV file does exist but is
-   * not up-to-date (i.e. its most recent entry is not today), it is replaced by a new CSV file
-   * from the API. This method also checks that the earliest date accessed by the user is
-   * not out of range of the accessible data and that the x value for methods like getCrossovers
-   * does not reach beyond the earliest data available.
+   * not up-to-date (i.e. its most recent entry is not today), only the newest days are
+   * downloaded from the API and appended to it. This method also checks that the earliest date
+   * accessed by the user is not out of range of the accessible data and that the x value for
+   * methods like getCrossovers does not reach beyond the earliest data available. The returned
+   * list is a view over a PriceSeries, so wrapping it with {@link PriceSeries#of(List)} does not
+   * copy any data. Histories are looked up through the shared {@link TieredStockDataSource}, so
+   * repeated calculations on the same ticker do not re-read the CSV file.
    *
    * @param ticker stock ticker
    * @param start earliest date accessed
@@ -193,23 +190,21 @@ public class SimpleStockManager implements StockManager {
    * @return the list of StockData
    */
   protected List<StockData> getData(String ticker, LocalDate start, int x) {
-    StockDataSource localSource = new LocalCSVDataSource();
-    String formattedTicker = ticker.toUpperCase();
-
-    try {
-      List<StockData> data = localSource.getHistoryData(formattedTicker);
-      if (data.get(0).getDate().isBefore(LocalDate.now())) {
-        earliestDataCheck(start, x, data);
-        return source.getHistoryData(formattedTicker);
-      }
-      earliestDataCheck(start, x, data);
-      return data;
-    } catch (RuntimeException e) {
-      List<StockData> data = source.getHistoryData(formattedTicker);
-      earliestDataCheck(start, x, data);
-      return data;
-    }
+    List<StockData> data = source.getHistorySeries(ticker).asList();
+    earliestDataCheck(start, x, data);
+    return data;
+  }
 
+  /**
+   * The prefetchHistories method loads the histories of the given tickers in parallel through
+   * the data source, which keeps them in memory, so that code which then builds stocks for all
+   * of them does not wait for each history in turn. Tickers that fail to load are skipped here;
+   * the error is reported when the stock itself is built.
+   *
+   * @param tickers the tickers to load
+   */
+  protected void prefetchHistories(Collection<String> tickers) {
+    HistoryPrefetcher.prefetch(tickers, source);
   }
 
   /**
@@ -217,38 +212,18 @@ public class SimpleStockManager implements StockManager {
    * if the stock market is closed on the given date, it will return the closing price
    * of the next previous stock market day.
    *
-   * @param history the list of stocks.StockData for a given ticker
+   * @param history the price series for a given ticker
    * @param date    the desired date
    * @return the closing price on that date
+   * @throws IllegalArgumentException if the date is before the earliest data available
    */
-  private double getClosingPrice(List<StockData> history, LocalDate date) {
-    while (true) {
-      for (StockData d : history) {
-        if (d.getDate().equals(date)) {
-          return d.getClose();
-        }
-      }
-      date = date.minusDays(1);
-    }
-  }
-
-  /**
-   * The trim method trims a list of stocks.StockData to only include those entries
-   * corresponding to the date within the range (inclusive).
-   *
-   * @param data  the list of stocks.StockData
-   * @param start the start date
-   * @param end   the end date
-   * @return the new, trimmed list of stocks.StockData
-   */
-  private List<StockData> trim(List<StockData> data, LocalDate start, LocalDate end) {
-    List<StockData> output = new ArrayList<>();
-    for (StockData d : data) {
-      if (!d.getDate().isBefore(start) && !d.getDate().isAfter(end)) {
-        output.add(d);
-      }
+  private double getClosingPrice(PriceSeries history, LocalDate date) {
+    int index = history.indexOnOrBefore(date);
+    if (index < 0) {
+      throw new IllegalArgumentException("** HISTORICAL DATA NOT AVAILABLE FOR "
+              + date + ", TRY A MORE RECENT TIME FRAME **" + System.lineSeparator());
     }
-    return output;
+    return history.getClose(index);
   }
 
   /**
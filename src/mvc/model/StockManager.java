@@ -2,6 +2,7 @@ package mvc.model;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -38,6 +39,18 @@ public interface StockManager {
    */
   double getMovingAvg(String ticker, LocalDate date, int days);
 
+  /**
+   * The getMovingAvgs method returns the x-day moving average of a specified stock on every
+   * market day of a specified date range, earliest day first.
+   *
+   * @param ticker the stock ticker
+   * @param start  the start date
+   * @param end    the end date
+   * @param days   the number of days (x-value)
+   * @return the moving averages, one per market day in the range
+   */
+  double[] getMovingAvgs(String ticker, LocalDate start, LocalDate end, int days);
+
   /**
    * The getCrossovers method returns the days that are x-day crossovers for a specified stock over
    * a specified date range and x-value.
@@ -50,6 +63,20 @@ public interface StockManager {
    */
   List<LocalDate> getCrossovers(String ticker, LocalDate start, LocalDate end, int days);
 
+  /**
+   * The getCrossovers method returns the crossover days of a specified stock over a specified
+   * date range for several x-values at once (i.e. 20, 50 and 200 days), evaluated in a single
+   * pass over the stock's history.
+   *
+   * @param ticker  the stock ticker
+   * @param start   the start date
+   * @param end     the end date
+   * @param windows the x-values to evaluate
+   * @return the list of crossover days for each x-value, in the order the x-values were given
+   */
+  Map<Integer, List<LocalDate>> getCrossovers(String ticker, LocalDate start, LocalDate end,
+                                              int[] windows);
+
 
   /**
    * The addPortfolio method allows a user to add a portfolio with a given name
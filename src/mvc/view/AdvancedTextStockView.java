@@ -2,7 +2,8 @@ package mvc.view;
 
 /**
  * The AdvancedTextStockView extends the SimpleTextStockView and overrides the portfolioMenu
- * method to show the user the new key-binds for advanced portfolio operations.
+ * and stock menu methods to show the user the new key-binds for advanced portfolio and stock
+ * operations.
  */
 public class AdvancedTextStockView extends SimpleTextStockView {
 
@@ -14,6 +15,18 @@ public class AdvancedTextStockView extends SimpleTextStockView {
     super(appendable);
   }
 
+  @Override
+  public void stockInstructionsMenu() {
+    writeMessage("\n||————————————————— STOCKS MENU —————————————————||" + System.lineSeparator());
+    writeMessage("- '1' : GAIN/LOSS CALCULATOR" + System.lineSeparator());
+    writeMessage("- '2' : X-DAY MOVING AVG CALCULATOR" + System.lineSeparator());
+    writeMessage("- '3' : X-DAY CROSSOVER CALCULATOR" + System.lineSeparator());
+    writeMessage("- '4' : TECHNICAL INDICATORS (EMA, RSI, MACD, BOLLINGER)"
+            + System.lineSeparator());
+    writeMessage("- '5' : SCREEN ALL LOCAL STOCKS FOR X-DAY CROSSOVERS" + System.lineSeparator());
+    writeMessage("- 'm' : MAIN MENU" + System.lineSeparator());
+  }
+
   @Override
   public void portfolioInstructionMenu() {
     writeMessage("\n||—————————————————— PORTFOLIO MENU ——————————————————||"
@@ -23,7 +36,9 @@ public class AdvancedTextStockView extends SimpleTextStockView {
     writeMessage("- '3' : BUY/SELL                - '9' : LOAD" + System.lineSeparator());
     writeMessage("- '4' : VALUE                   - 'a' : RE-BALANCE" + System.lineSeparator());
     writeMessage("- '5' : COMPOSITION             - 'b' : PLOT" + System.lineSeparator());
-    writeMessage("- '6' : LIST ALL PORTFOLIOS     - 'm' : MAIN MENU" + System.lineSeparator());
+    writeMessage("- '6' : LIST ALL PORTFOLIOS     - 'c' : CORRELATION" + System.lineSeparator());
+    writeMessage("                                - 'd' : JOURNAL" + System.lineSeparator());
+    writeMessage("                                - 'm' : MAIN MENU" + System.lineSeparator());
   }
 
 
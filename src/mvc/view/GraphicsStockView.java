@@ -4,6 +4,8 @@ package mvc.view;
 import java.awt.event.ActionListener;
 import java.time.LocalDate;
 
+import mvc.DateRange;
+
 /**
  * The GraphicsStockView interface defines operations and methods for graphical user
  * interfaces (views) for the stock program.
@@ -78,7 +80,7 @@ public interface GraphicsStockView  {
 
   /**
    * The getSavePortfolioCommand method returns the desired portfolio the user
-   * chose to operate on for the save a portfolio functionality.
+   * chose to operate on for the save and journal a portfolio functionalities.
    * @return the portfolio name
    */
   String getSavePortfolioCommand();
@@ -90,6 +92,76 @@ public interface GraphicsStockView  {
    */
   String getLoadPortfolioCommand();
 
+  /**
+   * The getIndicatorTickerCommand method returns the stock ticker as entered by the user for
+   * the technical indicator functionality.
+   * @return the stock ticker
+   */
+  String getIndicatorTickerCommand();
+
+  /**
+   * The getIndicatorCommand method returns the name of the technical indicator the user chose
+   * (i.e. "MACD").
+   * @return the indicator name
+   */
+  String getIndicatorCommand();
+
+  /**
+   * The getIndicatorParamsCommand method returns the indicator parameters as entered by the
+   * user, comma-separated, or an empty string for the defaults.
+   * @return the parameters text
+   */
+  String getIndicatorParamsCommand();
+
+  /**
+   * The getIndicatorStartDateCommand returns the start date as entered by the user for the
+   * technical indicator functionality.
+   * @return the date
+   */
+  LocalDate getIndicatorStartDateCommand();
+
+  /**
+   * The getIndicatorEndDateCommand returns the end date as entered by the user for the
+   * technical indicator functionality.
+   * @return the date
+   */
+  LocalDate getIndicatorEndDateCommand();
+
+  /**
+   * The getCorrelationPortfolioCommand method returns the desired portfolio the user
+   * chose to operate on for the correlation functionality.
+   * @return the portfolio name
+   */
+  String getCorrelationPortfolioCommand();
+
+  /**
+   * The getCorrelationRangeCommand method returns the date range the user chose for the
+   * correlation functionality.
+   * @return the date range
+   */
+  DateRange getCorrelationRangeCommand();
+
+  /**
+   * The getPlotPortfolioCommand method returns the desired portfolio the user
+   * chose to operate on for the plot functionality.
+   * @return the portfolio name
+   */
+  String getPlotPortfolioCommand();
+
+  /**
+   * The getPlotRangeCommand method returns the date range the user chose for the plot
+   * functionality.
+   * @return the date range
+   */
+  DateRange getPlotRangeCommand();
+
+  /**
+   * The showPerformance method draws the daily values of a portfolio.
+   * @param start the date of the first value
+   * @param values the values, one per day
+   */
+  void showPerformance(LocalDate start, double[] values);
+
   /**
    * The refresh method refreshes the view and updates the visuals.
    */
@@ -0,0 +1,86 @@
+package mvc.view;
+
+import javax.swing.JPanel;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.time.LocalDate;
+
+import mvc.Downsampler;
+
+/**
+ * The PerformanceChart class is a panel that draws the daily values of a portfolio as a line.
+ * The series is downsampled with LTTB to one point per horizontal pixel, so drawing a ten-year
+ * range costs no more than drawing a month.
+ */
+class PerformanceChart extends JPanel {
+  private static final long serialVersionUID = 1L;
+  private static final int MARGIN = 60;
+
+  private LocalDate start;
+  private double[] values;
+
+  /**
+   * Constructs an empty PerformanceChart.
+   */
+  PerformanceChart() {
+    setPreferredSize(new Dimension(600, 300));
+    setBackground(Color.WHITE);
+    this.values = new double[0];
+  }
+
+  /**
+   * The setSeries method replaces the series drawn by the chart.
+   *
+   * @param start the date of the first value
+   * @param values the values, one per day
+   */
+  void setSeries(LocalDate start, double[] values) {
+    this.start = start;
+    this.values = values.clone();
+    repaint();
+  }
+
+  @Override
+  protected void paintComponent(Graphics graphics) {
+    super.paintComponent(graphics);
+    int width = getWidth() - 2 * MARGIN;
+    int height = getHeight() - 2 * MARGIN;
+    if (values.length < 2 || width < 2 || height < 2) {
+      return;
+    }
+
+    int[] points = Downsampler.lttb(values, width);
+    double min = Double.MAX_VALUE;
+    double max = -Double.MAX_VALUE;
+    for (int index : points) {
+      min = Math.min(min, values[index]);
+      max = Math.max(max, values[index]);
+    }
+    double span = max == min ? 1.0 : max - min;
+
+    int[] x = new int[points.length];
+    int[] y = new int[points.length];
+    for (int i = 0; i < points.length; i++) {
+      x[i] = MARGIN + (int) Math.round((double) points[i] / (values.length - 1) * width);
+      y[i] = MARGIN + height - (int) Math.round((values[points[i]] - min) / span * height);
+    }
+
+    Graphics2D g = (Graphics2D) graphics;
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g.setColor(Color.LIGHT_GRAY);
+    g.drawRect(MARGIN, MARGIN, width, height);
+    g.setColor(Color.DARK_GRAY);
+    g.drawString(String.format("$%.2f", max), 4, MARGIN + 4);
+    g.drawString(String.format("$%.2f", min), 4, MARGIN + height + 4);
+    g.drawString(start.toString(), MARGIN, MARGIN + height + 20);
+    String end = start.plusDays(values.length - 1).toString();
+    g.drawString(end, MARGIN + width - g.getFontMetrics().stringWidth(end),
+            MARGIN + height + 20);
+    g.setColor(new Color(0, 102, 204));
+    g.drawPolyline(x, y, points.length);
+  }
+
+}
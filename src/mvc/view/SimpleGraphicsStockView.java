@@ -15,11 +15,14 @@ import javax.swing.JScrollPane;
 import java.awt.BorderLayout;
 import java.awt.FlowLayout;
 import java.awt.Container;
+import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.event.ActionListener;
 import java.time.LocalDate;
 import java.util.stream.IntStream;
 
+import mvc.DateRange;
+
 /**
  * The SimpleGraphicsStockView class in an implementation on the GraphicsStock view interface
  * and handles to view output with a GUI.
@@ -29,21 +32,37 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
   final static String BUYPANEL = "Buy or Sell Stocks";
   final static String VALUEPANEL = "Value of Portfolio";
   final static String SAVELOADPANEL = "Save or Load Portfolio";
+  final static String INDICATORPANEL = "Technical Indicators";
+  final static String CORRELATIONPANEL = "Correlation";
+  final static String PLOTPANEL = "Performance";
 
   private JButton createButton;
   private JButton buySellButton;
   private JButton queryButton;
   private JButton saveButton;
+  private JButton journalButton;
   private JButton loadButton;
+  private JButton indicatorButton;
+  private JButton correlationButton;
+  private JButton plotButton;
 
   private JTextField portfolioNameField;
   private JTextField stockTickerField;
   private JTextField stockSharesField;
+  private JTextField indicatorTickerField;
+  private JTextField indicatorParamsField;
 
   private JComboBox<String> buySellPortfolioComboBox;
   private JComboBox<String> valuePortfolioComboBox;
   private JComboBox<String> savePortfolioComboBox;
   private JComboBox<String> loadPortfolioComboBox;
+  private JComboBox<String> indicatorComboBox;
+  private JComboBox<String> correlationPortfolioComboBox;
+  private JComboBox<DateRange> correlationRangeComboBox;
+  private JComboBox<String> plotPortfolioComboBox;
+  private JComboBox<DateRange> plotRangeComboBox;
+
+  private PerformanceChart performanceChart;
 
   private JComboBox<Integer> buySellYearComboBox;
   private JComboBox<Integer> buySellMonthComboBox;
@@ -53,6 +72,13 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
   private JComboBox<Integer> valueMonthComboBox;
   private JComboBox<Integer> valueDayComboBox;
 
+  private JComboBox<Integer> indicatorStartYearComboBox;
+  private JComboBox<Integer> indicatorStartMonthComboBox;
+  private JComboBox<Integer> indicatorStartDayComboBox;
+  private JComboBox<Integer> indicatorEndYearComboBox;
+  private JComboBox<Integer> indicatorEndMonthComboBox;
+  private JComboBox<Integer> indicatorEndDayComboBox;
+
   private JTextArea messageArea;
 
   /**
@@ -79,11 +105,17 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
     JPanel buySellPanel = createBuySellPanel();
     JPanel valuePanel = createValuePanel();
     JPanel saveLoadPanel = createSaveLoadPanel();
+    JPanel indicatorPanel = createIndicatorPanel();
+    JPanel correlationPanel = createCorrelationPanel();
+    JPanel plotPanel = createPlotPanel();
 
     tabbedPane.addTab(CREATIONPANEL, creationPanel);
     tabbedPane.addTab(BUYPANEL, buySellPanel);
     tabbedPane.addTab(VALUEPANEL, valuePanel);
     tabbedPane.addTab(SAVELOADPANEL, saveLoadPanel);
+    tabbedPane.addTab(INDICATORPANEL, indicatorPanel);
+    tabbedPane.addTab(CORRELATIONPANEL, correlationPanel);
+    tabbedPane.addTab(PLOTPANEL, plotPanel);
 
     pane.add(tabbedPane, BorderLayout.CENTER);
   }
@@ -200,6 +232,7 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
     savePortfolioComboBox = new JComboBox<>();
 
     saveButton = new JButton("Save Portfolio");
+    journalButton = new JButton("Journal Portfolio");
 
     JLabel loadLabel = new JLabel("Load Portfolio:");
     loadPortfolioComboBox = new JComboBox<>();
@@ -209,6 +242,7 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
     panel.add(saveLabel);
     panel.add(savePortfolioComboBox);
     panel.add(saveButton);
+    panel.add(journalButton);
     panel.add(loadLabel);
     panel.add(loadPortfolioComboBox);
     panel.add(loadButton);
@@ -216,6 +250,122 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
     return panel;
   }
 
+  /**
+   * Create the technical indicator panel.
+   * @return the JPanel object
+   */
+  private JPanel createIndicatorPanel() {
+    JPanel panel = new JPanel(new GridLayout(0, 1, 10, 10));
+    panel.setBorder(BorderFactory.createTitledBorder("Technical Indicators"));
+
+    JLabel tickerLabel = new JLabel("Stock Ticker:");
+    indicatorTickerField = new JTextField(10);
+
+    JLabel indicatorLabel = new JLabel("Select Indicator:");
+    indicatorComboBox = new JComboBox<>(new String[]{"EMA", "RSI", "MACD", "BOLLINGER"});
+
+    JLabel paramsLabel = new JLabel("Parameters (comma-separated, blank for defaults):");
+    indicatorParamsField = new JTextField(10);
+
+    JLabel startLabel = new JLabel("Select Start Date:");
+    indicatorStartYearComboBox = new JComboBox<>(IntStream.range(2000,
+            LocalDate.now().getYear() + 1).boxed().toArray(Integer[]::new));
+    indicatorStartMonthComboBox = new JComboBox<>(IntStream.range(1, 13).boxed()
+            .toArray(Integer[]::new));
+    indicatorStartDayComboBox = new JComboBox<>(IntStream.range(1, 32).boxed()
+            .toArray(Integer[]::new));
+
+    JLabel endLabel = new JLabel("Select End Date:");
+    indicatorEndYearComboBox = new JComboBox<>(IntStream.range(2000,
+            LocalDate.now().getYear() + 1).boxed().toArray(Integer[]::new));
+    indicatorEndMonthComboBox = new JComboBox<>(IntStream.range(1, 13).boxed()
+            .toArray(Integer[]::new));
+    indicatorEndDayComboBox = new JComboBox<>(IntStream.range(1, 32).boxed()
+            .toArray(Integer[]::new));
+
+    // Add listeners to update days in day combo boxes based on selected year and month
+    ActionListener startListener = e -> updateDaysAndMonthsInComboBox(
+            indicatorStartYearComboBox, indicatorStartMonthComboBox, indicatorStartDayComboBox);
+    indicatorStartYearComboBox.addActionListener(startListener);
+    indicatorStartMonthComboBox.addActionListener(startListener);
+    ActionListener endListener = e -> updateDaysAndMonthsInComboBox(
+            indicatorEndYearComboBox, indicatorEndMonthComboBox, indicatorEndDayComboBox);
+    indicatorEndYearComboBox.addActionListener(endListener);
+    indicatorEndMonthComboBox.addActionListener(endListener);
+
+    indicatorButton = new JButton("Show Indicator");
+
+    panel.add(tickerLabel);
+    panel.add(indicatorTickerField);
+    panel.add(indicatorLabel);
+    panel.add(indicatorComboBox);
+    panel.add(paramsLabel);
+    panel.add(indicatorParamsField);
+    panel.add(startLabel);
+    panel.add(createDatePanel(indicatorStartYearComboBox, indicatorStartMonthComboBox,
+            indicatorStartDayComboBox));
+    panel.add(endLabel);
+    panel.add(createDatePanel(indicatorEndYearComboBox, indicatorEndMonthComboBox,
+            indicatorEndDayComboBox));
+    panel.add(indicatorButton);
+
+    return panel;
+  }
+
+  /**
+   * Create the correlation panel.
+   * @return the JPanel object
+   */
+  private JPanel createCorrelationPanel() {
+    JPanel panel = new JPanel(new GridLayout(0, 1, 10, 10));
+    panel.setBorder(BorderFactory.createTitledBorder("Correlation of Daily Returns"));
+
+    JLabel portfolioLabel = new JLabel("Select Portfolio:");
+    correlationPortfolioComboBox = new JComboBox<>();
+
+    JLabel rangeLabel = new JLabel("Select Date Range:");
+    correlationRangeComboBox = new JComboBox<>(new DateRange[]{DateRange.WEEK, DateRange.MONTH,
+        DateRange.YEAR, DateRange.FIVE_YEARS, DateRange.TEN_YEARS});
+
+    correlationButton = new JButton("Show Correlation");
+
+    panel.add(portfolioLabel);
+    panel.add(correlationPortfolioComboBox);
+    panel.add(rangeLabel);
+    panel.add(correlationRangeComboBox);
+    panel.add(correlationButton);
+
+    return panel;
+  }
+
+  /**
+   * Create the performance plot panel.
+   * @return the JPanel object
+   */
+  private JPanel createPlotPanel() {
+    JPanel panel = new JPanel(new BorderLayout(10, 10));
+    panel.setBorder(BorderFactory.createTitledBorder("Portfolio Performance"));
+
+    JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
+    plotPortfolioComboBox = new JComboBox<>();
+    plotRangeComboBox = new JComboBox<>(new DateRange[]{DateRange.WEEK, DateRange.MONTH,
+        DateRange.YEAR, DateRange.FIVE_YEARS, DateRange.TEN_YEARS});
+    plotButton = new JButton("Plot Performance");
+
+    controls.add(new JLabel("Select Portfolio:"));
+    controls.add(plotPortfolioComboBox);
+    controls.add(new JLabel("Select Date Range:"));
+    controls.add(plotRangeComboBox);
+    controls.add(plotButton);
+
+    performanceChart = new PerformanceChart();
+
+    panel.add(controls, BorderLayout.NORTH);
+    panel.add(performanceChart, BorderLayout.CENTER);
+
+    return panel;
+  }
+
   /**
    * Creates the date panel for various pages.
    * @return the JPanel object
@@ -277,6 +427,8 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
   private void addMessageArea() {
     messageArea = new JTextArea(4, 60);
     messageArea.setEditable(false);
+    // fixed width so that matrices line up
+    messageArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
     messageArea.setLineWrap(true);
     messageArea.setWrapStyleWord(true);
 
@@ -365,6 +517,62 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
     return (String) loadPortfolioComboBox.getSelectedItem();
   }
 
+  @Override
+  public String getIndicatorTickerCommand() {
+    return indicatorTickerField.getText().trim();
+  }
+
+  @Override
+  public String getIndicatorCommand() {
+    return (String) indicatorComboBox.getSelectedItem();
+  }
+
+  @Override
+  public String getIndicatorParamsCommand() {
+    return indicatorParamsField.getText();
+  }
+
+  @Override
+  public LocalDate getIndicatorStartDateCommand() {
+    int year = (Integer) indicatorStartYearComboBox.getSelectedItem();
+    int month = (Integer) indicatorStartMonthComboBox.getSelectedItem();
+    int day = (Integer) indicatorStartDayComboBox.getSelectedItem();
+    return LocalDate.of(year, month, day);
+  }
+
+  @Override
+  public LocalDate getIndicatorEndDateCommand() {
+    int year = (Integer) indicatorEndYearComboBox.getSelectedItem();
+    int month = (Integer) indicatorEndMonthComboBox.getSelectedItem();
+    int day = (Integer) indicatorEndDayComboBox.getSelectedItem();
+    return LocalDate.of(year, month, day);
+  }
+
+  @Override
+  public String getCorrelationPortfolioCommand() {
+    return (String) correlationPortfolioComboBox.getSelectedItem();
+  }
+
+  @Override
+  public DateRange getCorrelationRangeCommand() {
+    return (DateRange) correlationRangeComboBox.getSelectedItem();
+  }
+
+  @Override
+  public String getPlotPortfolioCommand() {
+    return (String) plotPortfolioComboBox.getSelectedItem();
+  }
+
+  @Override
+  public DateRange getPlotRangeCommand() {
+    return (DateRange) plotRangeComboBox.getSelectedItem();
+  }
+
+  @Override
+  public void showPerformance(LocalDate start, double[] values) {
+    performanceChart.setSeries(start, values);
+  }
+
   @Override
   public void refresh() {
     this.repaint();
@@ -375,6 +583,8 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
     buySellPortfolioComboBox.setModel(new DefaultComboBoxModel<>(portfolioNames));
     valuePortfolioComboBox.setModel(new DefaultComboBoxModel<>(portfolioNames));
     savePortfolioComboBox.setModel(new DefaultComboBoxModel<>(portfolioNames));
+    correlationPortfolioComboBox.setModel(new DefaultComboBoxModel<>(portfolioNames));
+    plotPortfolioComboBox.setModel(new DefaultComboBoxModel<>(portfolioNames));
   }
 
   @Override
@@ -388,7 +598,11 @@ public class SimpleGraphicsStockView extends JFrame implements GraphicsStockView
     buySellButton.addActionListener(actionEvent);
     queryButton.addActionListener(actionEvent);
     saveButton.addActionListener(actionEvent);
+    journalButton.addActionListener(actionEvent);
     loadButton.addActionListener(actionEvent);
+    indicatorButton.addActionListener(actionEvent);
+    correlationButton.addActionListener(actionEvent);
+    plotButton.addActionListener(actionEvent);
   }
 
 }
@@ -1,21 +1,27 @@
 package portfolios;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
 
 import mvc.DateRange;
+import mvc.Downsampler;
 import stocks.AdvancedStock;
+import stocks.AtomicFile;
 import stocks.BetterStock;
-import stocks.SimpleStock;
+import stocks.CorrelationMatrix;
+import stocks.PositionView;
+import stocks.PriceSeries;
 import stocks.Stock;
 
 /**
@@ -24,7 +30,13 @@ import stocks.Stock;
  * re-balance, etc...).
  */
 public class AdvancedStockPortfolio extends SimpleStockPortfolio implements BetterStockPortfolio {
-  private List<BetterStock> stocks;
+  // number of rows of a plot; ranges up to a month are plotted day by day
+  private static final int PLOT_POINTS = 40;
+
+  // keyed by upper-case ticker, iterated in the order the stocks were added
+  private Map<String, BetterStock> stocks;
+  // null unless the portfolio is persisted as a journal
+  private PortfolioJournal journal;
 
   /**
    * Constructs a {@code portfolios.AdvancedStockPortfolio} object using
@@ -32,14 +44,14 @@ public class AdvancedStockPortfolio extends SimpleStockPortfolio implements Bett
    */
   public AdvancedStockPortfolio() {
     setName("Untitled Portfolio");
-    this.stocks = new ArrayList<BetterStock>();
+    this.stocks = new LinkedHashMap<String, BetterStock>();
   }
 
   @Override
   public void adjustStock(String ticker, double shares) {
-    if (!containsStock(ticker, stocks)) {
+    if (!containsStock(ticker)) {
       BetterStock newStock = new AdvancedStock(ticker);
-      stocks.add(newStock);
+      stocks.put(newStock.getTicker(), newStock);
     }
   }
 
@@ -49,20 +61,16 @@ public class AdvancedStockPortfolio extends SimpleStockPortfolio implements Bett
     BetterStock stock = find(ticker);
 
     stock.adjustSharesOnDay(shares, date);
+    record(stock.getTicker(), shares, date);
 
   }
 
   @Override
   public double getValue(LocalDate date) {
-    double value = 0.0;
     if (date.isAfter(LocalDate.now())) {
       throw new IllegalArgumentException("** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **");
     }
-
-    for (BetterStock s : stocks) {
-      value += (s.getValueOnDate(date));
-    }
-    return value;
+    return PortfolioSnapshot.valuation(stocks.values(), date).getTotal();
   }
 
   @Override
@@ -72,60 +80,41 @@ public class AdvancedStockPortfolio extends SimpleStockPortfolio implements Bett
 
   @Override
   public String getCompositionOnDay(LocalDate date) {
-    if (date.isAfter(LocalDate.now())) {
-      throw new IllegalArgumentException("** EASY THERE, THIS PROGRAM CANNOT TELL THE FUTURE **");
-    }
+    PortfolioSnapshot snapshot = compositionOnDay(date);
     StringBuilder output = new StringBuilder();
-    double acc = 0.0;
-    for (BetterStock s : stocks) {
-      double shares = s.getSharesOnDay(date);
-      if (shares == 0) {
-        output.append("");
-      } else {
-        String appendable = s.getTicker() + ": " + shares + " shares, ";
-        output.append(appendable);
-        acc += shares;
-      }
-    }
-
-    if (acc == 0) {
-      throw new IllegalArgumentException("** NO STOCKS IN PORTFOLIO ON " + date + " **");
+    for (int i = 0; i < snapshot.size(); i++) {
+      String appendable = snapshot.getTicker(i) + ": " + snapshot.getShares(i) + " shares, ";
+      output.append(appendable);
     }
     return output.toString();
   }
 
   @Override
   public String distribution(LocalDate date) {
-    StringBuilder output = new StringBuilder();
-    StringBuilder stocksNotYetPurchased = new StringBuilder();
-    String percentage;
-    String appendable;
-
-    for (BetterStock s : stocks) {
-
-      if (s.getValueOnDate(date) == 0) {
-        appendable = "";
-        String label = "";
-        stocksNotYetPurchased.append(label);
-      } else {
-        percentage = Long.toString(Math.round((s.getValueOnDate(date) / getValue(date)) * 100));
-        appendable = s.getTicker() + ": " + "$" + s.getValueOnDate(date) + " — " + percentage + "%"
-                + System.lineSeparator();
-
-      }
-
-      output.append(appendable);
+    // every stock is valued once; the percentages share the snapshot's total
+    PortfolioSnapshot snapshot = PortfolioSnapshot.valuation(stocks.values(), date);
+    if (snapshot.isEmpty()) {
+      return System.lineSeparator() + "** NO STOCKS IN " + getName() + " ON " + date + " **";
     }
 
-    if (output.length() == 0) {
-      return System.lineSeparator() + "** NO STOCKS IN " + getName() + " ON " + date + " **";
-    } else {
-      return output.toString() + stocksNotYetPurchased;
+    StringBuilder output = new StringBuilder();
+    for (int i = 0; i < snapshot.size(); i++) {
+      double value = snapshot.getValue(i);
+      String percentage = Long.toString(Math.round((value / snapshot.getTotal()) * 100));
+      String appendable = snapshot.getTicker(i) + ": " + "$" + value + " — " + percentage + "%"
+              + System.lineSeparator();
+      output.append(appendable);
     }
+    return output.toString();
   }
 
   @Override
   public void savePortfolioToFile() {
+    if (journal != null) {
+      // every transaction is already in the journal; the CSV file below is its export
+      journal.sync();
+    }
+
     File directory = new File("portfolios");
 
     if (!directory.exists()) {
@@ -135,22 +124,70 @@ public class AdvancedStockPortfolio extends SimpleStockPortfolio implements Bett
 
     String filePath = "portfolios" + File.separator + getName() + ".csv";
 
-    try (PrintWriter writer = new PrintWriter(new FileWriter(filePath))) {
-      // Write the stock data
-      writer.println("Ticker,Transaction,Shares,TotalShares,Date");
-      for (BetterStock s : stocks) {
-        writer.print(s.getTransactions());
-      }
+    StringBuilder output = new StringBuilder();
+    output.append("Ticker,Transaction,Shares,TotalShares,Date").append(System.lineSeparator());
+    for (BetterStock s : stocks.values()) {
+      output.append(s.getTransactions());
+    }
+    // written beside the old file and moved over it, so a failed save keeps the old file
+    try {
+      AtomicFile.write(new File(filePath).toPath(),
+              ByteBuffer.wrap(output.toString().getBytes(StandardCharsets.UTF_8)));
     } catch (IOException e) {
       throw new RuntimeException("** UNABLE TO SAVE PORTFOLIO TO FILE, PLEASE TRY AGAIN **");
     }
 
+    // a binary copy beside the CSV file makes the next load fast; it is only a cache
+    PortfolioFile.write(new File("portfolios" + File.separator + getName()
+            + PortfolioFile.EXTENSION).toPath(), new File(filePath).toPath(), stocks.values());
+  }
+
 
+  @Override
+  public RebalancePlan planRebalance(LocalDate date, double[] distributions) {
+    return RebalancePlan.of(compositionOnDay(date), distributions);
+  }
+
+  @Override
+  public RebalancePlan rebalance(LocalDate date, double[] distributions) {
+    RebalancePlan plan = planRebalance(date, distributions);
+
+    // every trade is checked before any is made, so a failed rebalance changes nothing
+    BetterStock[] holdings = new BetterStock[plan.size()];
+    for (int i = 0; i < plan.size(); i++) {
+      holdings[i] = find(plan.getTicker(i));
+      if (holdings[i].getShares() + plan.getTrade(i) < 0) {
+        throw new IllegalArgumentException("** YOU CANNOT HAVE NEGATIVE SHARES OF A STOCK **");
+      }
+    }
+    for (int i = 0; i < plan.size(); i++) {
+      if (plan.getTrade(i) != 0) {
+        holdings[i].adjustSharesOnDay(plan.getTrade(i), date);
+        record(holdings[i].getTicker(), plan.getTrade(i), date);
+      }
+    }
+    return plan;
   }
 
   @Override
   public void rebalanceStock(double expectedValue, LocalDate date, String stockName) {
-    find(stockName).rebalanceStock(expectedValue, date);
+    BetterStock stock = find(stockName);
+    double before = stock.getShares();
+    stock.rebalanceStock(expectedValue, date);
+    if (stock.getShares() != before) {
+      record(stock.getTicker(), stock.getShares() - before, date);
+    }
+  }
+
+  @Override
+  public void setJournal(PortfolioJournal journal) {
+    if (this.journal != null && this.journal != journal) {
+      this.journal.close();
+    }
+    this.journal = journal;
+    if (journal != null && journal.isSnapshotDue()) {
+      journal.snapshot(stocks.values());
+    }
   }
 
   @Override
@@ -199,27 +236,47 @@ public class AdvancedStockPortfolio extends SimpleStockPortfolio implements Bett
     return outputBuilder.toString();
   }
 
+  @Override
+  public double[] getDailyValues(LocalDate start, LocalDate end) {
+    if (start.isAfter(end)) {
+      throw new IllegalArgumentException("** START DATE MUST BE BEFORE END DATE **");
+    }
+    double[] values = new double[(int) (end.toEpochDay() - start.toEpochDay()) + 1];
+    for (BetterStock s : stocks.values()) {
+      s.addValuesInRange(start, values);
+    }
+    return values;
+  }
+
+  @Override
+  public CorrelationMatrix correlation(DateRange range) {
+    if (stocks.size() < 2) {
+      throw new IllegalArgumentException("** AT LEAST TWO STOCKS ARE NEEDED TO CORRELATE **");
+    }
+    List<String> tickers = new ArrayList<>();
+    List<PriceSeries> histories = new ArrayList<>();
+    for (BetterStock s : stocks.values()) {
+      tickers.add(s.getTicker());
+      histories.add(s.getHistory());
+    }
+    return CorrelationMatrix.compute(tickers, histories, range.getStartDate(),
+            range.getEndDate());
+  }
+
   @Override
   public String listStocks() {
-    return stockListToString(stocks);
+    return stockListToString(stocks.values());
   }
 
   /**
-   * The find method searches this list of stocks and returns the Stock object
-   * that matches the given ticker.
+   * The find method looks up the Stock object that matches the given ticker.
    *
    * @param ticker the stock ticker
    * @return the matching stock object.
    * @throws IllegalArgumentException if the stock of the given ticker is not found
    */
   private BetterStock find(String ticker) throws IllegalArgumentException {
-    BetterStock output = null;
-    for (BetterStock s : stocks) {
-      if (s.getTicker().equals(ticker)) {
-        output = s;
-        break;
-      }
-    }
+    BetterStock output = stocks.get(key(ticker));
     if (output == null) {
       throw new IllegalArgumentException("** STOCK NOT FOUND, CHECK TICKER FORMAT **");
     }
@@ -227,31 +284,33 @@ public class AdvancedStockPortfolio extends SimpleStockPortfolio implements Bett
   }
 
   /**
-   * The containsStock method searches a list of Stocks and return a boolean value
-   * indicating whether a stock of the given ticker was found in that list.
+   * The containsStock method returns a boolean value indicating whether a stock of the given
+   * ticker is in this portfolio.
    *
    * @param ticker the stock ticker
-   * @param stocks the list of stocks to search
    * @return the boolean value
    */
-  private boolean containsStock(String ticker, List<BetterStock> stocks) {
-    boolean found = false;
-    for (BetterStock s : stocks) {
-      if (s.getTicker().equals(ticker)) {
-        found = true;
-        break;
-      }
-    }
-    return found;
+  private boolean containsStock(String ticker) {
+    return stocks.containsKey(key(ticker));
+  }
+
+  /**
+   * The key method normalizes a ticker the way stocks do, so that "aapl" finds AAPL.
+   *
+   * @param ticker the stock ticker
+   * @return the key of the ticker
+   */
+  private static String key(String ticker) {
+    return ticker == null ? null : ticker.toUpperCase();
   }
 
   /**
    * The stockListToString method converts a list of Stock objects to a string list.
    *
-   * @param stocks the list of stocks
+   * @param stocks the stocks
    * @return the converted string list
    */
-  private String stockListToString(List<BetterStock> stocks) {
+  private String stockListToString(Collection<BetterStock> stocks) {
     StringBuilder output = new StringBuilder();
     for (BetterStock s : stocks) {
       String format = s.getTicker() + ": " + s.getShares() + ", ";
@@ -261,24 +320,79 @@ public class AdvancedStockPortfolio extends SimpleStockPortfolio implements Bett
   }
 
   /**
-   * Converts a list of AdvancedStocks to a list of SimpleStocks that have the corresponding number
-   * of shares and the correct ticker.
+   * The compositionOnDay method returns a snapshot of the stocks held in this portfolio on a
+   * given day.
+   *
+   * @param date the given date
+   * @return the snapshot
+   * @throws IllegalArgumentException if the date is in the future or no stock is held on it
+   */
+  private PortfolioSnapshot compositionOnDay(LocalDate date) throws IllegalArgumentException {
+    if (date.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("** EASY THERE, THIS PROGRAM CANNOT TELL THE FUTURE **");
+    }
+    PortfolioSnapshot snapshot = PortfolioSnapshot.composition(stocks.values(), date);
+    if (snapshot.isEmpty()) {
+      throw new IllegalArgumentException("** NO STOCKS IN PORTFOLIO ON " + date + " **");
+    }
+    return snapshot;
+  }
+
+  /**
+   * The addHolding method adds a stock that already holds its transactions to this portfolio.
+   *
+   * @param stock the stock
+   */
+  void addHolding(BetterStock stock) {
+    stocks.put(stock.getTicker(), stock);
+  }
+
+  /**
+   * The getHoldings method returns the stocks of this portfolio, in the order they were added.
+   *
+   * @return the stocks
+   */
+  Collection<BetterStock> getHoldings() {
+    return stocks.values();
+  }
+
+  /**
+   * The record method appends a transaction to this portfolio's journal, if it has one, and
+   * compacts the journal into a snapshot when one is due.
+   *
+   * @param ticker the stock ticker
+   * @param shares the number of shares
+   * @param date the date of the transaction
+   */
+  private void record(String ticker, double shares, LocalDate date) {
+    if (journal == null) {
+      return;
+    }
+    journal.append(ticker, shares, date);
+    if (journal.isSnapshotDue()) {
+      journal.snapshot(stocks.values());
+    }
+  }
+
+  /**
+   * Converts a list of AdvancedStocks to a list of read-only PositionViews that have the
+   * corresponding number of shares and the correct ticker. The views share each holding's price
+   * history, so no history is reloaded.
    *
    * @return the list of Stock objects
    */
   private List<Stock> advancedToSimpleStockAdapter() {
-    List<Stock> output = new ArrayList<>();
-    for (BetterStock s : stocks) {
-      Stock convertedStock = new SimpleStock(s.getTicker());
-      convertedStock.adjustShares(s.getShares());
-      output.add(convertedStock);
+    List<Stock> output = new ArrayList<>(stocks.size());
+    for (BetterStock s : stocks.values()) {
+      output.add(PositionView.of(s));
     }
     return output;
   }
 
   /**
-   * The getValuesInRange method returns a daily list of the values of a certain stock
-   * in the given range.
+   * The getValuesInRange method returns the values of this portfolio to plot over the given
+   * range: the daily values, downsampled to at most PLOT_POINTS days with LTTB so that the
+   * peaks and troughs of long ranges are kept.
    *
    * @param range the date range enum
    * @return the map of values
@@ -287,47 +401,17 @@ public class AdvancedStockPortfolio extends SimpleStockPortfolio implements Bett
     TreeMap<LocalDate, Double> output = new TreeMap<>();
     LocalDate start = range.getStartDate();
     LocalDate end = range.getEndDate();
-    int step;
 
     if (stocks.isEmpty()) {
       throw new IllegalArgumentException("** NO STOCKS HAVE BEEN ADDED, " +
               "UNABLE TO PLOT PERFORMANCE **");
     }
 
-    switch (range) {
-      case MONTH:
-      case CUSTOM_MONTH:
-        step = 2;
-        break;
-      case YEAR:
-      case CUSTOM_YEAR:
-        step = 30;
-        break;
-      case FIVE_YEARS:
-      case CUSTOM_FIVE_YEARS:
-        step = 152;
-        break;
-      case TEN_YEARS:
-      case CUSTOM_TEN_YEARS:
-        step = 300;
-        break;
-      default:
-        step = 1;
-        break;
+    double[] values = getDailyValues(start, end);
+    for (int day : Downsampler.lttb(values, PLOT_POINTS)) {
+      output.put(start.plusDays(day), values[day]);
     }
 
-    // Iterate through the range with the calculated step size
-    LocalDate currentDate = start;
-    while (!currentDate.isAfter(end)) {
-      double valueOnDay = getValue(currentDate);
-      output.put(currentDate, valueOnDay);
-      currentDate = currentDate.plusDays(step); // Move to the next date by stepSize
-    }
-
-    // Add the exact start and end dates to the output map
-    output.put(start, getValue(start));
-    output.put(end, getValue(end));
-
     return output;
   }
 
@@ -3,6 +3,7 @@ package portfolios;
 import java.time.LocalDate;
 
 import mvc.DateRange;
+import stocks.CorrelationMatrix;
 
 /**
  * The BetterStockPortfolio interface extends the functionality of the
@@ -47,6 +48,15 @@ public interface BetterStockPortfolio extends StockPortfolio {
    */
   void savePortfolioToFile();
 
+  /**
+   * The setJournal method makes this portfolio append every later transaction to the given
+   * journal, so that saving only has to sync the journal. A snapshot of the portfolio is taken
+   * first if the journal does not have one yet. The previous journal, if any, is closed.
+   *
+   * @param journal the journal, or null to stop journaling
+   */
+  void setJournal(PortfolioJournal journal);
+
   /**
    * The plot method returns a visual representation of a portfolio's performance over a time range
    * of WEEK, MONTH, YEAR, FIVE_YEARS, or TEN_YEARS.
@@ -55,6 +65,46 @@ public interface BetterStockPortfolio extends StockPortfolio {
    */
   String plot(DateRange range);
 
+  /**
+   * The getDailyValues method returns the value of this portfolio on every day from the start
+   * date to the end date (inclusive), in a single pass over each stock's transactions and
+   * prices.
+   *
+   * @param start the start date, whose value is at index 0
+   * @param end the end date
+   * @return the values, one per calendar day
+   */
+  double[] getDailyValues(LocalDate start, LocalDate end);
+
+  /**
+   * The correlation method returns the covariance and correlation of the daily returns of every
+   * stock in this portfolio over a time range, using the market days that all of them traded on.
+   *
+   * @param range the DateRange enum object range
+   * @return the matrices
+   */
+  CorrelationMatrix correlation(DateRange range);
+
+  /**
+   * The planRebalance method returns the trades that would rebalance this portfolio to the given
+   * weights on a date, without making them (a dry run).
+   *
+   * @param date the date on which to rebalance
+   * @param distributions the whole-number weights, one per stock held on the date
+   * @return the plan
+   */
+  RebalancePlan planRebalance(LocalDate date, double[] distributions);
+
+  /**
+   * The rebalance method rebalances this portfolio to the given weights on a date, planning
+   * every trade first and then making them all; if any trade cannot be made, none are.
+   *
+   * @param date the date on which to rebalance
+   * @param distributions the whole-number weights, one per stock held on the date
+   * @return the plan that was applied
+   */
+  RebalancePlan rebalance(LocalDate date, double[] distributions);
+
   /**
    * The rebalance Stock method rebalances a single stock.
    * @param expectedValue the expectedValue of the balanced stock
@@ -0,0 +1,315 @@
+package portfolios;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import stocks.AdvancedStock;
+import stocks.AtomicFile;
+import stocks.BetterStock;
+
+/**
+ * The {@code portfolios.PortfolioFile} class reads and writes the compact binary form of a
+ * portfolio, kept next to its CSV file so that loading a portfolio decodes a few bytes per
+ * transaction and builds each holding in one step instead of parsing and replaying text. The
+ * CSV file stays the import and export format; the binary file records the size and
+ * modification time of the CSV file it was written with, so it is only used while that CSV file
+ * is unchanged.
+ *
+ * <p>Layout: a 24 byte big-endian header of magic number, version, source CSV length and
+ * source CSV modification time; a ticker dictionary (the number of tickers, then each ticker as
+ * a length and UTF-8 bytes); the number of transactions; one record per transaction; and a
+ * CRC-32 of everything before it. A record is the ticker's index in the dictionary, the change
+ * in epoch day since the previous record (zigzag encoded) and the shares: a whole number of
+ * shares is stored zigzag encoded and shifted left by one, anything else as a 1 followed by the
+ * 8 bytes of the double. Every number but the header and the CRC is an unsigned LEB128 varint.
+ * Records keep each stock's transactions in order.
+ */
+public final class PortfolioFile {
+  /** The file extension of binary portfolio files. */
+  public static final String EXTENSION = ".portfolio";
+
+  private static final int MAGIC = 0x53544B50; // "STKP"
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 24;
+  // whole numbers of shares up to this size are stored as varints
+  private static final long MAX_WHOLE_SHARES = 1L << 52;
+
+  private final String[] tickers;
+  private final int[][] days;
+  private final double[][] shares;
+
+  private PortfolioFile(String[] tickers, int[][] days, double[][] shares) {
+    this.tickers = tickers;
+    this.days = days;
+    this.shares = shares;
+  }
+
+  /**
+   * The read method decodes the binary portfolio file, provided it was written with the given
+   * CSV file in its current state.
+   *
+   * @param file the binary portfolio file
+   * @param csv the CSV file it must have been written with
+   * @return the decoded portfolio, or null if the file is missing, malformed, of another
+   *         version or out of date
+   */
+  public static PortfolioFile read(Path file, Path csv) {
+    try {
+      if (!Files.isRegularFile(file)) {
+        return null;
+      }
+      byte[] bytes = Files.readAllBytes(file);
+      if (bytes.length < HEADER_BYTES + Integer.BYTES) {
+        return null;
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      CRC32 crc = new CRC32();
+      crc.update(bytes, 0, bytes.length - Integer.BYTES);
+      if (buffer.getInt(bytes.length - Integer.BYTES) != (int) crc.getValue()
+              || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        return null;
+      }
+      long csvLength = buffer.getLong();
+      long csvModified = buffer.getLong();
+      if (!matches(csv, csvLength, csvModified)) {
+        return null;
+      }
+      buffer.limit(bytes.length - Integer.BYTES);
+
+      String[] tickers = new String[count(buffer)];
+      for (int t = 0; t < tickers.length; t++) {
+        int length = count(buffer);
+        tickers[t] = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+      }
+
+      int total = count(buffer);
+      int[] owners = new int[total];
+      int[] allDays = new int[total];
+      double[] allShares = new double[total];
+      int[] perTicker = new int[tickers.length];
+      long day = 0;
+      for (int i = 0; i < total; i++) {
+        owners[i] = count(buffer);
+        if (owners[i] >= tickers.length) {
+          return null;
+        }
+        perTicker[owners[i]]++;
+        day += unzigzag(readVarint(buffer));
+        allDays[i] = (int) day;
+        long amount = readVarint(buffer);
+        allShares[i] = (amount & 1) == 0 ? unzigzag(amount >>> 1) : buffer.getDouble();
+      }
+      if (buffer.hasRemaining()) {
+        return null;
+      }
+
+      // split the records by ticker, keeping their order
+      int[][] days = new int[tickers.length][];
+      double[][] shares = new double[tickers.length][];
+      for (int t = 0; t < tickers.length; t++) {
+        days[t] = new int[perTicker[t]];
+        shares[t] = new double[perTicker[t]];
+      }
+      int[] filled = new int[tickers.length];
+      for (int i = 0; i < total; i++) {
+        int t = owners[i];
+        days[t][filled[t]] = allDays[i];
+        shares[t][filled[t]++] = allShares[i];
+      }
+      return new PortfolioFile(tickers, days, shares);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * The write method saves the transactions of the given stocks as a binary portfolio file
+   * written with the given CSV file. The file is written under a temporary name and renamed into
+   * place. Nothing is written, and false is returned, if the file cannot be written.
+   *
+   * @param file the binary portfolio file
+   * @param csv the CSV file the portfolio was just saved to
+   * @param stocks the stocks of the portfolio
+   * @return true if the file was written
+   */
+  public static boolean write(Path file, Path csv, Collection<BetterStock> stocks) {
+    try {
+      BasicFileAttributes source = Files.readAttributes(csv, BasicFileAttributes.class);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).putInt(VERSION).putLong(source.size())
+              .putLong(source.lastModifiedTime().toMillis());
+      out.write(header.array());
+
+      // the same ticker held twice is written under one dictionary entry
+      Map<String, Integer> dictionary = new LinkedHashMap<>();
+      int total = 0;
+      for (BetterStock s : stocks) {
+        dictionary.putIfAbsent(s.getTicker(), dictionary.size());
+        total += s.getTransactionCount();
+      }
+      writeVarint(out, dictionary.size());
+      for (String ticker : dictionary.keySet()) {
+        byte[] name = ticker.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, name.length);
+        out.write(name);
+      }
+
+      writeVarint(out, total);
+      long day = 0;
+      for (BetterStock s : stocks) {
+        int index = dictionary.get(s.getTicker());
+        for (int i = 0; i < s.getTransactionCount(); i++) {
+          writeVarint(out, index);
+          writeVarint(out, zigzag(s.getTransactionDay(i) - day));
+          day = s.getTransactionDay(i);
+          writeShares(out, s.getTransactionShares(i));
+        }
+      }
+
+      CRC32 crc = new CRC32();
+      byte[] body = out.toByteArray();
+      crc.update(body, 0, body.length);
+      ByteBuffer buffer = ByteBuffer.allocate(body.length + Integer.BYTES);
+      buffer.put(body).putInt((int) crc.getValue());
+      buffer.flip();
+      AtomicFile.write(file, buffer);
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * The write method saves the given portfolio as a binary portfolio file written with the
+   * given CSV file.
+   *
+   * @param file the binary portfolio file
+   * @param csv the CSV file the portfolio was read from or saved to
+   * @param portfolio the portfolio
+   * @return true if the file was written
+   */
+  public static boolean write(Path file, Path csv, AdvancedStockPortfolio portfolio) {
+    return write(file, csv, portfolio.getHoldings());
+  }
+
+  /**
+   * The getTickers method returns the tickers of the portfolio, in the order they were added.
+   *
+   * @return the tickers
+   */
+  public List<String> getTickers() {
+    return Arrays.asList(tickers.clone());
+  }
+
+  /**
+   * The getDays method returns the epoch days of the transactions of the ticker at the given
+   * index.
+   *
+   * @param index the index of the ticker
+   * @return the epoch days, in the order the transactions were made
+   */
+  public int[] getDays(int index) {
+    return days[index].clone();
+  }
+
+  /**
+   * The getShares method returns the number of shares of the transactions of the ticker at the
+   * given index.
+   *
+   * @param index the index of the ticker
+   * @return the number of shares, in the order the transactions were made
+   */
+  public double[] getShares(int index) {
+    return shares[index].clone();
+  }
+
+  /**
+   * The build method builds the portfolio, adding each stock's transactions in one step. The
+   * histories of the tickers should already be loaded.
+   *
+   * @param name the portfolio name
+   * @return the portfolio
+   * @throws IllegalArgumentException if a transaction is invalid
+   */
+  public AdvancedStockPortfolio build(String name) throws IllegalArgumentException {
+    AdvancedStockPortfolio output = new AdvancedStockPortfolio();
+    output.setName(name);
+    for (int t = 0; t < tickers.length; t++) {
+      BetterStock stock = new AdvancedStock(tickers[t]);
+      stock.addTransactions(days[t], shares[t]);
+      output.addHolding(stock);
+    }
+    return output;
+  }
+
+  private static boolean matches(Path csv, long length, long modified) throws IOException {
+    if (!Files.exists(csv)) {
+      return false;
+    }
+    BasicFileAttributes attributes = Files.readAttributes(csv, BasicFileAttributes.class);
+    return attributes.size() == length && attributes.lastModifiedTime().toMillis() == modified;
+  }
+
+  private static void writeShares(ByteArrayOutputStream out, double shares) {
+    long whole = (long) shares;
+    if (whole == shares && Math.abs(whole) < MAX_WHOLE_SHARES) {
+      writeVarint(out, zigzag(whole) << 1);
+    } else {
+      writeVarint(out, 1);
+      long bits = Double.doubleToLongBits(shares);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        out.write((int) (bits >>> shift));
+      }
+    }
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarint(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("** PORTFOLIO FILE IS NOT PROPERLY FORMATTED **");
+  }
+
+  private static int count(ByteBuffer buffer) {
+    long value = readVarint(buffer);
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("** PORTFOLIO FILE IS NOT PROPERLY FORMATTED **");
+    }
+    return (int) value;
+  }
+
+  private static long zigzag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+}
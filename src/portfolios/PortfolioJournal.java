@@ -0,0 +1,354 @@
+package portfolios;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import stocks.AtomicFile;
+import stocks.BetterStock;
+
+/**
+ * The {@code portfolios.PortfolioJournal} class persists a portfolio as an append-only journal
+ * of its transactions plus a periodic snapshot, instead of rewriting the whole portfolio file on
+ * every save. Each transaction is appended to 'NAME.journal' as one numbered record; records are
+ * synced to disk in batches (and whenever the journal is synced or closed), so a crash loses at
+ * most the last unsynced batch. Every so many records the full portfolio is compacted into
+ * 'NAME.snapshot', written to a temporary file and moved over the old one, and the journal is
+ * emptied. The snapshot remembers the number of the last record it holds, so a crash between
+ * writing a snapshot and emptying the journal never replays a record twice. Loading reads the
+ * snapshot and replays only the records after it.
+ */
+public final class PortfolioJournal {
+  /** The file extension of portfolio snapshots. */
+  public static final String SNAPSHOT_SUFFIX = ".snapshot";
+  /** The file extension of portfolio journals. */
+  public static final String JOURNAL_SUFFIX = ".journal";
+  private static final int SYNC_EVERY = 32;
+  private static final int SNAPSHOT_EVERY = 1000;
+  private static final String SEQUENCE = "SEQUENCE";
+
+  private final File snapshotFile;
+  private final File journalFile;
+  private final int syncEvery;
+  private final int snapshotEvery;
+  private FileChannel channel;
+  // number of the last record written, and of the last record held by the snapshot (-1 if none)
+  private long sequence;
+  private long snapshotSequence;
+  private int unsynced;
+
+  /**
+   * The static inner class Entry represents one transaction read back from a journal or
+   * snapshot.
+   */
+  public static final class Entry {
+    private final String ticker;
+    private final double shares;
+    private final LocalDate date;
+
+    private Entry(String ticker, double shares, LocalDate date) {
+      this.ticker = ticker;
+      this.shares = shares;
+      this.date = date;
+    }
+
+    /**
+     * The getTicker method returns the ticker of the stock traded.
+     *
+     * @return the ticker
+     */
+    public String getTicker() {
+      return ticker;
+    }
+
+    /**
+     * The getShares method returns the number of shares traded (+ if bought, - if sold).
+     *
+     * @return the number of shares
+     */
+    public double getShares() {
+      return shares;
+    }
+
+    /**
+     * The getDate method returns the date of the transaction.
+     *
+     * @return the date
+     */
+    public LocalDate getDate() {
+      return date;
+    }
+  }
+
+  /**
+   * Constructs a {@code portfolios.PortfolioJournal} for the portfolio of the given name in the
+   * given directory, syncing every 32 records and taking a snapshot every 1000.
+   *
+   * @param directory the directory of the journal and snapshot files
+   * @param name the portfolio name
+   */
+  public PortfolioJournal(File directory, String name) {
+    this(directory, name, SYNC_EVERY, SNAPSHOT_EVERY);
+  }
+
+  /**
+   * Constructs a {@code portfolios.PortfolioJournal} for the portfolio of the given name in the
+   * given directory.
+   *
+   * @param directory the directory of the journal and snapshot files
+   * @param name the portfolio name
+   * @param syncEvery the number of records appended between syncs to disk
+   * @param snapshotEvery the number of records appended between snapshots
+   * @throws IllegalArgumentException if either number is not positive
+   */
+  public PortfolioJournal(File directory, String name, int syncEvery, int snapshotEvery)
+          throws IllegalArgumentException {
+    if (syncEvery < 1 || snapshotEvery < 1) {
+      throw new IllegalArgumentException("** JOURNAL BATCH SIZES MUST BE POSITIVE **");
+    }
+    this.snapshotFile = new File(directory, name + SNAPSHOT_SUFFIX);
+    this.journalFile = new File(directory, name + JOURNAL_SUFFIX);
+    this.syncEvery = syncEvery;
+    this.snapshotEvery = snapshotEvery;
+    this.sequence = 0;
+    this.snapshotSequence = -1;
+    this.unsynced = 0;
+  }
+
+  /**
+   * The exists method returns whether the portfolio of the given name has been journaled in the
+   * given directory.
+   *
+   * @param directory the directory
+   * @param name the portfolio name
+   * @return true if a snapshot of the portfolio exists
+   */
+  public static boolean exists(File directory, String name) {
+    return new File(directory, name + SNAPSHOT_SUFFIX).isFile();
+  }
+
+  /**
+   * The read method returns every transaction of the journaled portfolio, those of the snapshot
+   * first and then those appended after it, and makes later records follow them. A record cut
+   * off by a crash at the end of the journal is dropped.
+   *
+   * @return the transactions, in the order to replay them
+   * @throws RuntimeException if the files cannot be read or are not properly formatted
+   */
+  public List<Entry> read() throws RuntimeException {
+    List<Entry> entries = new ArrayList<>();
+    try {
+      if (snapshotFile.isFile()) {
+        readSnapshot(entries);
+      }
+      if (journalFile.isFile()) {
+        readJournal(entries);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("** ERROR READING THE PORTFOLIO JOURNAL **", e);
+    }
+    return entries;
+  }
+
+  /**
+   * The append method records a transaction at the end of the journal, syncing the journal to
+   * disk once a batch of records has been appended.
+   *
+   * @param ticker the stock ticker
+   * @param shares the number of shares (+ if bought, - if sold)
+   * @param date the date of the transaction
+   * @throws RuntimeException if the journal cannot be written
+   */
+  public void append(String ticker, double shares, LocalDate date) throws RuntimeException {
+    String record = (sequence + 1) + "," + ticker + "," + shares + "," + date + "\n";
+    try {
+      FileChannel out = channel();
+      ByteBuffer buffer = ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        out.write(buffer);
+      }
+      sequence++;
+      if (++unsynced >= syncEvery) {
+        out.force(false);
+        unsynced = 0;
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("** UNABLE TO WRITE TO THE PORTFOLIO JOURNAL **", e);
+    }
+  }
+
+  /**
+   * The isSnapshotDue method returns whether a snapshot should be taken: if none has been taken
+   * or read yet, or if enough records have been appended since the last one.
+   *
+   * @return true if a snapshot is due
+   */
+  public boolean isSnapshotDue() {
+    return snapshotSequence < 0 || sequence - snapshotSequence >= snapshotEvery;
+  }
+
+  /**
+   * The snapshot method replaces the snapshot with the transactions of the given stocks and
+   * empties the journal. The stocks must hold every transaction appended so far.
+   *
+   * @param stocks the stocks of the portfolio
+   * @throws RuntimeException if the snapshot cannot be written
+   */
+  public void snapshot(Collection<BetterStock> stocks) throws RuntimeException {
+    try {
+      if (snapshotSequence < 0) {
+        // records left by an earlier portfolio of the same name do not belong to this one
+        channel().truncate(0);
+        channel.position(0);
+        sequence = 0;
+      }
+
+      writeSnapshot(stocks);
+      snapshotSequence = sequence;
+
+      // every record is now in the snapshot, so the journal can start over
+      channel().truncate(0);
+      channel.position(0);
+      channel.force(false);
+      unsynced = 0;
+    } catch (IOException e) {
+      throw new RuntimeException("** UNABLE TO SAVE PORTFOLIO TO FILE, PLEASE TRY AGAIN **", e);
+    }
+  }
+
+  /**
+   * The sync method forces every appended record to disk.
+   *
+   * @throws RuntimeException if the journal cannot be synced
+   */
+  public void sync() throws RuntimeException {
+    if (channel == null || unsynced == 0) {
+      return;
+    }
+    try {
+      channel.force(false);
+      unsynced = 0;
+    } catch (IOException e) {
+      throw new RuntimeException("** UNABLE TO SAVE PORTFOLIO TO FILE, PLEASE TRY AGAIN **", e);
+    }
+  }
+
+  /**
+   * The close method syncs and closes the journal. It is reopened if more records are appended.
+   *
+   * @throws RuntimeException if the journal cannot be synced
+   */
+  public void close() throws RuntimeException {
+    sync();
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // every record has been synced
+      }
+      channel = null;
+    }
+  }
+
+  private void writeSnapshot(Collection<BetterStock> stocks) throws IOException {
+    StringBuilder output = new StringBuilder();
+    output.append(SEQUENCE).append(",").append(sequence).append("\n");
+    for (BetterStock s : stocks) {
+      output.append(s.getTransactions());
+    }
+    ByteBuffer contents = ByteBuffer.wrap(output.toString().getBytes(StandardCharsets.UTF_8));
+    AtomicFile.write(snapshotFile.toPath(), file -> {
+      while (contents.hasRemaining()) {
+        file.write(contents);
+      }
+      // the snapshot must be on disk before the journal it replaces is truncated
+      file.force(true);
+    });
+  }
+
+  private FileChannel channel() throws IOException {
+    if (channel == null) {
+      File directory = journalFile.getParentFile();
+      if (directory != null && !directory.exists()) {
+        directory.mkdirs();
+      }
+      channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE);
+      channel.position(channel.size());
+    }
+    return channel;
+  }
+
+  private void readSnapshot(List<Entry> entries) throws IOException {
+    List<String> lines = Files.readAllLines(snapshotFile.toPath(), StandardCharsets.UTF_8);
+    String[] header = lines.isEmpty() ? new String[0] : lines.get(0).split(",");
+    if (header.length != 2 || !header[0].equals(SEQUENCE)) {
+      throw new IllegalArgumentException("** PORTFOLIO JOURNAL IS NOT PROPERLY FORMATTED **");
+    }
+    snapshotSequence = parseSequence(header[1]);
+    sequence = snapshotSequence;
+
+    for (String line : lines.subList(1, lines.size())) {
+      // Ticker,Transaction,Shares,TotalShares,Date as in a portfolio file
+      String[] fields = line.split(",");
+      if (fields.length != 5) {
+        throw new IllegalArgumentException("** PORTFOLIO JOURNAL IS NOT PROPERLY FORMATTED **");
+      }
+      entries.add(entry(fields[0], fields[2], fields[4]));
+    }
+  }
+
+  private void readJournal(List<Entry> entries) throws IOException {
+    byte[] bytes = Files.readAllBytes(journalFile.toPath());
+    int start = 0;
+    for (int i = 0; i < bytes.length; i++) {
+      if (bytes[i] != '\n') {
+        continue;
+      }
+      String[] fields = new String(bytes, start, i - start, StandardCharsets.UTF_8).split(",");
+      if (fields.length != 4) {
+        throw new IllegalArgumentException("** PORTFOLIO JOURNAL IS NOT PROPERLY FORMATTED **");
+      }
+      long number = parseSequence(fields[0]);
+      // records already in the snapshot are skipped
+      if (number > sequence) {
+        entries.add(entry(fields[1], fields[2], fields[3]));
+        sequence = number;
+      }
+      start = i + 1;
+    }
+
+    if (start < bytes.length) {
+      // the last record was cut off before it was synced
+      channel().truncate(start);
+      channel.position(start);
+      channel.force(false);
+    }
+  }
+
+  private static long parseSequence(String field) {
+    try {
+      return Long.parseLong(field.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("** PORTFOLIO JOURNAL IS NOT PROPERLY FORMATTED **");
+    }
+  }
+
+  private static Entry entry(String ticker, String shares, String date) {
+    try {
+      return new Entry(ticker.trim(), Double.parseDouble(shares.trim()),
+              LocalDate.parse(date.trim()));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("** PORTFOLIO JOURNAL IS NOT PROPERLY FORMATTED **");
+    }
+  }
+
+}
@@ -0,0 +1,166 @@
+package portfolios;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+import stocks.BetterStock;
+
+/**
+ * The {@code portfolios.PortfolioSnapshot} class is the composition of a portfolio on a given
+ * date: every stock held on that date with its number of shares, its price and its value. Each
+ * stock's shares and price are looked up once when the snapshot is taken, so reports and plans
+ * built from a snapshot do not value the portfolio again.
+ */
+public final class PortfolioSnapshot {
+  private final LocalDate date;
+  private final String[] tickers;
+  private final double[] shares;
+  private final double[] prices;
+  private final double total;
+
+  private PortfolioSnapshot(LocalDate date, String[] tickers, double[] shares, double[] prices,
+                            double total) {
+    this.date = date;
+    this.tickers = tickers;
+    this.shares = shares;
+    this.prices = prices;
+    this.total = total;
+  }
+
+  /**
+   * The composition method takes a snapshot of the given stocks on the given date. Stocks with
+   * no shares on the date are left out and their prices are not looked up, so a date before a
+   * stock's history only fails if the stock is held on it.
+   *
+   * @param stocks the stocks of a portfolio, in the order to keep
+   * @param date the date
+   * @return the snapshot
+   * @throws IllegalArgumentException if a held stock has no price on the date
+   */
+  static PortfolioSnapshot composition(Collection<BetterStock> stocks, LocalDate date)
+          throws IllegalArgumentException {
+    return of(stocks, date, false);
+  }
+
+  /**
+   * The valuation method takes a snapshot of the given stocks on the given date, rejecting a
+   * date that any of the stocks could not be valued on (as getValueOnDate does), even if the
+   * stock is not held on it.
+   *
+   * @param stocks the stocks of a portfolio, in the order to keep
+   * @param date the date
+   * @return the snapshot
+   * @throws IllegalArgumentException if any stock has no data on the date
+   */
+  static PortfolioSnapshot valuation(Collection<BetterStock> stocks, LocalDate date)
+          throws IllegalArgumentException {
+    return of(stocks, date, true);
+  }
+
+  private static PortfolioSnapshot of(Collection<BetterStock> stocks, LocalDate date,
+                                      boolean everyStock) throws IllegalArgumentException {
+    String[] tickers = new String[stocks.size()];
+    double[] shares = new double[stocks.size()];
+    double[] prices = new double[stocks.size()];
+    int held = 0;
+    double total = 0.0;
+    for (BetterStock s : stocks) {
+      double amount = s.getSharesOnDay(date);
+      if (amount != 0) {
+        tickers[held] = s.getTicker();
+        shares[held] = amount;
+        prices[held] = s.getPriceOnDay(date);
+        total += amount * prices[held];
+        held++;
+      } else if (everyStock) {
+        // no price is looked up for a stock with no shares, only the date is checked
+        s.getValueOnDate(date);
+      }
+    }
+    if (held < tickers.length) {
+      tickers = Arrays.copyOf(tickers, held);
+      shares = Arrays.copyOf(shares, held);
+      prices = Arrays.copyOf(prices, held);
+    }
+    return new PortfolioSnapshot(date, tickers, shares, prices, total);
+  }
+
+  /**
+   * The getDate method returns the date of this snapshot.
+   *
+   * @return the date
+   */
+  public LocalDate getDate() {
+    return date;
+  }
+
+  /**
+   * The size method returns the number of stocks held on the date.
+   *
+   * @return the number of stocks
+   */
+  public int size() {
+    return tickers.length;
+  }
+
+  /**
+   * The isEmpty method returns whether no stock is held on the date.
+   *
+   * @return true if no stock is held
+   */
+  public boolean isEmpty() {
+    return tickers.length == 0;
+  }
+
+  /**
+   * The getTicker method returns the ticker of the stock at the given index.
+   *
+   * @param index the index, in the order the stocks were added to the portfolio
+   * @return the ticker
+   */
+  public String getTicker(int index) {
+    return tickers[index];
+  }
+
+  /**
+   * The getShares method returns the number of shares held of the stock at the given index.
+   *
+   * @param index the index
+   * @return the number of shares
+   */
+  public double getShares(int index) {
+    return shares[index];
+  }
+
+  /**
+   * The getPrice method returns the price on the date of the stock at the given index.
+   *
+   * @param index the index
+   * @return the price
+   */
+  public double getPrice(int index) {
+    return prices[index];
+  }
+
+  /**
+   * The getValue method returns the value on the date of the shares held of the stock at the
+   * given index.
+   *
+   * @param index the index
+   * @return the value
+   */
+  public double getValue(int index) {
+    return shares[index] * prices[index];
+  }
+
+  /**
+   * The getTotal method returns the value of the portfolio on the date.
+   *
+   * @return the total value
+   */
+  public double getTotal() {
+    return total;
+  }
+
+}
@@ -0,0 +1,143 @@
+package portfolios;
+
+import java.time.LocalDate;
+
+/**
+ * The {@code portfolios.RebalancePlan} class is the set of trades that brings every stock held
+ * in a portfolio on a date to its share of the portfolio's value under the given weights. The
+ * trades are all computed from one {@link PortfolioSnapshot}, so planning values the portfolio
+ * once, and a plan can be inspected without changing the portfolio (a dry run) before it is
+ * applied.
+ */
+public final class RebalancePlan {
+  private final PortfolioSnapshot snapshot;
+  private final double[] targets;
+  private final double[] trades;
+
+  private RebalancePlan(PortfolioSnapshot snapshot, double[] targets, double[] trades) {
+    this.snapshot = snapshot;
+    this.targets = targets;
+    this.trades = trades;
+  }
+
+  /**
+   * The of method plans the trades for the given weights, one per stock of the snapshot in the
+   * same order. Each stock's target is the snapshot's total value times its weight over the sum
+   * of the weights.
+   *
+   * @param snapshot the composition of the portfolio on the rebalance date
+   * @param distributions the whole-number weights
+   * @return the plan
+   * @throws IllegalArgumentException if a weight is negative or not a whole number, every
+   *         weight is zero or there is not one weight per stock
+   */
+  static RebalancePlan of(PortfolioSnapshot snapshot, double[] distributions)
+          throws IllegalArgumentException {
+    for (double ratio : distributions) {
+      if (Math.abs(ratio - Math.floor(ratio)) > 1e-9) {
+        throw new IllegalArgumentException("** DISTRIBUTIONS MUST BE WHOLE NUMBERS **");
+      }
+      if (ratio < 0) {
+        throw new IllegalArgumentException("** DISTRIBUTIONS CAN'T BE NEGATIVE **");
+      }
+    }
+    int n = snapshot.size();
+    if (n == 1 && distributions.length > 1) {
+      throw new IllegalArgumentException("** TOO MANY DISTRIBUTIONS FOR ONE STOCK **");
+    }
+    if (distributions.length != n) {
+      throw new IllegalArgumentException("** ENTER ONE DISTRIBUTION FOR EVERY STOCK **");
+    }
+
+    double totalDistribution = 0;
+    for (double ratio : distributions) {
+      totalDistribution += ratio;
+    }
+    // all-zero weights would make every target 0 / 0
+    if (totalDistribution <= 0) {
+      throw new IllegalArgumentException("** AT LEAST ONE DISTRIBUTION MUST BE POSITIVE **");
+    }
+    double[] targets = new double[n];
+    double[] trades = new double[n];
+    for (int i = 0; i < n; i++) {
+      targets[i] = snapshot.getTotal() * (distributions[i] / totalDistribution);
+      // selling a whole position must leave exactly no shares, whatever the rounding
+      trades[i] = targets[i] == 0
+              ? -snapshot.getShares(i)
+              : (targets[i] - snapshot.getValue(i)) / snapshot.getPrice(i);
+    }
+    return new RebalancePlan(snapshot, targets, trades);
+  }
+
+  /**
+   * The getSnapshot method returns the composition of the portfolio this plan was made from.
+   *
+   * @return the snapshot
+   */
+  public PortfolioSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * The getDate method returns the date the trades are made on.
+   *
+   * @return the date
+   */
+  public LocalDate getDate() {
+    return snapshot.getDate();
+  }
+
+  /**
+   * The size method returns the number of stocks in this plan.
+   *
+   * @return the number of stocks
+   */
+  public int size() {
+    return trades.length;
+  }
+
+  /**
+   * The getTicker method returns the ticker of the stock at the given index.
+   *
+   * @param index the index
+   * @return the ticker
+   */
+  public String getTicker(int index) {
+    return snapshot.getTicker(index);
+  }
+
+  /**
+   * The getTargetValue method returns the value the stock at the given index is rebalanced to.
+   *
+   * @param index the index
+   * @return the target value
+   */
+  public double getTargetValue(int index) {
+    return targets[index];
+  }
+
+  /**
+   * The getTrade method returns the number of shares of the stock at the given index to buy
+   * (+) or sell (-).
+   *
+   * @param index the index
+   * @return the number of shares, 0 if the stock is already balanced
+   */
+  public double getTrade(int index) {
+    return trades[index];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder output = new StringBuilder();
+    output.append("REBALANCE ON ").append(getDate()).append(":").append(System.lineSeparator());
+    for (int i = 0; i < trades.length; i++) {
+      String action = trades[i] > 0 ? "BUY " : trades[i] < 0 ? "SELL " : "HOLD ";
+      output.append(String.format("%s: %s%.4f SHARES ($%.2f —> $%.2f)",
+              getTicker(i), action, Math.abs(trades[i]), snapshot.getValue(i), targets[i]))
+              .append(System.lineSeparator());
+    }
+    return output.toString();
+  }
+
+}
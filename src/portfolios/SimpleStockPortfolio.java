@@ -2,7 +2,10 @@ package portfolios;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import stocks.SimpleStock;
 import stocks.Stock;
@@ -14,14 +17,15 @@ import stocks.Stock;
  */
 public class SimpleStockPortfolio implements StockPortfolio {
   private String name;
-  private List<Stock> stocks;
+  // keyed by upper-case ticker, iterated in the order the stocks were added
+  private Map<String, Stock> stocks;
 
   /**
    * Constructs a {@code portfolios.SimpleStockPortfolio} object.
    */
   public SimpleStockPortfolio() {
     this.name = "Untitled Portfolio";
-    this.stocks = new ArrayList<Stock>();
+    this.stocks = new LinkedHashMap<String, Stock>();
   }
 
   @Override
@@ -37,15 +41,15 @@ public class SimpleStockPortfolio implements StockPortfolio {
               "** FRACTIONAL SHARES NOT ALLOWED FOR SIMPLE PORTFOLIOS **");
     }
 
-    if (!containsStock(formattedTicker, stocks)) {
+    if (!containsStock(formattedTicker)) {
       Stock newStock = new SimpleStock(ticker);
       newStock.adjustShares(shares);
-      stocks.add(newStock);
+      stocks.put(newStock.getTicker(), newStock);
     } else {
       Stock existingStock = find(formattedTicker);
       existingStock.adjustShares(shares);
       if (existingStock.getShares() == 0) {
-        stocks.remove(existingStock);
+        stocks.remove(existingStock.getTicker());
       }
     }
   }
@@ -62,13 +66,13 @@ public class SimpleStockPortfolio implements StockPortfolio {
 
   @Override
   public List<Stock> getStocks() {
-    return new ArrayList<>(stocks);
+    return new ArrayList<>(stocks.values());
   }
 
   @Override
   public double getValue(LocalDate date) {
     double value = 0.0;
-    for (Stock s : stocks) {
+    for (Stock s : stocks.values()) {
       value += (s.getPriceOnDay(date) * s.getShares());
     }
     return value;
@@ -76,25 +80,18 @@ public class SimpleStockPortfolio implements StockPortfolio {
 
   @Override
   public String listStocks() {
-    return stockListToString(stocks);
+    return stockListToString(stocks.values());
   }
 
   /**
-   * The find method searches this list of stocks and returns the Stock object
-   * that matches the given ticker.
+   * The find method looks up the Stock object that matches the given ticker.
    *
    * @param ticker the stock ticker
    * @return the matching stock object.
    * @throws IllegalArgumentException if the stock of the given ticker is not found
    */
   private Stock find(String ticker) throws IllegalArgumentException {
-    Stock output = null;
-    for (Stock s : stocks) {
-      if (s.getTicker().equals(ticker)) {
-        output = s;
-        break;
-      }
-    }
+    Stock output = stocks.get(key(ticker));
     if (output == null) {
       throw new IllegalArgumentException("** STOCK NOT FOUND, CHECK TICKER FORMAT **");
     }
@@ -102,31 +99,33 @@ public class SimpleStockPortfolio implements StockPortfolio {
   }
 
   /**
-   * The containsStock method searches a list of Stocks and return a boolean value
-   * indicating whether a stock of the given ticker was found in that list.
+   * The containsStock method returns a boolean value indicating whether a stock of the given
+   * ticker is in this portfolio.
    *
    * @param ticker the stock ticker
-   * @param stocks the list of stocks to search
    * @return the boolean value
    */
-  private boolean containsStock(String ticker, List<Stock> stocks) {
-    boolean found = false;
-    for (Stock s : stocks) {
-      if (s.getTicker().equals(ticker)) {
-        found = true;
-        break;
-      }
-    }
-    return found;
+  private boolean containsStock(String ticker) {
+    return stocks.containsKey(key(ticker));
+  }
+
+  /**
+   * The key method normalizes a ticker the way stocks do, so that "aapl" finds AAPL.
+   *
+   * @param ticker the stock ticker
+   * @return the key of the ticker
+   */
+  private static String key(String ticker) {
+    return ticker == null ? null : ticker.toUpperCase();
   }
 
   /**
    * The stockListToString method converts a list of Stock objects to a string list.
    *
-   * @param stocks the list of stocks
+   * @param stocks the stocks
    * @return the converted string list
    */
-  private String stockListToString(List<Stock> stocks) {
+  private String stockListToString(Collection<Stock> stocks) {
     StringBuilder output = new StringBuilder();
     for (Stock s : stocks) {
       String format = s.getTicker() + ": " + s.getShares() + ", ";
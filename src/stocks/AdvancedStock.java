@@ -3,8 +3,6 @@ package stocks;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 
 /**
@@ -14,7 +12,7 @@ import java.util.TreeMap;
  */
 public class AdvancedStock extends SimpleStock implements BetterStock {
   private List<Transaction> transactions;
-  private TreeMap<LocalDate, Double> individualShares;
+  private PositionTimeline timeline;
 
   /**
    * Constructs a {@code stocks.AdvancedStock} object.
@@ -28,7 +26,7 @@ public class AdvancedStock extends SimpleStock implements BetterStock {
   public AdvancedStock(String ticker) {
     super(ticker);
     this.transactions = new ArrayList<>();
-    this.individualShares = new TreeMap<>();
+    this.timeline = new PositionTimeline();
   }
 
   /**
@@ -58,45 +56,119 @@ public class AdvancedStock extends SimpleStock implements BetterStock {
     }
 
     adjustShares(shares);
-    if (individualShares.containsKey(date)) {
-      individualShares.put(date, individualShares.get(date) + shares);
-    } else {
-      individualShares.put(date, shares);
-    }
 
     double pricePaid = shares * this.getPriceOnDay(date);
     Transaction newTransaction = new Transaction(shares, date, pricePaid);
     transactions.add(newTransaction);
+    timeline.add(date, shares);
   }
 
   @Override
   public double getValueOnDate(LocalDate date) {
-    if (historicalData.get(historicalData.size() - 1).getDate().isAfter(date)) {
+    if (historicalData.getFirstDate().isAfter(date)) {
       throw new IllegalArgumentException("** NO DATA AVAILABLE FOR " + date
               + " TRY A MORE RECENT DATE **");
     }
     if (date.isAfter(LocalDate.now())) {
       throw new IllegalArgumentException("** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **");
     }
-    double value = 0.0;
+    // one price lookup for every share held on the date
+    double shares = timeline.getSharesOn(date);
+    return shares == 0 ? 0.0 : shares * getPriceOnDay(date);
+  }
 
-    for (Transaction t : transactions) {
-      if (t.date.isEqual(date) || t.date.isBefore(date)) {
-        value += t.shares * getPriceOnDay(date);
+  @Override
+  public void addValuesInRange(LocalDate start, double[] values) {
+    if (values.length == 0) {
+      return;
+    }
+    LocalDate end = start.plusDays(values.length - 1);
+    if (historicalData.getFirstDate().isAfter(start)) {
+      throw new IllegalArgumentException("** NO DATA AVAILABLE FOR " + start
+              + " TRY A MORE RECENT DATE **");
+    }
+    if (end.isAfter(LocalDate.now())) {
+      throw new IllegalArgumentException("** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **");
+    }
+
+    // both cursors only move forward, so the range costs O(days + transactions + prices)
+    int first = (int) start.toEpochDay();
+    int held = timeline.indexOnOrBefore(first);
+    int price = historicalData.indexOnOrBefore(start);
+    for (int i = 0; i < values.length; i++) {
+      int day = first + i;
+      while (held + 1 < timeline.size() && timeline.getDay(held + 1) <= day) {
+        held++;
+      }
+      while (price + 1 < historicalData.size() && historicalData.getEpochDay(price + 1) <= day) {
+        price++;
+      }
+      double shares = held < 0 ? 0.0 : timeline.getTotal(held);
+      if (shares != 0) {
+        values[i] += shares * historicalData.getClose(price);
       }
     }
-    return value;
   }
 
   @Override
   public double getSharesOnDay(LocalDate date) {
-    double shares = 0.0;
-    for (Transaction t : transactions) {
-      if (t.date.isEqual(date) || t.date.isBefore(date)) {
-        shares += t.shares;
+    return timeline.getSharesOn(date);
+  }
+
+  @Override
+  public PriceSeries getHistory() {
+    return historicalData;
+  }
+
+  @Override
+  public void addTransactions(int[] days, double[] shares) {
+    if (days.length != shares.length) {
+      throw new IllegalArgumentException("** EVERY TRANSACTION NEEDS A DATE AND SHARES **");
+    }
+    int first = (int) historicalData.getFirstDate().toEpochDay();
+    int today = (int) LocalDate.now().toEpochDay();
+    double total = getShares();
+    for (int i = 0; i < days.length; i++) {
+      if (shares[i] == 0) {
+        throw new IllegalArgumentException("** A TRANSACTION MUST ADD OR SUBTRACT SHARES **");
+      }
+      total += shares[i];
+      if (total < 0) {
+        throw new IllegalArgumentException("** YOU CANNOT HAVE NEGATIVE SHARES OF A STOCK **");
+      }
+      if (days[i] < first) {
+        throw new IllegalArgumentException("** NO DATA AVAILABLE FOR "
+                + LocalDate.ofEpochDay(days[i]) + " TRY A MORE RECENT DATE **");
       }
+      if (days[i] > today) {
+        throw new IllegalArgumentException(
+                "** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **");
+      }
+    }
+
+    // the checks are done, so each transaction only needs its price
+    for (int i = 0; i < days.length; i++) {
+      LocalDate date = LocalDate.ofEpochDay(days[i]);
+      adjustShares(shares[i]);
+      double pricePaid = shares[i] * historicalData.getClose(historicalData.indexOnOrBefore(date));
+      transactions.add(new Transaction(shares[i], date, pricePaid));
+      timeline.add(date, shares[i]);
     }
-    return shares;
+  }
+
+  @Override
+  public int getTransactionCount() {
+    return transactions.size();
+  }
+
+  @Override
+  public int getTransactionDay(int index) {
+    return (int) transactions.get(index).date.toEpochDay();
+  }
+
+  @Override
+  public double getTransactionShares(int index) {
+    return transactions.get(index).shares;
   }
 
   @Override
@@ -121,68 +193,11 @@ public class AdvancedStock extends SimpleStock implements BetterStock {
 
   @Override
   public void rebalanceStock(double expectedValue, LocalDate date) {
-    System.out.println("Expected Value for Distribution: " + expectedValue);
-    System.out.println("Ticker: " + getTicker());
-    System.out.println("Shares: " + getSharesOnDay(date));
-    System.out.println("Date Rebalancing TO: " + date);
-    System.out.println("This Stocks Value: " + getValueOnDate(date));
+    // the difference is bought or sold in one transaction on the rebalance date
     double rebalanceValue = expectedValue - getValueOnDate(date);
-    System.out.println("Rebalance Value " + getTicker() + ": " + rebalanceValue);
-    if (rebalanceValue > 0) {
-      double shares = rebalanceValue / getPriceOnDay(date);
-      this.adjustSharesOnDay(shares, date);
-      System.out.println("Added shares " + getTicker() + ": " + shares);
-      return;
-    }
-    double tempValue = rebalanceValue;
-    for (Map.Entry<LocalDate, Double> shares : individualShares.entrySet()) {
-      //Temp Value will be Negative until enough stocks are sold
-      if (tempValue != 0) {
-        //Need to sell stocks in order to adjust current Stock to match distribution
-        //Find the difference in price between when the stock was bought and,
-        //when the stock is going to be rebalanced
-        double sharePrice = shares.getValue() * getPriceOnDay(date);
-        if (tempValue + sharePrice > 0) {
-          //Since the total price of shares on this day exceeded the value that must be sold,
-          //Only take a fraction of the shares away.
-          this.adjustIndividualShares((tempValue / sharePrice) * shares.getValue(), date
-                  , shares.getKey());
-          return;
-        } else {
-          tempValue += sharePrice;
-          //Otherwise just sell all the shares on that day.
-          this.adjustIndividualShares(-1 * shares.getValue(), date, shares.getKey());
-        }
-      } else {
-        return;
-      }
+    if (rebalanceValue != 0) {
+      adjustSharesOnDay(rebalanceValue / getPriceOnDay(date), date);
     }
   }
 
-  /**
-   * Helper for re-balance stock that ensures re-balance only processes a transaction on the
-   * re-balance date, not the date the stocks to re-balance were purchased.
-   *
-   * @param shares          the number of shares
-   * @param transactionDate the transaction date
-   * @param removalDate     the re-balance date
-   */
-  private void adjustIndividualShares(double shares,
-                                      LocalDate transactionDate, LocalDate removalDate) {
-    if (shares == 0) {
-      throw new IllegalArgumentException("** A TRANSACTION MUST ADD OR SUBTRACT SHARES **");
-    }
-
-    adjustShares(shares);
-    if (individualShares.containsKey(removalDate)) {
-      individualShares.put(removalDate, individualShares.get(removalDate) + shares);
-    } else {
-      individualShares.put(removalDate, shares);
-    }
-
-    double pricePaid = shares * this.getPriceOnDay(transactionDate);
-    Transaction newTransaction = new Transaction(shares, transactionDate, pricePaid);
-    transactions.add(newTransaction);
-  }
-
 }
@@ -1,28 +1,148 @@
 package stocks;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.FileOutputStream;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.List;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
  * The {@code stocks.AlphaVantageDataSource} class represents the data source for
- * the AlphaVantage API.
+ * the AlphaVantage API. The response is streamed in large blocks: every block is written to a
+ * temporary file and handed to the CSV parser in the same pass, and the temporary file only
+ * replaces the ticker's CSV file once the whole response has been read and parsed. A request
+ * refused because of the API's rate limit throws a {@link RateLimitException} rather than
+ * being reported as an unknown stock.
  */
 public class AlphaVantageDataSource extends CSVSources {
+  /** The AlphaVantage query endpoint. */
+  public static final String DEFAULT_BASE_URL = "https://www.alphavantage.co/query";
+
   private static final String apiKey = "";
+  private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+  private static final int READ_TIMEOUT_MILLIS = 60_000;
+  private static final int ERROR_PEEK_BYTES = 8192;
+
+  private final String baseUrl;
+  private final Path directory;
+
+  /**
+   * Constructs a {@code stocks.AlphaVantageDataSource} that queries the AlphaVantage API and
+   * saves CSV files in the working directory.
+   */
+  public AlphaVantageDataSource() {
+    this(DEFAULT_BASE_URL, Paths.get(""));
+  }
+
+  /**
+   * Constructs a {@code stocks.AlphaVantageDataSource} that queries the given endpoint and
+   * saves CSV files in the given directory.
+   *
+   * @param baseUrl the query endpoint, without any query parameters
+   * @param directory the directory the downloaded CSV files are saved in
+   */
+  public AlphaVantageDataSource(String baseUrl, Path directory) {
+    this.baseUrl = baseUrl;
+    this.directory = directory;
+  }
 
   @Override
-  public List<StockData> getHistoryData(String ticker) {
-    List<StockData> data;
-    URL url;
+  public PriceSeries getHistorySeries(String ticker) {
+    URL url = query(ticker, "full");
+
+    PriceSeries[] data = new PriceSeries[1];
+    try (InputStream in = open(url)) {
+      // the CSV file is saved while it is parsed, and only replaces the old one once parsed
+      AtomicFile.write(directory.resolve(ticker + ".csv"),
+              file -> data[0] = parseSeries(new TeeChannel(in, file)));
+      return data[0];
+    } catch (IOException e) {
+      throw new RuntimeException(" ** UNABLE TO CONNECT TO THE INTERNET, CHECK YOUR CONNECTION **");
+    }
+  }
+
+  /**
+   * The getRecentSeries method downloads only the compact window of the most recent 100
+   * market days. Unlike a full download, the result is not saved over the ticker's CSV file.
+   *
+   * @param ticker the ticker for the desired stock
+   * @return the price series of the most recent market days
+   */
+  @Override
+  public PriceSeries getRecentSeries(String ticker) {
+    URL url = query(ticker, "compact");
+    try (InputStream in = open(url)) {
+      return parseSeries(in);
+    } catch (IOException e) {
+      throw new RuntimeException(" ** UNABLE TO CONNECT TO THE INTERNET, CHECK YOUR CONNECTION **");
+    }
+  }
+
+  /**
+   * The open method sends the given query and returns the response positioned at its first
+   * byte. AlphaVantage answers errors with a small JSON document instead of CSV; those are
+   * read here and turned into exceptions before anything is parsed or saved.
+   *
+   * @param url the query URL
+   * @return the CSV response
+   * @throws IOException if the service cannot be reached
+   * @throws RateLimitException if the service refused the request because of its rate limit
+   * @throws RuntimeException if the service answered with any other error
+   */
+  private static InputStream open(URL url) throws IOException {
+    URLConnection connection = url.openConnection();
+    connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+    connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+    if (connection instanceof HttpURLConnection) {
+      int status = ((HttpURLConnection) connection).getResponseCode();
+      if (status == 429 || status == 503) {
+        throw new RateLimitException();
+      }
+    }
+
+    InputStream in = new BufferedInputStream(connection.getInputStream(), ERROR_PEEK_BYTES);
+    try {
+      in.mark(ERROR_PEEK_BYTES);
+      int first;
+      do {
+        first = in.read();
+      } while (first == ' ' || first == '\t' || first == '\r' || first == '\n');
+      in.reset();
+      if (first == '{') {
+        String message = new String(in.readAllBytes(), StandardCharsets.UTF_8).toLowerCase();
+        if (message.contains("rate limit") || message.contains("call frequency")) {
+          throw new RateLimitException();
+        }
+        throw new RuntimeException("** STOCK NOT FOUND, CHECK TICKER FORMAT **");
+      }
+      return in;
+    } catch (IOException | RuntimeException e) {
+      in.close();
+      throw e;
+    }
+  }
 
+  /**
+   * The query method builds the daily time series query for the given ticker.
+   *
+   * @param ticker the ticker for the desired stock
+   * @param outputSize either "full" for the whole history or "compact" for the last 100 days
+   * @return the query URL
+   */
+  private URL query(String ticker, String outputSize) {
     try {
-      url = new URL("https://www.alphavantage.co/query?"
+      return new URL(baseUrl + "?"
               + "function=TIME_SERIES_DAILY"
-              + "&outputsize=full"
+              + "&outputsize="
+              + outputSize
               + "&symbol="
               + ticker
               + "&apikey="
@@ -31,31 +151,58 @@ public class AlphaVantageDataSource extends CSVSources {
     } catch (MalformedURLException e) {
       throw new RuntimeException(" ** MALFORMED URL, TRY AGAIN OR RESTART THE PROGRAM ** ");
     }
+  }
 
-    InputStream in;
-    StringBuilder output = new StringBuilder();
+  /**
+   * The TeeChannel class reads from an input stream straight into the caller's buffer and
+   * writes every block it reads to a file before returning it.
+   */
+  private static class TeeChannel implements ReadableByteChannel {
+    private final InputStream in;
+    private final FileChannel file;
+    private boolean open = true;
 
-    try {
-      in = url.openStream();
-      int b;
+    private TeeChannel(InputStream in, FileChannel file) {
+      this.in = in;
+      this.file = file;
+    }
 
-      while ((b = in.read()) != -1) {
-        output.append((char) b);
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      int start = dst.position();
+      int read;
+      if (dst.hasArray()) {
+        read = in.read(dst.array(), dst.arrayOffset() + start, dst.remaining());
+        if (read > 0) {
+          dst.position(start + read);
+        }
+      } else {
+        byte[] block = new byte[dst.remaining()];
+        read = in.read(block);
+        if (read > 0) {
+          dst.put(block, 0, read);
+        }
       }
-      in.close();
-
-      // Save the CSV file in the stockdata directory
-      try (FileOutputStream fos = new FileOutputStream(ticker + ".csv")) {
-        fos.write(output.toString().getBytes());
+      if (read > 0) {
+        ByteBuffer written = dst.duplicate();
+        written.flip();
+        written.position(start);
+        while (written.hasRemaining()) {
+          file.write(written);
+        }
       }
+      return read;
+    }
 
-      data = parseCSV(output.toString());
-    } catch (IOException e) {
-      throw new RuntimeException(" ** UNABLE TO CONNECT TO THE INTERNET, CHECK YOUR CONNECTION **");
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() {
+      open = false;
     }
-    return data;
   }
 
 }
-
-
@@ -0,0 +1,90 @@
+package stocks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@code stocks.AtomicFile} class replaces files without ever leaving a partly written
+ * one in their place. The new contents are written to a temporary '.part' file beside the
+ * target, which is then renamed over it; atomically where the file system supports it, and
+ * with a plain replacing move where it does not. If anything fails, the temporary file is
+ * deleted and the target is left as it was.
+ */
+public final class AtomicFile {
+
+  /**
+   * The Contents interface writes the new contents of a file.
+   */
+  @FunctionalInterface
+  public interface Contents {
+    /**
+     * The writeTo method writes the contents to the temporary file's channel.
+     *
+     * @param channel the channel of the temporary file
+     * @throws IOException if the contents cannot be written
+     */
+    void writeTo(FileChannel channel) throws IOException;
+  }
+
+  private AtomicFile() {
+  }
+
+  /**
+   * The write method replaces the given file with the contents written by the given writer.
+   *
+   * @param file the file to replace or create; its directory must exist
+   * @param contents the writer of the new contents
+   * @throws IOException if the file cannot be written or moved into place
+   */
+  public static void write(Path file, Contents contents) throws IOException {
+    Path temp = Files.createTempFile(file.toAbsolutePath().getParent(),
+            file.getFileName().toString(), ".part");
+    boolean moved = false;
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        contents.writeTo(channel);
+      }
+      moveIntoPlace(temp, file);
+      moved = true;
+    } finally {
+      if (!moved) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException ignored) {
+          // a stray .part file is never read
+        }
+      }
+    }
+  }
+
+  /**
+   * The write method replaces the given file with the remaining bytes of the given buffer.
+   *
+   * @param file the file to replace or create; its directory must exist
+   * @param contents the new contents
+   * @throws IOException if the file cannot be written or moved into place
+   */
+  public static void write(Path file, ByteBuffer contents) throws IOException {
+    write(file, channel -> {
+      while (contents.hasRemaining()) {
+        channel.write(contents);
+      }
+    });
+  }
+
+  private static void moveIntoPlace(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+              StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+}
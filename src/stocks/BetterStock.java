@@ -37,6 +37,49 @@ public interface BetterStock extends Stock {
    */
   double getValueOnDate(LocalDate date);
 
+  /**
+   * The addValuesInRange method adds the value of this stock on each of a run of consecutive
+   * days to the given array, walking the shares held and the price history once.
+   *
+   * @param start the first day, whose value is added to values[0]
+   * @param values the running values, one per day
+   * @throws IllegalArgumentException if the days start before this stock's history or end in
+   *                                  the future
+   */
+  void addValuesInRange(LocalDate start, double[] values);
+
+  /**
+   * The addTransactions method adds a run of transactions at once, in the given order, as
+   * adjustSharesOnDay would one at a time. Every transaction is checked before any is added.
+   *
+   * @param days the epoch days of the transactions
+   * @param shares the number of shares of each transaction (+ if bought, - if sold)
+   * @throws IllegalArgumentException if a transaction has no shares, is dated outside this
+   *                                  stock's history or would leave negative shares
+   */
+  void addTransactions(int[] days, double[] shares);
+
+  /**
+   * The getTransactionCount method returns the number of transactions of this stock.
+   * @return the number of transactions
+   */
+  int getTransactionCount();
+
+  /**
+   * The getTransactionDay method returns the epoch day of the transaction at the given index.
+   * @param index the index, in the order the transactions were made
+   * @return the epoch day
+   */
+  int getTransactionDay(int index);
+
+  /**
+   * The getTransactionShares method returns the number of shares of the transaction at the
+   * given index (+ if bought, - if sold).
+   * @param index the index, in the order the transactions were made
+   * @return the number of shares
+   */
+  double getTransactionShares(int index);
+
   /**
    * The getTransaction method return a string output of the transaction history for this stock.
    * @return the string output
@@ -50,4 +93,10 @@ public interface BetterStock extends Stock {
    * @param date the date on which t0 re-balance
    */
   void rebalanceStock(double expectedValue, LocalDate date);
+
+  /**
+   * The getHistory method returns the price history this stock is valued with.
+   * @return the price history
+   */
+  PriceSeries getHistory();
 }
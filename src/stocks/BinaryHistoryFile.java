@@ -0,0 +1,129 @@
+package stocks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * The {@code stocks.BinaryHistoryFile} class reads and writes the compact binary form of a
+ * price history, kept next to a ticker's CSV file so that opening a ticker maps a file into
+ * memory instead of parsing text. The CSV file stays the interchange format; the binary file
+ * is a cache of it and records the size and modification time of the CSV file it was
+ * converted from, so it is only used while that CSV file is unchanged.
+ *
+ * <p>Layout (big-endian): a 40 byte header of magic number, version, price scale, record
+ * count, source CSV length and source CSV modification time, followed by one 40 byte record
+ * per market day in ascending date order: epoch day, open, high, low and close as fixed-point
+ * longs (price times the scale), and volume.
+ */
+public final class BinaryHistoryFile {
+  /** The file extension of binary history files. */
+  public static final String EXTENSION = ".bin";
+  /** Prices are stored as whole multiples of 1 / PRICE_SCALE. */
+  public static final long PRICE_SCALE = 10_000L;
+
+  private static final int MAGIC = 0x53544B48; // "STKH"
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 40;
+  private static final int RECORD_BYTES = Integer.BYTES + 4 * Long.BYTES + Integer.BYTES;
+
+  private BinaryHistoryFile() {
+  }
+
+  /**
+   * The read method maps the binary history file and decodes it, provided it was converted
+   * from the given CSV file in its current state.
+   *
+   * @param file the binary history file
+   * @param csv the CSV file it must have been converted from
+   * @return the price series, or null if the file is missing, malformed or out of date
+   */
+  public static PriceSeries read(Path file, Path csv) {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_BYTES) {
+        return null;
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+      buffer.order(ByteOrder.BIG_ENDIAN);
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        return null;
+      }
+      double scale = buffer.getLong();
+      int count = buffer.getInt();
+      buffer.getInt(); // reserved
+      long csvLength = buffer.getLong();
+      long csvModified = buffer.getLong();
+      if (count < 0 || length != HEADER_BYTES + (long) count * RECORD_BYTES
+              || !matches(csv, csvLength, csvModified)) {
+        return null;
+      }
+
+      PriceSeries.Builder builder = new PriceSeries.Builder(Math.max(count, 1));
+      for (int i = 0; i < count; i++) {
+        int epochDay = buffer.getInt();
+        double open = buffer.getLong() / scale;
+        double high = buffer.getLong() / scale;
+        double low = buffer.getLong() / scale;
+        double close = buffer.getLong() / scale;
+        builder.add(epochDay, open, high, low, close, buffer.getInt());
+      }
+      return builder.build();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * The write method saves the given series as a binary history file converted from the given
+   * CSV file. The file is written under a temporary name and renamed into place. Nothing is
+   * written, and false is returned, if a price cannot be stored exactly at
+   * {@link #PRICE_SCALE} or the file cannot be written.
+   *
+   * @param file the binary history file
+   * @param csv the CSV file the series was parsed from
+   * @param series the price series
+   * @return true if the file was written
+   */
+  public static boolean write(Path file, Path csv, PriceSeries series) {
+    int count = series.size();
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * RECORD_BYTES);
+    try {
+      BasicFileAttributes source = Files.readAttributes(csv, BasicFileAttributes.class);
+      buffer.putInt(MAGIC).putInt(VERSION).putLong(PRICE_SCALE).putInt(count).putInt(0)
+              .putLong(source.size()).putLong(source.lastModifiedTime().toMillis());
+      for (int i = 0; i < count; i++) {
+        buffer.putInt(series.getEpochDay(i));
+        for (double price : new double[]{series.getOpen(i), series.getHigh(i),
+            series.getLow(i), series.getClose(i)}) {
+          long fixed = Math.round(price * PRICE_SCALE);
+          if (fixed / (double) PRICE_SCALE != price) {
+            return false;
+          }
+          buffer.putLong(fixed);
+        }
+        buffer.putInt(series.getVolume(i));
+      }
+      buffer.flip();
+      AtomicFile.write(file, buffer);
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static boolean matches(Path csv, long length, long modified) throws IOException {
+    if (!Files.exists(csv)) {
+      return false;
+    }
+    BasicFileAttributes attributes = Files.readAttributes(csv, BasicFileAttributes.class);
+    return attributes.size() == length && attributes.lastModifiedTime().toMillis() == modified;
+  }
+
+}
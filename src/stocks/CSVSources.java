@@ -1,8 +1,10 @@
 package stocks;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,7 +13,6 @@ import java.util.List;
  * Comma Separated Values input sources including web and local files.
  */
 public abstract class CSVSources implements StockDataSource {
-  private static final DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
   /**
    * The getHistoryData method queries the CSV data sources and parses each entry
@@ -20,7 +21,20 @@ public abstract class CSVSources implements StockDataSource {
    * @param ticker the ticker for the desired stock
    * @return the list of StockData
    */
-  public abstract List<StockData> getHistoryData(String ticker);
+  @Override
+  public List<StockData> getHistoryData(String ticker) {
+    return new ArrayList<>(getHistorySeries(ticker).asList());
+  }
+
+  /**
+   * The getHistorySeries method queries the CSV data sources and parses each entry
+   * straight into a PriceSeries.
+   *
+   * @param ticker the ticker for the desired stock
+   * @return the price series
+   */
+  @Override
+  public abstract PriceSeries getHistorySeries(String ticker);
 
   /**
    * The parseCSV method parses a CSV file into a list of  StockData objects.
@@ -29,38 +43,46 @@ public abstract class CSVSources implements StockDataSource {
    * @return the list of StockData
    */
   public List<StockData> parseCSV(String csvData) throws RuntimeException {
-    List<StockData> data = new ArrayList<>();
-    String[] rows = csvData.split("\n");
-    for (int i = 1; i < rows.length; i++) {
-      try {
-        StockData stockData = getStockData(rows[i]);
-        data.add(stockData);
-      } catch (DateTimeParseException e) {
-        throw new RuntimeException("** STOCK NOT FOUND, CHECK TICKER FORMAT **");
-      }
+    return new ArrayList<>(parseSeries(csvData).asList());
+  }
+
+  /**
+   * The parseSeries method parses a CSV file into a PriceSeries without creating a
+   * StockData object per entry.
+   *
+   * @param csvData the CSV file (i.e. timestamp, high, low, open, close, volume)
+   * @return the price series
+   */
+  public PriceSeries parseSeries(String csvData) throws RuntimeException {
+    try {
+      return parseSeries(new ByteArrayInputStream(csvData.getBytes(StandardCharsets.UTF_8)));
+    } catch (IOException e) {
+      throw new RuntimeException("** STOCK NOT FOUND, CHECK TICKER FORMAT **");
     }
-    return data;
   }
 
   /**
-   * The static method getStockData parses an individual CSV entry into a StockData
-   * object.
+   * The parseSeries method parses CSV data as it is read from the given stream, straight
+   * into a PriceSeries. The stream is not closed.
    *
-   * @param rows the number of lines in the CSV file
-   * @return the StockData object
+   * @param in the CSV input stream (i.e. timestamp, high, low, open, close, volume)
+   * @return the price series
+   * @throws IOException if the stream cannot be read
    */
-  private static StockData getStockData(String rows) {
-    StockData stockData;
+  public PriceSeries parseSeries(InputStream in) throws IOException {
+    return new StreamingCSVParser().parse(in);
+  }
 
-    String[] columns = rows.split(",");
-    LocalDate date = LocalDate.parse(columns[0].trim(), dateFormat);
-    double open = Double.parseDouble(columns[1].trim());
-    double high = Double.parseDouble(columns[2].trim());
-    double low = Double.parseDouble(columns[3].trim());
-    double close = Double.parseDouble(columns[4].trim());
-    int volume = Integer.parseInt(columns[5].trim());
-    stockData = new DailyStockData(date, open, close, high, low, volume);
-    return stockData;
+  /**
+   * The parseSeries method parses CSV data as it is read from the given channel, straight
+   * into a PriceSeries. The channel is not closed.
+   *
+   * @param channel the CSV channel (i.e. timestamp, high, low, open, close, volume)
+   * @return the price series
+   * @throws IOException if the channel cannot be read
+   */
+  public PriceSeries parseSeries(ReadableByteChannel channel) throws IOException {
+    return new StreamingCSVParser().parse(channel);
   }
 
 }
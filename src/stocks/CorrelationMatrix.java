@@ -0,0 +1,332 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@code stocks.CorrelationMatrix} class holds the covariance and correlation of the daily
+ * returns of a set of stocks over a date range. Returns are taken between the market days that
+ * every stock traded on, so all of the return vectors line up. The matrices are computed in
+ * square blocks of stocks spread across a fork-join pool, and are kept as flat arrays so that
+ * several hundred stocks do not create an object per pair.
+ */
+public final class CorrelationMatrix {
+  // number of stocks per side of a block; a block's return vectors stay in the cache
+  private static final int BLOCK = 32;
+
+  private final List<String> tickers;
+  private final LocalDate start;
+  private final LocalDate end;
+  private final int observations;
+  private final double[] covariance;
+  private final double[] correlation;
+
+  private CorrelationMatrix(List<String> tickers, LocalDate start, LocalDate end,
+                            int observations, double[] covariance, double[] correlation) {
+    this.tickers = Collections.unmodifiableList(new ArrayList<>(tickers));
+    this.start = start;
+    this.end = end;
+    this.observations = observations;
+    this.covariance = covariance;
+    this.correlation = correlation;
+  }
+
+  /**
+   * The compute method returns the covariance and correlation matrices of the daily returns
+   * of the given stocks between the start and end dates (inclusive), using the common
+   * fork-join pool.
+   *
+   * @param tickers the stock tickers
+   * @param histories the histories of the stocks, in the same order as the tickers
+   * @param start the start date
+   * @param end the end date
+   * @return the matrices
+   * @throws IllegalArgumentException if there are fewer than two stocks, or fewer than three
+   *                                  market days that every stock traded on
+   */
+  public static CorrelationMatrix compute(List<String> tickers, List<PriceSeries> histories,
+                                          LocalDate start, LocalDate end)
+          throws IllegalArgumentException {
+    return compute(tickers, histories, start, end, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * The compute method returns the covariance and correlation matrices of the daily returns
+   * of the given stocks between the start and end dates (inclusive), using the given pool.
+   *
+   * @param tickers the stock tickers
+   * @param histories the histories of the stocks, in the same order as the tickers
+   * @param start the start date
+   * @param end the end date
+   * @param pool the pool that computes the blocks
+   * @return the matrices
+   * @throws IllegalArgumentException if there are fewer than two stocks, or fewer than three
+   *                                  market days that every stock traded on
+   */
+  public static CorrelationMatrix compute(List<String> tickers, List<PriceSeries> histories,
+                                          LocalDate start, LocalDate end, ForkJoinPool pool)
+          throws IllegalArgumentException {
+    if (tickers.size() != histories.size()) {
+      throw new IllegalArgumentException("** EVERY STOCK NEEDS A HISTORY **");
+    }
+    if (tickers.size() < 2) {
+      throw new IllegalArgumentException("** AT LEAST TWO STOCKS ARE NEEDED TO CORRELATE **");
+    }
+    if (start.isAfter(end)) {
+      throw new IllegalArgumentException("** START DATE MUST BE BEFORE END DATE **");
+    }
+
+    int n = tickers.size();
+    int[][] rows = commonDays(histories, start, end);
+    int days = rows[0].length;
+    if (days < 3) {
+      throw new IllegalArgumentException("** NOT ENOUGH COMMON MARKET DAYS IN RANGE TO "
+              + "CORRELATE RETURNS **");
+    }
+
+    // centered daily returns, one row of (days - 1) values per stock
+    int m = days - 1;
+    double[] returns = new double[n * m];
+    for (int s = 0; s < n; s++) {
+      PriceSeries series = histories.get(s);
+      int[] index = rows[s];
+      double sum = 0.0;
+      for (int d = 0; d < m; d++) {
+        double previous = series.getClose(index[d]);
+        double value = series.getClose(index[d + 1]) / previous - 1;
+        returns[s * m + d] = value;
+        sum += value;
+      }
+      double mean = sum / m;
+      for (int d = 0; d < m; d++) {
+        returns[s * m + d] -= mean;
+      }
+    }
+
+    double[] covariance = new double[n * n];
+    int blocks = (n + BLOCK - 1) / BLOCK;
+    pool.invoke(new BlockTask(returns, covariance, n, m, blocks, 0, blocks * (blocks + 1) / 2));
+
+    double[] correlation = new double[n * n];
+    for (int i = 0; i < n; i++) {
+      double deviationI = Math.sqrt(covariance[i * n + i]);
+      for (int j = 0; j < n; j++) {
+        double deviations = deviationI * Math.sqrt(covariance[j * n + j]);
+        double value = deviations == 0 ? Double.NaN : covariance[i * n + j] / deviations;
+        // keep rounding from leaving [-1, 1]
+        correlation[i * n + j] = Math.max(-1.0, Math.min(1.0, value));
+      }
+    }
+    return new CorrelationMatrix(tickers, start, end, m, covariance, correlation);
+  }
+
+  /**
+   * The commonDays method returns, for every series, the indexes of the market days in the
+   * range that every series has, walking all of the series once in step.
+   */
+  private static int[][] commonDays(List<PriceSeries> histories, LocalDate start,
+                                    LocalDate end) {
+    int n = histories.size();
+    int[] cursor = new int[n];
+    int[] last = new int[n];
+    int capacity = Integer.MAX_VALUE;
+    for (int s = 0; s < n; s++) {
+      PriceSeries series = histories.get(s);
+      cursor[s] = series.indexOnOrAfter(start);
+      last[s] = series.indexOnOrBefore(end);
+      capacity = Math.min(capacity, Math.max(0, last[s] - cursor[s] + 1));
+    }
+
+    int[][] rows = new int[n][capacity];
+    int count = 0;
+    while (count < capacity) {
+      // the latest of the current days is the only candidate every series can share
+      int day = Integer.MIN_VALUE;
+      boolean done = false;
+      for (int s = 0; s < n && !done; s++) {
+        done = cursor[s] > last[s];
+        if (!done) {
+          day = Math.max(day, histories.get(s).getEpochDay(cursor[s]));
+        }
+      }
+      if (done) {
+        break;
+      }
+      boolean shared = true;
+      for (int s = 0; s < n; s++) {
+        PriceSeries series = histories.get(s);
+        while (cursor[s] <= last[s] && series.getEpochDay(cursor[s]) < day) {
+          cursor[s]++;
+        }
+        shared &= cursor[s] <= last[s] && series.getEpochDay(cursor[s]) == day;
+      }
+      if (shared) {
+        for (int s = 0; s < n; s++) {
+          rows[s][count] = cursor[s]++;
+        }
+        count++;
+      }
+    }
+
+    int[][] output = new int[n][];
+    for (int s = 0; s < n; s++) {
+      output[s] = count == capacity ? rows[s] : Arrays.copyOf(rows[s], count);
+    }
+    return output;
+  }
+
+  /**
+   * The BlockTask class computes the covariances of a range of blocks of the upper triangle,
+   * splitting the range in half across the pool until it is a single block. Each block
+   * writes its own cells and their mirror images, so no two tasks share a cell.
+   */
+  private static final class BlockTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final double[] returns;
+    private final double[] covariance;
+    private final int n;
+    private final int m;
+    private final int blocks;
+    private final int from;
+    private final int to;
+
+    private BlockTask(double[] returns, double[] covariance, int n, int m, int blocks,
+                      int from, int to) {
+      this.returns = returns;
+      this.covariance = covariance;
+      this.n = n;
+      this.m = m;
+      this.blocks = blocks;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new BlockTask(returns, covariance, n, m, blocks, from, middle),
+                new BlockTask(returns, covariance, n, m, blocks, middle, to));
+        return;
+      }
+      // map the block number to its (row, column) in the upper triangle of blocks
+      int row = 0;
+      int remaining = from;
+      while (remaining >= blocks - row) {
+        remaining -= blocks - row;
+        row++;
+      }
+      int column = row + remaining;
+
+      int rowEnd = Math.min(n, (row + 1) * BLOCK);
+      int columnEnd = Math.min(n, (column + 1) * BLOCK);
+      for (int i = row * BLOCK; i < rowEnd; i++) {
+        for (int j = Math.max(column * BLOCK, i); j < columnEnd; j++) {
+          double sum = 0.0;
+          int a = i * m;
+          int b = j * m;
+          for (int d = 0; d < m; d++) {
+            sum += returns[a + d] * returns[b + d];
+          }
+          double value = sum / (m - 1);
+          covariance[i * n + j] = value;
+          covariance[j * n + i] = value;
+        }
+      }
+    }
+  }
+
+  /**
+   * The getTickers method returns the stock tickers, in the order of the rows and columns.
+   *
+   * @return the tickers
+   */
+  public List<String> getTickers() {
+    return tickers;
+  }
+
+  /**
+   * The size method returns the number of stocks.
+   *
+   * @return the number of stocks
+   */
+  public int size() {
+    return tickers.size();
+  }
+
+  /**
+   * The getObservations method returns the number of daily returns each value is based on.
+   *
+   * @return the number of daily returns
+   */
+  public int getObservations() {
+    return observations;
+  }
+
+  /**
+   * The getCovariance method returns the sample covariance of the daily returns of two stocks.
+   *
+   * @param i the index of the first stock
+   * @param j the index of the second stock
+   * @return the covariance
+   */
+  public double getCovariance(int i, int j) {
+    return covariance[cell(i, j)];
+  }
+
+  /**
+   * The getCorrelation method returns the correlation of the daily returns of two stocks.
+   *
+   * @param i the index of the first stock
+   * @param j the index of the second stock
+   * @return the correlation, NaN if either stock's price did not move
+   */
+  public double getCorrelation(int i, int j) {
+    return correlation[cell(i, j)];
+  }
+
+  private int cell(int i, int j) {
+    int n = tickers.size();
+    if (i < 0 || i >= n || j < 0 || j >= n) {
+      throw new IndexOutOfBoundsException("Index: (" + i + ", " + j + "), Size: " + n);
+    }
+    return i * n + j;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder output = new StringBuilder();
+    output.append("CORRELATION OF DAILY RETURNS FROM ").append(start).append(" TO ").append(end)
+            .append(" (").append(observations).append(" RETURNS):")
+            .append(System.lineSeparator());
+    appendTable(output, correlation, "%10.2f");
+    output.append(System.lineSeparator()).append("COVARIANCE OF DAILY RETURNS:")
+            .append(System.lineSeparator());
+    appendTable(output, covariance, "%10.6f");
+    return output.toString();
+  }
+
+  private void appendTable(StringBuilder output, double[] values, String format) {
+    int n = tickers.size();
+    output.append(String.format("%-8s", ""));
+    for (String ticker : tickers) {
+      output.append(String.format("%10s", ticker));
+    }
+    output.append(System.lineSeparator());
+    for (int i = 0; i < n; i++) {
+      output.append(String.format("%-8s", tickers.get(i)));
+      for (int j = 0; j < n; j++) {
+        double value = values[i * n + j];
+        output.append(Double.isNaN(value) ? String.format("%10s", "N/A")
+                : String.format(format, value));
+      }
+      output.append(System.lineSeparator());
+    }
+  }
+
+}
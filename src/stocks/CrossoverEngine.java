@@ -0,0 +1,130 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code stocks.CrossoverEngine} class finds x-day crossovers, the market days on which a
+ * stock closed above its x-day moving average, over a PriceSeries in a single pass. Each
+ * window keeps a running sum of the closes it covers, so a whole date range costs O(n) per
+ * window instead of recomputing every moving average from scratch, and several windows can be
+ * evaluated in the same sweep over the data.
+ */
+public final class CrossoverEngine {
+  // relative distance between a close and its moving average below which the running sum is
+  // not trusted and the average is recomputed exactly
+  private static final double TIE_TOLERANCE = 1e-9;
+
+  private CrossoverEngine() {
+  }
+
+  /**
+   * The crossovers method returns the x-day crossovers of the given series between the start
+   * and end dates (inclusive), most recent day first.
+   *
+   * @param series the price series
+   * @param start the start date
+   * @param end the end date
+   * @param days the number of days (x-value)
+   * @return the list of crossover days
+   * @throws IllegalArgumentException if the x-value is not positive
+   */
+  public static List<LocalDate> crossovers(PriceSeries series, LocalDate start, LocalDate end,
+                                           int days) throws IllegalArgumentException {
+    return crossovers(series, start, end, new int[]{days}).get(days);
+  }
+
+  /**
+   * The crossovers method returns the crossovers of the given series between the start and
+   * end dates (inclusive) for every given x-value, evaluated in one pass over the series. Each
+   * list is ordered most recent day first.
+   *
+   * @param series the price series
+   * @param start the start date
+   * @param end the end date
+   * @param windows the x-values to evaluate (i.e. 20, 50, 200)
+   * @return the crossover days of each x-value, in the order the x-values were given
+   * @throws IllegalArgumentException if no x-values are given or any x-value is not positive
+   */
+  public static Map<Integer, List<LocalDate>> crossovers(PriceSeries series, LocalDate start,
+                                                         LocalDate end, int[] windows)
+          throws IllegalArgumentException {
+    if (windows.length == 0) {
+      throw new IllegalArgumentException("** ENTER AT LEAST ONE X-VALUE **");
+    }
+    int maxWindow = 0;
+    for (int window : windows) {
+      if (window <= 0) {
+        throw new IllegalArgumentException("** ENTER A POSITIVE X-VALUE **");
+      }
+      maxWindow = Math.max(maxWindow, window);
+    }
+
+    int first = series.indexOnOrAfter(start);
+    int last = series.indexOnOrBefore(end);
+    List<List<LocalDate>> found = new ArrayList<>();
+    for (int i = 0; i < windows.length; i++) {
+      found.add(new ArrayList<>());
+    }
+
+    if (first <= last) {
+      // start early enough that the largest window is full on the first day of the range
+      int from = Math.max(0, first - maxWindow + 1);
+      double[] sums = new double[windows.length];
+
+      for (int i = from; i <= last; i++) {
+        double close = series.getClose(i);
+        for (int w = 0; w < windows.length; w++) {
+          sums[w] += close;
+          if (i - windows[w] >= from) {
+            sums[w] -= series.getClose(i - windows[w]);
+          }
+          if (i >= first && isCrossover(series, i, windows[w], sums[w])) {
+            found.get(w).add(series.getDate(i));
+          }
+        }
+      }
+    }
+
+    Map<Integer, List<LocalDate>> output = new LinkedHashMap<>();
+    for (int w = 0; w < windows.length; w++) {
+      List<LocalDate> days = found.get(w);
+      // most recent day first, matching the order of the CSV data
+      List<LocalDate> reversed = new ArrayList<>(days.size());
+      for (int i = days.size() - 1; i >= 0; i--) {
+        reversed.add(days.get(i));
+      }
+      output.put(windows[w], reversed);
+    }
+    return output;
+  }
+
+  /**
+   * The isCrossover method decides whether the close at the given index is above its moving
+   * average. When the close and the running average are too close to trust the running sum,
+   * the average is recomputed the same way as a single moving-average query.
+   *
+   * @param series the price series
+   * @param index the index of the day to check
+   * @param days the number of days (x-value)
+   * @param runningSum the running sum of the closes in the window ending at the index
+   * @return true if the day is a crossover
+   */
+  private static boolean isCrossover(PriceSeries series, int index, int days, double runningSum) {
+    double close = series.getClose(index);
+    int count = Math.min(days, index + 1);
+    double average = runningSum / count;
+    if (Math.abs(close - average) > TIE_TOLERANCE * Math.max(Math.abs(close), 1.0)) {
+      return close > average;
+    }
+    double sum = 0.0;
+    for (int i = index; i > index - count; i--) {
+      sum += series.getClose(i);
+    }
+    return close > sum / count;
+  }
+
+}
@@ -0,0 +1,379 @@
+package stocks;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code stocks.FetchScheduler} class paces every request to a rate-limited stock data
+ * source (the AlphaVantage API by default). Requests wait in a priority queue, where
+ * interactive requests always go ahead of background refreshes and requests of the same
+ * priority keep their order. A small pool of worker threads drains the queue, and each
+ * request takes a token from a {@link TokenBucket} before it is sent. A request refused
+ * with a {@link RateLimitException} is put back in the queue after a randomly jittered,
+ * exponentially growing delay, up to a maximum number of attempts. Every other failure is
+ * returned to the caller straight away.
+ *
+ * <p>The scheduler is itself a StockDataSource: its blocking methods submit interactive
+ * requests and wait for them, so it can stand in for the source it wraps.
+ */
+public class FetchScheduler implements StockDataSource {
+  /** The system property used to set the request rate of the shared scheduler. */
+  public static final String PERMITS_PER_MINUTE_PROPERTY = "stocks.fetch.permitsPerMinute";
+  /** The default request rate, the AlphaVantage free tier limit of 5 calls per minute. */
+  public static final int DEFAULT_PERMITS_PER_MINUTE = 5;
+  /** The default number of worker threads. */
+  public static final int DEFAULT_WORKERS = 2;
+  /** The default number of attempts made for a request that is rate limited. */
+  public static final int DEFAULT_MAX_ATTEMPTS = 4;
+
+  /**
+   * The Priority enum orders queued requests; interactive requests are always sent before
+   * background ones.
+   */
+  public enum Priority {
+    INTERACTIVE,
+    BACKGROUND
+  }
+
+  private static final AtomicInteger schedulerCount = new AtomicInteger();
+
+  private final StockDataSource source;
+  private final TokenBucket bucket;
+  private final int maxAttempts;
+  private final long baseDelayMillis;
+  private final long maxDelayMillis;
+  private final Random random = new Random();
+  private final PriorityBlockingQueue<Request> queue = new PriorityBlockingQueue<>();
+  // requests waiting out a backoff delay before they are queued again
+  private final Set<Request> delayed = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService retryTimer;
+  private final Thread[] workers;
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicLong fetches = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private volatile boolean shutdown;
+
+  /**
+   * Constructs a {@code stocks.FetchScheduler} and starts its worker threads.
+   *
+   * @param source the data source to send requests to
+   * @param bucket the token bucket that paces the requests
+   * @param workers the number of worker threads
+   * @param maxAttempts the number of attempts made for a request that is rate limited
+   * @param baseDelayMillis the largest delay before the first retry; it doubles per attempt
+   * @param maxDelayMillis the largest delay before any retry
+   */
+  public FetchScheduler(StockDataSource source, TokenBucket bucket, int workers,
+                        int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+    if (workers <= 0 || maxAttempts <= 0 || baseDelayMillis < 0
+            || maxDelayMillis < baseDelayMillis) {
+      throw new IllegalArgumentException("** INVALID FETCH SCHEDULER SETTINGS **");
+    }
+    this.source = source;
+    this.bucket = bucket;
+    this.maxAttempts = maxAttempts;
+    this.baseDelayMillis = baseDelayMillis;
+    this.maxDelayMillis = maxDelayMillis;
+
+    String name = "fetch-scheduler-" + schedulerCount.incrementAndGet();
+    this.retryTimer = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, name + "-retry");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.workers = new Thread[workers];
+    for (int i = 0; i < workers; i++) {
+      this.workers[i] = new Thread(this::work, name + "-worker-" + i);
+      this.workers[i].setDaemon(true);
+      this.workers[i].start();
+    }
+  }
+
+  /**
+   * The getInstance method returns the scheduler shared by the whole program. It paces
+   * requests to the AlphaVantage API at {@value #DEFAULT_PERMITS_PER_MINUTE} per minute
+   * unless the {@value #PERMITS_PER_MINUTE_PROPERTY} system property says otherwise (i.e. for
+   * a premium API key).
+   *
+   * @return the shared scheduler
+   */
+  public static FetchScheduler getInstance() {
+    return Shared.instance;
+  }
+
+  /**
+   * The fetchHistory method queues a request for the full history of the given ticker.
+   *
+   * @param ticker the ticker for the desired stock
+   * @param priority the priority of the request
+   * @return a future completed with the history, or with the exception that ended the request
+   */
+  public CompletableFuture<PriceSeries> fetchHistory(String ticker, Priority priority) {
+    return submit(ticker, priority, false);
+  }
+
+  /**
+   * The fetchRecent method queues a request for the most recent market days of the given
+   * ticker (see {@link StockDataSource#getRecentSeries(String)}).
+   *
+   * @param ticker the ticker for the desired stock
+   * @param priority the priority of the request
+   * @return a future completed with the recent history, or with the exception that ended the
+   *         request
+   */
+  public CompletableFuture<PriceSeries> fetchRecent(String ticker, Priority priority) {
+    return submit(ticker, priority, true);
+  }
+
+  /**
+   * The fetchAll method queues a request for every distinct ticker in the given collection at
+   * once, i.e. to refresh a whole universe of tickers in the background.
+   *
+   * @param tickers the tickers to fetch
+   * @param priority the priority of the requests
+   * @param recentOnly whether to fetch only the most recent market days
+   * @return the future of each ticker, in the order the tickers were given
+   */
+  public Map<String, CompletableFuture<PriceSeries>> fetchAll(Collection<String> tickers,
+                                                              Priority priority,
+                                                              boolean recentOnly) {
+    Map<String, CompletableFuture<PriceSeries>> output = new LinkedHashMap<>();
+    for (String ticker : tickers) {
+      output.computeIfAbsent(ticker.toUpperCase(), t -> submit(t, priority, recentOnly));
+    }
+    return output;
+  }
+
+  @Override
+  public List<StockData> getHistoryData(String ticker) {
+    return getHistorySeries(ticker).asList();
+  }
+
+  @Override
+  public PriceSeries getHistorySeries(String ticker) {
+    return await(fetchHistory(ticker, Priority.INTERACTIVE));
+  }
+
+  @Override
+  public PriceSeries getRecentSeries(String ticker) {
+    return await(fetchRecent(ticker, Priority.INTERACTIVE));
+  }
+
+  /**
+   * The getQueueLength method returns the number of requests waiting to be sent, not
+   * counting requests waiting to be retried.
+   *
+   * @return the queue length
+   */
+  public int getQueueLength() {
+    return queue.size();
+  }
+
+  /**
+   * The getFetchCount method returns the number of requests sent to the source, including
+   * retries.
+   *
+   * @return the fetch count
+   */
+  public long getFetchCount() {
+    return fetches.get();
+  }
+
+  /**
+   * The getRetryCount method returns the number of times a rate limited request was queued
+   * again.
+   *
+   * @return the retry count
+   */
+  public long getRetryCount() {
+    return retries.get();
+  }
+
+  /**
+   * The shutdown method stops the worker threads. Requests that have not been sent, including
+   * those waiting to be retried, are completed with an exception.
+   */
+  public void shutdown() {
+    shutdown = true;
+    retryTimer.shutdownNow();
+    for (Thread worker : workers) {
+      worker.interrupt();
+    }
+    failUnsent();
+  }
+
+  private CompletableFuture<PriceSeries> submit(String ticker, Priority priority,
+                                                boolean recentOnly) {
+    if (shutdown) {
+      throw shutdownException();
+    }
+    Request request = new Request(ticker, priority, recentOnly, sequence.getAndIncrement());
+    enqueue(request);
+    return request.future;
+  }
+
+  /**
+   * The enqueue method queues a request, failing it instead if the scheduler was shut down
+   * while it was being added (the queue may already have been emptied by then).
+   *
+   * @param request the request
+   */
+  private void enqueue(Request request) {
+    queue.add(request);
+    if (shutdown) {
+      failUnsent();
+    }
+  }
+
+  private void failUnsent() {
+    for (Request request : delayed) {
+      if (delayed.remove(request)) {
+        request.future.completeExceptionally(shutdownException());
+      }
+    }
+    Request request;
+    while ((request = queue.poll()) != null) {
+      request.future.completeExceptionally(shutdownException());
+    }
+  }
+
+  private void work() {
+    while (!shutdown) {
+      Request request;
+      try {
+        request = queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      try {
+        bucket.acquire();
+      } catch (InterruptedException e) {
+        request.future.completeExceptionally(shutdownException());
+        return;
+      }
+
+      try {
+        fetches.incrementAndGet();
+        request.attempts++;
+        PriceSeries result = request.recentOnly
+                ? source.getRecentSeries(request.ticker)
+                : source.getHistorySeries(request.ticker);
+        request.future.complete(result);
+      } catch (RateLimitException e) {
+        if (request.attempts >= maxAttempts || shutdown) {
+          request.future.completeExceptionally(e);
+        } else {
+          retry(request, e);
+        }
+      } catch (Throwable e) {
+        // even an Error must end the request, not the worker
+        request.future.completeExceptionally(e);
+      }
+    }
+  }
+
+  private void retry(Request request, RateLimitException cause) {
+    retries.incrementAndGet();
+    delayed.add(request);
+    try {
+      retryTimer.schedule(() -> {
+        if (delayed.remove(request)) {
+          enqueue(request);
+        }
+      }, backoff(request.attempts), TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // the scheduler was shut down while this request was being sent
+      if (delayed.remove(request)) {
+        request.future.completeExceptionally(cause);
+      }
+    }
+  }
+
+  /**
+   * The backoff method returns the delay before the next attempt of a request: a random
+   * delay up to the base delay doubled for every attempt made so far, capped at the maximum
+   * delay ("full jitter", so that requests refused together do not retry together).
+   *
+   * @param attempts the number of attempts made so far
+   * @return the delay in milliseconds
+   */
+  private long backoff(int attempts) {
+    long ceiling = maxDelayMillis;
+    if (attempts - 1 < 62 && baseDelayMillis <= maxDelayMillis >> (attempts - 1)) {
+      ceiling = baseDelayMillis << (attempts - 1);
+    }
+    synchronized (random) {
+      return (long) (random.nextDouble() * (ceiling + 1));
+    }
+  }
+
+  private static IllegalStateException shutdownException() {
+    return new IllegalStateException("** FETCH SCHEDULER IS SHUT DOWN **");
+  }
+
+  private static PriceSeries await(CompletableFuture<PriceSeries> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * The Request class is a queued fetch, ordered by priority and then by arrival.
+   */
+  private static class Request implements Comparable<Request> {
+    private final String ticker;
+    private final Priority priority;
+    private final boolean recentOnly;
+    private final long sequence;
+    private final CompletableFuture<PriceSeries> future = new CompletableFuture<>();
+    private int attempts;
+
+    private Request(String ticker, Priority priority, boolean recentOnly, long sequence) {
+      this.ticker = ticker;
+      this.priority = priority;
+      this.recentOnly = recentOnly;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(Request other) {
+      int byPriority = priority.compareTo(other.priority);
+      return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+    }
+  }
+
+  /**
+   * The Shared class holds the shared scheduler, created on first use.
+   */
+  private static class Shared {
+    private static final FetchScheduler instance;
+
+    static {
+      int perMinute = Integer.getInteger(PERMITS_PER_MINUTE_PROPERTY,
+              DEFAULT_PERMITS_PER_MINUTE);
+      instance = new FetchScheduler(new AlphaVantageDataSource(),
+              new TokenBucket(perMinute, perMinute / 60.0), DEFAULT_WORKERS,
+              DEFAULT_MAX_ATTEMPTS, 15_000, 60_000);
+    }
+  }
+
+}
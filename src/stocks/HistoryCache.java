@@ -0,0 +1,307 @@
+package stocks;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The {@code stocks.HistoryCache} class is a process-wide, in-memory cache of parsed price
+ * histories keyed by ticker. It sits in front of the stock data sources so a ticker's CSV file
+ * is only read and parsed once per day no matter how many stocks, portfolios or calculations
+ * ask for it. The cache is bounded by a byte budget and evicts the least recently used
+ * histories first. Every entry expires at the end of the day it was loaded, matching the
+ * rule that stock data is only up-to-date until the next market day.
+ */
+public class HistoryCache {
+  /** The system property used to configure the byte budget of the shared cache. */
+  public static final String MAX_BYTES_PROPERTY = "stocks.history.cache.bytes";
+  /** The default byte budget of the shared cache (256 MB). */
+  public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+  private static final HistoryCache instance = new HistoryCache(
+          Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES), Clock.systemDefaultZone());
+
+  private final LinkedHashMap<String, Entry> entries;
+  private final SingleFlight<PriceSeries> loads = new SingleFlight<>();
+  private final Clock clock;
+  private long maxBytes;
+  private long sizeInBytes;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private long expirations;
+
+  /**
+   * Constructs a {@code stocks.HistoryCache} with the given byte budget.
+   *
+   * @param maxBytes the maximum estimated size of all cached histories
+   */
+  public HistoryCache(long maxBytes) {
+    this(maxBytes, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Constructs a {@code stocks.HistoryCache} with the given byte budget and clock. The clock
+   * decides when entries expire.
+   *
+   * @param maxBytes the maximum estimated size of all cached histories
+   * @param clock the clock used to find today's date
+   */
+  public HistoryCache(long maxBytes, Clock clock) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("** CACHE SIZE CANNOT BE NEGATIVE **");
+    }
+    // access order so that iteration starts at the least recently used entry
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.clock = clock;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * The getInstance method returns the cache shared by the whole program. Its byte budget
+   * can be set with the {@value #MAX_BYTES_PROPERTY} system property.
+   *
+   * @return the shared cache
+   */
+  public static HistoryCache getInstance() {
+    return instance;
+  }
+
+  /**
+   * The get method returns the cached history of the given ticker. If the ticker is not
+   * cached, or its entry has expired, the history is loaded with the given loader and cached.
+   * Concurrent misses on the same ticker are coalesced into a single load whose result, or
+   * exception, is shared by every caller. Empty histories are returned but never cached.
+   *
+   * @param ticker the stock ticker
+   * @param loader loads the history of a ticker on a cache miss
+   * @return the price series
+   */
+  public PriceSeries get(String ticker, Function<String, PriceSeries> loader) {
+    String key = ticker.toUpperCase();
+    PriceSeries cached = getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    return loads.load(key, k -> {
+      // another caller may have finished loading this ticker since the lookup above
+      PriceSeries current = peek(k);
+      if (current != null) {
+        return current;
+      }
+      PriceSeries loaded = loader.apply(k);
+      if (!loaded.isEmpty()) {
+        put(k, loaded);
+      }
+      return loaded;
+    });
+  }
+
+  /**
+   * The get method returns the cached history of the given ticker, loading it from the given
+   * data source on a cache miss.
+   *
+   * @param ticker the stock ticker
+   * @param source the data source to load from
+   * @return the price series
+   */
+  public PriceSeries get(String ticker, StockDataSource source) {
+    return get(ticker, source::getHistorySeries);
+  }
+
+  /**
+   * The getIfPresent method returns the cached history of the given ticker without loading
+   * it. This counts as a hit or a miss.
+   *
+   * @param ticker the stock ticker
+   * @return the price series, or null if it is not cached or has expired
+   */
+  public synchronized PriceSeries getIfPresent(String ticker) {
+    String key = ticker.toUpperCase();
+    Entry entry = entries.get(key);
+    if (entry != null && entry.loadedOn.isBefore(today())) {
+      remove(key);
+      expirations++;
+      entry = null;
+    }
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.series;
+  }
+
+  /**
+   * The put method adds or replaces the history of the given ticker and evicts the least
+   * recently used histories until the cache is back within its byte budget.
+   *
+   * @param ticker the stock ticker
+   * @param series the price series to cache
+   */
+  public synchronized void put(String ticker, PriceSeries series) {
+    String key = ticker.toUpperCase();
+    remove(key);
+    Entry entry = new Entry(series, today());
+    entries.put(key, entry);
+    sizeInBytes += entry.bytes;
+    evictToBudget();
+  }
+
+  /**
+   * The invalidate method removes the history of the given ticker from the cache.
+   *
+   * @param ticker the stock ticker
+   */
+  public synchronized void invalidate(String ticker) {
+    remove(ticker.toUpperCase());
+  }
+
+  /**
+   * The clear method removes every history from the cache. Statistics are kept.
+   */
+  public synchronized void clear() {
+    entries.clear();
+    sizeInBytes = 0;
+  }
+
+  /**
+   * The setMaxBytes method changes the byte budget of this cache, evicting histories if the
+   * cache no longer fits.
+   *
+   * @param maxBytes the maximum estimated size of all cached histories
+   */
+  public synchronized void setMaxBytes(long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("** CACHE SIZE CANNOT BE NEGATIVE **");
+    }
+    this.maxBytes = maxBytes;
+    evictToBudget();
+  }
+
+  /**
+   * The getMaxBytes method returns the byte budget of this cache.
+   *
+   * @return the byte budget
+   */
+  public synchronized long getMaxBytes() {
+    return maxBytes;
+  }
+
+  /**
+   * The getSizeInBytes method returns the estimated size of all cached histories.
+   *
+   * @return the size in bytes
+   */
+  public synchronized long getSizeInBytes() {
+    return sizeInBytes;
+  }
+
+  /**
+   * The size method returns the number of cached histories.
+   *
+   * @return the number of tickers cached
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * The getHitCount method returns the number of lookups answered from the cache.
+   *
+   * @return the hit count
+   */
+  public synchronized long getHitCount() {
+    return hits;
+  }
+
+  /**
+   * The getMissCount method returns the number of lookups that were not cached or expired.
+   *
+   * @return the miss count
+   */
+  public synchronized long getMissCount() {
+    return misses;
+  }
+
+  /**
+   * The getEvictionCount method returns the number of histories removed to stay within the
+   * byte budget.
+   *
+   * @return the eviction count
+   */
+  public synchronized long getEvictionCount() {
+    return evictions;
+  }
+
+  /**
+   * The getExpiredCount method returns the number of histories dropped because they were
+   * loaded on a previous day.
+   *
+   * @return the expiration count
+   */
+  public synchronized long getExpiredCount() {
+    return expirations;
+  }
+
+  /**
+   * The getCoalescedCount method returns the number of misses that waited for a load of the
+   * same ticker already in flight instead of loading it again.
+   *
+   * @return the coalesced miss count
+   */
+  public long getCoalescedCount() {
+    return loads.getCoalescedCount();
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "HistoryCache: " + entries.size() + " tickers, " + sizeInBytes + "/" + maxBytes
+            + " bytes, " + hits + " hits, " + misses + " misses, " + evictions + " evictions, "
+            + expirations + " expired";
+  }
+
+  private synchronized PriceSeries peek(String key) {
+    Entry entry = entries.get(key);
+    return entry == null || entry.loadedOn.isBefore(today()) ? null : entry.series;
+  }
+
+  private void remove(String key) {
+    Entry removed = entries.remove(key);
+    if (removed != null) {
+      sizeInBytes -= removed.bytes;
+    }
+  }
+
+  private void evictToBudget() {
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (sizeInBytes > maxBytes && iterator.hasNext()) {
+      sizeInBytes -= iterator.next().getValue().bytes;
+      iterator.remove();
+      evictions++;
+    }
+  }
+
+  private LocalDate today() {
+    return LocalDate.now(clock);
+  }
+
+  /**
+   * The Entry class is a cached price series along with the day it was loaded.
+   */
+  private static class Entry {
+    private final PriceSeries series;
+    private final LocalDate loadedOn;
+    private final long bytes;
+
+    private Entry(PriceSeries series, LocalDate loadedOn) {
+      this.series = series;
+      this.loadedOn = loadedOn;
+      this.bytes = series.estimateBytes();
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+package stocks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The {@code stocks.HistoryPrefetcher} class loads the histories of many tickers in parallel
+ * on a bounded pool of daemon threads, so that work which needs them all (i.e. replaying a
+ * portfolio file) waits for the slowest ticker instead of the sum of all of them. Loads go
+ * through the {@link HistoryCache}, or a data source that keeps what it loads in memory, so
+ * the histories stay for the code that uses them.
+ */
+public final class HistoryPrefetcher {
+  /** The default number of histories loaded at the same time. */
+  public static final int DEFAULT_THREADS = 8;
+
+  private static final AtomicInteger threadCount = new AtomicInteger();
+
+  private HistoryPrefetcher() {
+  }
+
+  /**
+   * The prefetch method loads the history of every distinct ticker into the shared cache,
+   * using at most {@link #DEFAULT_THREADS} threads.
+   *
+   * @param tickers the tickers to load, duplicates are loaded once
+   * @param loader loads the history of a ticker on a cache miss
+   * @return the tickers that could not be loaded, with the exception thrown for each
+   */
+  public static Map<String, RuntimeException> prefetch(Collection<String> tickers,
+                                                       Function<String, PriceSeries> loader) {
+    return prefetch(tickers, loader, HistoryCache.getInstance(), DEFAULT_THREADS);
+  }
+
+  /**
+   * The prefetch method loads the history of every distinct ticker from the given source,
+   * using at most {@link #DEFAULT_THREADS} threads. The source is expected to keep what it
+   * loads (i.e. a {@link TieredStockDataSource} with a memory tier).
+   *
+   * @param tickers the tickers to load, duplicates are loaded once
+   * @param source the source to load from
+   * @return the tickers that could not be loaded, with the exception thrown for each
+   */
+  public static Map<String, RuntimeException> prefetch(Collection<String> tickers,
+                                                       StockDataSource source) {
+    return load(tickers, source::getHistorySeries, DEFAULT_THREADS);
+  }
+
+  /**
+   * The prefetch method loads the history of every distinct ticker into the given cache,
+   * using at most the given number of threads. A ticker that fails to load does not stop
+   * the others; it is reported in the returned map.
+   *
+   * @param tickers the tickers to load, duplicates are loaded once
+   * @param loader loads the history of a ticker on a cache miss
+   * @param cache the cache to load into
+   * @param threads the maximum number of concurrent loads
+   * @return the tickers that could not be loaded, with the exception thrown for each
+   */
+  public static Map<String, RuntimeException> prefetch(Collection<String> tickers,
+                                                       Function<String, PriceSeries> loader,
+                                                       HistoryCache cache, int threads) {
+    return load(tickers, ticker -> cache.get(ticker, loader), threads);
+  }
+
+  private static Map<String, RuntimeException> load(Collection<String> tickers,
+                                                    Function<String, PriceSeries> load,
+                                                    int threads) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("** THREAD COUNT MUST BE POSITIVE **");
+    }
+    Set<String> distinct = new LinkedHashSet<>();
+    for (String ticker : tickers) {
+      distinct.add(ticker.toUpperCase());
+    }
+    Map<String, RuntimeException> failures = new LinkedHashMap<>();
+    if (distinct.isEmpty()) {
+      return failures;
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, distinct.size()),
+        task -> {
+          Thread thread = new Thread(task, "history-prefetch-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    try {
+      List<String> order = new ArrayList<>(distinct);
+      List<Future<PriceSeries>> loads = new ArrayList<>();
+      for (String ticker : order) {
+        loads.add(pool.submit(() -> load.apply(ticker)));
+      }
+      for (int i = 0; i < order.size(); i++) {
+        try {
+          loads.get(i).get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          failures.put(order.get(i), cause instanceof RuntimeException
+                  ? (RuntimeException) cause : new RuntimeException(cause));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      pool.shutdownNow();
+    }
+    return failures;
+  }
+
+}
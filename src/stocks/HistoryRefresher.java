@@ -0,0 +1,123 @@
+package stocks;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * The {@code stocks.HistoryRefresher} class loads the history of a ticker from its local CSV
+ * file and keeps that file up-to-date. When the file is missing the full history is
+ * downloaded. When it is only out of date, just the most recent window is fetched, merged
+ * into the stored history by date, and the new rows are appended to the file, so a daily
+ * refresh transfers a few kilobytes instead of the whole history. A full download is still
+ * used when the recent window does not reach back to the newest stored day.
+ */
+public class HistoryRefresher {
+  private final LocalCSVDataSource local;
+  private final StockDataSource remote;
+  private final Clock clock;
+
+  /**
+   * Constructs a {@code stocks.HistoryRefresher} that keeps the CSV files in the working
+   * directory up-to-date from the given source.
+   *
+   * @param remote the source to download missing or newer data from
+   */
+  public HistoryRefresher(StockDataSource remote) {
+    this(new LocalCSVDataSource(), remote, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Constructs a {@code stocks.HistoryRefresher} with the given local store, remote source and
+   * clock. The clock decides when a stored history is out of date.
+   *
+   * @param local the local CSV store
+   * @param remote the source to download missing or newer data from
+   * @param clock the clock used to find today's date
+   */
+  public HistoryRefresher(LocalCSVDataSource local, StockDataSource remote, Clock clock) {
+    this.local = local;
+    this.remote = remote;
+    this.clock = clock;
+  }
+
+  /**
+   * The load method returns the history of the given ticker. The local CSV file is used if it
+   * is up-to-date (i.e. its most recent entry is today), refreshed incrementally if it is
+   * older, and replaced by a full download if it cannot be read.
+   *
+   * @param ticker the stock ticker
+   * @return the price series
+   */
+  public PriceSeries load(String ticker) {
+    PriceSeries stored;
+    try {
+      stored = local.getHistorySeries(ticker);
+    } catch (RuntimeException e) {
+      return remote.getHistorySeries(ticker);
+    }
+    if (stored.isEmpty()) {
+      return remote.getHistorySeries(ticker);
+    }
+    if (!stored.getLastDate().isBefore(LocalDate.now(clock))) {
+      return stored;
+    }
+    return refresh(ticker, stored);
+  }
+
+  /**
+   * The download method fetches the full history of the given ticker from the remote source.
+   *
+   * @param ticker the stock ticker
+   * @return the price series
+   */
+  public PriceSeries download(String ticker) {
+    return remote.getHistorySeries(ticker);
+  }
+
+  /**
+   * The refresh method brings the given stored history up-to-date. The recent window is
+   * fetched from the remote source; entries on or after the newest stored day are merged
+   * into the history and appended to the CSV file. The newest stored day is only appended
+   * again if its prices changed (i.e. it was saved before the market closed).
+   *
+   * @param ticker the stock ticker
+   * @param stored the history currently in the CSV file
+   * @return the merged price series
+   */
+  public PriceSeries refresh(String ticker, PriceSeries stored) {
+    PriceSeries recent = remote.getRecentSeries(ticker);
+    if (recent.isEmpty()) {
+      return stored;
+    }
+    LocalDate lastStored = stored.getLastDate();
+    if (recent.getFirstDate().isAfter(lastStored)) {
+      // the recent window leaves a gap after the stored history
+      return remote.getHistorySeries(ticker);
+    }
+
+    int from = recent.indexOnOrAfter(lastStored);
+    if (from < recent.size() && recent.getDate(from).equals(lastStored)
+            && sameBar(stored, stored.size() - 1, recent, from)) {
+      from++;
+    }
+    if (from == recent.size()) {
+      return stored;
+    }
+
+    local.appendSeries(ticker, recent, from);
+    PriceSeries.Builder merged = new PriceSeries.Builder(stored.size() + recent.size() - from);
+    merged.addAll(stored);
+    for (int i = from; i < recent.size(); i++) {
+      merged.add(recent.getEpochDay(i), recent.getOpen(i), recent.getHigh(i), recent.getLow(i),
+              recent.getClose(i), recent.getVolume(i));
+    }
+    return merged.build();
+  }
+
+  private static boolean sameBar(PriceSeries a, int i, PriceSeries b, int j) {
+    return a.getOpen(i) == b.getOpen(j) && a.getHigh(i) == b.getHigh(j)
+            && a.getLow(i) == b.getLow(j) && a.getClose(i) == b.getClose(j)
+            && a.getVolume(i) == b.getVolume(j);
+  }
+
+}
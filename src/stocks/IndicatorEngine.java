@@ -0,0 +1,480 @@
+package stocks;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code stocks.IndicatorEngine} class computes technical indicators (EMA, RSI, MACD and
+ * Bollinger bands) over price series. Each indicator is a streaming calculator that reads
+ * every market day once, in date order. Results are memoized per ticker, indicator and
+ * parameters together with the calculator's state, so asking again for the same series is
+ * free, and asking for a series that only gained new market days (i.e. after a daily refresh)
+ * feeds just the new days to the saved state instead of recomputing the whole history.
+ */
+public final class IndicatorEngine {
+  /** The default number of memoized results kept by the shared engine. */
+  public static final int DEFAULT_MAX_ENTRIES = 256;
+
+  private static final IndicatorEngine instance = new IndicatorEngine(DEFAULT_MAX_ENTRIES);
+
+  /**
+   * The Indicator enum lists the supported indicators, with their parameters and the lines
+   * they produce.
+   */
+  public enum Indicator {
+    /** Exponential moving average; parameter: period. */
+    EMA(new double[]{20}, "EMA"),
+    /** Wilder's relative strength index; parameter: period. */
+    RSI(new double[]{14}, "RSI"),
+    /** Moving average convergence/divergence; parameters: fast, slow and signal periods. */
+    MACD(new double[]{12, 26, 9}, "MACD", "SIGNAL", "HISTOGRAM"),
+    /** Bollinger bands; parameters: period and width in standard deviations. */
+    BOLLINGER(new double[]{20, 2}, "MIDDLE", "UPPER", "LOWER");
+
+    private final double[] defaults;
+    private final String[] lines;
+
+    Indicator(double[] defaults, String... lines) {
+      this.defaults = defaults;
+      this.lines = lines;
+    }
+
+    /**
+     * The getDefaultParams method returns the usual parameters of this indicator.
+     *
+     * @return the default parameters
+     */
+    public double[] getDefaultParams() {
+      return defaults.clone();
+    }
+
+    /**
+     * The getParamCount method returns the number of parameters this indicator takes.
+     *
+     * @return the parameter count
+     */
+    public int getParamCount() {
+      return defaults.length;
+    }
+
+    /**
+     * The getLineNames method returns the names of the values this indicator produces for
+     * each market day.
+     *
+     * @return the line names
+     */
+    public String[] getLineNames() {
+      return lines.clone();
+    }
+
+    /**
+     * The parse method returns the indicator with the given name, ignoring case.
+     *
+     * @param name the indicator name (i.e. "macd")
+     * @return the indicator
+     * @throws IllegalArgumentException if no indicator has that name
+     */
+    public static Indicator parse(String name) throws IllegalArgumentException {
+      try {
+        return valueOf(name.trim().toUpperCase());
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(
+                "** ENTER A VALID INDICATOR (i.e. EMA, RSI, MACD, BOLLINGER) **");
+      }
+    }
+
+    /**
+     * The parseParams method reads comma-separated parameters for this indicator
+     * (i.e. "12,26,9"). An empty string or "d" gives the default parameters.
+     *
+     * @param text the parameters as entered by the user
+     * @return the parameters
+     * @throws IllegalArgumentException if the parameters are not numbers or are invalid
+     */
+    public double[] parseParams(String text) throws IllegalArgumentException {
+      String trimmed = text == null ? "" : text.trim();
+      if (trimmed.isEmpty() || trimmed.equalsIgnoreCase("d")) {
+        return getDefaultParams();
+      }
+      String[] parts = trimmed.split(",");
+      double[] params = new double[parts.length];
+      try {
+        for (int i = 0; i < parts.length; i++) {
+          params[i] = Double.parseDouble(parts[i].trim());
+        }
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("** INVALID PARAMETERS FOR " + name() + " **");
+      }
+      validate(params);
+      return params;
+    }
+
+    /**
+     * The validate method checks that the given parameters suit this indicator: every period
+     * is a positive whole number, the fast MACD period is shorter than the slow one, and the
+     * Bollinger width is positive.
+     *
+     * @param params the parameters
+     * @throws IllegalArgumentException if the parameters are invalid
+     */
+    public void validate(double[] params) throws IllegalArgumentException {
+      boolean valid = params != null && params.length == defaults.length;
+      if (valid) {
+        int periods = this == BOLLINGER ? 1 : params.length;
+        for (int i = 0; i < periods; i++) {
+          valid &= params[i] >= 1 && params[i] == Math.rint(params[i])
+                  && params[i] <= Integer.MAX_VALUE;
+        }
+        if (this == MACD) {
+          valid &= params[0] < params[1];
+        }
+        if (this == BOLLINGER) {
+          valid &= params[1] > 0 && !Double.isInfinite(params[1]);
+        }
+      }
+      if (!valid) {
+        throw new IllegalArgumentException("** INVALID PARAMETERS FOR " + name() + " **");
+      }
+    }
+  }
+
+  private final LinkedHashMap<String, Entry> entries;
+  private final int maxEntries;
+  private long computed;
+  private long extended;
+  private long reused;
+
+  /**
+   * Constructs a {@code stocks.IndicatorEngine} that memoizes at most the given number of
+   * results, dropping the least recently used first.
+   *
+   * @param maxEntries the maximum number of memoized results
+   */
+  public IndicatorEngine(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("** CACHE SIZE MUST BE POSITIVE **");
+    }
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * The getInstance method returns the engine shared by the whole program.
+   *
+   * @return the shared engine
+   */
+  public static IndicatorEngine getInstance() {
+    return instance;
+  }
+
+  /**
+   * The get method returns the given indicator over the given history of a ticker. A memoized
+   * result is returned as it is if the history is unchanged, and brought up-to-date from its
+   * saved state if the history only gained new market days; otherwise the indicator is
+   * computed in one pass over the history.
+   *
+   * @param ticker the stock ticker the history belongs to
+   * @param series the history
+   * @param indicator the indicator
+   * @param params the indicator's parameters (see {@link Indicator#validate(double[])})
+   * @return the indicator's values for every market day of the history
+   * @throws IllegalArgumentException if the parameters are invalid
+   */
+  public synchronized IndicatorSeries get(String ticker, PriceSeries series, Indicator indicator,
+                                          double[] params) throws IllegalArgumentException {
+    indicator.validate(params);
+    String key = ticker.toUpperCase() + '|' + indicator + '|' + Arrays.toString(params);
+    Entry entry = entries.get(key);
+    if (entry != null && entry.series == series) {
+      reused++;
+    } else if (entry != null && entry.isPrefixOf(series)) {
+      if (entry.size == series.size()) {
+        reused++;
+      } else {
+        extended++;
+      }
+      entry.advance(series);
+    } else {
+      computed++;
+      entry = new Entry(indicator, params);
+      entry.advance(series);
+      entries.put(key, entry);
+      evict();
+    }
+    return new IndicatorSeries(series, indicator, params, entry.lines, entry.size);
+  }
+
+  /**
+   * The clear method drops every memoized result.
+   */
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  /**
+   * The size method returns the number of memoized results.
+   *
+   * @return the number of memoized results
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * The getComputedCount method returns the number of results computed from the start of a
+   * history.
+   *
+   * @return the computed count
+   */
+  public synchronized long getComputedCount() {
+    return computed;
+  }
+
+  /**
+   * The getExtendedCount method returns the number of memoized results brought up-to-date
+   * with new market days.
+   *
+   * @return the extended count
+   */
+  public synchronized long getExtendedCount() {
+    return extended;
+  }
+
+  /**
+   * The getReusedCount method returns the number of memoized results returned unchanged.
+   *
+   * @return the reused count
+   */
+  public synchronized long getReusedCount() {
+    return reused;
+  }
+
+  private void evict() {
+    Iterator<Map.Entry<String, Entry>> oldest = entries.entrySet().iterator();
+    while (entries.size() > maxEntries && oldest.hasNext()) {
+      oldest.next();
+      oldest.remove();
+    }
+  }
+
+  /**
+   * The Entry class is a memoized result: the values computed so far, the state of the
+   * calculator after the last market day, and enough of that day to recognise the history.
+   */
+  private static class Entry {
+    private final Calculator calculator;
+    private double[][] lines;
+    private int size;
+    private PriceSeries series;
+    private int firstEpochDay;
+    private int lastEpochDay;
+    private double lastClose;
+
+    private Entry(Indicator indicator, double[] params) {
+      this.calculator = create(indicator, params);
+      this.lines = new double[indicator.lines.length][0];
+    }
+
+    /**
+     * The isPrefixOf method decides whether the history seen so far is the start of the
+     * given series, judged by its first day and its last day's close. A history whose last
+     * stored day was revised (i.e. saved before the market closed) is computed again.
+     *
+     * @param other the series
+     * @return true if the series only adds market days after the ones seen
+     */
+    private boolean isPrefixOf(PriceSeries other) {
+      return size > 0 && other.size() >= size
+              && other.getEpochDay(0) == firstEpochDay
+              && other.getEpochDay(size - 1) == lastEpochDay
+              && other.getClose(size - 1) == lastClose;
+    }
+
+    /**
+     * The advance method feeds the market days after the ones seen so far to the calculator.
+     * Values are only ever written past the end of earlier results, so IndicatorSeries
+     * returned before still read the same values.
+     *
+     * @param other the series holding the new market days
+     */
+    private void advance(PriceSeries other) {
+      int newSize = other.size();
+      if (newSize > lines[0].length) {
+        int capacity = Math.max(newSize, lines[0].length + (lines[0].length >> 1));
+        for (int l = 0; l < lines.length; l++) {
+          lines[l] = Arrays.copyOf(lines[l], capacity);
+        }
+      }
+      for (int i = size; i < newSize; i++) {
+        calculator.update(other, i, lines);
+      }
+      size = newSize;
+      series = other;
+      if (newSize > 0) {
+        firstEpochDay = other.getEpochDay(0);
+        lastEpochDay = other.getEpochDay(newSize - 1);
+        lastClose = other.getClose(newSize - 1);
+      }
+    }
+  }
+
+  private static Calculator create(Indicator indicator, double[] params) {
+    switch (indicator) {
+      case EMA:
+        return new EmaCalculator((int) params[0]);
+      case RSI:
+        return new RsiCalculator((int) params[0]);
+      case MACD:
+        return new MacdCalculator((int) params[0], (int) params[1], (int) params[2]);
+      case BOLLINGER:
+        return new BollingerCalculator((int) params[0], params[1]);
+      default:
+        throw new IllegalArgumentException("** UNKNOWN INDICATOR: " + indicator + " **");
+    }
+  }
+
+  /**
+   * The Calculator interface is a streaming indicator calculation, fed one market day at a
+   * time in date order. Values before the calculation has enough days are NaN.
+   */
+  private interface Calculator {
+    void update(PriceSeries series, int index, double[][] lines);
+  }
+
+  /**
+   * The Ema class is a running exponential moving average, seeded with the simple average of
+   * its first period of values.
+   */
+  private static class Ema {
+    private final int period;
+    private final double alpha;
+    private int count;
+    private double value;
+
+    private Ema(int period) {
+      this.period = period;
+      this.alpha = 2.0 / (period + 1);
+    }
+
+    private double next(double x) {
+      count++;
+      if (count < period) {
+        value += x;
+        return Double.NaN;
+      }
+      if (count == period) {
+        value = (value + x) / period;
+      } else {
+        value += alpha * (x - value);
+      }
+      return value;
+    }
+  }
+
+  private static class EmaCalculator implements Calculator {
+    private final Ema ema;
+
+    private EmaCalculator(int period) {
+      this.ema = new Ema(period);
+    }
+
+    @Override
+    public void update(PriceSeries series, int index, double[][] lines) {
+      lines[0][index] = ema.next(series.getClose(index));
+    }
+  }
+
+  /**
+   * The RsiCalculator class uses Wilder's smoothing: the first average gain and loss are
+   * simple averages over the period, later ones carry (period - 1) / period of the previous.
+   */
+  private static class RsiCalculator implements Calculator {
+    private final int period;
+    private double averageGain;
+    private double averageLoss;
+
+    private RsiCalculator(int period) {
+      this.period = period;
+    }
+
+    @Override
+    public void update(PriceSeries series, int index, double[][] lines) {
+      if (index == 0) {
+        lines[0][index] = Double.NaN;
+        return;
+      }
+      double change = series.getClose(index) - series.getClose(index - 1);
+      double gain = Math.max(change, 0.0);
+      double loss = Math.max(-change, 0.0);
+      if (index < period) {
+        averageGain += gain;
+        averageLoss += loss;
+        lines[0][index] = Double.NaN;
+        return;
+      }
+      if (index == period) {
+        averageGain = (averageGain + gain) / period;
+        averageLoss = (averageLoss + loss) / period;
+      } else {
+        averageGain = (averageGain * (period - 1) + gain) / period;
+        averageLoss = (averageLoss * (period - 1) + loss) / period;
+      }
+      lines[0][index] = averageLoss == 0 ? 100.0
+              : 100.0 - 100.0 / (1.0 + averageGain / averageLoss);
+    }
+  }
+
+  private static class MacdCalculator implements Calculator {
+    private final Ema fast;
+    private final Ema slow;
+    private final Ema signal;
+
+    private MacdCalculator(int fast, int slow, int signal) {
+      this.fast = new Ema(fast);
+      this.slow = new Ema(slow);
+      this.signal = new Ema(signal);
+    }
+
+    @Override
+    public void update(PriceSeries series, int index, double[][] lines) {
+      double close = series.getClose(index);
+      double macd = fast.next(close) - slow.next(close);
+      double signalValue = Double.isNaN(macd) ? Double.NaN : signal.next(macd);
+      lines[0][index] = macd;
+      lines[1][index] = signalValue;
+      lines[2][index] = macd - signalValue;
+    }
+  }
+
+  /**
+   * The BollingerCalculator class reads the moving average and standard deviation of each
+   * window straight from the series' prefix sums, so it keeps no state of its own.
+   */
+  private static class BollingerCalculator implements Calculator {
+    private final int period;
+    private final double width;
+
+    private BollingerCalculator(int period, double width) {
+      this.period = period;
+      this.width = width;
+    }
+
+    @Override
+    public void update(PriceSeries series, int index, double[][] lines) {
+      if (index < period - 1) {
+        lines[0][index] = Double.NaN;
+        lines[1][index] = Double.NaN;
+        lines[2][index] = Double.NaN;
+        return;
+      }
+      double middle = series.movingAverage(index, period);
+      double band = width * series.movingStdDev(index, period);
+      lines[0][index] = middle;
+      lines[1][index] = middle + band;
+      lines[2][index] = middle - band;
+    }
+  }
+
+}
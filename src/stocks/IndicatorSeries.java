@@ -0,0 +1,123 @@
+package stocks;
+
+import java.time.LocalDate;
+
+/**
+ * The {@code stocks.IndicatorSeries} class holds the values of a technical indicator for
+ * every market day of a price series, as one or more lines (i.e. the MACD, signal and
+ * histogram lines of MACD). Values are indexed like the price series, index 0 being the
+ * earliest market day, and are NaN on the first days, before the indicator has enough data.
+ * Instances are read-only views over values kept by the {@link IndicatorEngine}.
+ */
+public final class IndicatorSeries {
+  private final PriceSeries series;
+  private final IndicatorEngine.Indicator indicator;
+  private final double[] params;
+  private final double[][] lines;
+  private final int size;
+
+  IndicatorSeries(PriceSeries series, IndicatorEngine.Indicator indicator, double[] params,
+                  double[][] lines, int size) {
+    this.series = series;
+    this.indicator = indicator;
+    this.params = params.clone();
+    this.lines = lines.clone();
+    this.size = size;
+  }
+
+  /**
+   * The getIndicator method returns the indicator these values belong to.
+   *
+   * @return the indicator
+   */
+  public IndicatorEngine.Indicator getIndicator() {
+    return indicator;
+  }
+
+  /**
+   * The getParams method returns the parameters the indicator was computed with.
+   *
+   * @return the parameters
+   */
+  public double[] getParams() {
+    return params.clone();
+  }
+
+  /**
+   * The getSeries method returns the price series the indicator was computed over.
+   *
+   * @return the price series
+   */
+  public PriceSeries getSeries() {
+    return series;
+  }
+
+  /**
+   * The size method returns the number of market days.
+   *
+   * @return the number of market days
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * The getLineCount method returns the number of values per market day.
+   *
+   * @return the number of lines
+   */
+  public int getLineCount() {
+    return lines.length;
+  }
+
+  /**
+   * The getValue method returns one value of the indicator on the given market day.
+   *
+   * @param line the index of the line (see {@link IndicatorEngine.Indicator#getLineNames()})
+   * @param index the index of the market day
+   * @return the value, NaN if the indicator has no value yet on that day
+   * @throws IndexOutOfBoundsException if the line or day does not exist
+   */
+  public double getValue(int line, int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return lines[line][index];
+  }
+
+  /**
+   * The getValues method returns every value of the indicator on the given market day.
+   *
+   * @param index the index of the market day
+   * @return the values, one per line
+   * @throws IndexOutOfBoundsException if the day does not exist
+   */
+  public double[] getValues(int index) {
+    double[] output = new double[lines.length];
+    for (int l = 0; l < lines.length; l++) {
+      output[l] = getValue(l, index);
+    }
+    return output;
+  }
+
+  /**
+   * The getLine method returns one line of the indicator for every market day between the
+   * start and end dates (inclusive), earliest day first.
+   *
+   * @param line the index of the line
+   * @param start the start date
+   * @param end the end date
+   * @return the values, one per market day in the range
+   */
+  public double[] getLine(int line, LocalDate start, LocalDate end) {
+    int first = series.indexOnOrAfter(start);
+    int last = series.indexOnOrBefore(end);
+    if (first > last) {
+      return new double[0];
+    }
+    double[] output = new double[last - first + 1];
+    System.arraycopy(lines[line], first, output, 0, output.length);
+    return output;
+  }
+
+}
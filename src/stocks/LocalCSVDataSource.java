@@ -1,29 +1,157 @@
 package stocks;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.List;
+import java.nio.file.StandardOpenOption;
 
 /**
  * The {@code LocalCSVDataSource} class represents a CSV stock data
  * source from a local file. This allows the program to download API data
  * to use locally in the future or for the user to add their own CSV file.
  * IMPORTANT: If using your own file, you must put the csv file in the stockdata
- * directory.
+ * directory. Each CSV file is converted to a {@link BinaryHistoryFile} the first time it is
+ * read, and converted again whenever the CSV file changes.
  */
 public class LocalCSVDataSource extends CSVSources {
+  private final Path directory;
 
+  /**
+   * Constructs a {@code stocks.LocalCSVDataSource} that reads CSV files from the working
+   * directory.
+   */
+  public LocalCSVDataSource() {
+    this(Paths.get(""));
+  }
+
+  /**
+   * Constructs a {@code stocks.LocalCSVDataSource} that reads CSV files from the given
+   * directory.
+   *
+   * @param directory the directory holding the CSV files
+   */
+  public LocalCSVDataSource(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * The getHistorySeries method returns the history in the ticker's CSV file. If a binary
+   * history file converted from the CSV file in its current state exists, it is memory-mapped
+   * instead of parsing the CSV file; otherwise the CSV file is parsed and converted.
+   *
+   * @param ticker the ticker for the desired stock
+   * @return the price series
+   */
   @Override
-  public List<StockData> getHistoryData(String ticker) {
-    List<StockData> data;
-    try {
-      String csvData = new String(Files.readAllBytes(Paths.get(ticker + ".csv")));
-      data = parseCSV(csvData);
+  public PriceSeries getHistorySeries(String ticker) {
+    Path csv = directory.resolve(ticker + ".csv");
+    Path binary = directory.resolve(ticker + BinaryHistoryFile.EXTENSION);
+    PriceSeries data = BinaryHistoryFile.read(binary, csv);
+    if (data != null) {
+      return data;
+    }
+
+    data = readCSV(ticker);
+    BinaryHistoryFile.write(binary, csv, data);
+    return data;
+  }
+
+  /**
+   * The readCSV method parses the ticker's CSV file, without using or writing its binary
+   * history file.
+   *
+   * @param ticker the ticker for the desired stock
+   * @return the price series
+   */
+  public PriceSeries readCSV(String ticker) {
+    try (FileChannel channel = FileChannel.open(directory.resolve(ticker + ".csv"),
+            StandardOpenOption.READ)) {
+      return parseSeries(channel);
     } catch (IOException e) {
       throw new RuntimeException("** UNABLE TO READ LOCAL CSV FILE FOR:" + ticker + " **");
     }
-    return data;
+  }
+
+  /**
+   * The writeSeries method replaces the ticker's CSV file with the given series, written
+   * newest first like the files downloaded from the API. The file is written to a temporary
+   * file first and then moved into place, so readers never see a partial file.
+   *
+   * @param ticker the ticker for the desired stock
+   * @param series the series to write
+   */
+  public void writeSeries(String ticker, PriceSeries series) {
+    StringBuilder rows = new StringBuilder("timestamp,open,high,low,close,volume\n");
+    for (int i = series.size() - 1; i >= 0; i--) {
+      appendRow(rows, series, i);
+    }
+
+    try {
+      AtomicFile.write(directory.resolve(ticker + ".csv"),
+              ByteBuffer.wrap(rows.toString().getBytes(StandardCharsets.US_ASCII)));
+    } catch (IOException e) {
+      throw new RuntimeException("** UNABLE TO WRITE LOCAL CSV FILE FOR:" + ticker + " **");
+    }
+  }
+
+  /**
+   * The getDirectory method returns the directory holding the CSV files.
+   *
+   * @return the directory
+   */
+  public Path getDirectory() {
+    return directory;
+  }
+
+  /**
+   * The appendSeries method appends the entries of the given series, from the given index to
+   * the end, to the ticker's CSV file in ascending date order. Existing rows are never
+   * rewritten; when the file is read back, an appended row replaces any earlier row for the
+   * same date.
+   *
+   * @param ticker the ticker for the desired stock
+   * @param series the series holding the new entries
+   * @param from the index of the first entry to append
+   */
+  public void appendSeries(String ticker, PriceSeries series, int from) {
+    if (from >= series.size()) {
+      return;
+    }
+    StringBuilder rows = new StringBuilder();
+    for (int i = from; i < series.size(); i++) {
+      appendRow(rows, series, i);
+    }
+
+    try (FileChannel channel = FileChannel.open(directory.resolve(ticker + ".csv"),
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long end = channel.size();
+      // start on a new line if the file does not already end with one
+      if (end > 0) {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, end - 1);
+        if (last.get(0) != '\n') {
+          rows.insert(0, '\n');
+        }
+      }
+      ByteBuffer bytes = ByteBuffer.wrap(rows.toString().getBytes(StandardCharsets.US_ASCII));
+      while (bytes.hasRemaining()) {
+        end += channel.write(bytes, end);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("** UNABLE TO WRITE LOCAL CSV FILE FOR:" + ticker + " **");
+    }
+  }
+
+  private static void appendRow(StringBuilder rows, PriceSeries series, int i) {
+    rows.append(series.getDate(i)).append(',')
+            .append(series.getOpen(i)).append(',')
+            .append(series.getHigh(i)).append(',')
+            .append(series.getLow(i)).append(',')
+            .append(series.getClose(i)).append(',')
+            .append(series.getVolume(i)).append('\n');
   }
 
 }
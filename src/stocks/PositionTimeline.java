@@ -0,0 +1,112 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * The {@code stocks.PositionTimeline} class is an index of the number of shares of a stock held
+ * at the end of every day that has a transaction. Days are kept sorted with the running total
+ * of shares beside them, so the shares held on any date are found by binary search. Adding a
+ * transaction on or after the latest day is constant time; a back-dated transaction shifts the
+ * totals of the later days.
+ */
+final class PositionTimeline {
+  private int[] days;
+  private double[] totals;
+  private int size;
+
+  /**
+   * Constructs an empty {@code stocks.PositionTimeline}.
+   */
+  PositionTimeline() {
+    this.days = new int[8];
+    this.totals = new double[8];
+    this.size = 0;
+  }
+
+  /**
+   * The add method records a transaction of the given number of shares (+ if bought, - if
+   * sold) on the given date.
+   *
+   * @param date the date of the transaction
+   * @param shares the number of shares
+   */
+  void add(LocalDate date, double shares) {
+    int day = (int) date.toEpochDay();
+    int index = search(day);
+    if (index < 0) {
+      // a new day starts from the total of the day before it
+      index = -index - 1;
+      if (size == days.length) {
+        days = Arrays.copyOf(days, size * 2);
+        totals = Arrays.copyOf(totals, size * 2);
+      }
+      System.arraycopy(days, index, days, index + 1, size - index);
+      System.arraycopy(totals, index, totals, index + 1, size - index);
+      days[index] = day;
+      totals[index] = index == 0 ? 0.0 : totals[index - 1];
+      size++;
+    }
+    for (int i = index; i < size; i++) {
+      totals[i] += shares;
+    }
+  }
+
+  /**
+   * The getSharesOn method returns the number of shares held at the end of the given date.
+   *
+   * @param date the date
+   * @return the number of shares, 0 before the first transaction
+   */
+  double getSharesOn(LocalDate date) {
+    int index = indexOnOrBefore((int) date.toEpochDay());
+    return index < 0 ? 0.0 : totals[index];
+  }
+
+  /**
+   * The indexOnOrBefore method returns the index of the latest day with a transaction on or
+   * before the given epoch day.
+   *
+   * @param day the epoch day
+   * @return the index, -1 if every transaction is later
+   */
+  int indexOnOrBefore(int day) {
+    int index = search(day);
+    return index < 0 ? -index - 2 : index;
+  }
+
+  /**
+   * The getDay method returns the epoch day of the transactions at the given index.
+   *
+   * @param index the index, in date order
+   * @return the epoch day
+   */
+  int getDay(int index) {
+    return days[index];
+  }
+
+  /**
+   * The getTotal method returns the number of shares held at the end of the day at the given
+   * index.
+   *
+   * @param index the index, in date order
+   * @return the number of shares
+   */
+  double getTotal(int index) {
+    return totals[index];
+  }
+
+  /**
+   * The size method returns the number of days that have a transaction.
+   *
+   * @return the number of days
+   */
+  int size() {
+    return size;
+  }
+
+  private int search(int day) {
+    return Arrays.binarySearch(days, 0, size, day);
+  }
+
+}
@@ -0,0 +1,53 @@
+package stocks;
+
+/**
+ * The {@code stocks.PositionView} class is a read-only view of a holding in a portfolio: its
+ * ticker, the number of shares held when the view was taken, and the holding's own price
+ * history. The history is shared rather than copied or reloaded, so listing the stocks of a
+ * portfolio does no I/O and allocates nothing per history.
+ */
+public final class PositionView extends SimpleStock {
+
+  private PositionView(String ticker, PriceSeries history, double shares) {
+    super(ticker, history);
+    super.adjustShares(shares);
+  }
+
+  /**
+   * The of method returns a view of the given holding.
+   *
+   * @param stock the holding
+   * @return the view
+   */
+  public static PositionView of(BetterStock stock) {
+    return new PositionView(stock.getTicker(), stock.getHistory(), stock.getShares());
+  }
+
+  /**
+   * The of method returns a view of a holding of the given number of shares over the given
+   * price history.
+   *
+   * @param ticker the stock ticker
+   * @param history the price history of the stock
+   * @param shares the number of shares held
+   * @return the view
+   * @throws IllegalArgumentException if the number of shares is negative
+   */
+  public static PositionView of(String ticker, PriceSeries history, double shares)
+          throws IllegalArgumentException {
+    return new PositionView(ticker, history, shares);
+  }
+
+  /**
+   * A position view cannot be adjusted; shares are adjusted through the portfolio holding them.
+   *
+   * @param shares number of shares to add
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void adjustShares(double shares) throws UnsupportedOperationException {
+    throw new UnsupportedOperationException("** THIS POSITION IS READ-ONLY, "
+            + "ADJUST THE PORTFOLIO INSTEAD **");
+  }
+
+}
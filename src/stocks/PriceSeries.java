@@ -0,0 +1,716 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The {@code stocks.PriceSeries} class represents the price history of a single stock stored
+ * as parallel primitive arrays (epoch days, open, high, low, close and volume) instead of one
+ * object per trading day. Entries are kept in ascending date order, index 0 being the earliest
+ * market day. StockData objects are only created on demand as lightweight views over a single
+ * index, so a series can be kept in memory for many tickers at a fraction of the heap cost.
+ * Date lookups go through a trading-calendar table, built on first use, that maps every
+ * calendar day between the first and last entry straight to its nearest prior market day.
+ * Prefix sums of the closes and of the squared closes, also built on first use, make any
+ * moving average or rolling standard deviation two array reads.
+ */
+public final class PriceSeries {
+  // variance, relative to the mean square, below which prefix sums are not trusted and the
+  // rolling standard deviation is recomputed directly
+  private static final double VARIANCE_TOLERANCE = 1e-8;
+
+  private final int[] epochDays;
+  private final double[] open;
+  private final double[] high;
+  private final double[] low;
+  private final double[] close;
+  private final int[] volume;
+  private final int size;
+  // calendar day offset from the first entry -> index of the latest entry on or before it
+  private volatile int[] calendarIndex;
+  // running sums of (close - first close) and of its square; entry i covers indexes below i
+  private volatile double[] closeSums;
+  private volatile double[] squareSums;
+
+  /**
+   * Constructs a {@code stocks.PriceSeries} directly from its columns. The arrays must
+   * already be sorted by ascending date and contain no duplicate dates.
+   */
+  private PriceSeries(int[] epochDays, double[] open, double[] high, double[] low,
+                      double[] close, int[] volume, int size) {
+    this.epochDays = epochDays;
+    this.open = open;
+    this.high = high;
+    this.low = low;
+    this.close = close;
+    this.volume = volume;
+    this.size = size;
+  }
+
+  /**
+   * The of method converts a list of StockData, in any order, into a PriceSeries. If the
+   * list is itself a view returned by {@link #asList()} the backing series is returned
+   * without copying.
+   *
+   * @param data the list of StockData
+   * @return the corresponding price series
+   */
+  public static PriceSeries of(List<StockData> data) {
+    if (data instanceof ListView) {
+      return ((ListView) data).series;
+    }
+    Builder builder = new Builder(data.size());
+    for (StockData d : data) {
+      builder.add(d.getDate(), d.getOpen(), d.getHigh(), d.getLow(), d.getClose(),
+              d.getVolume());
+    }
+    return builder.build();
+  }
+
+  /**
+   * The size method returns the number of market days in this series.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * The isEmpty method returns whether this series contains any market days.
+   *
+   * @return true if there are no entries
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * The getEpochDay method returns the date of the given entry as a count of days since
+   * 1970-01-01.
+   *
+   * @param index the entry index
+   * @return the epoch day
+   */
+  public int getEpochDay(int index) {
+    checkIndex(index);
+    return epochDays[index];
+  }
+
+  /**
+   * The getDate method returns the date of the given entry.
+   *
+   * @param index the entry index
+   * @return the date
+   */
+  public LocalDate getDate(int index) {
+    return LocalDate.ofEpochDay(getEpochDay(index));
+  }
+
+  /**
+   * The getOpen method returns the opening price of the given entry.
+   *
+   * @param index the entry index
+   * @return the opening price
+   */
+  public double getOpen(int index) {
+    checkIndex(index);
+    return open[index];
+  }
+
+  /**
+   * The getHigh method returns the high price of the given entry.
+   *
+   * @param index the entry index
+   * @return the high price
+   */
+  public double getHigh(int index) {
+    checkIndex(index);
+    return high[index];
+  }
+
+  /**
+   * The getLow method returns the low price of the given entry.
+   *
+   * @param index the entry index
+   * @return the low price
+   */
+  public double getLow(int index) {
+    checkIndex(index);
+    return low[index];
+  }
+
+  /**
+   * The getClose method returns the closing price of the given entry.
+   *
+   * @param index the entry index
+   * @return the closing price
+   */
+  public double getClose(int index) {
+    checkIndex(index);
+    return close[index];
+  }
+
+  /**
+   * The getVolume method returns the trading volume of the given entry.
+   *
+   * @param index the entry index
+   * @return the trading volume
+   */
+  public int getVolume(int index) {
+    checkIndex(index);
+    return volume[index];
+  }
+
+  /**
+   * The getFirstDate method returns the earliest date in this series.
+   *
+   * @return the earliest date
+   * @throws IndexOutOfBoundsException if the series is empty
+   */
+  public LocalDate getFirstDate() {
+    return getDate(0);
+  }
+
+  /**
+   * The getLastDate method returns the most recent date in this series.
+   *
+   * @return the most recent date
+   * @throws IndexOutOfBoundsException if the series is empty
+   */
+  public LocalDate getLastDate() {
+    return getDate(size - 1);
+  }
+
+  /**
+   * The estimateBytes method returns an estimate of the heap used by this series, including
+   * its trading-calendar table and prefix sums. Used to keep caches of many series within a
+   * memory budget.
+   *
+   * @return the estimated number of bytes
+   */
+  public long estimateBytes() {
+    long perEntry = Integer.BYTES + 4L * Double.BYTES + Integer.BYTES;
+    long calendarDays = size == 0 ? 0 : epochDays[size - 1] - epochDays[0] + 1L;
+    // object headers for the series and its nine arrays
+    return 10 * 16L + size * perEntry + calendarDays * Integer.BYTES
+            + 2 * (size + 1L) * Double.BYTES;
+  }
+
+  /**
+   * The indexOf method returns the index of the entry on exactly the given date.
+   *
+   * @param date the date to search
+   * @return the index, or -1 if the given date is not a market day in this series
+   */
+  public int indexOf(LocalDate date) {
+    int epochDay = toEpochDay(date);
+    int index = lookup(epochDay);
+    return index >= 0 && epochDays[index] == epochDay ? index : -1;
+  }
+
+  /**
+   * The indexOnOrBefore method returns the index of the latest entry on or before the given
+   * date, i.e. the market day whose closing price applies to the given date.
+   *
+   * @param date the date to search
+   * @return the index, or -1 if the given date is before the earliest entry
+   */
+  public int indexOnOrBefore(LocalDate date) {
+    return lookup(toEpochDay(date));
+  }
+
+  /**
+   * The indexOnOrAfter method returns the index of the earliest entry on or after the given
+   * date.
+   *
+   * @param date the date to search
+   * @return the index, or {@link #size()} if the given date is after the latest entry
+   */
+  public int indexOnOrAfter(LocalDate date) {
+    int epochDay = toEpochDay(date);
+    int index = lookup(epochDay);
+    return index >= 0 && epochDays[index] == epochDay ? index : index + 1;
+  }
+
+  /**
+   * The movingAverage method returns the average close of the given number of market days
+   * ending at the given index, or of every day up to the index if there are fewer.
+   *
+   * @param index the index of the last day of the window
+   * @param days the number of days (x-value)
+   * @return the moving average
+   * @throws IllegalArgumentException if the x-value is not positive
+   */
+  public double movingAverage(int index, int days) throws IllegalArgumentException {
+    int from = windowStart(index, days);
+    double[] sums = closeSums();
+    return close[0] + (sums[index + 1] - sums[from]) / (index + 1 - from);
+  }
+
+  /**
+   * The movingStdDev method returns the (population) standard deviation of the closes of the
+   * given number of market days ending at the given index, or of every day up to the index if
+   * there are fewer.
+   *
+   * @param index the index of the last day of the window
+   * @param days the number of days (x-value)
+   * @return the rolling standard deviation
+   * @throws IllegalArgumentException if the x-value is not positive
+   */
+  public double movingStdDev(int index, int days) throws IllegalArgumentException {
+    int from = windowStart(index, days);
+    int count = index + 1 - from;
+    double[] sums = closeSums();
+    double[] squares = squareSums();
+    double mean = (sums[index + 1] - sums[from]) / count;
+    double meanSquare = (squares[index + 1] - squares[from]) / count;
+    double variance = meanSquare - mean * mean;
+    if (variance > VARIANCE_TOLERANCE * meanSquare) {
+      return Math.sqrt(variance);
+    }
+    // the difference of the sums is mostly rounding error for a (nearly) flat window
+    double windowMean = 0.0;
+    for (int i = from; i <= index; i++) {
+      windowMean += close[i];
+    }
+    windowMean /= count;
+    double squaredDeviations = 0.0;
+    for (int i = from; i <= index; i++) {
+      squaredDeviations += (close[i] - windowMean) * (close[i] - windowMean);
+    }
+    return Math.sqrt(squaredDeviations / count);
+  }
+
+  /**
+   * The movingAverages method returns the x-day moving average of every market day between
+   * the start and end dates (inclusive), earliest day first.
+   *
+   * @param start the start date
+   * @param end the end date
+   * @param days the number of days (x-value)
+   * @return the moving averages, one per market day in the range
+   * @throws IllegalArgumentException if the x-value is not positive
+   */
+  public double[] movingAverages(LocalDate start, LocalDate end, int days)
+          throws IllegalArgumentException {
+    if (days <= 0) {
+      throw new IllegalArgumentException("** ENTER A POSITIVE X-VALUE **");
+    }
+    int first = indexOnOrAfter(start);
+    int last = indexOnOrBefore(end);
+    if (first > last) {
+      return new double[0];
+    }
+    double[] output = new double[last - first + 1];
+    for (int i = first; i <= last; i++) {
+      output[i - first] = movingAverage(i, days);
+    }
+    return output;
+  }
+
+  /**
+   * The get method returns a StockData view of the given entry. The view is created on
+   * demand and reads straight from this series.
+   *
+   * @param index the entry index
+   * @return the StockData view
+   */
+  public StockData get(int index) {
+    checkIndex(index);
+    return new Bar(index);
+  }
+
+  /**
+   * The asList method returns a read-only list view of this series in the same order as the
+   * CSV data sources (most recent market day first). Elements are created on demand.
+   *
+   * @return the list view
+   */
+  public List<StockData> asList() {
+    return new ListView(this);
+  }
+
+  private int windowStart(int index, int days) {
+    checkIndex(index);
+    if (days <= 0) {
+      throw new IllegalArgumentException("** ENTER A POSITIVE X-VALUE **");
+    }
+    return Math.max(0, index - days + 1);
+  }
+
+  private double[] closeSums() {
+    double[] sums = closeSums;
+    if (sums == null) {
+      sums = prefixSums(false);
+      closeSums = sums;
+    }
+    return sums;
+  }
+
+  private double[] squareSums() {
+    double[] sums = squareSums;
+    if (sums == null) {
+      sums = prefixSums(true);
+      squareSums = sums;
+    }
+    return sums;
+  }
+
+  /**
+   * The prefixSums method builds the running sums of the closes, or of the squared closes,
+   * shifted by the first close so that the sums stay small and the difference of two sums
+   * loses little precision. The sums are compensated (Kahan summation) for the same reason.
+   *
+   * @param squared whether to sum the squared closes
+   * @return the prefix sums, one longer than the series
+   */
+  private double[] prefixSums(boolean squared) {
+    double[] sums = new double[size + 1];
+    double pivot = size == 0 ? 0.0 : close[0];
+    double sum = 0.0;
+    double compensation = 0.0;
+    for (int i = 0; i < size; i++) {
+      double value = close[i] - pivot;
+      if (squared) {
+        value *= value;
+      }
+      double adjusted = value - compensation;
+      double next = sum + adjusted;
+      compensation = (next - sum) - adjusted;
+      sum = next;
+      sums[i + 1] = sum;
+    }
+    return sums;
+  }
+
+  /**
+   * The lookup method maps an epoch day to the index of the latest entry on or before it
+   * using the trading-calendar table, so no search is needed.
+   *
+   * @param epochDay the epoch day to search
+   * @return the index, or -1 if the day is before the earliest entry
+   */
+  private int lookup(int epochDay) {
+    if (size == 0 || epochDay < epochDays[0]) {
+      return -1;
+    }
+    int offset = epochDay - epochDays[0];
+    int[] table = calendarIndex();
+    if (offset >= table.length) {
+      return size - 1;
+    }
+    return table[offset];
+  }
+
+  /**
+   * The calendarIndex method returns the trading-calendar table, building it the first time
+   * it is needed. Concurrent first calls may each build the table; they all build the same
+   * contents so whichever one is published last is kept.
+   *
+   * @return the calendar table
+   */
+  private int[] calendarIndex() {
+    int[] table = calendarIndex;
+    if (table == null) {
+      table = new int[epochDays[size - 1] - epochDays[0] + 1];
+      int index = 0;
+      for (int offset = 0; offset < table.length; offset++) {
+        while (index + 1 < size && epochDays[index + 1] - epochDays[0] <= offset) {
+          index++;
+        }
+        table[offset] = index;
+      }
+      calendarIndex = table;
+    }
+    return table;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+
+  private static int toEpochDay(LocalDate date) {
+    return Math.toIntExact(date.toEpochDay());
+  }
+
+  /**
+   * The Bar class is a StockData view over a single entry of a PriceSeries.
+   */
+  private final class Bar implements StockData {
+    private final int index;
+
+    private Bar(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public LocalDate getDate() {
+      return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    @Override
+    public double getOpen() {
+      return open[index];
+    }
+
+    @Override
+    public double getClose() {
+      return close[index];
+    }
+
+    @Override
+    public double getHigh() {
+      return high[index];
+    }
+
+    @Override
+    public double getLow() {
+      return low[index];
+    }
+
+    @Override
+    public int getVolume() {
+      return volume[index];
+    }
+  }
+
+  /**
+   * The ListView class presents a PriceSeries as a most-recent-first list of StockData.
+   */
+  private static final class ListView extends AbstractList<StockData> implements RandomAccess {
+    private final PriceSeries series;
+
+    private ListView(PriceSeries series) {
+      this.series = series;
+    }
+
+    @Override
+    public StockData get(int index) {
+      return series.get(series.size - 1 - index);
+    }
+
+    @Override
+    public int size() {
+      return series.size;
+    }
+  }
+
+  /**
+   * The Builder class accumulates entries in any order and produces a PriceSeries. Entries
+   * are usually appended in the order they appear in a CSV file (most recent first); the
+   * builder sorts them by date when the series is built. If the same date is added more than
+   * once, the entry added last wins.
+   */
+  public static final class Builder {
+    private int[] epochDays;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private int[] volume;
+    private int size;
+
+    /**
+     * Constructs an empty {@code PriceSeries.Builder}.
+     */
+    public Builder() {
+      this(256);
+    }
+
+    /**
+     * Constructs an empty {@code PriceSeries.Builder} sized for the expected number of
+     * entries.
+     *
+     * @param capacity the expected number of entries
+     */
+    public Builder(int capacity) {
+      int initial = Math.max(capacity, 16);
+      this.epochDays = new int[initial];
+      this.open = new double[initial];
+      this.high = new double[initial];
+      this.low = new double[initial];
+      this.close = new double[initial];
+      this.volume = new int[initial];
+      this.size = 0;
+    }
+
+    /**
+     * The add method appends a single market day to this builder.
+     *
+     * @param date the date
+     * @param open the opening price
+     * @param high the high price
+     * @param low the low price
+     * @param close the closing price
+     * @param volume the trading volume
+     * @return this builder
+     */
+    public Builder add(LocalDate date, double open, double high, double low, double close,
+                       int volume) {
+      return add(toEpochDay(date), open, high, low, close, volume);
+    }
+
+    /**
+     * The add method appends a single market day, given as an epoch day, to this builder.
+     *
+     * @param epochDay the date as a count of days since 1970-01-01
+     * @param open the opening price
+     * @param high the high price
+     * @param low the low price
+     * @param close the closing price
+     * @param volume the trading volume
+     * @return this builder
+     */
+    public Builder add(int epochDay, double open, double high, double low, double close,
+                       int volume) {
+      if (size == epochDays.length) {
+        grow();
+      }
+      this.epochDays[size] = epochDay;
+      this.open[size] = open;
+      this.high[size] = high;
+      this.low[size] = low;
+      this.close[size] = close;
+      this.volume[size] = volume;
+      size++;
+      return this;
+    }
+
+    /**
+     * The addAll method appends every entry of the given series to this builder.
+     *
+     * @param series the series to copy
+     * @return this builder
+     */
+    public Builder addAll(PriceSeries series) {
+      for (int i = 0; i < series.size; i++) {
+        add(series.epochDays[i], series.open[i], series.high[i], series.low[i],
+                series.close[i], series.volume[i]);
+      }
+      return this;
+    }
+
+    /**
+     * The size method returns the number of entries added so far.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * The build method sorts the accumulated entries by date, removes duplicate dates and
+     * returns the resulting PriceSeries.
+     *
+     * @return the price series
+     */
+    public PriceSeries build() {
+      boolean ascending = true;
+      for (int i = 1; i < size; i++) {
+        if (epochDays[i] <= epochDays[i - 1]) {
+          ascending = false;
+          break;
+        }
+      }
+
+      if (ascending) {
+        return new PriceSeries(Arrays.copyOf(epochDays, size), Arrays.copyOf(open, size),
+                Arrays.copyOf(high, size), Arrays.copyOf(low, size), Arrays.copyOf(close, size),
+                Arrays.copyOf(volume, size), size);
+      }
+
+      int[] order = runOrder();
+      if (order == null) {
+        order = new int[size];
+        // stable sort so that the last entry added for a date is the last in its run
+        Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+          boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> Integer.compare(epochDays[a], epochDays[b]));
+        for (int i = 0; i < size; i++) {
+          order[i] = boxed[i];
+        }
+      }
+
+      int[] sortedDays = new int[size];
+      double[] sortedOpen = new double[size];
+      double[] sortedHigh = new double[size];
+      double[] sortedLow = new double[size];
+      double[] sortedClose = new double[size];
+      int[] sortedVolume = new int[size];
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        int from = order[i];
+        if (count > 0 && sortedDays[count - 1] == epochDays[from]) {
+          count--;
+        }
+        sortedDays[count] = epochDays[from];
+        sortedOpen[count] = open[from];
+        sortedHigh[count] = high[from];
+        sortedLow[count] = low[from];
+        sortedClose[count] = close[from];
+        sortedVolume[count] = volume[from];
+        count++;
+      }
+      return new PriceSeries(trim(sortedDays, count), trim(sortedOpen, count),
+              trim(sortedHigh, count), trim(sortedLow, count), trim(sortedClose, count),
+              trim(sortedVolume, count), count);
+    }
+
+    /**
+     * The runOrder method recognises data that is descending (the CSV layout), optionally with
+     * newer days appended in ascending order (the layout of an incrementally refreshed CSV
+     * file), and returns the positions of the entries in date order without sorting. A date
+     * repeated where the two runs meet keeps the order it was added in, so the last entry still
+     * wins.
+     *
+     * @return the positions in date order, or null if the data has some other layout
+     */
+    private int[] runOrder() {
+      int split = 1;
+      while (split < size && epochDays[split] < epochDays[split - 1]) {
+        split++;
+      }
+      for (int i = split; i < size; i++) {
+        if (epochDays[i] < (i == split ? epochDays[0] : epochDays[i - 1])) {
+          return null;
+        }
+      }
+      int[] order = new int[size];
+      for (int i = 0; i < split; i++) {
+        order[i] = split - 1 - i;
+      }
+      for (int i = split; i < size; i++) {
+        order[i] = i;
+      }
+      return order;
+    }
+
+    private void grow() {
+      int capacity = epochDays.length * 2;
+      epochDays = Arrays.copyOf(epochDays, capacity);
+      open = Arrays.copyOf(open, capacity);
+      high = Arrays.copyOf(high, capacity);
+      low = Arrays.copyOf(low, capacity);
+      close = Arrays.copyOf(close, capacity);
+      volume = Arrays.copyOf(volume, capacity);
+    }
+
+    private static int[] trim(int[] array, int length) {
+      return array.length == length ? array : Arrays.copyOf(array, length);
+    }
+
+    private static double[] trim(double[] array, int length) {
+      return array.length == length ? array : Arrays.copyOf(array, length);
+    }
+  }
+
+}
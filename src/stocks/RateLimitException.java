@@ -0,0 +1,18 @@
+package stocks;
+
+/**
+ * The {@code stocks.RateLimitException} class is thrown when a stock data source refuses a
+ * request because too many requests were made, as opposed to the stock not existing. The
+ * request can be retried later.
+ */
+public class RateLimitException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Constructs a {@code stocks.RateLimitException} with the standard message.
+   */
+  public RateLimitException() {
+    super("** API RATE LIMIT REACHED, TRY AGAIN LATER **");
+  }
+
+}
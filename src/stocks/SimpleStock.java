@@ -10,7 +10,7 @@ import java.util.List;
  */
 public class SimpleStock implements Stock {
   private final String ticker;
-  protected final List<StockData> historicalData;
+  protected final PriceSeries historicalData;
   private double shares;
 
   /**
@@ -22,7 +22,20 @@ public class SimpleStock implements Stock {
    */
   public SimpleStock(String ticker) {
     this.ticker = ticker.toUpperCase();
-    this.historicalData = getData(ticker);
+    this.historicalData = PriceSeries.of(getData(ticker));
+    this.shares = 0.0;
+  }
+
+  /**
+   * Constructs a {@code stocks.Stock} object over a history that has already been loaded, so
+   * no data is read from disk or the network.
+   *
+   * @param ticker the stock ticker
+   * @param history the price history of the stock
+   */
+  protected SimpleStock(String ticker, PriceSeries history) {
+    this.ticker = ticker.toUpperCase();
+    this.historicalData = history;
     this.shares = 0.0;
   }
 
@@ -37,21 +50,14 @@ public class SimpleStock implements Stock {
    *                                  data entry or sometime in the future
    */
   public double getPriceOnDay(LocalDate date) throws IllegalArgumentException {
-    if (historicalData.get(historicalData.size() - 1).getDate().isAfter(date)) {
+    if (historicalData.getFirstDate().isAfter(date)) {
       throw new IllegalArgumentException("** NO DATA AVAILABLE FOR " + date
               + " TRY A MORE RECENT DATE **");
     }
     if (date.isAfter(LocalDate.now())) {
       throw new IllegalArgumentException("** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **");
     }
-    while (true) {
-      for (StockData d : historicalData) {
-        if (d.getDate().equals(date)) {
-          return d.getClose();
-        }
-      }
-      date = date.minusDays(1);
-    }
+    return historicalData.getClose(historicalData.indexOnOrBefore(date));
   }
 
   /**
@@ -91,26 +97,17 @@ public class SimpleStock implements Stock {
    * The getData method get the history data from a local CSV file by default.
    * If a CSV corresponding to the given ticker is not found, the method will attempt to
    * download a new file from the API. Alternatively if the CSV file does exist but is
-   * not up-to-date (i.e. its most recent entry is not today), it is replaced by a new CSV file
-   * from the API.
+   * not up-to-date (i.e. its most recent entry is not today), only the newest days are
+   * downloaded and appended to it (see {@link HistoryRefresher}). The returned list is a view
+   * over a PriceSeries, so wrapping it with {@link PriceSeries#of(List)} does not copy any data.
+   * Histories are looked up through the shared {@link TieredStockDataSource}, so each ticker is
+   * only loaded once per day.
    *
    * @param ticker the stock ticker to find
    * @return a list of StockData
    */
   protected List<StockData> getData(String ticker) {
-    StockDataSource localSource = new LocalCSVDataSource();
-    StockDataSource webSource = new AlphaVantageDataSource();
-
-    try {
-      List<StockData> data = localSource.getHistoryData(ticker);
-
-      if (data.get(0).getDate().isBefore(LocalDate.now())) {
-        return webSource.getHistoryData(ticker);
-      }
-      return data;
-    } catch (RuntimeException e) {
-      return webSource.getHistoryData(ticker);
-    }
+    return TieredStockDataSource.getInstance().getHistorySeries(ticker).asList();
   }
 
 }
@@ -0,0 +1,86 @@
+package stocks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The {@code stocks.SingleFlight} class coalesces concurrent loads of the same key. The first
+ * caller for a key runs the loader on its own thread; every caller that asks for the same key
+ * while that load is in flight waits for it and shares its result, or its exception, instead
+ * of starting another load. Once the load finishes the key is forgotten, so a later call
+ * loads again (callers are expected to cache the result themselves).
+ *
+ * @param <V> the type of value loaded
+ */
+public class SingleFlight<V> {
+  private final ConcurrentHashMap<String, CompletableFuture<V>> inFlight =
+          new ConcurrentHashMap<>();
+  private final AtomicLong coalesced = new AtomicLong();
+
+  /**
+   * The load method returns the value for the given key, either by running the loader or by
+   * waiting for a load of the same key that is already in flight.
+   *
+   * @param key the key to load
+   * @param loader loads the value of a key
+   * @return the loaded value
+   * @throws RuntimeException the exception thrown by the loader, rethrown to every caller
+   */
+  public V load(String key, Function<String, V> loader) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      coalesced.incrementAndGet();
+      return await(existing);
+    }
+
+    try {
+      V value = loader.apply(key);
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  /**
+   * The inFlightCount method returns the number of keys currently being loaded.
+   *
+   * @return the number of loads in flight
+   */
+  public int inFlightCount() {
+    return inFlight.size();
+  }
+
+  /**
+   * The getCoalescedCount method returns the number of calls that shared a load started by
+   * another caller instead of loading themselves.
+   *
+   * @return the coalesced call count
+   */
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+
+  private static <V> V await(CompletableFuture<V> flight) {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+
+}
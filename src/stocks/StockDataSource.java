@@ -16,4 +16,24 @@ public interface StockDataSource {
    */
   List<StockData> getHistoryData(String ticker);
 
+  /** The getHistorySeries method queries the current stocks.StockDataSource for
+   * historical stock data in columnar form.
+   *
+   * @param ticker the ticker for the desired stock
+   * @return a stocks.PriceSeries holding every available market day
+   */
+  PriceSeries getHistorySeries(String ticker);
+
+  /** The getRecentSeries method queries the current stocks.StockDataSource for its most
+   * recent market days only, used to bring an older copy of a history up-to-date without
+   * transferring the whole history again. Sources that cannot serve a smaller window return
+   * their full history.
+   *
+   * @param ticker the ticker for the desired stock
+   * @return a stocks.PriceSeries holding at least the most recent market days
+   */
+  default PriceSeries getRecentSeries(String ticker) {
+    return getHistorySeries(ticker);
+  }
+
 }
@@ -0,0 +1,342 @@
+package stocks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The {@code stocks.StreamingCSVParser} class parses stock CSV data (timestamp, open, high,
+ * low, close, volume) straight from a byte stream into a PriceSeries.Builder. Dates in the
+ * yyyy-MM-dd format and decimal prices are decoded directly from the read buffer, so no
+ * strings, arrays or date objects are created per row. The first line is treated as the
+ * header and skipped, blank lines are ignored and any columns after the volume are ignored.
+ * A parser keeps its position in instance fields and must not be shared between threads.
+ */
+public class StreamingCSVParser {
+  /** The default size of the read buffer. */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  private static final String STOCK_NOT_FOUND = "** STOCK NOT FOUND, CHECK TICKER FORMAT **";
+  private static final String MALFORMED_ROW = "** MALFORMED CSV DATA, CHECK THE FILE FORMAT **";
+  private static final long DAYS_0000_TO_1970 = 719528L;
+  // largest mantissa that converts to a double exactly
+  private static final long MAX_EXACT_MANTISSA = 1L << 53;
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private final int bufferSize;
+  private byte[] buffer;
+  private int position;
+  private int lineEnd;
+
+  /**
+   * Constructs a {@code stocks.StreamingCSVParser} with the default buffer size.
+   */
+  public StreamingCSVParser() {
+    this(DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructs a {@code stocks.StreamingCSVParser} with the given initial buffer size. The
+   * buffer grows if a single line does not fit.
+   *
+   * @param bufferSize the initial read buffer size in bytes
+   */
+  public StreamingCSVParser(int bufferSize) {
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("** BUFFER SIZE MUST BE POSITIVE **");
+    }
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * The parse method reads the given stream to its end and returns the parsed series. The
+   * stream is not closed.
+   *
+   * @param in the CSV input stream
+   * @return the price series
+   * @throws IOException if the stream cannot be read
+   */
+  public PriceSeries parse(InputStream in) throws IOException {
+    return parse(Channels.newChannel(in));
+  }
+
+  /**
+   * The parse method reads the given channel to its end and returns the parsed series. The
+   * channel is not closed.
+   *
+   * @param channel the CSV channel
+   * @return the price series
+   * @throws IOException if the channel cannot be read
+   */
+  public PriceSeries parse(ReadableByteChannel channel) throws IOException {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    parse(channel, builder);
+    return builder.build();
+  }
+
+  /**
+   * The parse method reads the given channel to its end and appends every row to the given
+   * builder. The channel is not closed.
+   *
+   * @param channel the CSV channel
+   * @param builder the builder to append rows to
+   * @throws IOException if the channel cannot be read
+   * @throws RuntimeException if a row is not valid stock data
+   */
+  public void parse(ReadableByteChannel channel, PriceSeries.Builder builder)
+          throws IOException {
+    buffer = new byte[bufferSize];
+    ByteBuffer wrapper = ByteBuffer.wrap(buffer);
+    int start = 0;
+    int scan = 0;
+    int end = 0;
+    boolean header = true;
+    boolean eof = false;
+
+    while (true) {
+      for (int i = scan; i < end; i++) {
+        if (buffer[i] == '\n') {
+          if (header) {
+            header = false;
+          } else {
+            parseLine(start, i, builder);
+          }
+          start = i + 1;
+        }
+      }
+      scan = end;
+
+      if (eof) {
+        if (start < end && !header) {
+          parseLine(start, end, builder);
+        }
+        return;
+      }
+
+      // keep the partial line at the front of the buffer and read more after it
+      if (start > 0) {
+        System.arraycopy(buffer, start, buffer, 0, end - start);
+        end -= start;
+        scan -= start;
+        start = 0;
+      }
+      if (end == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        wrapper = ByteBuffer.wrap(buffer);
+      }
+      wrapper.limit(buffer.length);
+      wrapper.position(end);
+      int read = channel.read(wrapper);
+      if (read < 0) {
+        eof = true;
+      } else {
+        end += read;
+      }
+    }
+  }
+
+  /**
+   * The parseLine method parses a single row between the given offsets of the buffer.
+   *
+   * @param from the first byte of the row
+   * @param to the end of the row (exclusive)
+   * @param builder the builder to append the row to
+   */
+  private void parseLine(int from, int to, PriceSeries.Builder builder) {
+    position = from;
+    lineEnd = to;
+    skipWhitespace();
+    if (position == lineEnd) {
+      return;
+    }
+
+    int epochDay = parseDate();
+    double open = parseDecimal();
+    double high = parseDecimal();
+    double low = parseDecimal();
+    double close = parseDecimal();
+    int volume = parseVolume();
+    builder.add(epochDay, open, high, low, close, volume);
+  }
+
+  /**
+   * The parseDate method parses a yyyy-MM-dd field into an epoch day. Like the yyyy-MM-dd
+   * DateTimeFormatter, a day past the end of its month (but no later than the 31st) is moved
+   * back to the last day of that month.
+   *
+   * @return the epoch day
+   */
+  private int parseDate() {
+    skipWhitespace();
+    if (lineEnd - position < 10 || buffer[position + 4] != '-' || buffer[position + 7] != '-') {
+      throw new RuntimeException(STOCK_NOT_FOUND);
+    }
+    int year = digits(position, 4);
+    int month = digits(position + 5, 2);
+    int day = digits(position + 8, 2);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+      throw new RuntimeException(STOCK_NOT_FOUND);
+    }
+    position += 10;
+    endField(STOCK_NOT_FOUND);
+
+    boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    day = Math.min(day, lengthOfMonth(month, leap));
+
+    // same arithmetic as LocalDate.toEpochDay, for years 0 to 9999
+    long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+    total += (367L * month - 362) / 12;
+    total += day - 1;
+    if (month > 2) {
+      total--;
+      if (!leap) {
+        total--;
+      }
+    }
+    return (int) (total - DAYS_0000_TO_1970);
+  }
+
+  /**
+   * The parseDecimal method parses a decimal field. Plain decimals with up to 15 significant
+   * digits are converted with a single exact division, which gives the same result as
+   * Double.parseDouble; anything else falls back to Double.parseDouble.
+   *
+   * @return the parsed value
+   */
+  private double parseDecimal() {
+    skipWhitespace();
+    int fieldStart = position;
+    boolean negative = false;
+    if (position < lineEnd && (buffer[position] == '-' || buffer[position] == '+')) {
+      negative = buffer[position] == '-';
+      position++;
+    }
+
+    long mantissa = 0;
+    int scale = 0;
+    int digitCount = 0;
+    boolean point = false;
+    boolean exact = true;
+    while (position < lineEnd) {
+      byte b = buffer[position];
+      if (b >= '0' && b <= '9') {
+        mantissa = mantissa * 10 + (b - '0');
+        digitCount++;
+        if (point) {
+          scale++;
+        }
+        if (mantissa >= MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+          exact = false;
+        }
+      } else if (b == '.' && !point) {
+        point = true;
+      } else if (b == ',' || b == ' ' || b == '\t' || b == '\r') {
+        break;
+      } else {
+        exact = false;
+      }
+      position++;
+    }
+    int fieldEnd = position;
+    endField(MALFORMED_ROW);
+
+    if (exact && digitCount > 0) {
+      double value = mantissa / POWERS_OF_TEN[scale];
+      return negative ? -value : value;
+    }
+    try {
+      return Double.parseDouble(new String(buffer, fieldStart, fieldEnd - fieldStart,
+              StandardCharsets.US_ASCII));
+    } catch (NumberFormatException e) {
+      throw new RuntimeException(MALFORMED_ROW);
+    }
+  }
+
+  /**
+   * The parseVolume method parses a whole number field that fits in an int.
+   *
+   * @return the parsed volume
+   */
+  private int parseVolume() {
+    skipWhitespace();
+    boolean negative = false;
+    if (position < lineEnd && (buffer[position] == '-' || buffer[position] == '+')) {
+      negative = buffer[position] == '-';
+      position++;
+    }
+    long value = 0;
+    int digitCount = 0;
+    while (position < lineEnd && buffer[position] >= '0' && buffer[position] <= '9') {
+      value = value * 10 + (buffer[position] - '0');
+      digitCount++;
+      if (value > Integer.MAX_VALUE + 1L) {
+        throw new RuntimeException(MALFORMED_ROW);
+      }
+      position++;
+    }
+    value = negative ? -value : value;
+    if (digitCount == 0 || value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+      throw new RuntimeException(MALFORMED_ROW);
+    }
+    skipWhitespace();
+    if (position < lineEnd && buffer[position] != ',') {
+      throw new RuntimeException(MALFORMED_ROW);
+    }
+    return (int) value;
+  }
+
+  /**
+   * The endField method skips trailing whitespace and the comma that ends a field. Every
+   * field before the volume must be followed by a comma.
+   *
+   * @param error the message to report if the field does not end properly
+   */
+  private void endField(String error) {
+    skipWhitespace();
+    if (position >= lineEnd || buffer[position] != ',') {
+      throw new RuntimeException(error);
+    }
+    position++;
+  }
+
+  private void skipWhitespace() {
+    while (position < lineEnd
+            && (buffer[position] == ' ' || buffer[position] == '\t' || buffer[position] == '\r')) {
+      position++;
+    }
+  }
+
+  private int digits(int from, int count) {
+    int value = 0;
+    for (int i = from; i < from + count; i++) {
+      byte b = buffer[i];
+      if (b < '0' || b > '9') {
+        return -1;
+      }
+      value = value * 10 + (b - '0');
+    }
+    return value;
+  }
+
+  private static int lengthOfMonth(int month, boolean leap) {
+    switch (month) {
+      case 2:
+        return leap ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+}
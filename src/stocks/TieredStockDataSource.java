@@ -0,0 +1,478 @@
+package stocks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code stocks.TieredStockDataSource} class looks up price histories in an ordered chain
+ * of storage tiers, fastest first: by default the in-memory {@link HistoryCache}, the
+ * {@link BinaryHistoryFile}, the CSV file and finally the network. Each tier has a freshness
+ * policy; the first tier holding a fresh copy answers, and its copy is promoted into every
+ * tier above it so that the next lookup stops earlier. A copy that is not fresh is handed to
+ * the tiers below it, which lets the network tier refresh it incrementally instead of
+ * downloading the full history again. The time spent in each tier is recorded, and concurrent
+ * lookups of the same ticker share a single walk of the chain.
+ */
+public class TieredStockDataSource implements StockDataSource {
+  private final List<Tier> tiers;
+  private final List<Freshness> policies;
+  private final List<TierStats> stats;
+  private final SingleFlight<PriceSeries> lookups = new SingleFlight<>();
+
+  private TieredStockDataSource(Builder builder) {
+    this.tiers = new ArrayList<>(builder.tiers);
+    this.policies = new ArrayList<>(builder.policies);
+    List<TierStats> stats = new ArrayList<>();
+    for (Tier tier : tiers) {
+      stats.add(new TierStats(tier.getName()));
+    }
+    this.stats = Collections.unmodifiableList(stats);
+  }
+
+  /**
+   * The getInstance method returns the chain shared by the whole program: the shared
+   * {@link HistoryCache}, then the binary and CSV files in the working directory, which are
+   * fresh while their newest entry is today, then the shared {@link FetchScheduler}.
+   *
+   * @return the shared chain
+   */
+  public static TieredStockDataSource getInstance() {
+    return Shared.instance;
+  }
+
+  @Override
+  public List<StockData> getHistoryData(String ticker) {
+    return getHistorySeries(ticker).asList();
+  }
+
+  /**
+   * The getHistorySeries method returns the history of the given ticker from the first tier
+   * holding a fresh copy, and promotes that copy into the tiers above it. The exception of
+   * the last tier is thrown if it fails; failures of the other tiers count as misses. The
+   * ticker is upper-cased once here, so every tier (and the shared lookup) uses the same name
+   * whatever case it was entered in.
+   *
+   * @param ticker the ticker for the desired stock
+   * @return the price series
+   */
+  @Override
+  public PriceSeries getHistorySeries(String ticker) {
+    return lookups.load(ticker.toUpperCase(), this::lookup);
+  }
+
+  /**
+   * The getStats method returns the statistics of each tier, in lookup order.
+   *
+   * @return the tier statistics
+   */
+  public List<TierStats> getStats() {
+    return stats;
+  }
+
+  /**
+   * The getTierNames method returns the name of each tier, in lookup order.
+   *
+   * @return the tier names
+   */
+  public List<String> getTierNames() {
+    List<String> names = new ArrayList<>();
+    for (Tier tier : tiers) {
+      names.add(tier.getName());
+    }
+    return names;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder output = new StringBuilder();
+    for (TierStats tier : stats) {
+      output.append(tier).append('\n');
+    }
+    return output.toString();
+  }
+
+  private PriceSeries lookup(String ticker) {
+    PriceSeries[] copies = new PriceSeries[tiers.size()];
+    PriceSeries stale = null;
+    PriceSeries result = null;
+    int found = tiers.size();
+    for (int i = 0; i < tiers.size() && result == null; i++) {
+      TierStats tierStats = stats.get(i);
+      long start = System.nanoTime();
+      PriceSeries copy;
+      try {
+        copy = tiers.get(i).read(ticker, stale);
+      } catch (RuntimeException e) {
+        tierStats.record(System.nanoTime() - start, TierStats.MISS);
+        if (i == tiers.size() - 1) {
+          throw e;
+        }
+        continue;
+      }
+
+      if (copy == null || copy.isEmpty()) {
+        tierStats.record(System.nanoTime() - start, TierStats.MISS);
+      } else if (policies.get(i).isFresh(copy)) {
+        tierStats.record(System.nanoTime() - start, TierStats.HIT);
+        copies[i] = copy;
+        result = copy;
+        found = i;
+      } else {
+        tierStats.record(System.nanoTime() - start, TierStats.STALE);
+        copies[i] = copy;
+        if (stale == null) {
+          stale = copy;
+        }
+      }
+    }
+    if (result == null) {
+      return stale != null ? stale : new PriceSeries.Builder(0).build();
+    }
+
+    // lower tiers first, so a file is written before anything derived from it
+    for (int i = found - 1; i >= 0; i--) {
+      if (copies[i] == result) {
+        continue;
+      }
+      try {
+        tiers.get(i).write(ticker, result);
+      } catch (RuntimeException e) {
+        // promotion is only an optimization; the next lookup falls through to a lower tier
+      }
+    }
+    return result;
+  }
+
+  /**
+   * The memoryTier method returns a tier backed by the given in-memory cache. Entries expire
+   * on their own, so the tier should be used with {@link Freshness#ALWAYS}.
+   *
+   * @param cache the cache
+   * @return the tier
+   */
+  public static Tier memoryTier(HistoryCache cache) {
+    return new Tier() {
+      @Override
+      public String getName() {
+        return "memory";
+      }
+
+      @Override
+      public PriceSeries read(String ticker, PriceSeries stale) {
+        return cache.getIfPresent(ticker);
+      }
+
+      @Override
+      public void write(String ticker, PriceSeries series) {
+        cache.put(ticker, series);
+      }
+    };
+  }
+
+  /**
+   * The binaryTier method returns a tier backed by the binary history files next to the CSV
+   * files of the given local store. A binary file is only read while its CSV file is
+   * unchanged, and is written after the CSV file, so the tier must sit above the CSV tier.
+   *
+   * @param local the local CSV store
+   * @return the tier
+   */
+  public static Tier binaryTier(LocalCSVDataSource local) {
+    return new Tier() {
+      @Override
+      public String getName() {
+        return "binary";
+      }
+
+      @Override
+      public PriceSeries read(String ticker, PriceSeries stale) {
+        return BinaryHistoryFile.read(binaryFile(local, ticker), csvFile(local, ticker));
+      }
+
+      @Override
+      public void write(String ticker, PriceSeries series) {
+        BinaryHistoryFile.write(binaryFile(local, ticker), csvFile(local, ticker), series);
+      }
+    };
+  }
+
+  /**
+   * The csvTier method returns a tier backed by the CSV files of the given local store. The
+   * file is not parsed when a tier above already returned a copy of it, since every copy
+   * above comes from the same file. Promoting writes the file only if it does not exist;
+   * the network tier keeps existing files up-to-date as it downloads.
+   *
+   * @param local the local CSV store
+   * @return the tier
+   */
+  public static Tier csvTier(LocalCSVDataSource local) {
+    return new Tier() {
+      @Override
+      public String getName() {
+        return "csv";
+      }
+
+      @Override
+      public PriceSeries read(String ticker, PriceSeries stale) {
+        if (stale != null) {
+          return stale;
+        }
+        return Files.exists(csvFile(local, ticker)) ? local.readCSV(ticker) : null;
+      }
+
+      @Override
+      public void write(String ticker, PriceSeries series) {
+        if (!Files.exists(csvFile(local, ticker))) {
+          local.writeSeries(ticker, series);
+        }
+      }
+    };
+  }
+
+  /**
+   * The networkTier method returns a tier that downloads histories through the given
+   * refresher. A stale copy from a tier above is refreshed incrementally; otherwise the full
+   * history is downloaded. Downloads are saved to the CSV files by the refresher and its
+   * source, so promoting into this tier does nothing.
+   *
+   * @param refresher the refresher
+   * @return the tier
+   */
+  public static Tier networkTier(HistoryRefresher refresher) {
+    return new Tier() {
+      @Override
+      public String getName() {
+        return "network";
+      }
+
+      @Override
+      public PriceSeries read(String ticker, PriceSeries stale) {
+        return stale != null ? refresher.refresh(ticker, stale) : refresher.download(ticker);
+      }
+
+      @Override
+      public void write(String ticker, PriceSeries series) {
+        // the data came from here
+      }
+    };
+  }
+
+  private static Path csvFile(LocalCSVDataSource local, String ticker) {
+    return local.getDirectory().resolve(ticker + ".csv");
+  }
+
+  private static Path binaryFile(LocalCSVDataSource local, String ticker) {
+    return local.getDirectory().resolve(ticker + BinaryHistoryFile.EXTENSION);
+  }
+
+  /**
+   * The Tier interface is one level of storage in the chain.
+   */
+  public interface Tier {
+
+    /**
+     * The getName method returns the name of the tier, used in its statistics.
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * The read method returns this tier's copy of the ticker's history.
+     *
+     * @param ticker the ticker for the desired stock
+     * @param stale the first copy found in a tier above that was not fresh, or null
+     * @return the copy, or null if this tier does not hold the ticker
+     */
+    PriceSeries read(String ticker, PriceSeries stale);
+
+    /**
+     * The write method stores a copy found in a tier below this one.
+     *
+     * @param ticker the ticker for the stock
+     * @param series the copy to store
+     */
+    void write(String ticker, PriceSeries series);
+  }
+
+  /**
+   * The Freshness interface decides whether a tier's copy can be used as it is.
+   */
+  public interface Freshness {
+    /** A policy that accepts every copy. */
+    Freshness ALWAYS = series -> true;
+
+    /**
+     * The isFresh method returns whether the given copy can be used as it is.
+     *
+     * @param series the copy
+     * @return true if the copy is fresh
+     */
+    boolean isFresh(PriceSeries series);
+
+    /**
+     * The upToDate method returns a policy that accepts copies whose most recent entry is
+     * today.
+     *
+     * @param clock the clock used to find today's date
+     * @return the policy
+     */
+    static Freshness upToDate(Clock clock) {
+      return series -> !series.getLastDate().isBefore(LocalDate.now(clock));
+    }
+  }
+
+  /**
+   * The TierStats class counts the reads of one tier by outcome and the time they took.
+   */
+  public static final class TierStats {
+    private static final int HIT = 0;
+    private static final int STALE = 1;
+    private static final int MISS = 2;
+
+    private final String name;
+    private final AtomicLong[] counts = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+    private final AtomicLong nanos = new AtomicLong();
+
+    private TierStats(String name) {
+      this.name = name;
+    }
+
+    private void record(long elapsedNanos, int outcome) {
+      counts[outcome].incrementAndGet();
+      nanos.addAndGet(elapsedNanos);
+    }
+
+    /**
+     * The getName method returns the name of the tier.
+     *
+     * @return the name
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * The getHitCount method returns the number of reads answered with a fresh copy.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+      return counts[HIT].get();
+    }
+
+    /**
+     * The getStaleCount method returns the number of reads that found a copy which was not
+     * fresh.
+     *
+     * @return the stale count
+     */
+    public long getStaleCount() {
+      return counts[STALE].get();
+    }
+
+    /**
+     * The getMissCount method returns the number of reads that found no copy or failed.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+      return counts[MISS].get();
+    }
+
+    /**
+     * The getReadCount method returns the number of reads of the tier.
+     *
+     * @return the read count
+     */
+    public long getReadCount() {
+      return getHitCount() + getStaleCount() + getMissCount();
+    }
+
+    /**
+     * The getTotalNanos method returns the time spent reading the tier.
+     *
+     * @return the total time in nanoseconds
+     */
+    public long getTotalNanos() {
+      return nanos.get();
+    }
+
+    /**
+     * The getAverageMillis method returns the average time of a read of the tier.
+     *
+     * @return the average time in milliseconds, 0 if the tier was never read
+     */
+    public double getAverageMillis() {
+      long reads = getReadCount();
+      return reads == 0 ? 0 : getTotalNanos() / 1e6 / reads;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s: %d reads, %d hits, %d stale, %d misses, %.3f ms average",
+              name, getReadCount(), getHitCount(), getStaleCount(), getMissCount(),
+              getAverageMillis());
+    }
+  }
+
+  /**
+   * The Builder class collects the tiers of a chain, from the fastest to the slowest.
+   */
+  public static class Builder {
+    private final List<Tier> tiers = new ArrayList<>();
+    private final List<Freshness> policies = new ArrayList<>();
+
+    /**
+     * The add method appends a tier below the tiers added so far.
+     *
+     * @param tier the tier
+     * @param freshness the policy deciding whether the tier's copies are fresh
+     * @return this builder
+     */
+    public Builder add(Tier tier, Freshness freshness) {
+      tiers.add(tier);
+      policies.add(freshness);
+      return this;
+    }
+
+    /**
+     * The build method returns the chain.
+     *
+     * @return the chain
+     */
+    public TieredStockDataSource build() {
+      if (tiers.isEmpty()) {
+        throw new IllegalArgumentException("** A TIERED SOURCE NEEDS AT LEAST ONE TIER **");
+      }
+      return new TieredStockDataSource(this);
+    }
+  }
+
+  /**
+   * The Shared class holds the shared chain, created on first use.
+   */
+  private static class Shared {
+    private static final TieredStockDataSource instance;
+
+    static {
+      Clock clock = Clock.systemDefaultZone();
+      LocalCSVDataSource local = new LocalCSVDataSource();
+      Freshness upToDate = Freshness.upToDate(clock);
+      instance = new Builder()
+              .add(memoryTier(HistoryCache.getInstance()), Freshness.ALWAYS)
+              .add(binaryTier(local), upToDate)
+              .add(csvTier(local), upToDate)
+              .add(networkTier(new HistoryRefresher(local, FetchScheduler.getInstance(), clock)),
+                      Freshness.ALWAYS)
+              .build();
+    }
+  }
+
+}
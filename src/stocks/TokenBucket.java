@@ -0,0 +1,103 @@
+package stocks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The {@code stocks.TokenBucket} class paces requests to a rate-limited service. The bucket
+ * holds up to a fixed number of tokens and refills at a steady rate; each request takes one
+ * token. A burst of up to the capacity goes through at once, after which requests are spaced
+ * out at the refill rate. Callers that cannot get a token right away reserve the next one and
+ * wait for it, so waiting callers are served in the order they arrived.
+ */
+public class TokenBucket {
+  private final int capacity;
+  private final double tokensPerNano;
+  private final LongSupplier nanoTime;
+  private double tokens;
+  private long lastRefill;
+
+  /**
+   * Constructs a full {@code stocks.TokenBucket}.
+   *
+   * @param capacity the maximum number of tokens (the largest burst)
+   * @param tokensPerSecond the refill rate
+   */
+  public TokenBucket(int capacity, double tokensPerSecond) {
+    this(capacity, tokensPerSecond, System::nanoTime);
+  }
+
+  /**
+   * Constructs a full {@code stocks.TokenBucket} that reads the time from the given source.
+   *
+   * @param capacity the maximum number of tokens (the largest burst)
+   * @param tokensPerSecond the refill rate
+   * @param nanoTime the time source, in nanoseconds
+   */
+  public TokenBucket(int capacity, double tokensPerSecond, LongSupplier nanoTime) {
+    if (capacity <= 0 || !(tokensPerSecond > 0)) {
+      throw new IllegalArgumentException("** TOKEN BUCKET CAPACITY AND RATE MUST BE POSITIVE **");
+    }
+    this.capacity = capacity;
+    this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.nanoTime = nanoTime;
+    this.tokens = capacity;
+    this.lastRefill = nanoTime.getAsLong();
+  }
+
+  /**
+   * The tryAcquire method takes a token if one is available right now.
+   *
+   * @return true if a token was taken
+   */
+  public synchronized boolean tryAcquire() {
+    refill();
+    if (tokens >= 1) {
+      tokens -= 1;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * The acquire method takes a token, waiting until one is available.
+   *
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void acquire() throws InterruptedException {
+    long waitNanos = reserve();
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+
+  /**
+   * The reserve method takes a token, possibly one that has not been refilled yet, and
+   * returns how long the caller must wait before using it.
+   *
+   * @return the wait in nanoseconds, 0 if the token is available now
+   */
+  public synchronized long reserve() {
+    refill();
+    tokens -= 1;
+    return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+  }
+
+  /**
+   * The availableTokens method returns the number of tokens that can be taken right now
+   * (negative if callers are waiting on reserved tokens).
+   *
+   * @return the available tokens
+   */
+  public synchronized double availableTokens() {
+    refill();
+    return tokens;
+  }
+
+  private void refill() {
+    long now = nanoTime.getAsLong();
+    tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+    lastRefill = now;
+  }
+
+}
@@ -0,0 +1,419 @@
+package stocks;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * The {@code stocks.UniverseScreener} class scans every ticker with a CSV file in a data
+ * directory (the "universe") for the ones meeting a condition on a given market day, i.e.
+ * closing above their x-day moving average. Histories are read from the local files only,
+ * memory-mapping their {@link BinaryHistoryFile} where one is up-to-date, and the tickers
+ * are split across a fork-join pool. Each match is handed to the caller as soon as it is
+ * found, and the time spent on every ticker is reported.
+ */
+public class UniverseScreener {
+  // number of tickers below which a task evaluates its tickers instead of splitting further
+  private static final int LEAF_SIZE = 16;
+
+  private final LocalCSVDataSource local;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs a {@code stocks.UniverseScreener} over the CSV files of the given local store,
+   * using the common fork-join pool.
+   *
+   * @param local the local CSV store
+   */
+  public UniverseScreener(LocalCSVDataSource local) {
+    this(local, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructs a {@code stocks.UniverseScreener} over the CSV files of the given local store,
+   * using the given fork-join pool.
+   *
+   * @param local the local CSV store
+   * @param pool the pool that evaluates the tickers
+   */
+  public UniverseScreener(LocalCSVDataSource local, ForkJoinPool pool) {
+    this.local = local;
+    this.pool = pool;
+  }
+
+  /**
+   * The crossover method returns a condition met by a ticker that closed above its x-day
+   * moving average on the day, the same rule as {@link CrossoverEngine}.
+   *
+   * @param days the number of days (x-value)
+   * @return the condition
+   * @throws IllegalArgumentException if the x-value is not positive
+   */
+  public static Condition crossover(int days) throws IllegalArgumentException {
+    if (days <= 0) {
+      throw new IllegalArgumentException("** ENTER A POSITIVE X-VALUE **");
+    }
+    return (series, index) -> series.getClose(index) > series.movingAverage(index, days);
+  }
+
+  /**
+   * The indicatorAbove method returns a condition met by a ticker whose indicator line is
+   * above the given threshold on the day (i.e. RSI above 70).
+   *
+   * @param indicator the indicator
+   * @param params the indicator's parameters
+   * @param line the index of the indicator line
+   * @param threshold the threshold
+   * @return the condition
+   */
+  public static Condition indicatorAbove(IndicatorEngine.Indicator indicator, double[] params,
+                                         int line, double threshold) {
+    indicator.validate(params);
+    return (series, index) -> indicatorValue(series, index, indicator, params, line) > threshold;
+  }
+
+  /**
+   * The indicatorBelow method returns a condition met by a ticker whose indicator line is
+   * below the given threshold on the day (i.e. RSI below 30).
+   *
+   * @param indicator the indicator
+   * @param params the indicator's parameters
+   * @param line the index of the indicator line
+   * @param threshold the threshold
+   * @return the condition
+   */
+  public static Condition indicatorBelow(IndicatorEngine.Indicator indicator, double[] params,
+                                         int line, double threshold) {
+    indicator.validate(params);
+    return (series, index) -> indicatorValue(series, index, indicator, params, line) < threshold;
+  }
+
+  private static double indicatorValue(PriceSeries series, int index,
+                                       IndicatorEngine.Indicator indicator, double[] params,
+                                       int line) {
+    // a private engine per ticker: screened histories are read once, and the shared engine
+    // would serialize the pool and evict the results the user is working with
+    return new IndicatorEngine(1).get("", series, indicator, params).getValue(line, index);
+  }
+
+  /**
+   * The listUniverse method returns the ticker of every CSV file in the data directory, in
+   * alphabetical order.
+   *
+   * @return the tickers
+   */
+  public List<String> listUniverse() {
+    List<String> tickers = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(
+            local.getDirectory().toAbsolutePath(), "*.csv")) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        if (Files.isRegularFile(file)) {
+          tickers.add(name.substring(0, name.length() - ".csv".length()));
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("** UNABLE TO LIST THE STOCK DATA DIRECTORY **");
+    }
+    Collections.sort(tickers);
+    return tickers;
+  }
+
+  /**
+   * The screen method evaluates the condition for every ticker in the universe on the given
+   * date. Only tickers with a market day on exactly that date are evaluated.
+   *
+   * @param date the market day to evaluate
+   * @param condition the condition
+   * @param onMatch receives each match as soon as it is found, from the pool's threads
+   * @return the report of the scan
+   */
+  public Report screen(LocalDate date, Condition condition, Consumer<Match> onMatch) {
+    return screen(listUniverse(), date, condition, onMatch);
+  }
+
+  /**
+   * The screen method evaluates the condition for every given ticker on the given date. Only
+   * tickers with a market day on exactly that date are evaluated. A ticker whose history
+   * cannot be read does not stop the others; it is reported as a failure.
+   *
+   * @param tickers the tickers to evaluate
+   * @param date the market day to evaluate
+   * @param condition the condition
+   * @param onMatch receives each match as soon as it is found, from the pool's threads
+   * @return the report of the scan
+   */
+  public Report screen(List<String> tickers, LocalDate date, Condition condition,
+                       Consumer<Match> onMatch) {
+    ConcurrentLinkedQueue<Timing> timings = new ConcurrentLinkedQueue<>();
+    ConcurrentLinkedQueue<Match> matches = new ConcurrentLinkedQueue<>();
+    long start = System.nanoTime();
+    pool.invoke(new ScreenTask(tickers, 0, tickers.size(), date, condition, match -> {
+      matches.add(match);
+      onMatch.accept(match);
+    }, timings));
+    return new Report(date, new ArrayList<>(matches), new ArrayList<>(timings),
+            System.nanoTime() - start);
+  }
+
+  private Timing evaluate(String ticker, LocalDate date, Condition condition,
+                          Consumer<Match> onMatch) {
+    long start = System.nanoTime();
+    try {
+      PriceSeries series = local.getHistorySeries(ticker);
+      int index = series.indexOf(date);
+      if (index < 0) {
+        return new Timing(ticker, System.nanoTime() - start, Outcome.NO_DATA, null);
+      }
+      if (!condition.test(series, index)) {
+        return new Timing(ticker, System.nanoTime() - start, Outcome.NO_MATCH, null);
+      }
+      onMatch.accept(new Match(ticker, date, series.getClose(index)));
+      return new Timing(ticker, System.nanoTime() - start, Outcome.MATCH, null);
+    } catch (RuntimeException e) {
+      return new Timing(ticker, System.nanoTime() - start, Outcome.FAILED, e.getMessage());
+    }
+  }
+
+  /**
+   * The ScreenTask class evaluates a slice of the tickers, splitting it in half across the
+   * pool until the slices are small.
+   */
+  private class ScreenTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final List<String> tickers;
+    private final int from;
+    private final int to;
+    private final LocalDate date;
+    private final Condition condition;
+    private final Consumer<Match> onMatch;
+    private final ConcurrentLinkedQueue<Timing> timings;
+
+    private ScreenTask(List<String> tickers, int from, int to, LocalDate date,
+                       Condition condition, Consumer<Match> onMatch,
+                       ConcurrentLinkedQueue<Timing> timings) {
+      this.tickers = tickers;
+      this.from = from;
+      this.to = to;
+      this.date = date;
+      this.condition = condition;
+      this.onMatch = onMatch;
+      this.timings = timings;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= LEAF_SIZE) {
+        for (int i = from; i < to; i++) {
+          timings.add(evaluate(tickers.get(i), date, condition, onMatch));
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new ScreenTask(tickers, from, middle, date, condition, onMatch, timings),
+              new ScreenTask(tickers, middle, to, date, condition, onMatch, timings));
+    }
+  }
+
+  /**
+   * The Condition interface decides whether a ticker is a match on a market day.
+   */
+  public interface Condition {
+
+    /**
+     * The test method decides whether the ticker with the given history is a match on the
+     * market day at the given index. It is called from several threads at once.
+     *
+     * @param series the ticker's history
+     * @param index the index of the market day
+     * @return true if the ticker is a match
+     */
+    boolean test(PriceSeries series, int index);
+  }
+
+  /**
+   * The Outcome enum is the result of evaluating one ticker.
+   */
+  public enum Outcome {
+    MATCH,
+    NO_MATCH,
+    NO_DATA,
+    FAILED
+  }
+
+  /**
+   * The Match class is a ticker that met the condition.
+   */
+  public static final class Match {
+    private final String ticker;
+    private final LocalDate date;
+    private final double close;
+
+    private Match(String ticker, LocalDate date, double close) {
+      this.ticker = ticker;
+      this.date = date;
+      this.close = close;
+    }
+
+    public String getTicker() {
+      return ticker;
+    }
+
+    public LocalDate getDate() {
+      return date;
+    }
+
+    public double getClose() {
+      return close;
+    }
+
+    @Override
+    public String toString() {
+      return ticker + " closed at " + String.format("%.2f", close) + " on " + date;
+    }
+  }
+
+  /**
+   * The Timing class is the time spent reading and evaluating one ticker.
+   */
+  public static final class Timing {
+    private final String ticker;
+    private final long nanos;
+    private final Outcome outcome;
+    private final String error;
+
+    private Timing(String ticker, long nanos, Outcome outcome, String error) {
+      this.ticker = ticker;
+      this.nanos = nanos;
+      this.outcome = outcome;
+      this.error = error;
+    }
+
+    public String getTicker() {
+      return ticker;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    public Outcome getOutcome() {
+      return outcome;
+    }
+
+    /**
+     * The getError method returns the message of the exception that stopped the ticker.
+     *
+     * @return the message, or null if the ticker did not fail
+     */
+    public String getError() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s: %.3f ms (%s)", ticker, nanos / 1e6, outcome);
+    }
+  }
+
+  /**
+   * The Report class summarizes a scan: its matches, the timing of every ticker, and the
+   * time the whole scan took.
+   */
+  public static final class Report {
+    private final LocalDate date;
+    private final List<Match> matches;
+    private final List<Timing> timings;
+    private final long elapsedNanos;
+
+    private Report(LocalDate date, List<Match> matches, List<Timing> timings,
+                   long elapsedNanos) {
+      matches.sort(Comparator.comparing(Match::getTicker));
+      timings.sort(Comparator.comparing(Timing::getTicker));
+      this.date = date;
+      this.matches = Collections.unmodifiableList(matches);
+      this.timings = Collections.unmodifiableList(timings);
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * The getMatches method returns the matches, in alphabetical order of ticker.
+     *
+     * @return the matches
+     */
+    public List<Match> getMatches() {
+      return matches;
+    }
+
+    /**
+     * The getTimings method returns the timing of every ticker, in alphabetical order.
+     *
+     * @return the timings
+     */
+    public List<Timing> getTimings() {
+      return timings;
+    }
+
+    /**
+     * The count method returns the number of tickers with the given outcome.
+     *
+     * @param outcome the outcome
+     * @return the number of tickers
+     */
+    public int count(Outcome outcome) {
+      int count = 0;
+      for (Timing timing : timings) {
+        if (timing.outcome == outcome) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    /**
+     * The getSlowest method returns the timings of the slowest tickers, slowest first.
+     *
+     * @param limit the maximum number of tickers
+     * @return the timings
+     */
+    public List<Timing> getSlowest(int limit) {
+      List<Timing> sorted = new ArrayList<>(timings);
+      sorted.sort(Comparator.comparingLong(Timing::getNanos).reversed());
+      return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * The getElapsedNanos method returns the time the whole scan took.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getElapsedNanos() {
+      return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder output = new StringBuilder();
+      output.append(String.format("SCREENED %d TICKERS FOR %s IN %.1f ms: %d MATCHES, "
+                      + "%d WITHOUT DATA ON THAT DAY, %d FAILED", timings.size(), date,
+              elapsedNanos / 1e6, count(Outcome.MATCH), count(Outcome.NO_DATA),
+              count(Outcome.FAILED))).append(System.lineSeparator());
+      output.append("SLOWEST TICKERS:").append(System.lineSeparator());
+      for (Timing timing : getSlowest(5)) {
+        output.append(timing).append(System.lineSeparator());
+      }
+      return output.toString();
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+package mvc;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the LTTB Downsampler.
+ */
+public class DownsamplerTest {
+
+  @Test
+  public void testShortSeriesIsKeptWhole() {
+    assertArrayEquals(new int[]{0, 1, 2, 3}, Downsampler.lttb(new double[]{4, 3, 2, 1}, 4));
+    assertArrayEquals(new int[]{0, 1}, Downsampler.lttb(new double[]{4, 3}, 40));
+    assertArrayEquals(new int[0], Downsampler.lttb(new double[0], 40));
+  }
+
+  @Test
+  public void testKeepsEndsAndCount() {
+    double[] values = new double[3653];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = 100 + Math.sin(i * 0.01) * 20 + Math.cos(i * 0.37) * 3;
+    }
+
+    for (int points : new int[]{2, 3, 40, 500, 3652}) {
+      int[] indexes = Downsampler.lttb(values, points);
+      assertEquals(points, indexes.length);
+      assertEquals(0, indexes[0]);
+      assertEquals(values.length - 1, indexes[points - 1]);
+      for (int i = 1; i < indexes.length; i++) {
+        assertTrue(indexes[i] > indexes[i - 1]);
+      }
+    }
+  }
+
+  @Test
+  public void testKeepsSpikesThatFixedStepsSkip() {
+    double[] values = new double[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = 50;
+    }
+    values[333] = 900;
+    values[777] = -400;
+
+    int[] indexes = Downsampler.lttb(values, 20);
+
+    boolean peak = false;
+    boolean trough = false;
+    for (int index : indexes) {
+      peak |= index == 333;
+      trough |= index == 777;
+    }
+    assertTrue(peak);
+    assertTrue(trough);
+  }
+
+  @Test
+  public void testTooFewPoints() {
+    try {
+      Downsampler.lttb(new double[10], 1);
+      fail("Expected fewer than two points to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** AT LEAST TWO POINTS ARE NEEDED TO PLOT **", e.getMessage());
+    }
+  }
+
+}
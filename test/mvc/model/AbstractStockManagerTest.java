@@ -295,6 +295,20 @@ public abstract class AbstractStockManagerTest<T extends SimpleStockManager> {
     assertEquals(191.276, result, 0.001);
   }
 
+  @Test
+  public void testGetMovingAvgs_MatchesSingleQueries() {
+    String ticker = "MOCK";
+    LocalDate start = LocalDate.of(2024, 5, 29);
+    LocalDate end = LocalDate.of(2024, 6, 5);
+    int days = 3;
+
+    double[] result = mockManager.getMovingAvgs(ticker, start, end, days);
+    assertEquals(6, result.length);
+    assertEquals(190.523, result[1], 0.001);
+    assertEquals(191.276, result[2], 0.001);
+    assertEquals(mockManager.getMovingAvg(ticker, end, days), result[5], 1e-9);
+  }
+
   @Test
   public void testGetMovingAvg_FutureDate() {
     String ticker = "MOCK";
@@ -12,11 +12,17 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 import mvc.DateRange;
+import portfolios.PortfolioFile;
+import portfolios.PortfolioJournal;
+import stocks.BinaryHistoryFile;
+import stocks.IndicatorEngine;
 import stocks.StockData;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -32,6 +38,7 @@ public class AdvancedStockManagerTest extends AbstractStockManagerTest<AdvancedS
   private static final String PORTFOLIOS_DIRECTORY = "./portfolios/"; // Adjust as needed
   private static final String PORTFOLIO_FILE_EXTENSION = ".csv";
   private List<String> createdPortfolioFiles;
+  private List<String> createdTickers;
 
   @Override
   public AdvancedStockManager createMockStockManager() {
@@ -53,6 +60,7 @@ public class AdvancedStockManagerTest extends AbstractStockManagerTest<AdvancedS
   public void setUp() {
     super.setUp();
     createdPortfolioFiles = new ArrayList<>();
+    createdTickers = new ArrayList<>();
     date1 = LocalDate.of(2020, 5, 29);
     date2 = LocalDate.of(2024, 6, 1);
     future = LocalDate.of(2050, 6, 1);
@@ -68,6 +76,186 @@ public class AdvancedStockManagerTest extends AbstractStockManagerTest<AdvancedS
         file.delete();
       }
     }
+    for (String ticker : createdTickers) {
+      new File(ticker + ".csv").delete();
+      new File(ticker + BinaryHistoryFile.EXTENSION).delete();
+    }
+  }
+
+  /**
+   * Writes an up-to-date CSV file for a made-up ticker to the working directory, priced at the
+   * given price on each of the last 30 days, so that it is loaded without the network.
+   */
+  private void writeLocalTicker(String ticker, double price) throws IOException {
+    StringBuilder csv = new StringBuilder("timestamp,open,high,low,close,volume\n");
+    for (int i = 0; i < 30; i++) {
+      csv.append(LocalDate.now().minusDays(i)).append(",").append(price).append(",")
+              .append(price).append(",").append(price).append(",").append(price)
+              .append(",1000\n");
+    }
+    Files.write(Paths.get(ticker + ".csv"), csv.toString().getBytes());
+    createdTickers.add(ticker);
+  }
+
+  private void trackPortfolioFiles(String name) {
+    createdPortfolioFiles.add(name + PORTFOLIO_FILE_EXTENSION);
+    createdPortfolioFiles.add(name + PortfolioFile.EXTENSION);
+    createdPortfolioFiles.add(name + PortfolioJournal.SNAPSHOT_SUFFIX);
+    createdPortfolioFiles.add(name + PortfolioJournal.JOURNAL_SUFFIX);
+  }
+
+  @Test
+  public void testJournalPortfolio_SaveRemoveLoad() throws IOException {
+    writeLocalTicker("ZZJRNL", 10);
+    String name = "JournalTest";
+    trackPortfolioFiles(name);
+    LocalDate today = LocalDate.now();
+
+    realManager.addPortfolio(name);
+    realManager.adjustPortfolioOnDay(name, "ZZJRNL", 10, today.minusDays(5));
+    realManager.journalPortfolio(name);
+    realManager.adjustPortfolioOnDay(name, "ZZJRNL", -2.5, today.minusDays(2));
+    realManager.savePortfolio(name);
+    String composition = realManager.getComposition(name, today);
+    assertTrue(new File(PORTFOLIOS_DIRECTORY + name + PortfolioJournal.SNAPSHOT_SUFFIX).exists());
+    assertTrue(checkPortfolioFileExists(name));
+
+    // replayed from the snapshot and the journal, and still journaled once loaded
+    realManager.removePortfolio(name);
+    realManager.loadPortfolio(name);
+    assertEquals(composition, realManager.getComposition(name, today));
+    assertEquals(75.0, realManager.getPortfolioValue(name, today), 0.001);
+
+    realManager.adjustPortfolioOnDay(name, "ZZJRNL", 1, today.minusDays(1));
+    realManager.savePortfolio(name);
+    realManager.removePortfolio(name);
+    realManager.loadPortfolio(name);
+    assertEquals(85.0, realManager.getPortfolioValue(name, today), 0.001);
+    assertEquals(85.0, realManager.getPortfolioValue(name, today.minusDays(1)), 0.001);
+    assertEquals(75.0, realManager.getPortfolioValue(name, today.minusDays(2)), 0.001);
+  }
+
+  @Test
+  public void testJournalPortfolio_SaveStillWritesCsv() throws IOException {
+    writeLocalTicker("ZZJRNL", 10);
+    String name = "JournalTest";
+    trackPortfolioFiles(name);
+    LocalDate today = LocalDate.now();
+
+    realManager.addPortfolio(name);
+    realManager.journalPortfolio(name);
+    realManager.adjustPortfolioOnDay(name, "ZZJRNL", 4, today.minusDays(3));
+    realManager.adjustPortfolioOnDay(name, "ZZJRNL", 0.5, today.minusDays(1));
+    realManager.savePortfolio(name);
+    String composition = realManager.getComposition(name, today);
+    realManager.removePortfolio(name);
+
+    // without the journal the portfolio is replayed from the CSV export
+    Files.delete(Paths.get(PORTFOLIOS_DIRECTORY + name + PortfolioJournal.SNAPSHOT_SUFFIX));
+    Files.deleteIfExists(Paths.get(PORTFOLIOS_DIRECTORY + name + PortfolioJournal.JOURNAL_SUFFIX));
+    Files.deleteIfExists(Paths.get(PORTFOLIOS_DIRECTORY + name + PortfolioFile.EXTENSION));
+    realManager.loadPortfolio(name);
+    assertEquals(composition, realManager.getComposition(name, today));
+    assertEquals(45.0, realManager.getPortfolioValue(name, today), 0.001);
+    assertFalse(new File(PORTFOLIOS_DIRECTORY + name + PortfolioJournal.SNAPSHOT_SUFFIX).exists());
+  }
+
+  private Path portfolioPath(String name, String extension) {
+    return Paths.get(PORTFOLIOS_DIRECTORY + name + extension);
+  }
+
+  private boolean binaryIsValid(String name) {
+    return PortfolioFile.read(portfolioPath(name, PortfolioFile.EXTENSION),
+            portfolioPath(name, PORTFOLIO_FILE_EXTENSION)) != null;
+  }
+
+  @Test
+  public void testLoadPortfolio_BinaryMatchesCsvReplay() throws IOException {
+    writeLocalTicker("ZZBINA", 10);
+    writeLocalTicker("ZZBINB", 4);
+    String name = "BinaryTest";
+    trackPortfolioFiles(name);
+    LocalDate today = LocalDate.now();
+
+    realManager.addPortfolio(name);
+    realManager.adjustPortfolioOnDay(name, "ZZBINA", 3, today.minusDays(6));
+    realManager.adjustPortfolioOnDay(name, "ZZBINB", 2.75, today.minusDays(4));
+    realManager.adjustPortfolioOnDay(name, "ZZBINA", -0.5, today.minusDays(2));
+    realManager.savePortfolio(name);
+    realManager.removePortfolio(name);
+
+    // loaded from the binary copy written with the CSV file
+    assertTrue(binaryIsValid(name));
+    realManager.loadPortfolio(name);
+    String composition = realManager.getComposition(name, today);
+    String earlier = realManager.getComposition(name, today.minusDays(3));
+    double value = realManager.getPortfolioValue(name, today);
+    assertEquals(36.0, value, 0.001);
+    realManager.removePortfolio(name);
+
+    // and the same portfolio replayed from the CSV file alone
+    Files.delete(portfolioPath(name, PortfolioFile.EXTENSION));
+    realManager.loadPortfolio(name);
+    assertEquals(composition, realManager.getComposition(name, today));
+    assertEquals(earlier, realManager.getComposition(name, today.minusDays(3)));
+    assertEquals(value, realManager.getPortfolioValue(name, today), 0.001);
+  }
+
+  @Test
+  public void testLoadPortfolio_EditedCsvIgnoresStaleBinary() throws IOException {
+    writeLocalTicker("ZZBINA", 10);
+    String name = "BinaryTest";
+    trackPortfolioFiles(name);
+    LocalDate today = LocalDate.now();
+
+    realManager.addPortfolio(name);
+    realManager.adjustPortfolioOnDay(name, "ZZBINA", 1.25, today.minusDays(5));
+    realManager.savePortfolio(name);
+    realManager.removePortfolio(name);
+
+    Files.write(portfolioPath(name, PORTFOLIO_FILE_EXTENSION),
+            ("ZZBINA,Buy,2.0,3.25," + today.minusDays(1) + System.lineSeparator()).getBytes(),
+            StandardOpenOption.APPEND);
+    assertFalse(binaryIsValid(name));
+
+    realManager.loadPortfolio(name);
+    assertEquals(32.5, realManager.getPortfolioValue(name, today), 0.001);
+    assertEquals(12.5, realManager.getPortfolioValue(name, today.minusDays(2)), 0.001);
+    // the stale copy is rewritten from the edited CSV file
+    assertTrue(binaryIsValid(name));
+  }
+
+  @Test
+  public void testLoadPortfolio_NeverSavedThenReloaded() throws IOException {
+    writeLocalTicker("ZZBINA", 10);
+    String name = "BinaryTest";
+    trackPortfolioFiles(name);
+    LocalDate today = LocalDate.now();
+
+    new File(PORTFOLIOS_DIRECTORY).mkdirs();
+    Files.write(portfolioPath(name, PORTFOLIO_FILE_EXTENSION),
+            ("Ticker,Transaction,Shares,TotalShares,Date" + System.lineSeparator()
+                    + "ZZBINA,Buy,0.75,0.75," + today.minusDays(3) + System.lineSeparator())
+                    .getBytes());
+    assertFalse(Files.exists(portfolioPath(name, PortfolioFile.EXTENSION)));
+
+    // loading the CSV file writes the binary copy, which the next load reads
+    realManager.loadPortfolio(name);
+    assertTrue(binaryIsValid(name));
+    realManager.removePortfolio(name);
+    realManager.loadPortfolio(name);
+    assertEquals(7.5, realManager.getPortfolioValue(name, today), 0.001);
+    assertEquals(0.0, realManager.getPortfolioValue(name, today.minusDays(4)), 0.001);
+  }
+
+  @Test
+  public void testJournalPortfolio_InvalidPortfolioName() {
+    try {
+      realManager.journalPortfolio("Missing");
+      fail("Expected IllegalArgumentException for a missing portfolio");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** NO SUCH PORTFOLIO FOUND **", e.getMessage());
+    }
   }
 
 
@@ -395,6 +583,7 @@ public class AdvancedStockManagerTest extends AbstractStockManagerTest<AdvancedS
     // Save portfolio
     realManager.savePortfolio(portfolioName);
     createdPortfolioFiles.add(portfolioName + PORTFOLIO_FILE_EXTENSION);
+    createdPortfolioFiles.add(portfolioName + PortfolioFile.EXTENSION);
 
     //Remove Portfolio
     realManager.removePortfolio(portfolioName);
@@ -907,27 +1096,59 @@ public class AdvancedStockManagerTest extends AbstractStockManagerTest<AdvancedS
     }
   }
 
+  @Test
+  public void testGetIndicatorOnDay_Ema() {
+    // 3-day EMA seeded with the average of 5/22, 5/23 and 5/24
+    double ema = (190.90 + 186.88 + 189.98) / 3;
+    for (double close : new double[]{189.99, 190.29, 191.29, 192.25, 194.03, 194.35}) {
+      ema += 0.5 * (close - ema);
+    }
 
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
+    double[] result = mockManager.getIndicatorOnDay("MOCK", IndicatorEngine.Indicator.EMA,
+            new double[]{3}, LocalDate.of(2024, 6, 4));
+    assertEquals(1, result.length);
+    assertEquals(ema, result[0], 1e-9);
+  }
 
+  @Test
+  public void testGetIndicatorOnDay_TooLittleHistory() {
+    double[] result = mockManager.getIndicatorOnDay("MOCK", IndicatorEngine.Indicator.MACD,
+            null, LocalDate.of(2024, 6, 5));
+    assertEquals(3, result.length);
+    assertTrue(Double.isNaN(result[0]));
+  }
 
+  @Test
+  public void testGetIndicator_Bollinger() {
+    String result = mockManager.getIndicator("MOCK", IndicatorEngine.Indicator.BOLLINGER,
+            new double[]{3, 2}, LocalDate.of(2024, 5, 22), LocalDate.of(2024, 5, 24));
+
+    String[] rows = result.split(System.lineSeparator());
+    assertEquals(3, rows.length);
+    assertEquals("2024-05-24: MIDDLE 189.25, UPPER 192.69, LOWER 185.81", rows[0]);
+    assertEquals("2024-05-22: MIDDLE N/A, UPPER N/A, LOWER N/A", rows[2]);
+  }
 
+  @Test
+  public void testGetIndicator_InvalidParams() {
+    try {
+      mockManager.getIndicator("MOCK", IndicatorEngine.Indicator.RSI, new double[]{0},
+              LocalDate.of(2024, 5, 22), LocalDate.of(2024, 6, 5));
+      fail("Expected invalid parameters to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** INVALID PARAMETERS FOR RSI **", e.getMessage());
+    }
+  }
 
+  @Test
+  public void testGetIndicator_FutureDate() {
+    try {
+      mockManager.getIndicator("MOCK", IndicatorEngine.Indicator.RSI, null,
+              LocalDate.of(2024, 5, 22), future);
+      fail("Expected an exception for a future date");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **", e.getMessage());
+    }
+  }
 
+}
@@ -59,7 +59,9 @@ public class MockTestsForOutputs {
             "- '3' : BUY/SELL                - '9' : LOAD\n" +
             "- '4' : VALUE                   - 'a' : RE-BALANCE\n" +
             "- '5' : COMPOSITION             - 'b' : PLOT\n" +
-            "- '6' : LIST ALL PORTFOLIOS     - 'm' : MAIN MENU";
+            "- '6' : LIST ALL PORTFOLIOS     - 'c' : CORRELATION\n" +
+            "                                - 'd' : JOURNAL\n" +
+            "                                - 'm' : MAIN MENU";
     quit = "Thank you for using this stock program!";
   }
 
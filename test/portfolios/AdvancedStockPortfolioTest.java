@@ -6,8 +6,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 
@@ -213,24 +217,40 @@ public class AdvancedStockPortfolioTest extends AbstractPortfolioTest<AdvancedSt
 
     // Plot for different date ranges
     String plotMonth = portfolio.plot(month);
+    // a month fits in the plot, so every day is shown
     assertEquals(plotMonth,
             "Performance of portfolio from 2024-05-13 to 2024-06-13\n" +
                     "\n" +
                     "May 13, 2024     : \n" +
+                    "May 14, 2024     : \n" +
                     "May 15, 2024     : \n" +
+                    "May 16, 2024     : \n" +
                     "May 17, 2024     : \n" +
+                    "May 18, 2024     : \n" +
                     "May 19, 2024     : \n" +
+                    "May 20, 2024     : \n" +
                     "May 21, 2024     : \n" +
+                    "May 22, 2024     : \n" +
                     "May 23, 2024     : \n" +
+                    "May 24, 2024     : \n" +
                     "May 25, 2024     : \n" +
+                    "May 26, 2024     : \n" +
                     "May 27, 2024     : \n" +
+                    "May 28, 2024     : \n" +
                     "May 29, 2024     : \n" +
+                    "May 30, 2024     : \n" +
                     "May 31, 2024     : \n" +
+                    "Jun 1, 2024      : ***************************\n" +
                     "Jun 2, 2024      : ***************************\n" +
+                    "Jun 3, 2024      : ****************************\n" +
                     "Jun 4, 2024      : ****************************\n" +
+                    "Jun 5, 2024      : ****************************\n" +
                     "Jun 6, 2024      : ****************************\n" +
+                    "Jun 7, 2024      : ****************************\n" +
                     "Jun 8, 2024      : ****************************\n" +
+                    "Jun 9, 2024      : ****************************\n" +
                     "Jun 10, 2024     : ****************************\n" +
+                    "Jun 11, 2024     : *****************************\n" +
                     "Jun 12, 2024     : ******************************\n" +
                     "Jun 13, 2024     : ******************************\n" +
                     "\n" +
@@ -249,25 +269,7 @@ public class AdvancedStockPortfolioTest extends AbstractPortfolioTest<AdvancedSt
 
     // Plot for different date ranges
     String plotYear = portfolio.plot(year);
-    assertEquals(plotYear,
-            "Performance of portfolio from 2023-06-13 to 2024-06-13\n" +
-                    "\n" +
-                    "Jun 13, 2023     : \n" +
-                    "Jul 13, 2023     : \n" +
-                    "Aug 12, 2023     : \n" +
-                    "Sep 11, 2023     : \n" +
-                    "Oct 11, 2023     : \n" +
-                    "Nov 10, 2023     : \n" +
-                    "Dec 10, 2023     : \n" +
-                    "Jan 9, 2024      : \n" +
-                    "Feb 8, 2024      : \n" +
-                    "Mar 9, 2024      : \n" +
-                    "Apr 8, 2024      : \n" +
-                    "May 8, 2024      : \n" +
-                    "Jun 7, 2024      : ****************************\n" +
-                    "Jun 13, 2024     : ******************************\n" +
-                    "\n" +
-                    "Scale: * = $100.0");
+    assertDownsampledPlot(plotYear, LocalDate.parse("2023-06-13"), LocalDate.of(2024, 6, 13));
   }
 
   @Test
@@ -282,25 +284,7 @@ public class AdvancedStockPortfolioTest extends AbstractPortfolioTest<AdvancedSt
 
     // Plot for different date ranges
     String plotFiveYears = portfolio.plot(fiveYears);
-    assertEquals(plotFiveYears,
-            "Performance of portfolio from 2019-06-13 to 2024-06-13\n" +
-                    "\n" +
-                    "Jun 13, 2019     : \n" +
-                    "Nov 12, 2019     : \n" +
-                    "Apr 12, 2020     : \n" +
-                    "Sep 11, 2020     : \n" +
-                    "Feb 10, 2021     : \n" +
-                    "Jul 12, 2021     : \n" +
-                    "Dec 11, 2021     : \n" +
-                    "May 12, 2022     : \n" +
-                    "Oct 11, 2022     : \n" +
-                    "Mar 12, 2023     : \n" +
-                    "Aug 11, 2023     : \n" +
-                    "Jan 10, 2024     : \n" +
-                    "Jun 10, 2024     : ****************************\n" +
-                    "Jun 13, 2024     : ******************************\n" +
-                    "\n" +
-                    "Scale: * = $100.0");
+    assertDownsampledPlot(plotFiveYears, LocalDate.parse("2019-06-13"), LocalDate.of(2024, 6, 13));
   }
 
   @Test
@@ -315,25 +299,7 @@ public class AdvancedStockPortfolioTest extends AbstractPortfolioTest<AdvancedSt
 
     // Plot for different date ranges
     String plotTenYears = portfolio.plot(tenYears);
-    assertEquals(plotTenYears,
-            "Performance of portfolio from 2014-06-13 to 2024-06-13\n" +
-                    "\n" +
-                    "Jun 13, 2014     : \n" +
-                    "Apr 9, 2015      : \n" +
-                    "Feb 3, 2016      : \n" +
-                    "Nov 29, 2016     : \n" +
-                    "Sep 25, 2017     : \n" +
-                    "Jul 22, 2018     : \n" +
-                    "May 18, 2019     : \n" +
-                    "Mar 13, 2020     : \n" +
-                    "Jan 7, 2021      : \n" +
-                    "Nov 3, 2021      : \n" +
-                    "Aug 30, 2022     : \n" +
-                    "Jun 26, 2023     : \n" +
-                    "Apr 21, 2024     : \n" +
-                    "Jun 13, 2024     : ******************************\n" +
-                    "\n" +
-                    "Scale: * = $100.0");
+    assertDownsampledPlot(plotTenYears, LocalDate.parse("2014-06-13"), LocalDate.of(2024, 6, 13));
   }
 
   @Test
@@ -478,9 +444,47 @@ public class AdvancedStockPortfolioTest extends AbstractPortfolioTest<AdvancedSt
     }
   }
 
-}
-
+  @Test
+  public void testGetDailyValuesMatchesGetValue() {
+    AdvancedStockPortfolio portfolio = new AdvancedStockPortfolio();
+    portfolio.adjustStockOnDay("AAPL", 10, date1);
+    portfolio.adjustStockOnDay("GOOG", 5, date1.plusDays(6));
+    portfolio.adjustStockOnDay("AAPL", -4, date1.plusDays(13));
 
+    LocalDate start = date1.minusDays(3);
+    double[] values = portfolio.getDailyValues(start, date1.plusDays(20));
 
+    assertEquals(24, values.length);
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(portfolio.getValue(start.plusDays(i)), values[i], 0.001);
+    }
+  }
 
+  /**
+   * Checks a plot of a range too long to show day by day: it is downsampled to 40 rows from
+   * the start to the end date, nothing is held before the purchases on 2024-06-01, and the
+   * peak of the performance is kept.
+   */
+  private static void assertDownsampledPlot(String plot, LocalDate start, LocalDate end) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MMM d, yyyy");
+    String[] lines = plot.split("\n");
+    assertEquals("Performance of portfolio from " + start + " to " + end, lines[0]);
+    assertEquals("Scale: * = $100.0", lines[lines.length - 1]);
+
+    List<String> rows = Arrays.asList(lines).subList(2, lines.length - 2);
+    assertEquals(40, rows.size());
+    assertTrue(rows.get(0).startsWith(start.format(formatter) + " "));
+    assertTrue(rows.get(rows.size() - 1).startsWith(end.format(formatter) + " "));
+    int peak = 0;
+    for (String row : rows) {
+      LocalDate date = LocalDate.parse(row.substring(0, row.indexOf(':')).trim(), formatter);
+      int stars = row.length() - row.indexOf(':') - 2;
+      if (date.isBefore(LocalDate.of(2024, 6, 1))) {
+        assertEquals(0, stars);
+      }
+      peak = Math.max(peak, stars);
+    }
+    assertEquals(30, peak);
+  }
 
+}
@@ -0,0 +1,119 @@
+package portfolios;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import stocks.BetterStock;
+import stocks.PriceSeries;
+import stocks.SimpleStock;
+
+/**
+ * A stock for the portfolio tests, priced at a constant price every day from 2023-02-19 to
+ * 2023-03-20 so that no data is loaded. Its initial shares are bought on one date, and every
+ * transaction is recorded both as epoch days and shares and as rows of a portfolio file.
+ */
+class FixedStock extends SimpleStock implements BetterStock {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2023, 2, 19);
+  private static final int DAYS = 30;
+
+  private final List<Integer> days;
+  private final List<Double> amounts;
+  private final StringBuilder transactions;
+
+  /**
+   * Constructs a FixedStock.
+   *
+   * @param ticker the ticker
+   * @param price the price on every day
+   * @param shares the shares bought on the given date, none if 0
+   * @param bought the date the shares are bought
+   */
+  FixedStock(String ticker, double price, double shares, LocalDate bought) {
+    super(ticker, history(price));
+    this.days = new ArrayList<>();
+    this.amounts = new ArrayList<>();
+    this.transactions = new StringBuilder();
+    if (shares != 0) {
+      adjustSharesOnDay(shares, bought);
+    }
+  }
+
+  private static PriceSeries history(double price) {
+    PriceSeries.Builder builder = new PriceSeries.Builder(DAYS);
+    for (int i = 0; i < DAYS; i++) {
+      builder.add(FIRST_DAY.plusDays(i), price, price, price, price, 1000);
+    }
+    return builder.build();
+  }
+
+  @Override
+  public void adjustSharesOnDay(double shares, LocalDate date) {
+    adjustShares(shares);
+    days.add((int) date.toEpochDay());
+    amounts.add(shares);
+    transactions.append(getTicker()).append(shares < 0 ? ",Sell," : ",Buy,").append(shares)
+            .append(",").append(getShares()).append(",").append(date)
+            .append(System.lineSeparator());
+  }
+
+  @Override
+  public void addTransactions(int[] days, double[] shares) {
+    for (int i = 0; i < days.length; i++) {
+      adjustSharesOnDay(shares[i], LocalDate.ofEpochDay(days[i]));
+    }
+  }
+
+  @Override
+  public int getTransactionCount() {
+    return days.size();
+  }
+
+  @Override
+  public int getTransactionDay(int index) {
+    return days.get(index);
+  }
+
+  @Override
+  public double getTransactionShares(int index) {
+    return amounts.get(index);
+  }
+
+  @Override
+  public double getSharesOnDay(LocalDate date) {
+    double shares = 0.0;
+    for (int i = 0; i < days.size(); i++) {
+      if (days.get(i) <= date.toEpochDay()) {
+        shares += amounts.get(i);
+      }
+    }
+    return shares;
+  }
+
+  @Override
+  public double getValueOnDate(LocalDate date) {
+    return getSharesOnDay(date) * getPriceOnDay(date);
+  }
+
+  @Override
+  public void addValuesInRange(LocalDate start, double[] values) {
+    for (int i = 0; i < values.length; i++) {
+      values[i] += getValueOnDate(start.plusDays(i));
+    }
+  }
+
+  @Override
+  public String getTransactions() {
+    return transactions.toString();
+  }
+
+  @Override
+  public void rebalanceStock(double expectedValue, LocalDate date) {
+    adjustSharesOnDay(expectedValue / getPriceOnDay(date) - getSharesOnDay(date), date);
+  }
+
+  @Override
+  public PriceSeries getHistory() {
+    return historicalData;
+  }
+}
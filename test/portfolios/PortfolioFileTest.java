@@ -0,0 +1,119 @@
+package portfolios;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import stocks.BetterStock;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The PortfolioFileTest class represents tests for the binary portfolio file. These tests use
+ * temporary files and do not need the API.
+ */
+public class PortfolioFileTest {
+  private static final LocalDate DATE = LocalDate.of(2023, 3, 1);
+
+  private Path directory;
+  private Path csv;
+  private Path binary;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("portfolio");
+    csv = directory.resolve("Tech.csv");
+    binary = directory.resolve("Tech" + PortfolioFile.EXTENSION);
+    Files.write(csv, "Ticker,Transaction,Shares,TotalShares,Date\n"
+            .getBytes(StandardCharsets.UTF_8));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  private static List<BetterStock> stocks() {
+    FixedStock aapl = new FixedStock("AAPL", 200, 10, DATE.plusDays(5));
+    aapl.adjustSharesOnDay(-2.75, DATE.plusDays(9));
+    aapl.adjustSharesOnDay(1.0 / 3, DATE.plusDays(7));
+    FixedStock goog = new FixedStock("GOOG", 100, 123456789, DATE);
+    goog.adjustSharesOnDay(-123456788, DATE.plusDays(12));
+    return Arrays.<BetterStock>asList(aapl, goog, new FixedStock("PFE", 25, 0, DATE));
+  }
+
+  @Test
+  public void testRoundTrip() {
+    assertTrue(PortfolioFile.write(binary, csv, stocks()));
+    PortfolioFile read = PortfolioFile.read(binary, csv);
+
+    assertNotNull(read);
+    assertEquals(Arrays.asList("AAPL", "GOOG", "PFE"), read.getTickers());
+    assertArrayEquals(new int[]{(int) DATE.plusDays(5).toEpochDay(),
+        (int) DATE.plusDays(9).toEpochDay(), (int) DATE.plusDays(7).toEpochDay()},
+            read.getDays(0));
+    assertArrayEquals(new double[]{10, -2.75, 1.0 / 3}, read.getShares(0), 0.0);
+    assertArrayEquals(new double[]{123456789, -123456788}, read.getShares(1), 0.0);
+    assertEquals(0, read.getDays(2).length);
+  }
+
+  @Test
+  public void testCompactRecords() throws IOException {
+    FixedStock stock = new FixedStock("AAPL", 200, 0, DATE);
+    int count = 200_000;
+    int[] days = new int[count];
+    double[] shares = new double[count];
+    for (int i = 0; i < count; i++) {
+      days[i] = (int) DATE.toEpochDay() + i % 20;
+      shares[i] = i % 3 == 0 ? 7 : 1;
+    }
+    stock.addTransactions(days, shares);
+
+    assertTrue(PortfolioFile.write(binary, csv, Arrays.<BetterStock>asList(stock)));
+    // one byte each for the ticker index, the day change and the shares
+    assertTrue(Files.size(binary) < 3L * count + 64);
+    PortfolioFile read = PortfolioFile.read(binary, csv);
+    assertArrayEquals(days, read.getDays(0));
+    assertArrayEquals(shares, read.getShares(0), 0.0);
+  }
+
+  @Test
+  public void testIgnoredOnceCsvChanges() throws IOException {
+    assertTrue(PortfolioFile.write(binary, csv, stocks()));
+    Files.setLastModifiedTime(csv, FileTime.fromMillis(
+            Files.getLastModifiedTime(csv).toMillis() + 5000));
+
+    assertNull(PortfolioFile.read(binary, csv));
+  }
+
+  @Test
+  public void testIgnoredWhenCorrupt() throws IOException {
+    assertTrue(PortfolioFile.write(binary, csv, stocks()));
+    byte[] bytes = Files.readAllBytes(binary);
+    bytes[bytes.length / 2] ^= 0x10;
+    Files.write(binary, bytes);
+
+    assertNull(PortfolioFile.read(binary, csv));
+    assertNull(PortfolioFile.read(directory.resolve("Missing" + PortfolioFile.EXTENSION), csv));
+  }
+
+}
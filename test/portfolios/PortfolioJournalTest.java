@@ -0,0 +1,175 @@
+package portfolios;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import stocks.BetterStock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The PortfolioJournalTest class represents tests for PortfolioJournal objects and associated
+ * methods. These tests use temporary files and do not need the API.
+ */
+public class PortfolioJournalTest {
+  private static final LocalDate DATE = LocalDate.of(2023, 3, 1);
+
+  private Path directory;
+  private Path journalFile;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("journal");
+    journalFile = directory.resolve("Tech" + PortfolioJournal.JOURNAL_SUFFIX);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  private PortfolioJournal journal() {
+    return new PortfolioJournal(directory.toFile(), "Tech", 2, 1000);
+  }
+
+  private static void assertEntry(PortfolioJournal.Entry entry, String ticker, double shares,
+                                  LocalDate date) {
+    assertEquals(ticker, entry.getTicker());
+    assertEquals(shares, entry.getShares(), 0.0);
+    assertEquals(date, entry.getDate());
+  }
+
+  @Test
+  public void testReplaysSnapshotThenTail() {
+    FixedStock aapl = new FixedStock("AAPL", 200, 10, DATE);
+    PortfolioJournal journal = journal();
+    assertFalse(PortfolioJournal.exists(directory.toFile(), "Tech"));
+    assertTrue(journal.isSnapshotDue());
+    journal.snapshot(Collections.<BetterStock>singletonList(aapl));
+    assertFalse(journal.isSnapshotDue());
+
+    journal.append("AAPL", -2.5, DATE.plusDays(1));
+    journal.append("PFE", 1.0 / 3, DATE.plusDays(2));
+    journal.append("AAPL", 4, DATE.plusDays(3));
+    journal.close();
+
+    assertTrue(PortfolioJournal.exists(directory.toFile(), "Tech"));
+    List<PortfolioJournal.Entry> entries = journal().read();
+    assertEquals(4, entries.size());
+    assertEntry(entries.get(0), "AAPL", 10, DATE);
+    assertEntry(entries.get(1), "AAPL", -2.5, DATE.plusDays(1));
+    assertEntry(entries.get(2), "PFE", 1.0 / 3, DATE.plusDays(2));
+    assertEntry(entries.get(3), "AAPL", 4, DATE.plusDays(3));
+  }
+
+  @Test
+  public void testSnapshotEmptiesJournalAndKeepsNumbering() throws IOException {
+    FixedStock aapl = new FixedStock("AAPL", 200, 10, DATE);
+    PortfolioJournal journal = journal();
+    journal.snapshot(Collections.<BetterStock>singletonList(aapl));
+    journal.append("AAPL", 5, DATE.plusDays(1));
+    aapl.adjustSharesOnDay(5, DATE.plusDays(1));
+    journal.snapshot(Collections.<BetterStock>singletonList(aapl));
+    assertEquals(0, Files.size(journalFile));
+
+    journal.append("AAPL", -1, DATE.plusDays(2));
+    journal.close();
+    assertTrue(new String(Files.readAllBytes(journalFile), StandardCharsets.UTF_8)
+            .startsWith("2,AAPL,-1.0,"));
+
+    List<PortfolioJournal.Entry> entries = journal().read();
+    assertEquals(3, entries.size());
+    assertEntry(entries.get(1), "AAPL", 5, DATE.plusDays(1));
+    assertEntry(entries.get(2), "AAPL", -1, DATE.plusDays(2));
+  }
+
+  @Test
+  public void testRecordsAlreadyInSnapshotAreNotReplayed() throws IOException {
+    FixedStock aapl = new FixedStock("AAPL", 200, 10, DATE);
+    PortfolioJournal journal = journal();
+    journal.snapshot(Collections.<BetterStock>singletonList(aapl));
+    journal.append("AAPL", 5, DATE.plusDays(1));
+    journal.close();
+    byte[] tail = Files.readAllBytes(journalFile);
+
+    // a crash after the snapshot was moved into place but before the journal was emptied
+    aapl.adjustSharesOnDay(5, DATE.plusDays(1));
+    PortfolioJournal reopened = journal();
+    reopened.read();
+    reopened.snapshot(Collections.<BetterStock>singletonList(aapl));
+    reopened.close();
+    Files.write(journalFile, tail);
+
+    List<PortfolioJournal.Entry> entries = journal().read();
+    assertEquals(2, entries.size());
+    assertEntry(entries.get(0), "AAPL", 10, DATE);
+    assertEntry(entries.get(1), "AAPL", 5, DATE.plusDays(1));
+  }
+
+  @Test
+  public void testRecordCutOffByCrashIsDropped() throws IOException {
+    PortfolioJournal journal = journal();
+    journal.snapshot(Collections.<BetterStock>emptyList());
+    journal.append("AAPL", 3, DATE);
+    journal.close();
+    Files.write(journalFile, "2,GOOG,1".getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+
+    PortfolioJournal reopened = journal();
+    assertEquals(1, reopened.read().size());
+    reopened.append("GOOG", 7, DATE.plusDays(1));
+    reopened.close();
+
+    List<PortfolioJournal.Entry> entries = journal().read();
+    assertEquals(2, entries.size());
+    assertEntry(entries.get(1), "GOOG", 7, DATE.plusDays(1));
+  }
+
+  @Test
+  public void testSnapshotDueAfterBatch() {
+    PortfolioJournal journal = new PortfolioJournal(directory.toFile(), "Tech", 1, 3);
+    journal.snapshot(Arrays.<BetterStock>asList(new FixedStock("AAPL", 200, 10, DATE)));
+    journal.append("AAPL", 1, DATE);
+    journal.append("AAPL", 1, DATE);
+    assertFalse(journal.isSnapshotDue());
+    journal.append("AAPL", 1, DATE);
+    assertTrue(journal.isSnapshotDue());
+    journal.close();
+  }
+
+  @Test
+  public void testMalformedJournal() throws IOException {
+    PortfolioJournal journal = journal();
+    journal.snapshot(Collections.<BetterStock>emptyList());
+    journal.close();
+    Files.write(journalFile, "1,AAPL,ten,2023-03-01\n".getBytes(StandardCharsets.UTF_8));
+
+    try {
+      journal().read();
+      fail("Expected a malformed journal to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** PORTFOLIO JOURNAL IS NOT PROPERLY FORMATTED **", e.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,135 @@
+package portfolios;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * The RebalancePlanTest class represents tests for RebalancePlan and PortfolioSnapshot objects.
+ * Plans are made over in-memory stocks with a constant price, so no data is loaded.
+ */
+public class RebalancePlanTest {
+  private static final LocalDate BOUGHT = LocalDate.of(2023, 3, 1);
+  private static final LocalDate DATE = LocalDate.of(2023, 3, 10);
+
+  private static PortfolioSnapshot snapshot() {
+    return PortfolioSnapshot.composition(Arrays.asList(
+            new FixedStock("AAPL", 200, 10, BOUGHT),
+            new FixedStock("PFE", 25, 40, BOUGHT),
+            new FixedStock("GOOG", 100, 5, DATE.plusDays(1)),
+            new FixedStock("MSFT", 400, 5, BOUGHT)), DATE);
+  }
+
+  @Test
+  public void testSnapshotLeavesOutStocksNotHeld() {
+    PortfolioSnapshot snapshot = snapshot();
+
+    assertEquals(DATE, snapshot.getDate());
+    assertEquals(3, snapshot.size());
+    assertEquals("AAPL", snapshot.getTicker(0));
+    assertEquals("PFE", snapshot.getTicker(1));
+    assertEquals("MSFT", snapshot.getTicker(2));
+    assertEquals(40.0, snapshot.getShares(1), 0.0);
+    assertEquals(25.0, snapshot.getPrice(1), 0.0);
+    assertEquals(1000.0, snapshot.getValue(1), 0.0);
+    assertEquals(5000.0, snapshot.getTotal(), 0.0);
+  }
+
+  @Test
+  public void testValuationChecksStocksNotHeld() {
+    // GOOG's history starts 2023-02-19, before it is bought
+    LocalDate early = LocalDate.of(2023, 2, 1);
+    assertEquals(0, PortfolioSnapshot.composition(Arrays.asList(
+            new FixedStock("GOOG", 100, 5, DATE)), early).size());
+    try {
+      PortfolioSnapshot.valuation(Arrays.asList(new FixedStock("GOOG", 100, 5, DATE)), early);
+      fail("Expected a date before the history to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** NO DATA AVAILABLE FOR 2023-02-01 TRY A MORE RECENT DATE **",
+              e.getMessage());
+    }
+
+    PortfolioSnapshot snapshot = PortfolioSnapshot.valuation(Arrays.asList(
+            new FixedStock("AAPL", 200, 10, BOUGHT),
+            new FixedStock("GOOG", 100, 5, DATE.plusDays(1))), DATE);
+    assertEquals(1, snapshot.size());
+    assertEquals(2000.0, snapshot.getTotal(), 0.0);
+  }
+
+  @Test
+  public void testPlanReachesEveryTarget() {
+    PortfolioSnapshot snapshot = snapshot();
+    RebalancePlan plan = RebalancePlan.of(snapshot, new double[]{1, 1, 2});
+
+    assertEquals(3, plan.size());
+    assertEquals(DATE, plan.getDate());
+    assertEquals(1250.0, plan.getTargetValue(0), 1e-9);
+    assertEquals(1250.0, plan.getTargetValue(1), 1e-9);
+    assertEquals(2500.0, plan.getTargetValue(2), 1e-9);
+    assertEquals(-3.75, plan.getTrade(0), 1e-9);
+    assertEquals(10.0, plan.getTrade(1), 1e-9);
+    assertEquals(1.25, plan.getTrade(2), 1e-9);
+
+    double total = 0.0;
+    for (int i = 0; i < plan.size(); i++) {
+      total += (snapshot.getShares(i) + plan.getTrade(i)) * snapshot.getPrice(i);
+    }
+    assertEquals(snapshot.getTotal(), total, 1e-9);
+  }
+
+  @Test
+  public void testZeroWeightSellsEveryShare() {
+    PortfolioSnapshot snapshot = snapshot();
+    RebalancePlan plan = RebalancePlan.of(snapshot, new double[]{0, 3, 7});
+
+    assertEquals(-snapshot.getShares(0), plan.getTrade(0), 0.0);
+    assertEquals("REBALANCE ON 2023-03-10:" + System.lineSeparator()
+            + "AAPL: SELL 10.0000 SHARES ($2000.00 —> $0.00)" + System.lineSeparator()
+            + "PFE: BUY 20.0000 SHARES ($1000.00 —> $1500.00)" + System.lineSeparator()
+            + "MSFT: BUY 3.7500 SHARES ($2000.00 —> $3500.00)" + System.lineSeparator(),
+            plan.toString());
+  }
+
+  @Test
+  public void testInvalidDistributions() {
+    PortfolioSnapshot snapshot = snapshot();
+    assertInvalid(snapshot, new double[]{0.5, 1, 1}, "** DISTRIBUTIONS MUST BE WHOLE NUMBERS **");
+    assertInvalid(snapshot, new double[]{1, 1}, "** ENTER ONE DISTRIBUTION FOR EVERY STOCK **");
+    assertInvalid(snapshot, new double[]{2, -1, 1}, "** DISTRIBUTIONS CAN'T BE NEGATIVE **");
+    assertInvalid(snapshot, new double[]{0, 0, 0},
+            "** AT LEAST ONE DISTRIBUTION MUST BE POSITIVE **");
+    assertInvalid(PortfolioSnapshot.composition(Arrays.asList(
+            new FixedStock("AAPL", 200, 10, BOUGHT)), DATE), new double[]{2, 1},
+            "** TOO MANY DISTRIBUTIONS FOR ONE STOCK **");
+  }
+
+  @Test
+  public void testRejectedRebalanceChangesNothing() {
+    AdvancedStockPortfolio portfolio = new AdvancedStockPortfolio();
+    portfolio.addHolding(new FixedStock("AAPL", 200, 10, BOUGHT));
+    portfolio.addHolding(new FixedStock("PFE", 25, 40, BOUGHT));
+
+    try {
+      portfolio.rebalance(DATE, new double[]{0, 0});
+      fail("Expected all-zero weights to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** AT LEAST ONE DISTRIBUTION MUST BE POSITIVE **", e.getMessage());
+    }
+    assertEquals("AAPL: 10.0 shares, PFE: 40.0 shares, ", portfolio.getCompositionOnDay(DATE));
+  }
+
+  private static void assertInvalid(PortfolioSnapshot snapshot, double[] distributions,
+                                    String message) {
+    try {
+      RebalancePlan.of(snapshot, distributions);
+      fail("Expected " + message);
+    } catch (IllegalArgumentException e) {
+      assertEquals(message, e.getMessage());
+    }
+  }
+
+}
@@ -601,6 +601,30 @@ public class AdvancedStockTest {
     // Attempt to rebalance stock on a future date
     mockStock.rebalanceStock(1000.0, LocalDate.of(2025, 1, 1));
   }
-}
 
+  @Test
+  public void testAddValuesInRangeMatchesValueOnEachDay() {
+    mockStock.adjustSharesOnDay(10.0, LocalDate.of(2023, 6, 5));
+    mockStock.adjustSharesOnDay(-4.0, LocalDate.of(2023, 6, 6));
+    // back-dated purchase
+    mockStock.adjustSharesOnDay(2.0, LocalDate.of(2023, 6, 2));
+
+    LocalDate start = LocalDate.of(2023, 6, 1);
+    double[] values = new double[6];
+    values[0] = 1.0;
+    mockStock.addValuesInRange(start, values);
 
+    assertEquals(1.0, values[0], 0.001);
+    for (int i = 1; i < values.length; i++) {
+      assertEquals(mockStock.getValueOnDate(start.plusDays(i)), values[i], 0.001);
+    }
+    // the weekend is valued at Friday's close
+    assertEquals(2 * 105.0, values[3], 0.001);
+    assertEquals(8 * 115.0, values[5], 0.001);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddValuesInRangeBeforeData() {
+    mockStock.addValuesInRange(LocalDate.of(2023, 5, 31), new double[3]);
+  }
+}
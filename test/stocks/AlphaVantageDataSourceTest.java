@@ -1,12 +1,26 @@
 package stocks;
 
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * The AlphaVantageDataSourceTest class represents tests for methods on
@@ -14,6 +28,14 @@ import static org.junit.Assert.assertEquals;
  * and has tests unique tests.
  */
 public class AlphaVantageDataSourceTest extends CSVSourcesTest {
+  private static final String CANNED_CSV = "timestamp,open,high,low,close,volume\n"
+          + "2024-06-05,195.4000,196.9000,194.8700,195.8700,54156785\n"
+          + "2024-06-04,194.6350,195.3200,193.0342,194.3500,47471445\n"
+          + "2024-06-03,192.9000,194.9900,192.5200,194.0300,50080539\n";
+
+  private HttpServer server;
+  private volatile String lastQuery;
+  private Path directory;
 
   @Override
   protected CSVSources getCSVDataSource() {
@@ -73,4 +95,167 @@ public class AlphaVantageDataSourceTest extends CSVSourcesTest {
     }
   }
 
+  /**
+   * The testStreamsResponseIntoFileAndSeries method checks that a download from a local stub
+   * server is parsed and saved to the ticker's CSV file in the same pass.
+   */
+  @Test
+  public void testStreamsResponseIntoFileAndSeries() throws IOException {
+    byte[] body = CANNED_CSV.getBytes(StandardCharsets.US_ASCII);
+    AlphaVantageDataSource source = startStub(body);
+
+    PriceSeries series = source.getHistorySeries("AAPL");
+
+    assertEquals(3, series.size());
+    assertEquals(LocalDate.of(2024, 6, 3), series.getFirstDate());
+    assertEquals(195.87, series.getClose(2), 0.001);
+    assertArrayEquals(body, Files.readAllBytes(directory.resolve("AAPL.csv")));
+    assertEquals(1, countFiles());
+  }
+
+  /**
+   * The testStreamsLargeResponse method checks that a response far larger than the parser
+   * buffer is saved byte for byte and fully parsed.
+   */
+  @Test
+  public void testStreamsLargeResponse() throws IOException {
+    StringBuilder csv = new StringBuilder("timestamp,open,high,low,close,volume\n");
+    LocalDate date = LocalDate.of(2024, 6, 5);
+    for (int i = 0; i < 20_000; i++) {
+      csv.append(String.format(Locale.US, "%s,%d.25,%d.5,%d.0,%d.75,%d\n",
+              date.minusDays(i), i, i + 1, i, i, 1000 + i));
+    }
+    byte[] body = csv.toString().getBytes(StandardCharsets.US_ASCII);
+    AlphaVantageDataSource source = startStub(body);
+
+    PriceSeries series = source.getHistorySeries("MSFT");
+
+    assertEquals(20_000, series.size());
+    assertEquals(19_999.75, series.getClose(0), 0.001);
+    assertEquals(0.75, series.getClose(series.size() - 1), 0.001);
+    assertArrayEquals(body, Files.readAllBytes(directory.resolve("MSFT.csv")));
+  }
+
+  /**
+   * The testRecentSeriesIsNotSaved method checks that the compact window is requested and that
+   * it does not replace the saved CSV file.
+   */
+  @Test
+  public void testRecentSeriesIsNotSaved() throws IOException {
+    AlphaVantageDataSource source = startStub(CANNED_CSV.getBytes(StandardCharsets.US_ASCII));
+
+    PriceSeries series = source.getRecentSeries("AAPL");
+
+    assertEquals(3, series.size());
+    assertTrue(lastQuery.contains("outputsize=compact"));
+    assertEquals(0, countFiles());
+  }
+
+  /**
+   * The testInvalidResponseKeepsExistingFile method checks that a response that is not stock
+   * data leaves the previously saved CSV file untouched and no partial download behind.
+   */
+  @Test
+  public void testInvalidResponseKeepsExistingFile() throws IOException {
+    AlphaVantageDataSource source = startStub("{\n    \"Error Message\": \"Invalid API call.\"\n}"
+            .getBytes(StandardCharsets.US_ASCII));
+    Files.write(directory.resolve("AAPL.csv"), CANNED_CSV.getBytes(StandardCharsets.US_ASCII));
+
+    try {
+      source.getHistorySeries("AAPL");
+      fail("Expected RuntimeException for a response that is not CSV data");
+    } catch (RuntimeException e) {
+      assertEquals("** STOCK NOT FOUND, CHECK TICKER FORMAT **", e.getMessage());
+    }
+    assertEquals(CANNED_CSV, new String(Files.readAllBytes(directory.resolve("AAPL.csv")),
+            StandardCharsets.US_ASCII));
+    assertEquals(1, countFiles());
+  }
+
+  /**
+   * The testRateLimitNoteIsNotStockNotFound method checks that AlphaVantage's rate limit
+   * answer is reported as a RateLimitException and leaves no file behind.
+   */
+  @Test
+  public void testRateLimitNoteIsNotStockNotFound() throws IOException {
+    AlphaVantageDataSource source = startStub(("{\n    \"Note\": \"Thank you for using Alpha "
+            + "Vantage! Our standard API call frequency is 5 calls per minute.\"\n}")
+            .getBytes(StandardCharsets.US_ASCII));
+
+    try {
+      source.getHistorySeries("AAPL");
+      fail("Expected RateLimitException for a rate limit answer");
+    } catch (RateLimitException e) {
+      assertEquals("** API RATE LIMIT REACHED, TRY AGAIN LATER **", e.getMessage());
+    }
+    assertEquals(0, countFiles());
+  }
+
+  /**
+   * The testUnreachableServer method checks that a failed connection is reported as a
+   * connection problem.
+   */
+  @Test
+  public void testUnreachableServer() throws IOException {
+    startStub(new byte[0]);
+    int port = server.getAddress().getPort();
+    server.stop(0);
+    server = null;
+    AlphaVantageDataSource source =
+            new AlphaVantageDataSource("http://localhost:" + port + "/query", directory);
+
+    try {
+      source.getHistorySeries("AAPL");
+      fail("Expected RuntimeException for an unreachable server");
+    } catch (RuntimeException e) {
+      assertEquals(" ** UNABLE TO CONNECT TO THE INTERNET, CHECK YOUR CONNECTION **",
+              e.getMessage());
+    }
+    assertEquals(0, countFiles());
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    if (server != null) {
+      server.stop(0);
+      server = null;
+    }
+    if (directory != null) {
+      try (Stream<Path> files = Files.list(directory)) {
+        for (Path file : (Iterable<Path>) files::iterator) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(directory);
+      directory = null;
+    }
+  }
+
+  /**
+   * Starts a local HTTP server that answers every request with the given body and returns
+   * a data source pointed at it.
+   */
+  private AlphaVantageDataSource startStub(byte[] body) throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/query", exchange -> {
+      lastQuery = exchange.getRequestURI().getQuery();
+      exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+    if (directory == null) {
+      directory = Files.createTempDirectory("alphavantage");
+    }
+    return new AlphaVantageDataSource(
+            "http://localhost:" + server.getAddress().getPort() + "/query", directory);
+  }
+
+  private long countFiles() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+
 }
@@ -0,0 +1,137 @@
+package stocks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The BinaryHistoryFileTest class represents tests for BinaryHistoryFile and its use by
+ * LocalCSVDataSource. These tests use temporary files and do not need the API.
+ */
+public class BinaryHistoryFileTest {
+  private static final String CSV = "timestamp,open,high,low,close,volume\n"
+          + "2024-06-05,195.4000,196.9000,194.8700,195.8700,54156785\n"
+          + "2024-06-04,194.6350,195.3200,193.0342,194.3500,47471445\n"
+          + "2024-06-03,192.9000,194.9900,192.5200,194.0300,50080539\n";
+
+  private Path directory;
+  private Path csv;
+  private Path binary;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("binary");
+    csv = directory.resolve("AAPL.csv");
+    binary = directory.resolve("AAPL" + BinaryHistoryFile.EXTENSION);
+    Files.write(csv, CSV.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testRoundTrip() {
+    PriceSeries parsed = new LocalCSVDataSource(directory).parseSeries(CSV);
+
+    assertTrue(BinaryHistoryFile.write(binary, csv, parsed));
+    PriceSeries read = BinaryHistoryFile.read(binary, csv);
+
+    assertNotNull(read);
+    assertEquals(parsed.size(), read.size());
+    for (int i = 0; i < parsed.size(); i++) {
+      assertEquals(parsed.getEpochDay(i), read.getEpochDay(i));
+      assertEquals(parsed.getOpen(i), read.getOpen(i), 0.0);
+      assertEquals(parsed.getHigh(i), read.getHigh(i), 0.0);
+      assertEquals(parsed.getLow(i), read.getLow(i), 0.0);
+      assertEquals(parsed.getClose(i), read.getClose(i), 0.0);
+      assertEquals(parsed.getVolume(i), read.getVolume(i));
+    }
+  }
+
+  @Test
+  public void testFirstLoadConvertsCSV() {
+    assertFalse(Files.exists(binary));
+
+    PriceSeries loaded = new LocalCSVDataSource(directory).getHistorySeries("AAPL");
+
+    assertEquals(3, loaded.size());
+    assertTrue(Files.exists(binary));
+    PriceSeries read = BinaryHistoryFile.read(binary, csv);
+    assertNotNull(read);
+    assertEquals(LocalDate.of(2024, 6, 5), read.getLastDate());
+    assertEquals(193.0342, read.getLow(1), 0.0);
+  }
+
+  @Test
+  public void testBinaryFileIsUsedWhileCSVIsUnchanged() throws IOException {
+    LocalCSVDataSource source = new LocalCSVDataSource(directory);
+    source.getHistorySeries("AAPL");
+
+    // the binary file is read even though the CSV file can no longer be parsed, as long as
+    // the CSV file keeps the size and modification time it had when it was converted
+    FileTime modified = Files.getLastModifiedTime(csv);
+    byte[] garbage = new byte[(int) Files.size(csv)];
+    Arrays.fill(garbage, (byte) 'x');
+    Files.write(csv, garbage);
+    Files.setLastModifiedTime(csv, modified);
+
+    assertEquals(3, source.getHistorySeries("AAPL").size());
+  }
+
+  @Test
+  public void testChangedCSVIsConvertedAgain() throws IOException {
+    LocalCSVDataSource source = new LocalCSVDataSource(directory);
+    source.getHistorySeries("AAPL");
+
+    Files.write(csv, "2024-06-06,196.0,197.0,195.0,196.5,100\n"
+            .getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+
+    assertNull(BinaryHistoryFile.read(binary, csv));
+    PriceSeries loaded = source.getHistorySeries("AAPL");
+    assertEquals(4, loaded.size());
+    assertEquals(196.5, loaded.getClose(3), 0.0);
+    assertNotNull(BinaryHistoryFile.read(binary, csv));
+  }
+
+  @Test
+  public void testInexactPricesAreNotConverted() {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    builder.add(LocalDate.of(2024, 6, 5), 1.0, 1.0, 1.0, 1.123456789, 1);
+
+    assertFalse(BinaryHistoryFile.write(binary, csv, builder.build()));
+    assertFalse(Files.exists(binary));
+  }
+
+  @Test
+  public void testMalformedFileIsIgnored() throws IOException {
+    Files.write(binary, "not a history".getBytes(StandardCharsets.US_ASCII));
+
+    assertNull(BinaryHistoryFile.read(binary, csv));
+    assertEquals(3, new LocalCSVDataSource(directory).getHistorySeries("AAPL").size());
+    assertNotNull(BinaryHistoryFile.read(binary, csv));
+  }
+
+}
@@ -0,0 +1,116 @@
+package stocks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * The CSVParserBenchmark class compares the throughput of the StreamingCSVParser with the
+ * original string-splitting CSV parser on generated multi-MB CSV files. It is not a unit test;
+ * run its main method directly, optionally passing the number of rows per file
+ * (default 200,000, roughly 12 MB).
+ */
+public class CSVParserBenchmark {
+  private static final DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int MEASURED_ROUNDS = 5;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optionally, the number of rows to generate
+   * @throws IOException if the temporary CSV file cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+    Path file = Files.createTempFile("benchmark", ".csv");
+    try {
+      writeCSV(file, rows);
+      double megabytes = Files.size(file) / (1024.0 * 1024.0);
+      System.out.printf(Locale.US, "%d rows, %.1f MB%n", rows, megabytes);
+
+      double splitting = measure(file, true);
+      double streaming = measure(file, false);
+      System.out.printf(Locale.US, "string split parser: %8.1f ms  %8.1f MB/s%n",
+              splitting, megabytes / (splitting / 1000));
+      System.out.printf(Locale.US, "streaming parser:    %8.1f ms  %8.1f MB/s%n",
+              streaming, megabytes / (streaming / 1000));
+      System.out.printf(Locale.US, "speed-up: %.1fx%n", splitting / streaming);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Returns the average time, in milliseconds, to read and parse the file.
+   */
+  private static double measure(Path file, boolean splitting) throws IOException {
+    long checksum = 0;
+    long total = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+      long start = System.nanoTime();
+      int size;
+      if (splitting) {
+        size = parseBySplitting(new String(Files.readAllBytes(file))).size();
+      } else {
+        try (InputStream in = Files.newInputStream(file)) {
+          size = new StreamingCSVParser().parse(in).size();
+        }
+      }
+      long elapsed = System.nanoTime() - start;
+      checksum += size;
+      if (round >= WARMUP_ROUNDS) {
+        total += elapsed;
+      }
+    }
+    if (checksum == 0) {
+      throw new IllegalStateException("nothing was parsed");
+    }
+    return total / (MEASURED_ROUNDS * 1_000_000.0);
+  }
+
+  /**
+   * The original parser: split into rows, split each row into columns and parse every
+   * column from a trimmed string.
+   */
+  private static List<StockData> parseBySplitting(String csvData) {
+    List<StockData> data = new ArrayList<>();
+    String[] rows = csvData.split("\n");
+    for (int i = 1; i < rows.length; i++) {
+      String[] columns = rows[i].split(",");
+      LocalDate date = LocalDate.parse(columns[0].trim(), dateFormat);
+      double open = Double.parseDouble(columns[1].trim());
+      double high = Double.parseDouble(columns[2].trim());
+      double low = Double.parseDouble(columns[3].trim());
+      double close = Double.parseDouble(columns[4].trim());
+      int volume = Integer.parseInt(columns[5].trim());
+      data.add(new DailyStockData(date, open, close, high, low, volume));
+    }
+    return data;
+  }
+
+  /**
+   * Writes a CSV file in the AlphaVantage layout, most recent day first.
+   */
+  private static void writeCSV(Path file, int rows) throws IOException {
+    Random random = new Random(1);
+    LocalDate date = LocalDate.of(2024, 6, 5);
+    try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file))) {
+      writer.print("timestamp,open,high,low,close,volume\n");
+      for (int i = 0; i < rows; i++) {
+        double close = 50 + random.nextDouble() * 400;
+        writer.printf(Locale.US, "%s,%.4f,%.4f,%.4f,%.4f,%d\n", date.minusDays(i),
+                close * 0.99, close * 1.02, close * 0.98, close, random.nextInt(90_000_000));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,150 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The CorrelationMatrixTest class represents tests for CorrelationMatrix objects and associated
+ * methods. The blocked, parallel matrices are checked against a direct computation per pair.
+ */
+public class CorrelationMatrixTest {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2022, 1, 3);
+  private static final LocalDate START = FIRST_DAY.plusDays(20);
+  private static final LocalDate END = FIRST_DAY.plusDays(260);
+
+  @Test
+  public void testMatchesDirectComputationAcrossBlocks() {
+    int n = 70;
+    List<String> tickers = new ArrayList<>();
+    List<PriceSeries> histories = new ArrayList<>();
+    for (int s = 0; s < n; s++) {
+      tickers.add("S" + s);
+      // every seventh stock skips some days, so the common days differ from each history
+      histories.add(series(s, s % 7 == 0 ? 5 + s % 3 : 0));
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    CorrelationMatrix matrix;
+    try {
+      matrix = CorrelationMatrix.compute(tickers, histories, START, END, pool);
+    } finally {
+      pool.shutdownNow();
+    }
+
+    List<LocalDate> common = commonDays(histories);
+    assertEquals(common.size() - 1, matrix.getObservations());
+    double[][] returns = new double[n][];
+    for (int s = 0; s < n; s++) {
+      returns[s] = returns(histories.get(s), common);
+    }
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        double covariance = covariance(returns[i], returns[j]);
+        double correlation = covariance / Math.sqrt(covariance(returns[i], returns[i])
+                * covariance(returns[j], returns[j]));
+        assertEquals(covariance, matrix.getCovariance(i, j), 1e-12);
+        assertEquals(correlation, matrix.getCorrelation(i, j), 1e-9);
+        assertEquals(matrix.getCovariance(i, j), matrix.getCovariance(j, i), 0.0);
+      }
+      assertEquals(1.0, matrix.getCorrelation(i, i), 1e-12);
+    }
+  }
+
+  @Test
+  public void testScaledAndFlatHistories() {
+    PriceSeries base = series(1, 0);
+    PriceSeries.Builder scaled = new PriceSeries.Builder();
+    PriceSeries.Builder flat = new PriceSeries.Builder();
+    for (int i = 0; i < base.size(); i++) {
+      scaled.add(base.getDate(i), 0, 0, 0, base.getClose(i) * 3, 0);
+      flat.add(base.getDate(i), 0, 0, 0, 42.0, 0);
+    }
+
+    CorrelationMatrix matrix = CorrelationMatrix.compute(Arrays.asList("A", "B", "C"),
+            Arrays.asList(base, scaled.build(), flat.build()), START, END);
+
+    assertEquals(1.0, matrix.getCorrelation(0, 1), 1e-12);
+    assertTrue(Double.isNaN(matrix.getCorrelation(0, 2)));
+    assertEquals(0.0, matrix.getCovariance(2, 2), 0.0);
+    assertTrue(matrix.toString().contains("N/A"));
+    assertEquals(Arrays.asList("A", "B", "C"), matrix.getTickers());
+  }
+
+  @Test
+  public void testInvalidInputs() {
+    PriceSeries series = series(0, 0);
+    try {
+      CorrelationMatrix.compute(Arrays.asList("A"), Arrays.asList(series), START, END);
+      fail("Expected a single stock to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** AT LEAST TWO STOCKS ARE NEEDED TO CORRELATE **", e.getMessage());
+    }
+    try {
+      CorrelationMatrix.compute(Arrays.asList("A", "B"), Arrays.asList(series, series),
+              END.plusYears(1), END.plusYears(2));
+      fail("Expected a range without market days to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** NOT ENOUGH COMMON MARKET DAYS IN RANGE TO CORRELATE RETURNS **",
+              e.getMessage());
+    }
+  }
+
+  private static PriceSeries series(int s, int skip) {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    double close = 40.0 + s;
+    for (int i = 0; i < 300; i++) {
+      close *= 1 + 0.01 * Math.sin(i * (0.2 + s * 0.013)) + 0.004 * Math.cos(i * 0.9 + s);
+      if (skip == 0 || i % skip != 0) {
+        builder.add(FIRST_DAY.plusDays(i), 0, 0, 0, close, 0);
+      }
+    }
+    return builder.build();
+  }
+
+  private static List<LocalDate> commonDays(List<PriceSeries> histories) {
+    List<LocalDate> days = new ArrayList<>();
+    for (LocalDate day = START; !day.isAfter(END); day = day.plusDays(1)) {
+      boolean shared = true;
+      for (PriceSeries series : histories) {
+        shared &= series.indexOf(day) >= 0;
+      }
+      if (shared) {
+        days.add(day);
+      }
+    }
+    return days;
+  }
+
+  private static double[] returns(PriceSeries series, List<LocalDate> days) {
+    double[] output = new double[days.size() - 1];
+    for (int d = 0; d < output.length; d++) {
+      output[d] = series.getClose(series.indexOf(days.get(d + 1)))
+              / series.getClose(series.indexOf(days.get(d))) - 1;
+    }
+    return output;
+  }
+
+  private static double covariance(double[] a, double[] b) {
+    double meanA = 0.0;
+    double meanB = 0.0;
+    for (int d = 0; d < a.length; d++) {
+      meanA += a[d] / a.length;
+      meanB += b[d] / b.length;
+    }
+    double sum = 0.0;
+    for (int d = 0; d < a.length; d++) {
+      sum += (a[d] - meanA) * (b[d] - meanB);
+    }
+    return sum / (a.length - 1);
+  }
+
+}
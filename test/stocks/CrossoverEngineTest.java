@@ -0,0 +1,113 @@
+package stocks;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The CrossoverEngineTest class represents tests for the CrossoverEngine. Results are
+ * compared against a direct computation of every moving average.
+ */
+public class CrossoverEngineTest {
+  private PriceSeries series;
+
+  @Before
+  public void setUp() {
+    // 400 market days with a seeded random walk, skipping weekends
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    Random random = new Random(42);
+    LocalDate date = LocalDate.of(2020, 1, 1);
+    double close = 100.0;
+    while (builder.size() < 400) {
+      if (date.getDayOfWeek().getValue() < 6) {
+        close = Math.max(1.0, close + Math.round((random.nextDouble() - 0.5) * 400) / 100.0);
+        builder.add(date, close, close, close, close, 1000);
+      }
+      date = date.plusDays(1);
+    }
+    series = builder.build();
+  }
+
+  @Test
+  public void testMatchesDirectComputation() {
+    LocalDate start = series.getDate(250);
+    LocalDate end = series.getDate(399);
+    for (int days : new int[]{1, 2, 5, 20, 50, 200}) {
+      assertEquals(expected(start, end, days),
+              CrossoverEngine.crossovers(series, start, end, days));
+    }
+  }
+
+  @Test
+  public void testSeveralWindowsInOnePass() {
+    LocalDate start = series.getDate(210);
+    LocalDate end = series.getDate(380);
+    Map<Integer, List<LocalDate>> result = CrossoverEngine.crossovers(series, start, end,
+            new int[]{20, 50, 200});
+
+    assertEquals(3, result.size());
+    assertEquals(expected(start, end, 20), result.get(20));
+    assertEquals(expected(start, end, 50), result.get(50));
+    assertEquals(expected(start, end, 200), result.get(200));
+  }
+
+  @Test
+  public void testWindowLongerThanHistory() {
+    LocalDate start = series.getDate(0);
+    LocalDate end = series.getDate(30);
+    assertEquals(expected(start, end, 1000),
+            CrossoverEngine.crossovers(series, start, end, 1000));
+  }
+
+  @Test
+  public void testMostRecentDayFirst() {
+    List<LocalDate> result = CrossoverEngine.crossovers(series, series.getDate(100),
+            series.getDate(399), 50);
+    assertTrue(result.size() > 1);
+    for (int i = 1; i < result.size(); i++) {
+      assertTrue(result.get(i - 1).isAfter(result.get(i)));
+    }
+  }
+
+  @Test
+  public void testOneDayWindowNeverCrosses() {
+    assertTrue(CrossoverEngine.crossovers(series, series.getDate(0), series.getDate(399), 1)
+            .isEmpty());
+  }
+
+  @Test
+  public void testNonPositiveWindow() {
+    try {
+      CrossoverEngine.crossovers(series, series.getDate(0), series.getDate(10), 0);
+      fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** ENTER A POSITIVE X-VALUE **", e.getMessage());
+    }
+  }
+
+  private List<LocalDate> expected(LocalDate start, LocalDate end, int days) {
+    List<LocalDate> output = new ArrayList<>();
+    for (int i = series.indexOnOrBefore(end); i >= series.indexOnOrAfter(start); i--) {
+      double sum = 0.0;
+      int acc = 0;
+      for (int j = i; j >= 0 && acc < days; j--) {
+        sum += series.getClose(j);
+        acc++;
+      }
+      if (series.getClose(i) > sum / acc) {
+        output.add(series.getDate(i));
+      }
+    }
+    return output;
+  }
+
+}
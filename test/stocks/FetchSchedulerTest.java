@@ -0,0 +1,366 @@
+package stocks;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The FetchSchedulerTest class represents tests for FetchScheduler objects and
+ * associated methods. The data sources are mocks or a local stub server that enforces a
+ * request quota, so these tests do not need the API.
+ */
+public class FetchSchedulerTest {
+  private static final String CSV = "timestamp,open,high,low,close,volume\n"
+          + "2024-06-05,195.4000,196.9000,194.8700,195.8700,54156785\n"
+          + "2024-06-04,194.6350,195.3200,193.0342,194.3500,47471445\n";
+  private static final String RATE_LIMIT_NOTE = "{\n    \"Note\": \"Thank you for using Alpha "
+          + "Vantage! Our standard API call frequency is 5 calls per minute.\"\n}";
+
+  private FetchScheduler scheduler;
+  private HttpServer server;
+  private ExecutorService serverThreads;
+  private Path directory;
+
+  @After
+  public void tearDown() throws IOException {
+    if (scheduler != null) {
+      scheduler.shutdown();
+    }
+    if (server != null) {
+      server.stop(0);
+      serverThreads.shutdownNow();
+    }
+    if (directory != null) {
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  public void testInteractiveRequestsGoFirst() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    MockSource source = new MockSource(ticker -> {
+      if (ticker.equals("FIRST")) {
+        release.await(5, TimeUnit.SECONDS);
+      }
+      order.add(ticker);
+      return series();
+    });
+    scheduler = new FetchScheduler(source, new TokenBucket(100, 1000), 1, 1, 0, 0);
+
+    CompletableFuture<PriceSeries> first =
+            scheduler.fetchHistory("FIRST", FetchScheduler.Priority.BACKGROUND);
+    waitFor(() -> scheduler.getQueueLength() == 0);
+    CompletableFuture<PriceSeries> a =
+            scheduler.fetchHistory("A", FetchScheduler.Priority.BACKGROUND);
+    CompletableFuture<PriceSeries> b =
+            scheduler.fetchRecent("B", FetchScheduler.Priority.BACKGROUND);
+    CompletableFuture<PriceSeries> c =
+            scheduler.fetchHistory("C", FetchScheduler.Priority.INTERACTIVE);
+    release.countDown();
+    CompletableFuture.allOf(first, a, b, c).get(5, TimeUnit.SECONDS);
+
+    assertEquals(List.of("FIRST", "C", "A", "B"), order);
+    assertEquals(1, source.recentCalls.get());
+  }
+
+  @Test
+  public void testRateLimitedRequestIsRetried() {
+    AtomicInteger calls = new AtomicInteger();
+    MockSource source = new MockSource(ticker -> {
+      if (calls.incrementAndGet() < 3) {
+        throw new RateLimitException();
+      }
+      return series();
+    });
+    scheduler = new FetchScheduler(source, new TokenBucket(100, 1000), 2, 4, 1, 5);
+
+    PriceSeries result = scheduler.getHistorySeries("AAPL");
+
+    assertEquals(2, result.size());
+    assertEquals(3, scheduler.getFetchCount());
+    assertEquals(2, scheduler.getRetryCount());
+  }
+
+  @Test
+  public void testGivesUpAfterMaxAttempts() {
+    MockSource source = new MockSource(ticker -> {
+      throw new RateLimitException();
+    });
+    scheduler = new FetchScheduler(source, new TokenBucket(100, 1000), 2, 3, 1, 5);
+
+    try {
+      scheduler.getHistorySeries("AAPL");
+      fail("Expected RateLimitException after the last attempt");
+    } catch (RateLimitException e) {
+      assertEquals("** API RATE LIMIT REACHED, TRY AGAIN LATER **", e.getMessage());
+    }
+    assertEquals(3, scheduler.getFetchCount());
+    assertEquals(2, scheduler.getRetryCount());
+  }
+
+  @Test
+  public void testOtherFailuresAreNotRetried() {
+    MockSource source = new MockSource(ticker -> {
+      throw new RuntimeException("** STOCK NOT FOUND, CHECK TICKER FORMAT **");
+    });
+    scheduler = new FetchScheduler(source, new TokenBucket(100, 1000), 2, 3, 1, 5);
+
+    try {
+      scheduler.getHistorySeries("XYZ");
+      fail("Expected the source's exception");
+    } catch (RuntimeException e) {
+      assertEquals("** STOCK NOT FOUND, CHECK TICKER FORMAT **", e.getMessage());
+    }
+    assertEquals(1, scheduler.getFetchCount());
+    assertEquals(0, scheduler.getRetryCount());
+  }
+
+  @Test
+  public void testPacedRequestsStayWithinQuota() throws Exception {
+    // the stub allows 5 requests in any 500ms; a bucket of 2 refilling at 5 per second
+    // never sends more than 2 + 5 * 0.5 = 4.5 requests in any 500ms
+    QuotaStub stub = startStub(5, 500);
+    scheduler = new FetchScheduler(stubSource(), new TokenBucket(2, 5.0), 2, 1, 0, 0);
+
+    Map<String, CompletableFuture<PriceSeries>> results =
+            scheduler.fetchAll(tickers(12), FetchScheduler.Priority.BACKGROUND, true);
+
+    for (CompletableFuture<PriceSeries> result : results.values()) {
+      assertEquals(2, result.get(10, TimeUnit.SECONDS).size());
+    }
+    assertEquals(12, stub.accepted.get());
+    assertEquals(0, stub.rejected.get());
+  }
+
+  @Test
+  public void testUnpacedBurstRecoversWithRetries() throws Exception {
+    QuotaStub stub = startStub(5, 500);
+    scheduler = new FetchScheduler(stubSource(), new TokenBucket(100, 1000), 4, 30, 50, 400);
+
+    Map<String, CompletableFuture<PriceSeries>> results =
+            scheduler.fetchAll(tickers(12), FetchScheduler.Priority.BACKGROUND, true);
+
+    for (CompletableFuture<PriceSeries> result : results.values()) {
+      assertEquals(2, result.get(20, TimeUnit.SECONDS).size());
+    }
+    assertEquals(12, stub.accepted.get());
+    assertTrue(stub.rejected.get() > 0);
+    assertEquals(stub.rejected.get(), scheduler.getRetryCount());
+  }
+
+  @Test
+  public void testShutdownFailsQueuedRequests() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    MockSource source = new MockSource(ticker -> {
+      release.await(5, TimeUnit.SECONDS);
+      return series();
+    });
+    scheduler = new FetchScheduler(source, new TokenBucket(100, 1000), 1, 1, 0, 0);
+    scheduler.fetchHistory("FIRST", FetchScheduler.Priority.INTERACTIVE);
+    waitFor(() -> scheduler.getQueueLength() == 0);
+    CompletableFuture<PriceSeries> queued =
+            scheduler.fetchHistory("SECOND", FetchScheduler.Priority.INTERACTIVE);
+
+    scheduler.shutdown();
+    release.countDown();
+
+    try {
+      queued.get(5, TimeUnit.SECONDS);
+      fail("Expected the queued request to fail");
+    } catch (ExecutionException e) {
+      assertEquals("** FETCH SCHEDULER IS SHUT DOWN **", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void testShutdownFailsRequestsWaitingForRetry() throws Exception {
+    MockSource source = new MockSource(ticker -> {
+      throw new RateLimitException();
+    });
+    // the retry waits up to a minute, so it is still waiting when the scheduler shuts down
+    scheduler = new FetchScheduler(source, new TokenBucket(100, 1000), 1, 3, 60_000, 60_000);
+    CompletableFuture<PriceSeries> delayed =
+            scheduler.fetchHistory("AAPL", FetchScheduler.Priority.INTERACTIVE);
+    waitFor(() -> scheduler.getRetryCount() == 1);
+
+    scheduler.shutdown();
+
+    try {
+      delayed.get(5, TimeUnit.SECONDS);
+      fail("Expected the delayed request to fail");
+    } catch (ExecutionException e) {
+      assertEquals("** FETCH SCHEDULER IS SHUT DOWN **", e.getCause().getMessage());
+    }
+    assertEquals(1, scheduler.getFetchCount());
+  }
+
+  @Test
+  public void testErrorFailsRequestNotWorker() throws Exception {
+    MockSource source = new MockSource(ticker -> {
+      if (ticker.equals("BROKEN")) {
+        throw new AssertionError("broken source");
+      }
+      return series();
+    });
+    scheduler = new FetchScheduler(source, new TokenBucket(100, 1000), 1, 1, 0, 0);
+
+    CompletableFuture<PriceSeries> broken =
+            scheduler.fetchHistory("BROKEN", FetchScheduler.Priority.INTERACTIVE);
+    try {
+      broken.get(5, TimeUnit.SECONDS);
+      fail("Expected the source's error");
+    } catch (ExecutionException e) {
+      assertEquals("broken source", e.getCause().getMessage());
+    }
+    assertEquals(2, scheduler.fetchHistory("AAPL", FetchScheduler.Priority.INTERACTIVE)
+            .get(5, TimeUnit.SECONDS).size());
+  }
+
+  private QuotaStub startStub(int quota, long windowMillis) throws IOException {
+    QuotaStub stub = new QuotaStub(quota, TimeUnit.MILLISECONDS.toNanos(windowMillis));
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/query", exchange -> {
+      byte[] body = (stub.allow() ? CSV : RATE_LIMIT_NOTE).getBytes(StandardCharsets.US_ASCII);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    serverThreads = Executors.newFixedThreadPool(4);
+    server.setExecutor(serverThreads);
+    server.start();
+    return stub;
+  }
+
+  private StockDataSource stubSource() throws IOException {
+    directory = Files.createTempDirectory("scheduler");
+    return new AlphaVantageDataSource(
+            "http://localhost:" + server.getAddress().getPort() + "/query", directory);
+  }
+
+  private static List<String> tickers(int count) {
+    List<String> tickers = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      tickers.add("T" + i);
+    }
+    return tickers;
+  }
+
+  private static PriceSeries series() {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    builder.add(LocalDate.of(2024, 6, 4), 0, 0, 0, 194.35, 0);
+    builder.add(LocalDate.of(2024, 6, 5), 0, 0, 0, 195.87, 0);
+    return builder.build();
+  }
+
+  private static void waitFor(Check check) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!check.done()) {
+      if (System.nanoTime() > deadline) {
+        fail("Timed out waiting for the scheduler");
+      }
+      Thread.sleep(1);
+    }
+  }
+
+  private interface Check {
+    boolean done();
+  }
+
+  private interface Fetch {
+    PriceSeries apply(String ticker) throws Exception;
+  }
+
+  /**
+   * The MockSource class is a data source that answers with the given function.
+   */
+  private static class MockSource implements StockDataSource {
+    private final Fetch fetch;
+    private final AtomicInteger recentCalls = new AtomicInteger();
+
+    private MockSource(Fetch fetch) {
+      this.fetch = fetch;
+    }
+
+    @Override
+    public List<StockData> getHistoryData(String ticker) {
+      return getHistorySeries(ticker).asList();
+    }
+
+    @Override
+    public PriceSeries getHistorySeries(String ticker) {
+      try {
+        return fetch.apply(ticker);
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public PriceSeries getRecentSeries(String ticker) {
+      recentCalls.incrementAndGet();
+      return getHistorySeries(ticker);
+    }
+  }
+
+  /**
+   * The QuotaStub class accepts at most a fixed number of requests in any sliding window of
+   * time, like the API's per-minute limit, and counts what it accepts and rejects.
+   */
+  private static class QuotaStub {
+    private final int quota;
+    private final long windowNanos;
+    private final Deque<Long> recent = new ArrayDeque<>();
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+
+    private QuotaStub(int quota, long windowNanos) {
+      this.quota = quota;
+      this.windowNanos = windowNanos;
+    }
+
+    private synchronized boolean allow() {
+      long now = System.nanoTime();
+      while (!recent.isEmpty() && now - recent.peekFirst() >= windowNanos) {
+        recent.pollFirst();
+      }
+      if (recent.size() < quota) {
+        recent.addLast(now);
+        accepted.incrementAndGet();
+        return true;
+      }
+      rejected.incrementAndGet();
+      return false;
+    }
+  }
+
+}
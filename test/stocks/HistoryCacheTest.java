@@ -0,0 +1,191 @@
+package stocks;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * The HistoryCacheTest class represents tests for HistoryCache objects and
+ * associated methods. These tests use mock histories and do not need the API.
+ */
+public class HistoryCacheTest {
+  private MutableClock clock;
+  private Map<String, Integer> loads;
+  private Function<String, PriceSeries> loader;
+
+  @Before
+  public void setUp() {
+    clock = new MutableClock(LocalDate.of(2024, 6, 5));
+    loads = new HashMap<>();
+    loader = ticker -> {
+      loads.merge(ticker, 1, Integer::sum);
+      return mockSeries(10);
+    };
+  }
+
+  @Test
+  public void testHitAfterFirstLoad() {
+    HistoryCache cache = new HistoryCache(1024 * 1024, clock);
+    PriceSeries first = cache.get("AAPL", loader);
+    PriceSeries second = cache.get("aapl", loader);
+
+    assertSame(first, second);
+    assertEquals(1, (int) loads.get("AAPL"));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() {
+    long oneSeries = mockSeries(10).estimateBytes();
+    HistoryCache cache = new HistoryCache(2 * oneSeries, clock);
+
+    cache.get("AAPL", loader);
+    cache.get("GOOG", loader);
+    // touch AAPL so that GOOG becomes the least recently used
+    cache.get("AAPL", loader);
+    cache.get("MSFT", loader);
+
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    assertNull(cache.getIfPresent("GOOG"));
+    assertEquals(2 * oneSeries, cache.getSizeInBytes());
+  }
+
+  @Test
+  public void testEntriesExpireTheNextDay() {
+    HistoryCache cache = new HistoryCache(1024 * 1024, clock);
+    cache.get("AAPL", loader);
+    clock.setDate(LocalDate.of(2024, 6, 6));
+    cache.get("AAPL", loader);
+
+    assertEquals(2, (int) loads.get("AAPL"));
+    assertEquals(1, cache.getExpiredCount());
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  public void testEmptyHistoryIsNotCached() {
+    HistoryCache cache = new HistoryCache(1024 * 1024, clock);
+    cache.get("NONE", ticker -> new PriceSeries.Builder().build());
+
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getSizeInBytes());
+  }
+
+  @Test
+  public void testShrinkingBudgetEvicts() {
+    HistoryCache cache = new HistoryCache(1024 * 1024, clock);
+    cache.get("AAPL", loader);
+    cache.get("GOOG", loader);
+    cache.setMaxBytes(0);
+
+    assertEquals(0, cache.size());
+    assertEquals(2, cache.getEvictionCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeBudget() {
+    new HistoryCache(-1, clock);
+  }
+
+  @Test
+  public void testConcurrentMissesLoadOnce() throws Exception {
+    HistoryCache cache = new HistoryCache(1024 * 1024, clock);
+    AtomicInteger slowLoads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    Function<String, PriceSeries> slowLoader = ticker -> {
+      slowLoads.incrementAndGet();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return mockSeries(10);
+    };
+
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<PriceSeries>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        results.add(pool.submit(() -> cache.get("AAPL", slowLoader)));
+      }
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (cache.getCoalescedCount() < 3 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+      release.countDown();
+
+      PriceSeries first = results.get(0).get(5, TimeUnit.SECONDS);
+      for (Future<PriceSeries> result : results) {
+        assertSame(first, result.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, slowLoads.get());
+      assertEquals(3, cache.getCoalescedCount());
+      assertSame(first, cache.getIfPresent("AAPL"));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private static PriceSeries mockSeries(int days) {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    LocalDate date = LocalDate.of(2024, 5, 1);
+    for (int i = 0; i < days; i++) {
+      builder.add(date.plusDays(i), 0, 0, 0, 100.0 + i, 0);
+    }
+    return builder.build();
+  }
+
+  /**
+   * A clock whose date can be moved forward by the tests.
+   */
+  private static class MutableClock extends Clock {
+    private Instant instant;
+
+    private MutableClock(LocalDate date) {
+      setDate(date);
+    }
+
+    private void setDate(LocalDate date) {
+      this.instant = date.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+
+}
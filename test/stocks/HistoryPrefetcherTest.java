@@ -0,0 +1,116 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The HistoryPrefetcherTest class represents tests for the HistoryPrefetcher class. These
+ * tests use mock loaders and a private cache, and do not need the API.
+ */
+public class HistoryPrefetcherTest {
+  private static final List<String> TICKERS = Arrays.asList("AAPL", "GOOG", "MSFT", "AMZN");
+
+  @Test
+  public void testLoadsRunInParallel() {
+    // every load waits until all of them have started, which only happens if they overlap
+    CountDownLatch started = new CountDownLatch(TICKERS.size());
+    Function<String, PriceSeries> loader = ticker -> {
+      started.countDown();
+      try {
+        if (!started.await(5, TimeUnit.SECONDS)) {
+          throw new RuntimeException("** LOADS DID NOT RUN IN PARALLEL **");
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return mockSeries();
+    };
+    HistoryCache cache = new HistoryCache(1024 * 1024);
+
+    Map<String, RuntimeException> failures =
+            HistoryPrefetcher.prefetch(TICKERS, loader, cache, TICKERS.size());
+
+    assertTrue(failures.isEmpty());
+    assertEquals(TICKERS.size(), cache.size());
+    for (String ticker : TICKERS) {
+      assertNotNull(cache.getIfPresent(ticker));
+    }
+  }
+
+  @Test
+  public void testDistinctTickersLoadOnce() {
+    Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+    Function<String, PriceSeries> loader = ticker -> {
+      loads.computeIfAbsent(ticker, t -> new AtomicInteger()).incrementAndGet();
+      return mockSeries();
+    };
+    HistoryCache cache = new HistoryCache(1024 * 1024);
+
+    HistoryPrefetcher.prefetch(Arrays.asList("AAPL", "aapl", "GOOG", "AAPL", "GOOG"),
+            loader, cache, 4);
+
+    assertEquals(2, loads.size());
+    assertEquals(1, loads.get("AAPL").get());
+    assertEquals(1, loads.get("GOOG").get());
+  }
+
+  @Test
+  public void testConcurrencyIsBounded() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+    Function<String, PriceSeries> loader = ticker -> {
+      peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      running.decrementAndGet();
+      return mockSeries();
+    };
+
+    HistoryPrefetcher.prefetch(TICKERS, loader, new HistoryCache(1024 * 1024), 2);
+
+    assertTrue(peak.get() <= 2);
+  }
+
+  @Test
+  public void testFailuresDoNotStopOtherTickers() {
+    Function<String, PriceSeries> loader = ticker -> {
+      if (ticker.equals("GOOG")) {
+        throw new RuntimeException("** STOCK NOT FOUND, CHECK TICKER FORMAT **");
+      }
+      return mockSeries();
+    };
+    HistoryCache cache = new HistoryCache(1024 * 1024);
+
+    Map<String, RuntimeException> failures =
+            HistoryPrefetcher.prefetch(TICKERS, loader, cache, 2);
+
+    assertEquals(Collections.singleton("GOOG"), failures.keySet());
+    assertEquals("** STOCK NOT FOUND, CHECK TICKER FORMAT **",
+            failures.get("GOOG").getMessage());
+    assertEquals(3, cache.size());
+  }
+
+  private static PriceSeries mockSeries() {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    builder.add(LocalDate.of(2024, 6, 5), 0, 0, 0, 100.0, 0);
+    return builder.build();
+  }
+
+}
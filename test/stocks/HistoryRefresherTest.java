@@ -0,0 +1,188 @@
+package stocks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The HistoryRefresherTest class represents tests for HistoryRefresher objects and
+ * associated methods. The remote source is a mock, so these tests do not need the API.
+ */
+public class HistoryRefresherTest {
+  private static final String STORED_CSV = "timestamp,open,high,low,close,volume\n"
+          + "2024-06-04,194.6350,195.3200,193.0342,194.3500,47471445\n"
+          + "2024-06-03,192.9000,194.9900,192.5200,194.0300,50080539\n"
+          + "2024-05-31,191.4400,192.5700,189.9100,192.2500,75158277\n";
+
+  private Path directory;
+  private MockSource remote;
+  private HistoryRefresher refresher;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("refresher");
+    remote = new MockSource();
+    refresher = new HistoryRefresher(new LocalCSVDataSource(directory), remote,
+            Clock.fixed(LocalDate.of(2024, 6, 6).atStartOfDay().toInstant(ZoneOffset.UTC),
+                    ZoneOffset.UTC));
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testMissingFileDownloadsFullHistory() {
+    remote.full = series(LocalDate.of(2024, 6, 5), 3);
+
+    assertSame(remote.full, refresher.load("AAPL"));
+    assertEquals(1, remote.fullCalls);
+    assertEquals(0, remote.recentCalls);
+  }
+
+  @Test
+  public void testUpToDateFileIsNotRefreshed() throws IOException {
+    writeStored(STORED_CSV.replace("2024-06-04", "2024-06-06"));
+
+    PriceSeries loaded = refresher.load("AAPL");
+
+    assertEquals(3, loaded.size());
+    assertEquals(0, remote.fullCalls + remote.recentCalls);
+  }
+
+  @Test
+  public void testStaleFileAppendsOnlyNewRows() throws IOException {
+    writeStored(STORED_CSV);
+    PriceSeries.Builder recent = new PriceSeries.Builder();
+    recent.add(LocalDate.of(2024, 6, 6), 196.0, 197.0, 195.0, 196.5, 100);
+    recent.add(LocalDate.of(2024, 6, 5), 195.4, 196.9, 194.87, 195.87, 54156785);
+    recent.add(LocalDate.of(2024, 6, 4), 194.635, 195.32, 193.0342, 194.35, 47471445);
+    recent.add(LocalDate.of(2024, 6, 3), 192.9, 194.99, 192.52, 194.03, 50080539);
+    remote.recent = recent.build();
+
+    PriceSeries loaded = refresher.load("AAPL");
+
+    assertEquals(1, remote.recentCalls);
+    assertEquals(0, remote.fullCalls);
+    assertEquals(5, loaded.size());
+    assertEquals(LocalDate.of(2024, 5, 31), loaded.getFirstDate());
+    assertEquals(LocalDate.of(2024, 6, 6), loaded.getLastDate());
+    assertEquals(195.87, loaded.getClose(3), 0.001);
+
+    // the original rows are untouched and only the two new days were appended
+    String file = new String(Files.readAllBytes(directory.resolve("AAPL.csv")),
+            StandardCharsets.US_ASCII);
+    assertTrue(file.startsWith(STORED_CSV));
+    assertEquals("2024-06-05,195.4,196.9,194.87,195.87,54156785\n"
+            + "2024-06-06,196.0,197.0,195.0,196.5,100\n", file.substring(STORED_CSV.length()));
+
+    // reading the file back gives the merged history, most recent first
+    List<StockData> reread = new LocalCSVDataSource(directory).getHistoryData("AAPL");
+    assertEquals(5, reread.size());
+    assertEquals(LocalDate.of(2024, 6, 6), reread.get(0).getDate());
+    assertEquals(LocalDate.of(2024, 5, 31), reread.get(4).getDate());
+  }
+
+  @Test
+  public void testChangedLastDayIsReplaced() throws IOException {
+    writeStored(STORED_CSV);
+    PriceSeries.Builder recent = new PriceSeries.Builder();
+    recent.add(LocalDate.of(2024, 6, 5), 195.4, 196.9, 194.87, 195.87, 54156785);
+    recent.add(LocalDate.of(2024, 6, 4), 194.635, 195.32, 193.0342, 194.5, 47500000);
+    remote.recent = recent.build();
+
+    PriceSeries loaded = refresher.load("AAPL");
+
+    assertEquals(4, loaded.size());
+    assertEquals(194.5, loaded.getClose(2), 0.001);
+    PriceSeries reread = new LocalCSVDataSource(directory).getHistorySeries("AAPL");
+    assertEquals(4, reread.size());
+    assertEquals(194.5, reread.getClose(2), 0.001);
+    assertEquals(47500000, reread.getVolume(2));
+  }
+
+  @Test
+  public void testNothingNewLeavesFileAlone() throws IOException {
+    writeStored(STORED_CSV);
+    PriceSeries.Builder recent = new PriceSeries.Builder();
+    recent.add(LocalDate.of(2024, 6, 4), 194.635, 195.32, 193.0342, 194.35, 47471445);
+    remote.recent = recent.build();
+
+    PriceSeries loaded = refresher.load("AAPL");
+
+    assertEquals(3, loaded.size());
+    assertEquals(STORED_CSV, new String(Files.readAllBytes(directory.resolve("AAPL.csv")),
+            StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  public void testGapFallsBackToFullDownload() throws IOException {
+    writeStored(STORED_CSV);
+    remote.recent = series(LocalDate.of(2024, 6, 6), 1);
+    remote.full = series(LocalDate.of(2024, 6, 6), 10);
+
+    assertSame(remote.full, refresher.load("AAPL"));
+    assertEquals(1, remote.recentCalls);
+    assertEquals(1, remote.fullCalls);
+  }
+
+  private void writeStored(String csv) throws IOException {
+    Files.write(directory.resolve("AAPL.csv"), csv.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static PriceSeries series(LocalDate last, int days) {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    for (int i = 0; i < days; i++) {
+      builder.add(last.minusDays(i), 1.0, 1.0, 1.0, 1.0 + i, 1);
+    }
+    return builder.build();
+  }
+
+  /**
+   * The MockSource class is a remote source that serves fixed series and counts requests.
+   */
+  private static class MockSource implements StockDataSource {
+    private PriceSeries full;
+    private PriceSeries recent;
+    private int fullCalls;
+    private int recentCalls;
+
+    @Override
+    public List<StockData> getHistoryData(String ticker) {
+      return getHistorySeries(ticker).asList();
+    }
+
+    @Override
+    public PriceSeries getHistorySeries(String ticker) {
+      fullCalls++;
+      return full;
+    }
+
+    @Override
+    public PriceSeries getRecentSeries(String ticker) {
+      recentCalls++;
+      return recent;
+    }
+  }
+
+}
@@ -0,0 +1,250 @@
+package stocks;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The IndicatorEngineTest class represents tests for IndicatorEngine objects and
+ * associated methods. Each indicator is checked against a direct computation.
+ */
+public class IndicatorEngineTest {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+  private IndicatorEngine engine;
+  private PriceSeries history;
+
+  @Before
+  public void setUp() {
+    engine = new IndicatorEngine(16);
+    history = series(300);
+  }
+
+  @Test
+  public void testEmaSeededWithSimpleAverage() {
+    IndicatorSeries ema = engine.get("MOCK", history, IndicatorEngine.Indicator.EMA,
+            new double[]{10});
+
+    double expected = 0.0;
+    for (int i = 0; i < 10; i++) {
+      assertTrue(i == 9 || Double.isNaN(ema.getValue(0, i)));
+      expected += history.getClose(i);
+    }
+    expected /= 10;
+    assertEquals(expected, ema.getValue(0, 9), 1e-9);
+    for (int i = 10; i < history.size(); i++) {
+      expected += 2.0 / 11 * (history.getClose(i) - expected);
+      assertEquals(expected, ema.getValue(0, i), 1e-9);
+    }
+  }
+
+  @Test
+  public void testRsiUsesWilderSmoothing() {
+    int period = 14;
+    IndicatorSeries rsi = engine.get("MOCK", history, IndicatorEngine.Indicator.RSI,
+            new double[]{period});
+
+    double gain = 0.0;
+    double loss = 0.0;
+    for (int i = 1; i <= period; i++) {
+      double change = history.getClose(i) - history.getClose(i - 1);
+      gain += Math.max(change, 0);
+      loss += Math.max(-change, 0);
+    }
+    gain /= period;
+    loss /= period;
+    assertTrue(Double.isNaN(rsi.getValue(0, period - 1)));
+    assertEquals(100 - 100 / (1 + gain / loss), rsi.getValue(0, period), 1e-9);
+    for (int i = period + 1; i < history.size(); i++) {
+      double change = history.getClose(i) - history.getClose(i - 1);
+      gain = (gain * (period - 1) + Math.max(change, 0)) / period;
+      loss = (loss * (period - 1) + Math.max(-change, 0)) / period;
+      assertEquals(100 - 100 / (1 + gain / loss), rsi.getValue(0, i), 1e-9);
+      assertTrue(rsi.getValue(0, i) >= 0 && rsi.getValue(0, i) <= 100);
+    }
+  }
+
+  @Test
+  public void testMacdIsDifferenceOfEmas() {
+    IndicatorSeries macd = engine.get("MOCK", history, IndicatorEngine.Indicator.MACD,
+            new double[]{12, 26, 9});
+    IndicatorSeries fast = engine.get("MOCK", history, IndicatorEngine.Indicator.EMA,
+            new double[]{12});
+    IndicatorSeries slow = engine.get("MOCK", history, IndicatorEngine.Indicator.EMA,
+            new double[]{26});
+
+    assertTrue(Double.isNaN(macd.getValue(0, 24)));
+    for (int i = 25; i < history.size(); i++) {
+      assertEquals(fast.getValue(0, i) - slow.getValue(0, i), macd.getValue(0, i), 1e-9);
+    }
+    // the signal line is a 9-day EMA of the MACD line, seeded once MACD has 9 values
+    assertTrue(Double.isNaN(macd.getValue(1, 32)));
+    double signal = 0.0;
+    for (int i = 25; i <= 33; i++) {
+      signal += macd.getValue(0, i);
+    }
+    signal /= 9;
+    assertEquals(signal, macd.getValue(1, 33), 1e-9);
+    assertEquals(macd.getValue(0, 33) - signal, macd.getValue(2, 33), 1e-9);
+  }
+
+  @Test
+  public void testBollingerBands() {
+    IndicatorSeries bands = engine.get("MOCK", history, IndicatorEngine.Indicator.BOLLINGER,
+            new double[]{20, 2});
+
+    assertTrue(Double.isNaN(bands.getValue(0, 18)));
+    for (int i = 19; i < history.size(); i += 5) {
+      double mean = 0.0;
+      for (int j = i - 19; j <= i; j++) {
+        mean += history.getClose(j);
+      }
+      mean /= 20;
+      double variance = 0.0;
+      for (int j = i - 19; j <= i; j++) {
+        variance += (history.getClose(j) - mean) * (history.getClose(j) - mean);
+      }
+      double deviation = Math.sqrt(variance / 20);
+      assertEquals(mean, bands.getValue(0, i), 1e-9);
+      assertEquals(mean + 2 * deviation, bands.getValue(1, i), 1e-6);
+      assertEquals(mean - 2 * deviation, bands.getValue(2, i), 1e-6);
+    }
+  }
+
+  @Test
+  public void testResultsAreMemoized() {
+    double[] params = {12, 26, 9};
+    engine.get("MOCK", history, IndicatorEngine.Indicator.MACD, params);
+    engine.get("mock", history, IndicatorEngine.Indicator.MACD, params);
+    // an equal history in a different object is recognised too
+    engine.get("MOCK", series(300), IndicatorEngine.Indicator.MACD, params);
+
+    assertEquals(1, engine.getComputedCount());
+    assertEquals(2, engine.getReusedCount());
+    assertEquals(1, engine.size());
+  }
+
+  @Test
+  public void testNewMarketDaysExtendSavedState() {
+    double[] params = {12, 26, 9};
+    PriceSeries shorter = series(250);
+    IndicatorSeries before = engine.get("MOCK", shorter, IndicatorEngine.Indicator.MACD, params);
+    double lastBefore = before.getValue(0, 249);
+
+    IndicatorSeries extended = engine.get("MOCK", history, IndicatorEngine.Indicator.MACD,
+            params);
+    IndicatorSeries full = new IndicatorEngine(1).get("MOCK", history,
+            IndicatorEngine.Indicator.MACD, params);
+
+    assertEquals(1, engine.getExtendedCount());
+    assertEquals(1, engine.getComputedCount());
+    for (int i = 0; i < history.size(); i++) {
+      assertArrayEquals(full.getValues(i), extended.getValues(i), 1e-9);
+    }
+    // results handed out earlier are not changed by the extension
+    assertEquals(250, before.size());
+    assertEquals(lastBefore, before.getValue(0, 249), 0.0);
+  }
+
+  @Test
+  public void testRevisedLastDayIsComputedAgain() {
+    double[] params = {10};
+    engine.get("MOCK", series(250), IndicatorEngine.Indicator.EMA, params);
+
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    builder.addAll(series(250));
+    builder.add(FIRST_DAY.plusDays(249), 0, 0, 0, 999.0, 0);
+    PriceSeries revised = builder.build();
+    IndicatorSeries ema = engine.get("MOCK", revised, IndicatorEngine.Indicator.EMA, params);
+
+    assertEquals(2, engine.getComputedCount());
+    assertEquals(new IndicatorEngine(1).get("MOCK", revised, IndicatorEngine.Indicator.EMA,
+            params).getValue(0, 249), ema.getValue(0, 249), 1e-9);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedResultsAreDropped() {
+    IndicatorEngine small = new IndicatorEngine(2);
+    small.get("A", history, IndicatorEngine.Indicator.EMA, new double[]{5});
+    small.get("B", history, IndicatorEngine.Indicator.EMA, new double[]{5});
+    small.get("A", history, IndicatorEngine.Indicator.EMA, new double[]{5});
+    small.get("C", history, IndicatorEngine.Indicator.EMA, new double[]{5});
+    small.get("A", history, IndicatorEngine.Indicator.EMA, new double[]{5});
+
+    assertEquals(2, small.size());
+    assertEquals(3, small.getComputedCount());
+    assertEquals(2, small.getReusedCount());
+  }
+
+  @Test
+  public void testGetLineOverDateRange() {
+    IndicatorSeries ema = engine.get("MOCK", history, IndicatorEngine.Indicator.EMA,
+            new double[]{5});
+
+    double[] line = ema.getLine(0, FIRST_DAY.plusDays(10), FIRST_DAY.plusDays(14));
+    assertEquals(5, line.length);
+    assertEquals(ema.getValue(0, 10), line[0], 0.0);
+    assertEquals(ema.getValue(0, 14), line[4], 0.0);
+    assertSame(history, ema.getSeries());
+  }
+
+  @Test
+  public void testInvalidParameters() {
+    double[][] invalid = {{}, {0}, {2.5}, {12, 26}};
+    for (double[] params : invalid) {
+      try {
+        engine.get("MOCK", history, IndicatorEngine.Indicator.EMA, params);
+        fail("Expected invalid parameters to be rejected");
+      } catch (IllegalArgumentException e) {
+        assertEquals("** INVALID PARAMETERS FOR EMA **", e.getMessage());
+      }
+    }
+    try {
+      IndicatorEngine.Indicator.MACD.validate(new double[]{26, 12, 9});
+      fail("Expected a fast period longer than the slow one to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** INVALID PARAMETERS FOR MACD **", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testParse() {
+    assertEquals(IndicatorEngine.Indicator.BOLLINGER,
+            IndicatorEngine.Indicator.parse(" bollinger "));
+    assertArrayEquals(new double[]{12, 26, 9},
+            IndicatorEngine.Indicator.MACD.parseParams("d"), 0.0);
+    assertArrayEquals(new double[]{10, 1.5},
+            IndicatorEngine.Indicator.BOLLINGER.parseParams("10, 1.5"), 0.0);
+    try {
+      IndicatorEngine.Indicator.parse("SMA");
+      fail("Expected an unknown indicator to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** ENTER A VALID INDICATOR (i.e. EMA, RSI, MACD, BOLLINGER) **",
+              e.getMessage());
+    }
+    try {
+      IndicatorEngine.Indicator.RSI.parseParams("x");
+      fail("Expected parameters that are not numbers to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** INVALID PARAMETERS FOR RSI **", e.getMessage());
+    }
+  }
+
+  private static PriceSeries series(int size) {
+    PriceSeries.Builder builder = new PriceSeries.Builder(size);
+    double close = 100.0;
+    for (int i = 0; i < size; i++) {
+      close += Math.sin(i * 0.45) * 1.5 + Math.cos(i * 0.13) * 0.75;
+      builder.add(FIRST_DAY.plusDays(i), 0, 0, 0, close, 0);
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,75 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The PositionTimelineTest class represents tests for PositionTimeline objects and associated
+ * methods. Shares held are checked against a sum over every transaction.
+ */
+public class PositionTimelineTest {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+  @Test
+  public void testSharesBeforeBetweenAndAfterTransactions() {
+    PositionTimeline timeline = new PositionTimeline();
+    timeline.add(FIRST_DAY.plusDays(10), 5);
+    timeline.add(FIRST_DAY.plusDays(20), -2);
+
+    assertEquals(0.0, timeline.getSharesOn(FIRST_DAY), 0.0);
+    assertEquals(5.0, timeline.getSharesOn(FIRST_DAY.plusDays(10)), 0.0);
+    assertEquals(5.0, timeline.getSharesOn(FIRST_DAY.plusDays(19)), 0.0);
+    assertEquals(3.0, timeline.getSharesOn(FIRST_DAY.plusDays(20)), 0.0);
+    assertEquals(3.0, timeline.getSharesOn(FIRST_DAY.plusYears(5)), 0.0);
+  }
+
+  @Test
+  public void testBackDatedAndSameDayTransactions() {
+    PositionTimeline timeline = new PositionTimeline();
+    timeline.add(FIRST_DAY.plusDays(10), 5);
+    timeline.add(FIRST_DAY.plusDays(30), 1);
+    // before, between and on existing days
+    timeline.add(FIRST_DAY, 2);
+    timeline.add(FIRST_DAY.plusDays(20), 4);
+    timeline.add(FIRST_DAY.plusDays(10), -3);
+
+    assertEquals(4, timeline.size());
+    assertEquals(2.0, timeline.getSharesOn(FIRST_DAY.plusDays(5)), 0.0);
+    assertEquals(4.0, timeline.getSharesOn(FIRST_DAY.plusDays(10)), 0.0);
+    assertEquals(8.0, timeline.getSharesOn(FIRST_DAY.plusDays(25)), 0.0);
+    assertEquals(9.0, timeline.getSharesOn(FIRST_DAY.plusDays(30)), 0.0);
+  }
+
+  @Test
+  public void testMatchesSumOverTransactions() {
+    Random random = new Random(17);
+    PositionTimeline timeline = new PositionTimeline();
+    List<LocalDate> dates = new ArrayList<>();
+    List<Double> shares = new ArrayList<>();
+    for (int i = 0; i < 2000; i++) {
+      LocalDate date = FIRST_DAY.plusDays(random.nextInt(1000));
+      double amount = random.nextInt(200) - 50;
+      timeline.add(date, amount);
+      dates.add(date);
+      shares.add(amount);
+    }
+
+    for (int d = -1; d <= 1001; d += 7) {
+      LocalDate date = FIRST_DAY.plusDays(d);
+      double expected = 0.0;
+      for (int i = 0; i < dates.size(); i++) {
+        if (!dates.get(i).isAfter(date)) {
+          expected += shares.get(i);
+        }
+      }
+      assertEquals(expected, timeline.getSharesOn(date), 1e-6);
+    }
+  }
+
+}
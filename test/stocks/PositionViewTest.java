@@ -0,0 +1,82 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * The PositionViewTest class represents tests for PositionView objects and associated methods.
+ * Views are built over in-memory histories, so no data is loaded.
+ */
+public class PositionViewTest {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 2);
+
+  private static PriceSeries history() {
+    PriceSeries.Builder builder = new PriceSeries.Builder(10);
+    for (int i = 0; i < 10; i++) {
+      // weekdays only, so weekends fall back to Friday's close
+      LocalDate date = FIRST_DAY.plusDays(i / 5 * 7 + i % 5);
+      builder.add(date, 100 + i, 101 + i, 99 + i, 100.5 + i, 1000);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testSharesTickerAndPrices() {
+    PriceSeries history = history();
+    PositionView view = PositionView.of("aapl", history, 12.5);
+
+    assertEquals("AAPL", view.getTicker());
+    assertEquals(12.5, view.getShares(), 0.0);
+    assertSame(history, view.historicalData);
+    assertEquals(100.5, view.getPriceOnDay(FIRST_DAY), 0.0);
+    assertEquals(104.5, view.getPriceOnDay(FIRST_DAY.plusDays(5)), 0.0);
+    assertEquals(105.5, view.getPriceOnDay(FIRST_DAY.plusDays(7)), 0.0);
+  }
+
+  @Test
+  public void testPriceOutsideHistory() {
+    PositionView view = PositionView.of("AAPL", history(), 1);
+    try {
+      view.getPriceOnDay(FIRST_DAY.minusDays(1));
+      fail("Expected a date before the history to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** NO DATA AVAILABLE FOR 2023-01-01 TRY A MORE RECENT DATE **",
+              e.getMessage());
+    }
+    try {
+      view.getPriceOnDay(LocalDate.now().plusDays(1));
+      fail("Expected a future date to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** NICE TRY, THIS PROGRAM CANNOT TELL THE FUTURE XD **", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testReadOnly() {
+    PositionView view = PositionView.of("AAPL", history(), 3);
+    try {
+      view.adjustShares(1);
+      fail("Expected a position view to be read-only");
+    } catch (UnsupportedOperationException e) {
+      assertEquals("** THIS POSITION IS READ-ONLY, ADJUST THE PORTFOLIO INSTEAD **",
+              e.getMessage());
+    }
+    assertEquals(3.0, view.getShares(), 0.0);
+  }
+
+  @Test
+  public void testNegativeShares() {
+    try {
+      PositionView.of("AAPL", history(), -1);
+      fail("Expected negative shares to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** YOU CANNOT HAVE NEGATIVE SHARES OF A STOCK **", e.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,238 @@
+package stocks;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The PriceSeriesTest class represents tests for PriceSeries objects and
+ * associated methods.
+ */
+public class PriceSeriesTest {
+  private PriceSeries series;
+
+  @Before
+  public void setUp() {
+    // Unordered mock data, 6/3 and 6/4 are weekends (non-market days)
+    List<StockData> mockData = new ArrayList<>();
+    mockData.add(new DailyStockData(LocalDate.of(2023, 6, 2), 104.0, 105.0, 106.0, 103.0, 20));
+    mockData.add(new DailyStockData(LocalDate.of(2023, 6, 5), 109.0, 110.0, 111.0, 108.0, 30));
+    mockData.add(new DailyStockData(LocalDate.of(2023, 6, 6), 114.0, 115.0, 116.0, 113.0, 40));
+    mockData.add(new DailyStockData(LocalDate.of(2023, 6, 1), 99.0, 100.0, 101.0, 98.0, 10));
+    series = PriceSeries.of(mockData);
+  }
+
+  @Test
+  public void testOfSortsByDate() {
+    assertEquals(4, series.size());
+    assertEquals(LocalDate.of(2023, 6, 1), series.getFirstDate());
+    assertEquals(LocalDate.of(2023, 6, 6), series.getLastDate());
+    assertEquals(100.0, series.getClose(0), 0.001);
+    assertEquals(105.0, series.getClose(1), 0.001);
+    assertEquals(110.0, series.getClose(2), 0.001);
+    assertEquals(115.0, series.getClose(3), 0.001);
+  }
+
+  @Test
+  public void testColumns() {
+    assertEquals(LocalDate.of(2023, 6, 5), series.getDate(2));
+    assertEquals(LocalDate.of(2023, 6, 5).toEpochDay(), series.getEpochDay(2));
+    assertEquals(109.0, series.getOpen(2), 0.001);
+    assertEquals(111.0, series.getHigh(2), 0.001);
+    assertEquals(108.0, series.getLow(2), 0.001);
+    assertEquals(30, series.getVolume(2));
+  }
+
+  @Test
+  public void testIndexLookups() {
+    assertEquals(1, series.indexOf(LocalDate.of(2023, 6, 2)));
+    assertEquals(-1, series.indexOf(LocalDate.of(2023, 6, 3)));
+    assertEquals(1, series.indexOnOrBefore(LocalDate.of(2023, 6, 4)));
+    assertEquals(2, series.indexOnOrAfter(LocalDate.of(2023, 6, 4)));
+    assertEquals(-1, series.indexOnOrBefore(LocalDate.of(2023, 5, 31)));
+    assertEquals(4, series.indexOnOrAfter(LocalDate.of(2023, 6, 7)));
+  }
+
+  @Test
+  public void testCalendarLookupAcrossLongGap() {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    builder.add(LocalDate.of(2020, 1, 2), 0, 0, 0, 10.0, 0);
+    builder.add(LocalDate.of(2020, 3, 2), 0, 0, 0, 20.0, 0);
+    builder.add(LocalDate.of(2020, 3, 3), 0, 0, 0, 30.0, 0);
+    PriceSeries gapped = builder.build();
+
+    assertEquals(0, gapped.indexOnOrBefore(LocalDate.of(2020, 1, 2)));
+    assertEquals(0, gapped.indexOnOrBefore(LocalDate.of(2020, 3, 1)));
+    assertEquals(1, gapped.indexOnOrAfter(LocalDate.of(2020, 1, 3)));
+    assertEquals(1, gapped.indexOf(LocalDate.of(2020, 3, 2)));
+    assertEquals(2, gapped.indexOnOrBefore(LocalDate.of(2024, 1, 1)));
+    assertEquals(3, gapped.indexOnOrAfter(LocalDate.of(2024, 1, 1)));
+    assertEquals(-1, gapped.indexOf(LocalDate.of(2024, 1, 1)));
+  }
+
+  @Test
+  public void testAsListIsMostRecentFirst() {
+    List<StockData> view = series.asList();
+    assertEquals(4, view.size());
+    assertEquals(LocalDate.of(2023, 6, 6), view.get(0).getDate());
+    assertEquals(115.0, view.get(0).getClose(), 0.001);
+    assertEquals(LocalDate.of(2023, 6, 1), view.get(view.size() - 1).getDate());
+    assertEquals(10, view.get(view.size() - 1).getVolume());
+  }
+
+  @Test
+  public void testOfListViewDoesNotCopy() {
+    assertSame(series, PriceSeries.of(series.asList()));
+  }
+
+  @Test
+  public void testBuilderKeepsLastDuplicate() {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    builder.add(LocalDate.of(2023, 6, 2), 0, 0, 0, 105.0, 0);
+    builder.add(LocalDate.of(2023, 6, 1), 0, 0, 0, 100.0, 0);
+    builder.add(LocalDate.of(2023, 6, 2), 0, 0, 0, 106.0, 0);
+    PriceSeries built = builder.build();
+
+    assertEquals(2, built.size());
+    assertEquals(100.0, built.getClose(0), 0.001);
+    assertEquals(106.0, built.getClose(1), 0.001);
+  }
+
+  @Test
+  public void testEmptySeries() {
+    PriceSeries empty = new PriceSeries.Builder().build();
+    assertTrue(empty.isEmpty());
+    assertEquals(-1, empty.indexOnOrBefore(LocalDate.of(2023, 6, 1)));
+    try {
+      empty.getFirstDate();
+      fail("Expected IndexOutOfBoundsException for an empty series");
+    } catch (IndexOutOfBoundsException e) {
+      assertEquals("Index: 0, Size: 0", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testBuilderDescendingWithAppendedTail() {
+    // the layout of a CSV file refreshed by appending: newest first, then newer days in order
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    builder.add(LocalDate.of(2023, 6, 5), 0, 0, 0, 110.0, 0);
+    builder.add(LocalDate.of(2023, 6, 2), 0, 0, 0, 105.0, 0);
+    builder.add(LocalDate.of(2023, 6, 1), 0, 0, 0, 100.0, 0);
+    builder.add(LocalDate.of(2023, 6, 5), 0, 0, 0, 111.0, 0);
+    builder.add(LocalDate.of(2023, 6, 6), 0, 0, 0, 115.0, 0);
+    builder.add(LocalDate.of(2023, 6, 7), 0, 0, 0, 120.0, 0);
+    PriceSeries built = builder.build();
+
+    assertEquals(5, built.size());
+    assertEquals(LocalDate.of(2023, 6, 1), built.getFirstDate());
+    assertEquals(100.0, built.getClose(0), 0.001);
+    assertEquals(111.0, built.getClose(2), 0.001);
+    assertEquals(120.0, built.getClose(4), 0.001);
+  }
+
+  @Test
+  public void testBuilderUnorderedTailFallsBackToSort() {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    builder.add(LocalDate.of(2023, 6, 5), 0, 0, 0, 110.0, 0);
+    builder.add(LocalDate.of(2023, 6, 1), 0, 0, 0, 100.0, 0);
+    builder.add(LocalDate.of(2023, 6, 7), 0, 0, 0, 120.0, 0);
+    builder.add(LocalDate.of(2023, 6, 2), 0, 0, 0, 105.0, 0);
+    PriceSeries built = builder.build();
+
+    assertEquals(4, built.size());
+    assertEquals(100.0, built.getClose(0), 0.001);
+    assertEquals(105.0, built.getClose(1), 0.001);
+    assertEquals(110.0, built.getClose(2), 0.001);
+    assertEquals(120.0, built.getClose(3), 0.001);
+  }
+
+  @Test
+  public void testMovingAverageMatchesDirectSum() {
+    PriceSeries history = longSeries(500);
+    for (int days : new int[]{1, 3, 20, 200, 1000}) {
+      for (int i = 0; i < history.size(); i += 7) {
+        double sum = 0.0;
+        int count = 0;
+        for (int j = i; j >= 0 && count < days; j--) {
+          sum += history.getClose(j);
+          count++;
+        }
+        assertEquals(sum / count, history.movingAverage(i, days), 1e-9);
+      }
+    }
+  }
+
+  @Test
+  public void testMovingStdDevMatchesDirectComputation() {
+    PriceSeries history = longSeries(500);
+    for (int days : new int[]{1, 5, 50}) {
+      for (int i = 0; i < history.size(); i += 11) {
+        int from = Math.max(0, i - days + 1);
+        double mean = 0.0;
+        for (int j = from; j <= i; j++) {
+          mean += history.getClose(j);
+        }
+        mean /= i - from + 1;
+        double variance = 0.0;
+        for (int j = from; j <= i; j++) {
+          variance += (history.getClose(j) - mean) * (history.getClose(j) - mean);
+        }
+        variance /= i - from + 1;
+        assertEquals(Math.sqrt(variance), history.movingStdDev(i, days), 1e-6);
+      }
+    }
+  }
+
+  @Test
+  public void testMovingStdDevOfFlatWindowIsZero() {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    for (int i = 0; i < 10; i++) {
+      builder.add(LocalDate.of(2023, 6, 1).plusDays(i), 0, 0, 0, 123.45, 0);
+    }
+    assertEquals(0.0, builder.build().movingStdDev(9, 5), 0.0);
+  }
+
+  @Test
+  public void testMovingAveragesOverRange() {
+    // market days 6/1 (100), 6/2 (105), 6/5 (110), 6/6 (115)
+    double[] averages = series.movingAverages(LocalDate.of(2023, 6, 1),
+            LocalDate.of(2023, 6, 6), 2);
+
+    assertArrayEqualsWithin(new double[]{100.0, 102.5, 107.5, 112.5}, averages);
+    assertArrayEqualsWithin(new double[]{107.5}, series.movingAverages(
+            LocalDate.of(2023, 6, 3), LocalDate.of(2023, 6, 5), 2));
+    assertEquals(0, series.movingAverages(LocalDate.of(2023, 6, 3),
+            LocalDate.of(2023, 6, 4), 2).length);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMovingAverageNeedsPositiveDays() {
+    series.movingAverage(0, 0);
+  }
+
+  private static void assertArrayEqualsWithin(double[] expected, double[] actual) {
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], actual[i], 1e-9);
+    }
+  }
+
+  private static PriceSeries longSeries(int size) {
+    PriceSeries.Builder builder = new PriceSeries.Builder(size);
+    double close = 150.0;
+    for (int i = 0; i < size; i++) {
+      close += Math.sin(i * 0.37) * 2.5 + (i % 5 - 2) * 0.25;
+      builder.add(LocalDate.of(2000, 1, 3).plusDays(i), 0, 0, 0, close, 0);
+    }
+    return builder.build();
+  }
+
+}
@@ -0,0 +1,130 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * The SingleFlightTest class represents tests for SingleFlight objects and
+ * associated methods.
+ */
+public class SingleFlightTest {
+  private static final int CALLERS = 8;
+
+  @Test
+  public void testConcurrentCallersShareOneLoad() throws Exception {
+    SingleFlight<Object> flight = new SingleFlight<>();
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    Function<String, Object> loader = key -> {
+      loads.incrementAndGet();
+      await(release);
+      return new Object();
+    };
+
+    ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+    try {
+      List<Future<Object>> results = new ArrayList<>();
+      for (int i = 0; i < CALLERS; i++) {
+        results.add(pool.submit(() -> flight.load("AAPL", loader)));
+      }
+      waitFor(() -> flight.getCoalescedCount() == CALLERS - 1);
+      release.countDown();
+
+      Object first = results.get(0).get(5, TimeUnit.SECONDS);
+      for (Future<Object> result : results) {
+        assertSame(first, result.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, loads.get());
+      assertEquals(0, flight.inFlightCount());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testExceptionIsSharedWithWaiters() throws Exception {
+    SingleFlight<Object> flight = new SingleFlight<>();
+    CountDownLatch release = new CountDownLatch(1);
+    Function<String, Object> loader = key -> {
+      await(release);
+      throw new RuntimeException("** STOCK NOT FOUND, CHECK TICKER FORMAT **");
+    };
+
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      Future<Object> first = pool.submit(() -> flight.load("XYZ", loader));
+      Future<Object> second = pool.submit(() -> flight.load("XYZ", loader));
+      waitFor(() -> flight.getCoalescedCount() == 1);
+      release.countDown();
+
+      for (Future<Object> result : List.of(first, second)) {
+        try {
+          result.get(5, TimeUnit.SECONDS);
+          fail("Expected the loader's exception");
+        } catch (ExecutionException e) {
+          assertEquals("** STOCK NOT FOUND, CHECK TICKER FORMAT **", e.getCause().getMessage());
+        }
+      }
+      assertEquals(0, flight.inFlightCount());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testKeyIsForgottenAfterLoad() {
+    SingleFlight<Integer> flight = new SingleFlight<>();
+    AtomicInteger loads = new AtomicInteger();
+
+    assertEquals(1, (int) flight.load("AAPL", key -> loads.incrementAndGet()));
+    assertEquals(2, (int) flight.load("AAPL", key -> loads.incrementAndGet()));
+    assertEquals(0, flight.getCoalescedCount());
+  }
+
+  @Test
+  public void testDifferentKeysLoadIndependently() {
+    SingleFlight<String> flight = new SingleFlight<>();
+
+    String outer = flight.load("AAPL", key -> key + flight.load("GOOG", inner -> inner));
+
+    assertEquals("AAPLGOOG", outer);
+    assertEquals(0, flight.getCoalescedCount());
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      if (!latch.await(5, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("latch was never released");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Timed out waiting for callers to coalesce");
+      }
+      Thread.sleep(1);
+    }
+  }
+
+}
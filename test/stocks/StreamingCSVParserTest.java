@@ -0,0 +1,140 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * The StreamingCSVParserTest class represents tests for the StreamingCSVParser, including
+ * rows that span buffer boundaries and the different line endings found in CSV files.
+ */
+public class StreamingCSVParserTest {
+  private static final String HEADER = "timestamp,open,high,low,close,volume\n";
+
+  @Test
+  public void testParseRows() throws IOException {
+    PriceSeries series = parse(HEADER
+            + "2024-06-05,195.4000,196.9000,194.8700,195.8700,54156785\n"
+            + "2024-06-04,194.6350,195.3200,193.0342,194.3500,47471445\n", 64);
+
+    assertEquals(2, series.size());
+    assertEquals(LocalDate.of(2024, 6, 4), series.getDate(0));
+    assertEquals(194.6350, series.getOpen(0), 0.0);
+    assertEquals(195.3200, series.getHigh(0), 0.0);
+    assertEquals(193.0342, series.getLow(0), 0.0);
+    assertEquals(194.3500, series.getClose(0), 0.0);
+    assertEquals(47471445, series.getVolume(0));
+    assertEquals(LocalDate.of(2024, 6, 5), series.getDate(1));
+  }
+
+  @Test
+  public void testCarriageReturnsSpacesAndMissingFinalNewline() throws IOException {
+    PriceSeries series = parse("timestamp,open,high,low,close,volume\r\n"
+            + " 2024-06-05 , 195.40 ,196.90, 194.87,195.87 , 54156785 \r\n"
+            + "\r\n"
+            + "2024-06-04,194.635,195.32,193.0342,194.35,47471445", 8);
+
+    assertEquals(2, series.size());
+    assertEquals(195.87, series.getClose(1), 0.0);
+    assertEquals(54156785, series.getVolume(1));
+    assertEquals(47471445, series.getVolume(0));
+  }
+
+  @Test
+  public void testExtraColumnsAreIgnored() throws IOException {
+    PriceSeries series = parse(HEADER + "2024-06-05,1,2,3,4,5,6.5,extra\n", 64);
+    assertEquals(1, series.size());
+    assertEquals(5, series.getVolume(0));
+  }
+
+  @Test
+  public void testDecimalsMatchDoubleParse() throws IOException {
+    Random random = new Random(7);
+    StringBuilder csv = new StringBuilder(HEADER);
+    String[] values = new String[500];
+    LocalDate date = LocalDate.of(2000, 1, 1);
+    for (int i = 0; i < values.length; i++) {
+      values[i] = String.format(Locale.US, "%." + random.nextInt(7) + "f",
+              random.nextDouble() * 5000);
+      csv.append(date.plusDays(i)).append(',').append(values[i]).append(",1e2,0.1,")
+              .append(values[i]).append(",100\n");
+    }
+    PriceSeries series = parse(csv.toString(), 100);
+
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(Double.parseDouble(values[i]), series.getOpen(i), 0.0);
+      assertEquals(100.0, series.getHigh(i), 0.0);
+      assertEquals(0.1, series.getLow(i), 0.0);
+    }
+  }
+
+  @Test
+  public void testDatesMatchLocalDate() throws IOException {
+    StringBuilder csv = new StringBuilder(HEADER);
+    LocalDate first = LocalDate.of(1899, 12, 25);
+    for (int i = 0; i < 3000; i += 7) {
+      csv.append(first.plusDays(i)).append(",1,1,1,1,1\n");
+    }
+    PriceSeries series = parse(csv.toString(), 4096);
+
+    for (int i = 0; i < series.size(); i++) {
+      assertEquals(first.plusDays(i * 7L), series.getDate(i));
+    }
+  }
+
+  @Test
+  public void testDayPastEndOfMonthIsResolved() throws IOException {
+    PriceSeries series = parse(HEADER + "2023-02-30,1,1,1,1,1\n", 64);
+    assertEquals(LocalDate.of(2023, 2, 28), series.getDate(0));
+  }
+
+  @Test
+  public void testHeaderOnly() throws IOException {
+    assertEquals(0, parse("timestamp,open,high,low,close,volume", 64).size());
+    assertEquals(0, parse("", 64).size());
+  }
+
+  @Test
+  public void testInvalidDate() throws IOException {
+    try {
+      parse("{\n    \"Error Message\": \"Invalid API call.\"\n}", 64);
+      fail("Expected RuntimeException for an API error response");
+    } catch (RuntimeException e) {
+      assertEquals("** STOCK NOT FOUND, CHECK TICKER FORMAT **", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testMissingColumn() throws IOException {
+    try {
+      parse(HEADER + "2024-06-05,195.40,196.90,194.87,195.87\n", 64);
+      fail("Expected RuntimeException for a missing column");
+    } catch (RuntimeException e) {
+      assertEquals("** MALFORMED CSV DATA, CHECK THE FILE FORMAT **", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testVolumeOverflow() throws IOException {
+    try {
+      parse(HEADER + "2024-06-05,1,1,1,1,99999999999\n", 64);
+      fail("Expected RuntimeException for a volume that does not fit in an int");
+    } catch (RuntimeException e) {
+      assertEquals("** MALFORMED CSV DATA, CHECK THE FILE FORMAT **", e.getMessage());
+    }
+  }
+
+  private static PriceSeries parse(String csv, int bufferSize) throws IOException {
+    return new StreamingCSVParser(bufferSize).parse(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+  }
+
+}
@@ -0,0 +1,302 @@
+package stocks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The TieredStockDataSourceTest class represents tests for TieredStockDataSource objects and
+ * associated methods. These tests use mock tiers, or real file tiers in a temporary directory
+ * with a mock remote source, and do not need the API.
+ */
+public class TieredStockDataSourceTest {
+  private static final LocalDate TODAY = LocalDate.of(2024, 6, 5);
+
+  private final List<String> events = new ArrayList<>();
+  private Path directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("tiered");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testFirstFreshTierAnswersAndIsPromoted() {
+    PriceSeries series = series(TODAY);
+    MockTier top = new MockTier("top", null);
+    MockTier middle = new MockTier("middle", series);
+    MockTier bottom = new MockTier("bottom", series(TODAY));
+    TieredStockDataSource source = new TieredStockDataSource.Builder()
+            .add(top, TieredStockDataSource.Freshness.ALWAYS)
+            .add(middle, TieredStockDataSource.Freshness.ALWAYS)
+            .add(bottom, TieredStockDataSource.Freshness.ALWAYS)
+            .build();
+
+    assertSame(series, source.getHistorySeries("AAPL"));
+
+    assertEquals(Arrays.asList("read top", "read middle", "write top"), events);
+    assertSame(series, top.stored);
+    List<TieredStockDataSource.TierStats> stats = source.getStats();
+    assertEquals(1, stats.get(0).getMissCount());
+    assertEquals(1, stats.get(1).getHitCount());
+    assertEquals(0, stats.get(2).getReadCount());
+  }
+
+  @Test
+  public void testStaleCopyIsHandedDown() {
+    PriceSeries old = series(TODAY.minusDays(2));
+    PriceSeries fresh = series(TODAY);
+    MockTier top = new MockTier("top", null);
+    MockTier middle = new MockTier("middle", old);
+    MockTier bottom = new MockTier("bottom", fresh);
+    TieredStockDataSource source = new TieredStockDataSource.Builder()
+            .add(top, TieredStockDataSource.Freshness.ALWAYS)
+            .add(middle, TieredStockDataSource.Freshness.upToDate(clock()))
+            .add(bottom, TieredStockDataSource.Freshness.ALWAYS)
+            .build();
+
+    assertSame(fresh, source.getHistorySeries("AAPL"));
+
+    assertSame(old, bottom.staleSeen);
+    assertSame(fresh, middle.stored);
+    assertSame(fresh, top.stored);
+    assertEquals(1, source.getStats().get(1).getStaleCount());
+  }
+
+  @Test
+  public void testUnchangedCopyIsNotWrittenBack() {
+    PriceSeries old = series(TODAY.minusDays(2));
+    MockTier middle = new MockTier("middle", old);
+    // i.e. the network had nothing newer than the stored history
+    MockTier bottom = new MockTier("bottom", null) {
+      @Override
+      public PriceSeries read(String ticker, PriceSeries stale) {
+        super.read(ticker, stale);
+        return stale;
+      }
+    };
+    TieredStockDataSource source = new TieredStockDataSource.Builder()
+            .add(middle, TieredStockDataSource.Freshness.upToDate(clock()))
+            .add(bottom, TieredStockDataSource.Freshness.ALWAYS)
+            .build();
+
+    assertSame(old, source.getHistorySeries("AAPL"));
+    assertNull(middle.stored);
+  }
+
+  @Test
+  public void testFailingTierCountsAsMiss() {
+    PriceSeries series = series(TODAY);
+    MockTier broken = new MockTier("broken", null) {
+      @Override
+      public PriceSeries read(String ticker, PriceSeries stale) {
+        throw new RuntimeException("** UNABLE TO READ LOCAL CSV FILE FOR:AAPL **");
+      }
+    };
+    TieredStockDataSource source = new TieredStockDataSource.Builder()
+            .add(broken, TieredStockDataSource.Freshness.ALWAYS)
+            .add(new MockTier("bottom", series), TieredStockDataSource.Freshness.ALWAYS)
+            .build();
+
+    assertSame(series, source.getHistorySeries("AAPL"));
+    assertEquals(1, source.getStats().get(0).getMissCount());
+  }
+
+  @Test
+  public void testLastTierFailureIsThrown() {
+    MockTier network = new MockTier("network", null) {
+      @Override
+      public PriceSeries read(String ticker, PriceSeries stale) {
+        throw new RuntimeException(
+                " ** UNABLE TO CONNECT TO THE INTERNET, CHECK YOUR CONNECTION **");
+      }
+    };
+    TieredStockDataSource source = new TieredStockDataSource.Builder()
+            .add(new MockTier("memory", null), TieredStockDataSource.Freshness.ALWAYS)
+            .add(network, TieredStockDataSource.Freshness.ALWAYS)
+            .build();
+
+    try {
+      source.getHistorySeries("AAPL");
+      fail("Expected the network tier's exception");
+    } catch (RuntimeException e) {
+      assertEquals(" ** UNABLE TO CONNECT TO THE INTERNET, CHECK YOUR CONNECTION **",
+              e.getMessage());
+    }
+  }
+
+  @Test
+  public void testFileTiersArePopulatedFromTheNetwork() {
+    MockRemote remote = new MockRemote(series(TODAY));
+    HistoryCache cache = new HistoryCache(1024 * 1024, clock());
+    TieredStockDataSource source = fileChain(cache, remote);
+
+    PriceSeries first = source.getHistorySeries("AAPL");
+
+    assertEquals(2, first.size());
+    assertEquals(1, remote.fullCalls);
+    assertTrue(Files.exists(directory.resolve("AAPL.csv")));
+    assertTrue(Files.exists(directory.resolve("AAPL" + BinaryHistoryFile.EXTENSION)));
+    assertSame(first, cache.getIfPresent("AAPL"));
+
+    source.getHistorySeries("AAPL");
+    assertEquals(1, source.getStats().get(0).getHitCount());
+
+    // a new process starts with an empty cache and maps the binary file
+    TieredStockDataSource restarted = fileChain(new HistoryCache(1024 * 1024, clock()), remote);
+    PriceSeries reloaded = restarted.getHistorySeries("AAPL");
+    assertEquals(first.getClose(1), reloaded.getClose(1), 1e-9);
+    assertEquals(1, restarted.getStats().get(1).getHitCount());
+    assertEquals(0, restarted.getStats().get(2).getReadCount());
+    assertEquals(1, remote.fullCalls);
+  }
+
+  @Test
+  public void testStaleFilesAreRefreshedIncrementally() {
+    LocalCSVDataSource local = new LocalCSVDataSource(directory);
+    local.writeSeries("AAPL", series(TODAY.minusDays(1)));
+    MockRemote remote = new MockRemote(series(TODAY));
+    TieredStockDataSource source = fileChain(new HistoryCache(1024 * 1024, clock()), remote);
+
+    PriceSeries result = source.getHistorySeries("AAPL");
+
+    assertEquals(3, result.size());
+    assertEquals(TODAY, result.getLastDate());
+    assertEquals(0, remote.fullCalls);
+    assertEquals(1, remote.recentCalls);
+    assertEquals(3, local.readCSV("AAPL").size());
+    assertFalse(source.toString().isEmpty());
+  }
+
+  @Test
+  public void testMixedCaseTickerUsesUpperCaseFiles() {
+    LocalCSVDataSource local = new LocalCSVDataSource(directory);
+    local.writeSeries("GOOG", series(TODAY));
+    MockRemote remote = new MockRemote(series(TODAY));
+    TieredStockDataSource source = fileChain(new HistoryCache(1024 * 1024, clock()), remote);
+
+    PriceSeries result = source.getHistorySeries("goog");
+
+    assertEquals(2, result.size());
+    assertEquals(1, source.getStats().get(2).getHitCount());
+    assertEquals(0, remote.fullCalls);
+    assertEquals(0, remote.recentCalls);
+    assertFalse(Files.exists(directory.resolve("goog.csv")));
+    assertSame(result, source.getHistorySeries("Goog"));
+  }
+
+  private TieredStockDataSource fileChain(HistoryCache cache, StockDataSource remote) {
+    LocalCSVDataSource local = new LocalCSVDataSource(directory);
+    TieredStockDataSource.Freshness upToDate = TieredStockDataSource.Freshness.upToDate(clock());
+    return new TieredStockDataSource.Builder()
+            .add(TieredStockDataSource.memoryTier(cache), TieredStockDataSource.Freshness.ALWAYS)
+            .add(TieredStockDataSource.binaryTier(local), upToDate)
+            .add(TieredStockDataSource.csvTier(local), upToDate)
+            .add(TieredStockDataSource.networkTier(new HistoryRefresher(local, remote, clock())),
+                    TieredStockDataSource.Freshness.ALWAYS)
+            .build();
+  }
+
+  private static Clock clock() {
+    return Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+  }
+
+  private static PriceSeries series(LocalDate last) {
+    PriceSeries.Builder builder = new PriceSeries.Builder();
+    builder.add(last.minusDays(1), 1.5, 2.5, 1.25, 2.0, 100);
+    builder.add(last, 2.0, 3.5, 1.75, 3.0, 200);
+    return builder.build();
+  }
+
+  /**
+   * The MockTier class is a tier holding a fixed copy that logs its reads and writes.
+   */
+  private class MockTier implements TieredStockDataSource.Tier {
+    private final String name;
+    private final PriceSeries copy;
+    private PriceSeries stored;
+    private PriceSeries staleSeen;
+
+    private MockTier(String name, PriceSeries copy) {
+      this.name = name;
+      this.copy = copy;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public PriceSeries read(String ticker, PriceSeries stale) {
+      events.add("read " + name);
+      staleSeen = stale;
+      return copy;
+    }
+
+    @Override
+    public void write(String ticker, PriceSeries series) {
+      events.add("write " + name);
+      stored = series;
+    }
+  }
+
+  /**
+   * The MockRemote class is a remote source returning a fixed history that counts its calls.
+   */
+  private static class MockRemote implements StockDataSource {
+    private final PriceSeries series;
+    private int fullCalls;
+    private int recentCalls;
+
+    private MockRemote(PriceSeries series) {
+      this.series = series;
+    }
+
+    @Override
+    public List<StockData> getHistoryData(String ticker) {
+      return getHistorySeries(ticker).asList();
+    }
+
+    @Override
+    public PriceSeries getHistorySeries(String ticker) {
+      fullCalls++;
+      return series;
+    }
+
+    @Override
+    public PriceSeries getRecentSeries(String ticker) {
+      recentCalls++;
+      return series;
+    }
+  }
+
+}
@@ -0,0 +1,62 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The TokenBucketTest class represents tests for TokenBucket objects and
+ * associated methods. The bucket reads a fake clock, so no test sleeps.
+ */
+public class TokenBucketTest {
+  private final AtomicLong now = new AtomicLong();
+
+  @Test
+  public void testBurstUpToCapacity() {
+    TokenBucket bucket = new TokenBucket(3, 1.0, now::get);
+
+    assertTrue(bucket.tryAcquire());
+    assertTrue(bucket.tryAcquire());
+    assertTrue(bucket.tryAcquire());
+    assertFalse(bucket.tryAcquire());
+  }
+
+  @Test
+  public void testRefillsAtRate() {
+    TokenBucket bucket = new TokenBucket(2, 4.0, now::get);
+    bucket.tryAcquire();
+    bucket.tryAcquire();
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+    assertTrue(bucket.tryAcquire());
+    assertFalse(bucket.tryAcquire());
+
+    // an idle bucket never holds more than its capacity
+    now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    assertEquals(2.0, bucket.availableTokens(), 1e-9);
+  }
+
+  @Test
+  public void testReservationsQueueUp() {
+    TokenBucket bucket = new TokenBucket(1, 2.0, now::get);
+
+    assertEquals(0, bucket.reserve());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.reserve(), 1);
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), bucket.reserve(), 1);
+    assertEquals(-2.0, bucket.availableTokens(), 1e-9);
+
+    now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertEquals(0.0, bucket.availableTokens(), 1e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRateMustBePositive() {
+    new TokenBucket(1, 0.0);
+  }
+
+}
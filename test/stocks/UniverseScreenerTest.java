@@ -0,0 +1,184 @@
+package stocks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The UniverseScreenerTest class represents tests for UniverseScreener objects and associated
+ * methods. The universe is a temporary directory of generated CSV files, so these tests do
+ * not need the API.
+ */
+public class UniverseScreenerTest {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2023, 1, 1);
+  private static final LocalDate LAST_DAY = FIRST_DAY.plusDays(199);
+  private static final int TICKERS = 120;
+
+  private Path directory;
+  private LocalCSVDataSource local;
+  private ForkJoinPool pool;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("universe");
+    local = new LocalCSVDataSource(directory);
+    for (int t = 0; t < TICKERS; t++) {
+      local.writeSeries(ticker(t), series(t, 200));
+    }
+    pool = new ForkJoinPool(4);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    pool.shutdownNow();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testListUniverse() throws IOException {
+    Files.write(directory.resolve("notes.txt"), Collections.singletonList("not a stock"));
+
+    List<String> tickers = new UniverseScreener(local, pool).listUniverse();
+
+    assertEquals(TICKERS, tickers.size());
+    assertEquals(ticker(0), tickers.get(0));
+    assertEquals(ticker(TICKERS - 1), tickers.get(TICKERS - 1));
+  }
+
+  @Test
+  public void testCrossoverMatchesCrossoverEngine() {
+    UniverseScreener screener = new UniverseScreener(local, pool);
+    for (LocalDate date : Arrays.asList(LAST_DAY, LAST_DAY.minusDays(37))) {
+      UniverseScreener.Report report = screener.screen(date, UniverseScreener.crossover(30),
+          match -> { });
+
+      List<String> expected = new ArrayList<>();
+      for (int t = 0; t < TICKERS; t++) {
+        if (!CrossoverEngine.crossovers(series(t, 200), date, date, 30).isEmpty()) {
+          expected.add(ticker(t));
+        }
+      }
+      List<String> actual = new ArrayList<>();
+      for (UniverseScreener.Match match : report.getMatches()) {
+        actual.add(match.getTicker());
+        assertEquals(date, match.getDate());
+      }
+      assertFalse(expected.isEmpty());
+      assertTrue(expected.size() < TICKERS);
+      assertEquals(expected, actual);
+    }
+  }
+
+  @Test
+  public void testMatchesAreStreamedAndEveryTickerIsTimed() {
+    ConcurrentLinkedQueue<String> streamed = new ConcurrentLinkedQueue<>();
+    UniverseScreener.Report report = new UniverseScreener(local, pool).screen(LAST_DAY,
+        UniverseScreener.crossover(10), match -> streamed.add(match.getTicker()));
+
+    List<String> sorted = new ArrayList<>(streamed);
+    Collections.sort(sorted);
+    List<String> matched = new ArrayList<>();
+    for (UniverseScreener.Match match : report.getMatches()) {
+      matched.add(match.getTicker());
+    }
+    assertEquals(matched, sorted);
+
+    assertEquals(TICKERS, report.getTimings().size());
+    assertEquals(matched.size(), report.count(UniverseScreener.Outcome.MATCH));
+    assertEquals(TICKERS - matched.size(), report.count(UniverseScreener.Outcome.NO_MATCH));
+    for (UniverseScreener.Timing timing : report.getTimings()) {
+      assertTrue(timing.getNanos() > 0);
+    }
+    List<UniverseScreener.Timing> slowest = report.getSlowest(5);
+    assertEquals(5, slowest.size());
+    assertTrue(slowest.get(0).getNanos() >= slowest.get(4).getNanos());
+    assertTrue(report.toString().startsWith("SCREENED " + TICKERS + " TICKERS FOR " + LAST_DAY));
+  }
+
+  @Test
+  public void testBadFilesAndMissingDaysDoNotStopTheScan() throws IOException {
+    Files.write(directory.resolve("BAD.csv"),
+        Arrays.asList("timestamp,open,high,low,close,volume", "yesterday,x,y,z,w,v"));
+    local.writeSeries("SHORT", series(0, 50));
+
+    UniverseScreener.Report report = new UniverseScreener(local, pool).screen(LAST_DAY,
+        UniverseScreener.crossover(30), match -> { });
+
+    assertEquals(TICKERS + 2, report.getTimings().size());
+    assertEquals(1, report.count(UniverseScreener.Outcome.FAILED));
+    assertEquals(1, report.count(UniverseScreener.Outcome.NO_DATA));
+    for (UniverseScreener.Timing timing : report.getTimings()) {
+      if (timing.getTicker().equals("BAD")) {
+        assertEquals(UniverseScreener.Outcome.FAILED, timing.getOutcome());
+        assertNotNull(timing.getError());
+      }
+    }
+  }
+
+  @Test
+  public void testIndicatorCondition() {
+    double[] params = {14};
+    UniverseScreener.Report report = new UniverseScreener(local, pool).screen(LAST_DAY,
+        UniverseScreener.indicatorBelow(IndicatorEngine.Indicator.RSI, params, 0, 50),
+        match -> { });
+
+    int expected = 0;
+    for (int t = 0; t < TICKERS; t++) {
+      PriceSeries history = series(t, 200);
+      double rsi = new IndicatorEngine(1).get(ticker(t), history,
+              IndicatorEngine.Indicator.RSI, params).getValue(0, history.size() - 1);
+      if (rsi < 50) {
+        expected++;
+      }
+    }
+    assertEquals(expected, report.getMatches().size());
+  }
+
+  @Test
+  public void testInvalidXValue() {
+    try {
+      UniverseScreener.crossover(0);
+      fail("Expected a non-positive x-value to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals("** ENTER A POSITIVE X-VALUE **", e.getMessage());
+    }
+  }
+
+  private static String ticker(int t) {
+    return String.format("T%03d", t);
+  }
+
+  private static PriceSeries series(int t, int size) {
+    PriceSeries.Builder builder = new PriceSeries.Builder(size);
+    double close = 50.0 + t;
+    for (int i = 0; i < size; i++) {
+      close += Math.sin(i * 0.3 + t) * 1.25 + Math.cos(i * 0.07 * (t % 5 + 1)) * 0.5;
+      builder.add(FIRST_DAY.plusDays(i), close, close, close, close, 1000);
+    }
+    return builder.build();
+  }
+
+}